@@ -0,0 +1,33 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/audit")
+@Tag(name = "Audit", description = "Estado de la escritura de auditoría")
+public class AuditController {
+
+    private final AuditLogWriter auditLogWriter;
+
+    @Autowired
+    public AuditController(AuditLogWriter auditLogWriter) {
+        this.auditLogWriter = auditLogWriter;
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Estadísticas de auditoría",
+            description = "Profundidad de la cola, registros escritos, derivados al archivo de respaldo, reprocesados, en cuarentena y perdidos")
+    public ResponseEntity<?> getStats() {
+        return ResponseEntity.ok(Map.of("success", true, "data", auditLogWriter.getStats()));
+    }
+}
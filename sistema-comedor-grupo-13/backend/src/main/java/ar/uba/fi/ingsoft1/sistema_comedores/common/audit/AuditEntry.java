@@ -0,0 +1,38 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.IngredientAuditLog;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductAuditLog;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * An audit row waiting to be written, either to {@code product_audit_log} or to
+ * {@code ingredient_audit_log}. It is also the line format of the fallback file.
+ */
+public record AuditEntry(
+    Target target,
+    String name,
+    AdminOperation operation,
+    Instant modifiedAt,
+    BigDecimal amountDelta,
+    String reason
+) {
+
+    public enum Target { PRODUCT, INGREDIENT }
+
+    public static AuditEntry of(ProductAuditLog log) {
+        return new AuditEntry(Target.PRODUCT, log.getProductName(), log.getOperation(), modifiedAt(log.getModifiedAt()),
+                null, log.getReason());
+    }
+
+    public static AuditEntry of(IngredientAuditLog log) {
+        return new AuditEntry(Target.INGREDIENT, log.getIngredientName(), log.getOperation(),
+                modifiedAt(log.getModifiedAt()), log.getAmountDelta(), log.getReason());
+    }
+
+    private static Instant modifiedAt(Instant modifiedAt) {
+        return modifiedAt != null ? modifiedAt : Instant.now();
+    }
+}
@@ -0,0 +1,165 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Local append-only file, one JSON entry per line, holding the audit entries that could not
+ * be written to the database. Before a replay the file is moved aside, so entries spilled
+ * while it runs go to a new file and survive the deletion of the replayed one.
+ * <p>
+ * Lines that cannot be read back, and entries the database rejects, are moved to a
+ * quarantine file next to it so they do not hold back the rest.
+ */
+@Slf4j
+class AuditFallbackFile {
+
+    private final Path file;
+    private final Path claimed;
+    private final Path quarantine;
+    private final ObjectMapper objectMapper;
+
+    AuditFallbackFile(Path file, ObjectMapper objectMapper) {
+        this.file = file.toAbsolutePath();
+        this.claimed = this.file.resolveSibling(this.file.getFileName() + ".replaying");
+        this.quarantine = this.file.resolveSibling(this.file.getFileName() + ".quarantine");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Appends the entries and forces them to disk before returning.
+     */
+    synchronized void append(List<AuditEntry> entries) throws IOException {
+        write(file, toLines(entries), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Moves entries the database rejected to the quarantine file.
+     */
+    synchronized void quarantine(List<AuditEntry> entries) throws IOException {
+        write(quarantine, toLines(entries), StandardOpenOption.APPEND);
+    }
+
+    synchronized boolean hasEntries() {
+        return Files.exists(claimed) || Files.exists(file);
+    }
+
+    /**
+     * Returns the file to replay, or {@code null} if there is nothing to replay. A file left
+     * by a stopped replay is returned again before the current one is moved aside.
+     */
+    synchronized Path claim() throws IOException {
+        if (Files.exists(claimed)) {
+            return claimed;
+        }
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        return claimed;
+    }
+
+    /**
+     * Feeds the entries of a claimed file to the sink in chunks. The sink returns how many
+     * entries of the chunk it took, in order. If it takes fewer than all of them the replay
+     * stops and the claimed file is rewritten with what is left; otherwise the file is
+     * deleted once every chunk was taken. A line that cannot be parsed, such as one cut short
+     * by a crash, is moved to the quarantine file.
+     *
+     * @return whether the whole file was replayed
+     */
+    boolean replay(Path path, int chunkSize, ToIntFunction<List<AuditEntry>> sink) throws IOException {
+        Path rest = path.resolveSibling(path.getFileName() + ".rest");
+        boolean stopped = false;
+        List<AuditEntry> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null && !stopped; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(objectMapper.readValue(line, AuditEntry.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("Moving unreadable audit entry in {} to {}: {}", path, quarantine, e.getOriginalMessage());
+                    synchronized (this) {
+                        write(quarantine, line + '\n', StandardOpenOption.APPEND);
+                    }
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    stopped = offer(chunk, sink, reader, rest);
+                    chunk.clear();
+                }
+            }
+            if (!stopped && !chunk.isEmpty()) {
+                stopped = offer(chunk, sink, reader, rest);
+            }
+        }
+        if (stopped) {
+            Files.move(rest, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return false;
+        }
+        Files.deleteIfExists(path);
+        return true;
+    }
+
+    /**
+     * Hands a chunk to the sink. If it does not take all of it, writes the entries it left
+     * and the unread lines to {@code rest} and returns {@code true}.
+     */
+    private boolean offer(List<AuditEntry> chunk, ToIntFunction<List<AuditEntry>> sink, BufferedReader reader,
+                          Path rest) throws IOException {
+        int taken = sink.applyAsInt(chunk);
+        if (taken >= chunk.size()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(rest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            writer.write(toLines(chunk.subList(taken, chunk.size())));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(false);
+        }
+        return true;
+    }
+
+    private String toLines(List<AuditEntry> entries) throws JsonProcessingException {
+        StringBuilder lines = new StringBuilder();
+        for (AuditEntry entry : entries) {
+            lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private static void write(Path path, String lines, OpenOption mode) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.IngredientAuditLog;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductAuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the product and ingredient audit rows off the request path. Entries are queued in a
+ * bounded buffer once the transaction that produced them commits, and a background drain
+ * inserts them in JDBC batches when the buffer reaches the flush size or the flush interval
+ * elapses, whichever comes first.
+ * <p>
+ * A batch the database rejects, and any entry that finds the buffer full, is appended to a
+ * local fallback file and replayed after the next successful flush. An entry is only counted
+ * as dropped if that file cannot be written either. The replay commits chunk by chunk; entries
+ * the database rejects are quarantined, and while the database is unavailable the replay is
+ * retried with an exponential backoff.
+ * <p>
+ * With {@code app.audit.async=false} every entry is inserted right away in the caller's
+ * transaction, as the services used to do.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    private static final String PRODUCT_INSERT =
+            "INSERT INTO product_audit_log (product_name, modified_at, operation, reason) VALUES (?, ?, ?, ?)";
+    private static final String INGREDIENT_INSERT = "INSERT INTO ingredient_audit_log "
+            + "(ingredient_name, operation, modified_at, amount_delta, reason) VALUES (?, ?, ?, ?, ?)";
+    private static final long REPLAY_BACKOFF_MIN_MS = 1_000;
+    private static final long REPLAY_BACKOFF_MAX_MS = 300_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditFallbackFile fallbackFile;
+    private final boolean async;
+    private final int capacity;
+    private final int flushSize;
+    private final BlockingQueue<AuditEntry> queue;
+    private final Clock clock;
+
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("audit-writer-", 0).factory());
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    // Guarded by flushLock
+    private int replayFailures;
+    private long replayNotBefore;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong quarantined = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${app.audit.async:true}") boolean async,
+                          @Value("${app.audit.queue-capacity:10000}") int capacity,
+                          @Value("${app.audit.flush-size:200}") int flushSize,
+                          @Value("${app.audit.fallback-file:audit-fallback.ndjson}") String fallbackFile) {
+        this(jdbcTemplate, transactionManager, objectMapper, async, capacity, flushSize, Path.of(fallbackFile),
+                Clock.systemUTC());
+    }
+
+    AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                   ObjectMapper objectMapper, boolean async, int capacity, int flushSize, Path fallbackFile,
+                   Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.fallbackFile = new AuditFallbackFile(fallbackFile, objectMapper);
+        this.async = async;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.clock = clock;
+    }
+
+    public void record(ProductAuditLog log) {
+        record(AuditEntry.of(log));
+    }
+
+    public void record(IngredientAuditLog log) {
+        record(AuditEntry.of(log));
+    }
+
+    /**
+     * Queues the entry once the current transaction commits, so a rolled back change leaves
+     * no audit row.
+     */
+    public void record(AuditEntry entry) {
+        if (!async) {
+            insert(List.of(entry));
+            written.incrementAndGet();
+            return;
+        }
+        Transactions.afterCommit(() -> enqueue(entry));
+    }
+
+    /**
+     * Queues a flush on the background drain. Calls made while one is already queued are
+     * merged into it.
+     */
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            drainer.execute(() -> {
+                drainQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:500}",
+            initialDelayString = "${app.audit.flush-interval-ms:500}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Replays the fallback file if there is one and writes every queued entry, on the
+     * calling thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            replayFallback();
+            List<AuditEntry> batch = new ArrayList<>(flushSize);
+            while (queue.drainTo(batch, flushSize) > 0) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(batch));
+                    written.addAndGet(batch.size());
+                } catch (RuntimeException e) {
+                    log.warn("Audit batch of {} entries failed, moving the queue to the fallback file: {}",
+                            batch.size(), e.getMessage());
+                    // Don't wait on the database for every batch while it is down
+                    queue.drainTo(batch);
+                    spill(batch);
+                    return;
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    public AuditLogWriterStats getStats() {
+        return new AuditLogWriterStats(async, queue.size(), capacity, enqueued.get(), written.get(),
+                spilled.get(), replayed.get(), quarantined.get(), dropped.get());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void enqueue(AuditEntry entry) {
+        if (!queue.offer(entry)) {
+            spill(List.of(entry));
+            return;
+        }
+        enqueued.incrementAndGet();
+        if (queue.size() >= flushSize) {
+            wakeUp();
+        }
+    }
+
+    private void spill(List<AuditEntry> entries) {
+        try {
+            fallbackFile.append(entries);
+            spilled.addAndGet(entries.size());
+        } catch (IOException e) {
+            dropped.addAndGet(entries.size());
+            log.error("Could not write {} audit entries to the fallback file, they are lost", entries.size(), e);
+        }
+    }
+
+    private void replayFallback() {
+        if (clock.millis() < replayNotBefore || !fallbackFile.hasEntries()) {
+            return;
+        }
+        try {
+            Path claimed = fallbackFile.claim();
+            if (claimed == null) {
+                return;
+            }
+            long before = replayed.get();
+            boolean complete = fallbackFile.replay(claimed, flushSize, this::replayChunk);
+            long count = replayed.get() - before;
+            if (!complete) {
+                backOff("the database is unavailable after " + count + " entries");
+                return;
+            }
+            replayFailures = 0;
+            log.info("Replayed {} audit entries from the fallback file", count);
+        } catch (IOException | RuntimeException e) {
+            backOff(e.getMessage());
+        }
+    }
+
+    private void backOff(String reason) {
+        long delay = Math.min(REPLAY_BACKOFF_MAX_MS, REPLAY_BACKOFF_MIN_MS << Math.min(replayFailures, 16));
+        replayFailures++;
+        replayNotBefore = clock.millis() + delay;
+        log.warn("Audit fallback replay stopped, retrying in {} ms: {}", delay, reason);
+    }
+
+    /**
+     * Inserts a chunk of replayed entries in its own transaction. If the database rejects it,
+     * the entries are inserted one by one and the ones it still rejects are quarantined.
+     * Returns how many entries were dealt with, which is less than the chunk only when the
+     * database is unavailable.
+     * <p>
+     * Committed chunks are removed from the fallback file when the replay ends, so a crash in
+     * the middle of a replay may insert them again: a duplicate audit row is preferred to a
+     * lost one.
+     */
+    private int replayChunk(List<AuditEntry> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            replayed.addAndGet(chunk.size());
+            return chunk.size();
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                return 0;
+            }
+            log.warn("Audit replay of {} entries rejected, retrying them one by one: {}", chunk.size(), e.getMessage());
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            AuditEntry entry = chunk.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+                replayed.incrementAndGet();
+            } catch (RuntimeException e) {
+                if (isUnavailable(e) || !quarantine(entry, e)) {
+                    return i;
+                }
+            }
+        }
+        return chunk.size();
+    }
+
+    private boolean quarantine(AuditEntry entry, RuntimeException cause) {
+        try {
+            fallbackFile.quarantine(List.of(entry));
+            quarantined.incrementAndGet();
+            log.error("Audit entry rejected by the database, moved to quarantine: {}", entry, cause);
+            return true;
+        } catch (IOException e) {
+            log.error("Could not quarantine a rejected audit entry, keeping it for the next replay", e);
+            return false;
+        }
+    }
+
+    /**
+     * Whether a failure is about the database rather than the entries, so they should be
+     * retried later instead of quarantined.
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private void insert(List<AuditEntry> entries) {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> ingredients = new ArrayList<>();
+        for (AuditEntry entry : entries) {
+            Timestamp modifiedAt = Timestamp.from(entry.modifiedAt());
+            if (entry.target() == AuditEntry.Target.PRODUCT) {
+                products.add(new Object[]{entry.name(), modifiedAt, entry.operation().name(), entry.reason()});
+            } else {
+                ingredients.add(new Object[]{entry.name(), entry.operation().name(), modifiedAt,
+                        entry.amountDelta(), entry.reason()});
+            }
+        }
+        if (!products.isEmpty()) {
+            jdbcTemplate.batchUpdate(PRODUCT_INSERT, products);
+        }
+        if (!ingredients.isEmpty()) {
+            jdbcTemplate.batchUpdate(INGREDIENT_INSERT, ingredients);
+        }
+    }
+}
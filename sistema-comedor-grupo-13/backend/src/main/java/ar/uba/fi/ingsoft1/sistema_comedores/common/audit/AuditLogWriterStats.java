@@ -0,0 +1,13 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+public record AuditLogWriterStats(
+    boolean async,
+    int queueDepth,
+    int capacity,
+    long enqueued,
+    long written,
+    long spilled,
+    long replayed,
+    long quarantined,
+    long dropped
+) {}
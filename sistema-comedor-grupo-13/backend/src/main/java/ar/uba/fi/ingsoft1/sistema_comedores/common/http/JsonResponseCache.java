@@ -0,0 +1,175 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized JSON of read-heavy endpoints, and a gzip copy, keyed by the version
+ * of the data they are built from. A request only serializes the body when the version
+ * moved; otherwise the stored bytes are written as they are, or a 304 is returned when the
+ * client already holds them ({@code If-None-Match}).
+ * <p>
+ * The ETag is a hash of the JSON, so a version bump that leaves the body unchanged still
+ * answers 304. The gzip copy is a different representation and gets its own ETag, with a
+ * {@code -gz} suffix, so a cache never revalidates one encoding with the other's tag.
+ */
+@Component
+public class JsonResponseCache {
+
+    /** Bodies smaller than this are not worth compressing. */
+    static final int MIN_GZIP_SIZE = 512;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    record Entry(long version, byte[] json, byte[] gzip, String etag) {
+
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    @Autowired
+    public JsonResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Answers {@code request} with the body stored under {@code key}, serializing the one
+     * given by {@code body} first if there is none for {@code version}. The supplier must read
+     * data at least as new as {@code version}.
+     */
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String key, long version, Supplier<?> body) {
+        Entry entry = entry(key, version, body);
+        boolean gzip = entry.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? entry.gzipEtag() : entry.etag();
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentLength(entry.gzip().length)
+                .body(entry.gzip());
+        }
+        return response.contentLength(entry.json().length).body(entry.json());
+    }
+
+    /**
+     * Serializes {@code body} without storing it, for variants of a cached endpoint that are
+     * not worth keeping (free-text searches, unknown filters).
+     */
+    public ResponseEntity<byte[]> respond(Object body) {
+        byte[] json = serialize(body);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .contentLength(json.length)
+            .body(json);
+    }
+
+    Entry entry(String key, long version, Supplier<?> body) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            return entry;
+        }
+        Entry built = serialize(version, body.get());
+        // Another request may have stored a newer version meanwhile; keep that one
+        return entries.merge(key, built, (stored, fresh) -> stored.version() > fresh.version() ? stored : fresh);
+    }
+
+    private Entry serialize(long version, Object body) {
+        byte[] json = serialize(body);
+        byte[] gzip = json.length >= MIN_GZIP_SIZE ? gzip(json) : null;
+        return new Entry(version, json, gzip, "\"" + hash(json) + "\"");
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cached response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.matches("q=0\\.0{0,3}")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
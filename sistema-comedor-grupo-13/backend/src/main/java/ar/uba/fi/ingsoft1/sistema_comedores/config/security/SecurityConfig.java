@@ -84,6 +84,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/combos/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/combos").permitAll()
                 .requestMatchers(HttpMethod.GET, "/menu").permitAll()
+                .requestMatchers(HttpMethod.GET, "/menu/search").permitAll()
+                .requestMatchers(HttpMethod.GET, "/menu/suggest").permitAll()
                 .requestMatchers(HttpMethod.POST, "/orders").authenticated()
                 .requestMatchers("/orders/notifications/stream").permitAll()
                 .requestMatchers("/orders/notifications/**").permitAll()
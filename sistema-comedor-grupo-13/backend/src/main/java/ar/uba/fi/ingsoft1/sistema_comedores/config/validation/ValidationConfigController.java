@@ -1,5 +1,8 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.config.validation;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -13,14 +16,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class ValidationConfigController {
 
     private final ValidationConfig validationConfig;
+    private final JsonResponseCache responseCache;
 
-    public ValidationConfigController(ValidationConfig validationConfig) {
+    public ValidationConfigController(ValidationConfig validationConfig, JsonResponseCache responseCache) {
         this.validationConfig = validationConfig;
+        this.responseCache = responseCache;
     }
 
     @GetMapping("/validation")
     @Operation(summary = "Provides validation rules for client awareness")
-    public ValidationConfig getValidationConfig() {
-        return validationConfig;
+    public ResponseEntity<byte[]> getValidationConfig(HttpServletRequest request) {
+        // The rules are fixed at startup
+        return responseCache.respond(request, "config/validation", 0, () -> validationConfig);
     }
 }
@@ -7,12 +7,15 @@ import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.dto.IngredientDetailsRes
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientAlreadyExistsException;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientInProductException;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockKey;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
 
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.time.Instant;
 import java.math.BigDecimal;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.BusinessRuleException;
+import ar.uba.fi.ingsoft1.sistema_comedores.common.audit.AuditLogWriter;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,12 +23,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class IngredientService {
 
     private final IngredientRepository repository;
-    private final IngredientAuditLogRepository auditRepo;
+    private final AuditLogWriter auditLogWriter;
+    private final StockLedgerService stockLedgerService;
 
     @Autowired
-    public IngredientService(IngredientRepository repository, IngredientAuditLogRepository auditRepo) {
+    public IngredientService(IngredientRepository repository, AuditLogWriter auditLogWriter, StockLedgerService stockLedgerService) {
         this.repository = repository;
-        this.auditRepo = auditRepo;
+        this.auditLogWriter = auditLogWriter;
+        this.stockLedgerService = stockLedgerService;
     }
 
     public List<IngredientDetailsResponse> getAll() {
@@ -47,13 +52,14 @@ public class IngredientService {
                 existing.setAvailable(existing.getStock() != null && existing.getStock().compareTo(BigDecimal.ZERO) > 0);
                 existing.notifyObserversStatusChange();
                 Ingredient saved = repository.save(existing);
+                stockLedgerService.overwrite(StockKey.ingredient(saved.getId()), saved.getStock());
 
                 IngredientAuditLog log = new IngredientAuditLog();
                 log.setIngredientName(saved.getName());
                 log.setOperation(AdminOperation.REACTIVATE);
                 log.setModifiedAt(Instant.now());
                 log.setAmountDelta(incoming);
-                auditRepo.save(log);
+                auditLogWriter.record(log);
 
                 return saved;
             }
@@ -67,7 +73,7 @@ public class IngredientService {
         log.setOperation(AdminOperation.CREATE);
         log.setModifiedAt(Instant.now());
         log.setAmountDelta(saved.getStock());
-        auditRepo.save(log);
+        auditLogWriter.record(log);
 
         return saved;
     }
@@ -88,7 +94,7 @@ public class IngredientService {
             log.setOperation(AdminOperation.CHANGE_NAME);
             log.setModifiedAt(Instant.now());
             log.setReason("previousName=" + oldName);
-            auditRepo.save(log);
+            auditLogWriter.record(log);
 
             return saved;
         }
@@ -110,13 +116,14 @@ public class IngredientService {
         ingredient.setAvailable(false);
         ingredient.notifyObserversStatusChange();
         repository.save(ingredient);
+        stockLedgerService.overwrite(StockKey.ingredient(ingredient.getId()), BigDecimal.ZERO);
 
         IngredientAuditLog log = new IngredientAuditLog();
         log.setIngredientName(ingredient.getName());
         log.setOperation(AdminOperation.DEACTIVATE);
         log.setModifiedAt(Instant.now());
         log.setReason(reason);
-        auditRepo.save(log);
+        auditLogWriter.record(log);
 
         return IngredientDetailsResponse.from(ingredient);
     }
@@ -129,13 +136,14 @@ public class IngredientService {
         ingredient.updateStockAndNotify(newStock);
         ingredient.setAvailable(ingredient.isActive() && (ingredient.getStock() != null && ingredient.getStock().compareTo(BigDecimal.ZERO) > 0));
         Ingredient saved = repository.save(ingredient);
+        stockLedgerService.overwrite(StockKey.ingredient(saved.getId()), saved.getStock());
 
         IngredientAuditLog log = new IngredientAuditLog();
         log.setIngredientName(saved.getName());
         log.setOperation(AdminOperation.UPDATE_STOCK);
         log.setModifiedAt(Instant.now());
         log.setAmountDelta(newStock.subtract(oldStock)); 
-        auditRepo.save(log);
+        auditLogWriter.record(log);
 
         return saved;
     }
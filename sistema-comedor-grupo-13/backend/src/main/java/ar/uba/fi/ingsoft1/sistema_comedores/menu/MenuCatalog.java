@@ -0,0 +1,72 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Holds the current {@link MenuSnapshot}. Reads are served from it without touching the
+ * database; the first read after the {@link ProductCatalogVersion} moves rebuilds it and
+ * swaps it in whole. The {@link MenuSearchIndex} is brought up to date with each new
+ * snapshot, re-indexing only the items that were added, renamed or left the menu.
+ */
+@Component
+@Slf4j
+public class MenuCatalog {
+
+    private final ProductRepository productRepository;
+    private final ComboService comboService;
+    private final ProductCatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final MenuSearchIndex searchIndex = new MenuSearchIndex();
+    private volatile MenuSnapshot snapshot;
+
+    @Autowired
+    public MenuCatalog(ProductRepository productRepository, ComboService comboService,
+                       ProductCatalogVersion catalogVersion, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.comboService = comboService;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot;
+        if (current != null && current.version() == catalogVersion.current()) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Searches the items of the current snapshot, best match first.
+     */
+    public List<MenuItemDTO> search(String query, int limit) {
+        current();
+        return searchIndex.search(query, limit);
+    }
+
+    private synchronized MenuSnapshot rebuild() {
+        // Read the version first: a change committed while loading leaves the snapshot outdated
+        long version = catalogVersion.current();
+        MenuSnapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        MenuSnapshot rebuilt = transactionTemplate.execute(status ->
+                MenuSnapshot.build(version, productRepository.findAll(), comboService.getAllCombos()));
+        int reindexed = searchIndex.sync(rebuilt.items());
+        snapshot = rebuilt;
+        log.debug("Menu snapshot {} built with {} products and {} combos, {} items re-indexed",
+                version, rebuilt.products().size(), rebuilt.combos().size(), reindexed);
+        return rebuilt;
+    }
+}
@@ -1,10 +1,13 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.menu;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST para el menú unificado
@@ -23,9 +27,17 @@ import java.util.Map;
 @Tag(name = "Menu", description = "Endpoints para el menú unificado de productos y combos")
 public class MenuController {
 
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private JsonResponseCache responseCache;
+
+    @Autowired
+    private MenuTypeaheadService typeaheadService;
+
     /**
      * Obtiene el menú completo
      * 
@@ -40,24 +52,77 @@ public class MenuController {
                      "Opcionalmente filtrados por categoría o búsqueda.",
         responses = {
             @ApiResponse(responseCode = "200", description = "Menú obtenido exitosamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
             @ApiResponse(responseCode = "401", description = "No autenticado")
         }
     )
-    public ResponseEntity<List<MenuItemDTO>> getMenu(
+    public ResponseEntity<byte[]> getMenu(
         @RequestParam(required = false) String category,
-        @RequestParam(required = false) String search
+        @RequestParam(required = false) String search,
+        HttpServletRequest request
     ) {
-        List<MenuItemDTO> menuItems;
-
         if (search != null && !search.trim().isEmpty()) {
-            menuItems = menuService.searchMenu(search);
-        } else if (category != null && !category.trim().isEmpty()) {
-            menuItems = menuService.getMenuByCategory(category);
-        } else {
-            menuItems = menuService.getAvailableMenu();
+            return responseCache.respond(menuService.searchMenu(search));
         }
 
-        return ResponseEntity.ok(menuItems);
+        MenuSnapshot menu = menuService.getSnapshot();
+        if (category != null && !category.trim().isEmpty()) {
+            Optional<ProductCategory> parsed = menuService.findCategory(category);
+            if (parsed.isEmpty()) {
+                return responseCache.respond(menuService.getMenuByCategory(category));
+            }
+            return responseCache.respond(request, "menu?category=" + parsed.get().name(), menu.version(),
+                () -> menu.category(parsed.get()));
+        }
+        return responseCache.respond(request, "menu", menu.version(), menu::items);
+    }
+
+    /**
+     * Busca productos y combos disponibles por nombre o descripción
+     *
+     * @param q Texto a buscar, sin distinguir mayúsculas ni acentos
+     * @param limit Cantidad máxima de resultados
+     * @return Ítems del menú ordenados por relevancia
+     */
+    @GetMapping("/search")
+    @Operation(
+        summary = "Buscar en el menú",
+        description = "Busca productos y combos disponibles por nombre o descripción, sin distinguir " +
+                     "mayúsculas ni acentos. Cada palabra debe coincidir con el inicio o parte de una palabra " +
+                     "del ítem. Los resultados se ordenan por relevancia.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente")
+        }
+    )
+    public ResponseEntity<List<MenuItemDTO>> search(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(menuService.searchMenu(q, size));
+    }
+
+    /**
+     * Sugiere productos y combos disponibles mientras se escribe su nombre
+     *
+     * @param q Comienzo de alguna palabra del nombre, sin distinguir mayúsculas ni acentos
+     * @param limit Cantidad máxima de sugerencias
+     * @return Ítems del menú ordenados por cantidad pedida en los últimos días
+     */
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Autocompletar nombres del menú",
+        description = "Retorna los productos y combos disponibles con alguna palabra del nombre que empiece " +
+                     "con el texto ingresado, los más pedidos recientemente primero.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas exitosamente")
+        }
+    )
+    public ResponseEntity<List<MenuItemDTO>> suggest(
+        @RequestParam(defaultValue = "") String q,
+        @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(typeaheadService.suggest(q, limit));
     }
 
     /**
@@ -71,12 +136,14 @@ public class MenuController {
         description = "Retorna la lista de todas las categorías disponibles en el menú",
         responses = {
             @ApiResponse(responseCode = "200", description = "Categorías obtenidas exitosamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
             @ApiResponse(responseCode = "401", description = "No autenticado")
         }
     )
-    public ResponseEntity<Map<String, List<String>>> getCategories() {
-        List<String> categories = menuService.getAvailableCategories();
-        return ResponseEntity.ok(Map.of("categories", categories));
+    public ResponseEntity<byte[]> getCategories(HttpServletRequest request) {
+        // Las categorías son fijas, no cambian mientras corre la aplicación
+        return responseCache.respond(request, "menu/categories", 0,
+            () -> Map.of("categories", menuService.getAvailableCategories()));
     }
 
     /**
@@ -94,20 +161,12 @@ public class MenuController {
         }
     )
     public ResponseEntity<Map<String, Object>> getMenuStats() {
-        List<MenuItemDTO> allItems = menuService.getAvailableMenu();
-        
-        long productCount = allItems.stream()
-            .filter(item -> item.type() == MenuItemType.PRODUCT)
-            .count();
-        
-        long comboCount = allItems.stream()
-            .filter(item -> item.type() == MenuItemType.COMBO)
-            .count();
+        MenuSnapshot menu = menuService.getSnapshot();
 
         return ResponseEntity.ok(Map.of(
-            "totalItems", allItems.size(),
-            "products", productCount,
-            "combos", comboCount,
+            "totalItems", menu.items().size(),
+            "products", menu.products().size(),
+            "combos", menu.combos().size(),
             "categories", menuService.getAvailableCategories().size()
         ));
     }
@@ -0,0 +1,78 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Units ordered per product or combo over the last days, refreshed periodically with one
+ * GROUP BY query. Cancelled and rejected orders are not counted. The version moves only
+ * when the counts change, so structures ranked by popularity are rebuilt only then.
+ */
+@Component
+@Slf4j
+public class MenuPopularity {
+
+    private static final String QUERY = """
+            SELECT oi.product_id, SUM(oi.quantity) AS quantity
+            FROM order_items oi
+            JOIN orders o ON o.order_number = oi.order_id
+            WHERE o.created_at >= ? AND o.status NOT IN ('CANCELLED', 'REJECTED')
+            GROUP BY oi.product_id""";
+
+    public record Counts(long version, Map<Long, Long> byProduct) {
+
+        static final Counts EMPTY = new Counts(0, Map.of());
+
+        public long of(long productId) {
+            return byProduct.getOrDefault(productId, 0L);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+    private final Clock clock;
+    private volatile Counts counts = Counts.EMPTY;
+
+    @Autowired
+    public MenuPopularity(JdbcTemplate jdbcTemplate, @Value("${app.menu.popularity.window-days:14}") int windowDays) {
+        this(jdbcTemplate, Duration.ofDays(windowDays), Clock.systemUTC());
+    }
+
+    MenuPopularity(JdbcTemplate jdbcTemplate, Duration window, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = window;
+        this.clock = clock;
+    }
+
+    public Counts current() {
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.menu.popularity.refresh-interval-ms:300000}",
+            initialDelayString = "${app.menu.popularity.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        Map<Long, Long> byProduct = new HashMap<>();
+        jdbcTemplate.query(QUERY, (RowCallbackHandler) rs -> byProduct.put(rs.getLong("product_id"),
+                rs.getLong("quantity")), Timestamp.from(clock.instant().minus(window)));
+        Counts previous = counts;
+        if (!previous.byProduct().equals(byProduct)) {
+            counts = new Counts(previous.version() + 1, Map.copyOf(byProduct));
+            log.debug("Menu popularity refreshed: {} products ordered in the last {} days",
+                    byProduct.size(), window.toDays());
+        }
+    }
+}
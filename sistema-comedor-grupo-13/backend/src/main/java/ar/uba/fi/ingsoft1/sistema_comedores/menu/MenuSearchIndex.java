@@ -0,0 +1,399 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the names and descriptions of the menu items. Text is folded before
+ * indexing and searching (lower case, accents removed), so "cafe" finds "Café". Terms are
+ * kept sorted for prefix lookups and their trigrams are indexed, so a query token also
+ * matches in the middle of a word ("burg" finds "Hamburguesa").
+ * <p>
+ * Every query token must match. Items are ranked by how each token matched (whole word,
+ * prefix or infix) and where (name over description), then by name.
+ */
+public class MenuSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int GRAM = 3;
+
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+
+    private static final int EXACT = 4;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Document[] documents = new Document[64];
+    private int nextId;
+    // Position of each document in name order, and the document at each position
+    private int[] nameRank = new int[0];
+    private int[] byNameRank = new int[0];
+
+    private static final class Document {
+        private final String foldedName;
+        private final Set<String> terms;
+        private MenuItemDTO item;
+
+        private Document(MenuItemDTO item, String foldedName, Set<String> terms) {
+            this.item = item;
+            this.foldedName = foldedName;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * The documents containing a term, with the fields it appears in.
+     */
+    private static final class Posting {
+        private int[] docs = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        private void add(int doc, int mask) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = (byte) mask;
+            size++;
+        }
+
+        private void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    fields[i] = fields[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower case without accents or other combining marks.
+     */
+    static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The folded runs of letters and digits of {@code text}.
+     */
+    static List<String> tokens(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String key(MenuItemDTO item) {
+        return item.type() + ":" + item.id();
+    }
+
+    /**
+     * Makes the index hold exactly {@code items}: items no longer present are removed, and
+     * only the ones whose name or description changed are re-tokenized.
+     *
+     * @return the number of items added, re-indexed or removed
+     */
+    public int sync(Collection<MenuItemDTO> items) {
+        lock.writeLock().lock();
+        try {
+            int changed = 0;
+            Set<String> present = new HashSet<>();
+            for (MenuItemDTO item : items) {
+                String key = key(item);
+                present.add(key);
+                Integer id = ids.get(key);
+                if (id != null && sameText(documents[id].item, item)) {
+                    documents[id].item = item;
+                    continue;
+                }
+                put(key, item);
+                changed++;
+            }
+            for (String key : new ArrayList<>(ids.keySet())) {
+                if (!present.contains(key)) {
+                    remove(key);
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                rankByName();
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rankByName() {
+        Integer[] order = ids.values().toArray(new Integer[0]);
+        Arrays.sort(order, Comparator.comparing(id -> documents[id].foldedName));
+        nameRank = new int[nextId];
+        byNameRank = new int[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            nameRank[order[rank]] = rank;
+            byNameRank[rank] = order[rank];
+        }
+    }
+
+    private static boolean sameText(MenuItemDTO indexed, MenuItemDTO item) {
+        return indexed.name().equals(item.name())
+                && Objects.equals(indexed.description(), item.description());
+    }
+
+    private void put(String key, MenuItemDTO item) {
+        remove(key);
+        Map<String, Integer> fields = new HashMap<>();
+        for (String term : tokens(item.name())) {
+            fields.merge(term, NAME, (a, b) -> a | b);
+        }
+        for (String term : tokens(item.description())) {
+            fields.merge(term, DESCRIPTION, (a, b) -> a | b);
+        }
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+        if (id == documents.length) {
+            documents = Arrays.copyOf(documents, id * 2);
+        }
+        documents[id] = new Document(item, fold(item.name()), Set.copyOf(fields.keySet()));
+        ids.put(key, id);
+        fields.forEach((term, mask) -> postings.computeIfAbsent(term, this::addTerm).add(id, mask));
+    }
+
+    private void remove(String key) {
+        Integer id = ids.remove(key);
+        if (id == null) {
+            return;
+        }
+        for (String term : documents[id].terms) {
+            Posting posting = postings.get(term);
+            posting.remove(id);
+            if (posting.size == 0) {
+                postings.remove(term);
+                removeTerm(term);
+            }
+        }
+        documents[id] = null;
+        freeIds.push(id);
+    }
+
+    private Posting addTerm(String term) {
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.computeIfAbsent(term.substring(i, i + GRAM), gram -> new HashSet<>()).add(term);
+        }
+        return new Posting();
+    }
+
+    private void removeTerm(String term) {
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            String gram = term.substring(i, i + GRAM);
+            Set<String> terms = grams.get(gram);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} items matching every token of {@code query}, best first.
+     */
+    public List<MenuItemDTO> search(String query, int limit) {
+        List<String> tokens = tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // matched[doc] is the number of tokens the document matched so far, best[doc] the
+            // score of the current token and total[doc] the sum over the previous ones
+            int[] matched = new int[nextId];
+            int[] best = new int[nextId];
+            int[] total = new int[nextId];
+            int[] hits = new int[0];
+            int hitCount = 0;
+            for (int round = 0; round < tokens.size(); round++) {
+                Query token = new Query(tokens.get(round), round, matched, best);
+                match(token);
+                hits = token.hits;
+                hitCount = token.hitCount;
+                if (hitCount == 0) {
+                    return List.of();
+                }
+                for (int i = 0; i < hitCount; i++) {
+                    total[hits[i]] += best[hits[i]];
+                }
+            }
+            return top(hits, hitCount, total, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The matching of one query token: only documents that matched every previous token are
+     * scored, keeping the best way this token matched each of them.
+     */
+    private static final class Query {
+        private final String token;
+        private final int round;
+        private final int[] matched;
+        private final int[] best;
+        private int[] hits = new int[16];
+        private int hitCount;
+
+        private Query(String token, int round, int[] matched, int[] best) {
+            this.token = token;
+            this.round = round;
+            this.matched = matched;
+            this.best = best;
+        }
+
+        private void score(Posting posting, int kind) {
+            for (int i = 0; i < posting.size; i++) {
+                int doc = posting.docs[i];
+                int score = kind * ((posting.fields[i] & NAME) != 0 ? 3 : 1);
+                if (matched[doc] == round) {
+                    matched[doc] = round + 1;
+                    best[doc] = score;
+                    if (hitCount == hits.length) {
+                        hits = Arrays.copyOf(hits, hitCount * 2);
+                    }
+                    hits[hitCount++] = doc;
+                } else if (matched[doc] == round + 1 && score > best[doc]) {
+                    best[doc] = score;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores the documents containing a term that equals, starts with or contains the token.
+     */
+    private void match(Query query) {
+        String token = query.token;
+        for (Map.Entry<String, Posting> entry
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            query.score(entry.getValue(), entry.getKey().equals(token) ? EXACT : PREFIX);
+        }
+        if (token.length() < GRAM) {
+            return;
+        }
+        // The rarest trigram of the token bounds the terms that can contain it
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            Set<String> terms = grams.get(token.substring(i, i + GRAM));
+            if (terms == null) {
+                return;
+            }
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        for (String term : candidates) {
+            if (!term.startsWith(token) && term.contains(token)) {
+                query.score(postings.get(term), INFIX);
+            }
+        }
+    }
+
+    /**
+     * Picks the {@code limit} best documents. Each one is packed in a {@code long} that sorts
+     * by score and then by name, and kept in a bounded min-heap whose head is the worst kept.
+     */
+    private List<MenuItemDTO> top(int[] hits, int hitCount, int[] total, int limit) {
+        long[] heap = new long[Math.min(limit, hitCount)];
+        int size = 0;
+        for (int i = 0; i < hitCount; i++) {
+            int doc = hits[i];
+            long key = ((long) total[doc] << 32) | (Integer.MAX_VALUE - nameRank[doc]);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        MenuItemDTO[] results = new MenuItemDTO[size];
+        while (size > 0) {
+            long key = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            results[size] = documents[byNameRank[Integer.MAX_VALUE - (int) key]].item;
+        }
+        return List.of(results);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0 && heap[(index - 1) / 2] > key) {
+            heap[index] = heap[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
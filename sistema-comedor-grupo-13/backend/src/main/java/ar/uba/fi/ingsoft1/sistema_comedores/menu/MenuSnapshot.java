@@ -0,0 +1,67 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.ComboDetailsResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the available menu at a given {@code ProductCatalogVersion}: products
+ * and combos sorted by name, and the same items grouped by category. Combos are listed
+ * under {@link ProductCategory#COMBO}.
+ */
+public record MenuSnapshot(
+    long version,
+    List<MenuItemDTO> items,
+    List<MenuItemDTO> products,
+    List<MenuItemDTO> combos,
+    Map<ProductCategory, List<MenuItemDTO>> byCategory
+) {
+
+    private static final Comparator<MenuItemDTO> BY_NAME = (a, b) -> a.name().compareToIgnoreCase(b.name());
+
+    public static MenuSnapshot build(long version, List<? extends Product> products, List<ComboDetailsResponse> combos) {
+        List<MenuItemDTO> productItems = new ArrayList<>();
+        Map<ProductCategory, List<MenuItemDTO>> byCategory = new EnumMap<>(ProductCategory.class);
+        for (Product product : products) {
+            if (!Boolean.TRUE.equals(product.getAvailable()) || product.getCategory() == ProductCategory.COMBO) {
+                continue;
+            }
+            MenuItemDTO item = MenuItemDTO.fromProduct(product, product.getCategory().name());
+            productItems.add(item);
+            byCategory.computeIfAbsent(product.getCategory(), category -> new ArrayList<>()).add(item);
+        }
+        productItems.sort(BY_NAME);
+
+        List<MenuItemDTO> comboItems = new ArrayList<>();
+        for (ComboDetailsResponse combo : combos) {
+            if (Boolean.TRUE.equals(combo.isAvailable())) {
+                comboItems.add(MenuItemDTO.fromCombo(combo));
+            }
+        }
+        comboItems.sort(BY_NAME);
+        byCategory.put(ProductCategory.COMBO, comboItems);
+
+        Map<ProductCategory, List<MenuItemDTO>> sortedByCategory = new EnumMap<>(ProductCategory.class);
+        for (Map.Entry<ProductCategory, List<MenuItemDTO>> entry : byCategory.entrySet()) {
+            entry.getValue().sort(BY_NAME);
+            sortedByCategory.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+
+        List<MenuItemDTO> items = new ArrayList<>(productItems.size() + comboItems.size());
+        items.addAll(productItems);
+        items.addAll(comboItems);
+        return new MenuSnapshot(version, List.copyOf(items), List.copyOf(productItems), List.copyOf(comboItems),
+                Collections.unmodifiableMap(sortedByCategory));
+    }
+
+    public List<MenuItemDTO> category(ProductCategory category) {
+        return byCategory.getOrDefault(category, List.of());
+    }
+}
@@ -0,0 +1,171 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable typeahead over the folded names of the menu items, built for one catalog version
+ * and one {@link MenuPopularity} version. Every word of a name starts an entry, so "Café con
+ * leche" is found by "caf", "con" and "lec"; the entries are kept in one sorted array that is
+ * searched by binary search.
+ * <p>
+ * Items are numbered best first (most ordered, then by name), so the best matches of a
+ * prefix are the lowest numbers in its range. For prefixes of up to {@value #PRECOMPUTED}
+ * characters, the ones with the widest ranges, they are chosen when building.
+ */
+public final class MenuTypeahead {
+
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int PRECOMPUTED = 3;
+
+    private final long catalogVersion;
+    private final long popularityVersion;
+    private final MenuItemDTO[] items;
+    private final String[] keys;
+    private final int[] keyItems;
+    private final Map<String, int[]> best;
+
+    private MenuTypeahead(long catalogVersion, long popularityVersion, MenuItemDTO[] items, String[] keys,
+                          int[] keyItems, Map<String, int[]> best) {
+        this.catalogVersion = catalogVersion;
+        this.popularityVersion = popularityVersion;
+        this.items = items;
+        this.keys = keys;
+        this.keyItems = keyItems;
+        this.best = best;
+    }
+
+    private record Entry(String key, int item) {}
+
+    public static MenuTypeahead build(long catalogVersion, MenuPopularity.Counts popularity, List<MenuItemDTO> menu) {
+        MenuItemDTO[] items = menu.toArray(new MenuItemDTO[0]);
+        String[] names = new String[items.length];
+        for (int i = 0; i < items.length; i++) {
+            names[i] = normalize(items[i].name());
+        }
+        Integer[] order = new Integer[items.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> popularity.of(items[i].id())).reversed()
+                .thenComparing(i -> names[i]));
+
+        MenuItemDTO[] ranked = new MenuItemDTO[items.length];
+        List<Entry> entries = new ArrayList<>();
+        for (int rank = 0; rank < order.length; rank++) {
+            ranked[rank] = items[order[rank]];
+            String name = names[order[rank]];
+            int start = 0;
+            while (start < name.length()) {
+                entries.add(new Entry(name.substring(start), rank));
+                int space = name.indexOf(' ', start);
+                start = space < 0 ? name.length() : space + 1;
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::key).thenComparingInt(Entry::item));
+
+        String[] keys = new String[entries.size()];
+        int[] keyItems = new int[entries.size()];
+        Map<String, Best> prefixes = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i).key();
+            keyItems[i] = entries.get(i).item();
+            for (int length = 1; length <= PRECOMPUTED && length <= keys[i].length(); length++) {
+                prefixes.computeIfAbsent(keys[i].substring(0, length), prefix -> new Best(MAX_SUGGESTIONS))
+                        .offer(keyItems[i]);
+            }
+        }
+        Map<String, int[]> best = new HashMap<>(prefixes.size() * 2);
+        prefixes.forEach((prefix, matches) -> best.put(prefix, matches.toArray()));
+        return new MenuTypeahead(catalogVersion, popularity.version(), ranked, keys, keyItems, best);
+    }
+
+    /**
+     * The folded words of {@code text} separated by single spaces.
+     */
+    static String normalize(String text) {
+        return String.join(" ", MenuSearchIndex.tokens(text));
+    }
+
+    public boolean isFor(long catalogVersion, long popularityVersion) {
+        return this.catalogVersion == catalogVersion && this.popularityVersion == popularityVersion;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns up to {@code limit} items with a word starting with {@code prefix}, most ordered
+     * first. An empty prefix returns the most ordered items.
+     */
+    public List<MenuItemDTO> suggest(String prefix, int limit) {
+        int count = Math.max(0, Math.min(limit, MAX_SUGGESTIONS));
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of(Arrays.copyOf(items, Math.min(count, items.length)));
+        }
+        int[] matches;
+        if (key.length() <= PRECOMPUTED) {
+            matches = best.getOrDefault(key, new int[0]);
+        } else {
+            Best range = new Best(count);
+            for (int i = lowerBound(key); i < keys.length && keys[i].startsWith(key); i++) {
+                range.offer(keyItems[i]);
+            }
+            matches = range.toArray();
+        }
+        MenuItemDTO[] results = new MenuItemDTO[Math.min(count, matches.length)];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = items[matches[i]];
+        }
+        return List.of(results);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The lowest distinct item numbers offered, up to a capacity, kept sorted.
+     */
+    private static final class Best {
+        private final int[] items;
+        private int size;
+
+        private Best(int capacity) {
+            this.items = new int[capacity];
+        }
+
+        private void offer(int item) {
+            if (size == items.length && (size == 0 || item >= items[size - 1])) {
+                return;
+            }
+            int position = Arrays.binarySearch(items, 0, size, item);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            int moved = Math.min(size, items.length - 1) - position;
+            System.arraycopy(items, position, items, position + 1, moved);
+            items[position] = item;
+            size = Math.min(size + 1, items.length);
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
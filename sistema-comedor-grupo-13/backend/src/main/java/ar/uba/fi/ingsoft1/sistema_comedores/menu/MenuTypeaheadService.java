@@ -0,0 +1,61 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves name suggestions from the current {@link MenuTypeahead}. When the menu snapshot or
+ * the popularity counts move, one request builds a new typeahead and swaps it in; requests
+ * arriving meanwhile keep answering from the previous one instead of waiting for it.
+ */
+@Service
+@Slf4j
+public class MenuTypeaheadService {
+
+    private final MenuCatalog menuCatalog;
+    private final MenuPopularity popularity;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile MenuTypeahead typeahead;
+
+    @Autowired
+    public MenuTypeaheadService(MenuCatalog menuCatalog, MenuPopularity popularity) {
+        this.menuCatalog = menuCatalog;
+        this.popularity = popularity;
+    }
+
+    public List<MenuItemDTO> suggest(String prefix, int limit) {
+        return current().suggest(prefix, limit);
+    }
+
+    MenuTypeahead current() {
+        MenuSnapshot menu = menuCatalog.current();
+        MenuPopularity.Counts counts = popularity.current();
+        MenuTypeahead current = typeahead;
+        if (current != null && current.isFor(menu.version(), counts.version())) {
+            return current;
+        }
+        if (current != null && !rebuildLock.tryLock()) {
+            return current;
+        }
+        if (current == null) {
+            rebuildLock.lock();
+        }
+        try {
+            current = typeahead;
+            if (current != null && current.isFor(menu.version(), counts.version())) {
+                return current;
+            }
+            MenuTypeahead rebuilt = MenuTypeahead.build(menu.version(), counts, menu.items());
+            typeahead = rebuilt;
+            log.debug("Menu typeahead built for snapshot {} and popularity {} with {} items",
+                    menu.version(), counts.version(), rebuilt.size());
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -25,7 +25,7 @@ public class Order {
     @Id
     @Column(unique = true, nullable = false)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
-    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_order_number_seq", allocationSize = 1)
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_order_number_seq", allocationSize = 50)
     private Long orderNumber;
 
     @Column(nullable = false)
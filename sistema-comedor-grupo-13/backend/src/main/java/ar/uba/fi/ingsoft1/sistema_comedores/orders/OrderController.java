@@ -1,21 +1,34 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.orders;
 
 import ar.uba.fi.ingsoft1.sistema_comedores.config.security.JwtUserDetails;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.AnalyticsWindow;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeStatsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.CreateOrderRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderPageResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox.OrderOutboxStats;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing.PromotionQuoteCacheStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -26,10 +39,12 @@ import java.util.Map;
 public class OrderController {
     
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping
@@ -60,6 +75,13 @@ public class OrderController {
         ));
     }
 
+    @GetMapping("/calculate-promotion/cache-stats")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Estadísticas de la caché de promociones", description = "Aciertos, fallos, tasa de aciertos, desalojos e invalidaciones de la caché de cálculo de promociones")
+    public ResponseEntity<PromotionQuoteCacheStats> getPromotionQuoteCacheStats() {
+        return ResponseEntity.ok(orderService.getPromotionQuoteCacheStats());
+    }
+
     @GetMapping("/my-orders")
     @PreAuthorize("hasAuthority('STUDENT')")
     @Operation(summary = "Obtener mis pedidos", description = "Retorna los pedidos del usuario autenticado")
@@ -69,6 +91,18 @@ public class OrderController {
         List<OrderDetailsResponse> orders = orderService.getUserOrders(userDetails.username());
         return ResponseEntity.ok(orders);
     }
+
+    @GetMapping("/my-orders/page")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Obtener mis pedidos paginados", description = "Retorna una página (keyset) de los pedidos del usuario autenticado y el cursor de la siguiente")
+    public ResponseEntity<OrderPageResponse> getMyOrdersPage(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        OrderPageResponse page = orderService.getUserOrdersPage(userDetails.username(), cursor, limit);
+        return ResponseEntity.ok(page);
+    }
     
     @PostMapping("/{orderId}/cancel")
     @PreAuthorize("hasAuthority('STUDENT')")
@@ -110,6 +144,42 @@ public class OrderController {
         List<OrderDetailsResponse> orders = orderService.getAllOrders();
         return ResponseEntity.ok(orders);
     }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Obtener pedidos paginados", description = "STAFF/ADMIN: retorna una página (keyset) de todos los pedidos y el cursor de la siguiente")
+    public ResponseEntity<OrderPageResponse> getOrdersPage(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        OrderPageResponse page = orderService.getOrdersPage(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Exportar pedidos", description = "STAFF/ADMIN: exporta todos los pedidos como NDJSON (un pedido por línea)")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                orderService.exportOrders(order -> writeLine(outputStream, order));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, OrderDetailsResponse order) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(order));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
     
     @GetMapping("/pending")
     @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
@@ -119,6 +189,51 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping("/queue")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Cola de cocina", description = "Pedidos activos agrupados por estado (PENDING, CONFIRMED, PREPARING, READY), del más nuevo al más antiguo")
+    public ResponseEntity<Map<String, List<OrderDetailsResponse>>> getKitchenQueue() {
+        return ResponseEntity.ok(orderService.getKitchenQueue());
+    }
+    
+    @GetMapping("/analytics/prep-times")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Tiempos de preparación", description = "Percentiles (p50, p90, p95, p99) en milisegundos de cada tramo del flujo del pedido")
+    public ResponseEntity<List<PrepTimeStatsResponse>> getAllPrepTimeStats(
+        @RequestParam(defaultValue = "TODAY") AnalyticsWindow window
+    ) {
+        return ResponseEntity.ok(orderService.getAllPrepTimeStats(window));
+    }
+
+    @GetMapping("/analytics/prep-times/segment")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Tiempo de preparación de un tramo", description = "Percentiles (p50, p90, p95, p99) en milisegundos del tiempo entre dos estados del pedido (ej. CONFIRMED a READY)")
+    public ResponseEntity<PrepTimeStatsResponse> getPrepTimeStats(
+        @RequestParam String from,
+        @RequestParam String to,
+        @RequestParam(defaultValue = "TODAY") AnalyticsWindow window
+    ) {
+        return ResponseEntity.ok(orderService.getPrepTimeStats(from, to, window));
+    }
+
+    @GetMapping("/outbox/stats")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Estado del outbox de pedidos", description = "Eventos pendientes de despacho y eventos que agotaron sus reintentos")
+    public ResponseEntity<OrderOutboxStats> getOutboxStats() {
+        return ResponseEntity.ok(orderService.getOutboxStats());
+    }
+
+    @PostMapping("/outbox/replay")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Reintentar eventos agotados", description = "ADMIN: vuelve a encolar los eventos del outbox que agotaron sus reintentos")
+    public ResponseEntity<?> replayExhaustedOutboxEvents() {
+        int replayed = orderService.replayExhaustedOutboxEvents();
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "replayed", replayed
+        ));
+    }
+    
     @PutMapping("/{orderId}/move-forward")
     @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
     @Operation(summary = "Avanzar pedido", description = "Avanza el pedido al siguiente estado del flujo")
@@ -159,6 +274,18 @@ public class OrderController {
         ));
     }
 
+    @PostMapping("/bulk-transitions")
+    @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
+    @Operation(summary = "Actualizar pedidos en lote", description = "Avanza, retrocede o rechaza varios pedidos a la vez. Informa el resultado de cada pedido; los que no pueden cambiar de estado no impiden el resto")
+    public ResponseEntity<?> applyBulkTransition(@Valid @RequestBody BulkTransitionRequest request) {
+        BulkTransitionResponse response = orderService.applyBulkTransition(request);
+        return ResponseEntity.ok(Map.of(
+            "success", response.failed() == 0,
+            "message", response.succeeded() + " pedidos actualizados, " + response.failed() + " con error",
+            "data", response
+        ));
+    }
+
     @PostMapping("/{orderId}/force-cancel")
     @PreAuthorize("hasAnyAuthority('STAFF','ADMIN')")
     @Operation(summary = "Forzar cancelación", description = "STAFF/ADMIN puede cancelar cualquier pedido")
@@ -1,14 +1,25 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.orders;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen.ActiveOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.stats.OrderStatusSummary;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation.OrderItemRow;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -21,10 +32,72 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByStatus(@Param("status") String status);
     
     @Query("SELECT o FROM Order o WHERE o.status IN :statuses ORDER BY o.createdAt DESC")
-    List<Order> findByStatusIn(@Param("statuses") List<String> statuses);
+    List<Order> findByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT o.orderNumber AS orderNumber, o.status AS status FROM Order o WHERE o.status IN :statuses")
+    List<ActiveOrderStatus> findActiveStatuses(@Param("statuses") Collection<OrderStatus> statuses);
 
     boolean existsByOrderNumberAndUserId(Long orderNumber, Long userId);
     
     @Query("SELECT COUNT(o) FROM Order o")
     Long countAll();
+
+    @Query("SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.subtotal) AS subtotalSum FROM Order o GROUP BY o.status")
+    List<OrderStatusSummary> summarizeByStatus();
+
+    @Query("SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.subtotal) AS subtotalSum FROM Order o WHERE o.userId = :userId GROUP BY o.status")
+    List<OrderStatusSummary> summarizeByStatusForUser(@Param("userId") Long userId);
+
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.orderNumber DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.createdAt < :createdAt
+               OR (o.createdAt = :createdAt AND o.orderNumber < :orderNumber)
+            ORDER BY o.createdAt DESC, o.orderNumber DESC
+    """)
+    List<Order> findPageAfter(@Param("createdAt") Instant createdAt, @Param("orderNumber") Long orderNumber, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.orderNumber DESC")
+    List<Order> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.userId = :userId
+              AND (o.createdAt < :createdAt
+                   OR (o.createdAt = :createdAt AND o.orderNumber < :orderNumber))
+            ORDER BY o.createdAt DESC, o.orderNumber DESC
+    """)
+    List<Order> findPageAfterByUserId(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                      @Param("orderNumber") Long orderNumber, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.orderNumber DESC")
+    Stream<Order> streamAllOrderedByCreatedAt();
+
+    /**
+     * Stream the items of the orders placed in [from, to), grouped by order
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT o.orderNumber AS orderNumber, o.createdAt AS createdAt,
+                   i.productId AS productId, i.unitPrice AS unitPrice, i.quantity AS quantity
+            FROM Order o JOIN o.items i
+            WHERE o.createdAt >= :from AND o.createdAt < :to
+            ORDER BY o.orderNumber
+    """)
+    Stream<OrderItemRow> streamItemsPlacedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.orderNumber IN :orderNumbers")
+    List<Order> fetchItems(@Param("orderNumbers") Collection<Long> orderNumbers);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.appliedPromotions WHERE o.orderNumber IN :orderNumbers")
+    List<Order> fetchAppliedPromotions(@Param("orderNumbers") Collection<Long> orderNumbers);
 }
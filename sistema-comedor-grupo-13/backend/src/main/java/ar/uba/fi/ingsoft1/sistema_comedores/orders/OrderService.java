@@ -6,20 +6,33 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.BusinessRuleException;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.User;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionAction;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionResult;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.CreateOrderRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderCursor;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderPageResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.OrderNotFoundException;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.StatusNeverReachedException;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.OrderCannotBeCancelledException;
@@ -28,8 +41,17 @@ import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatusConverter;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
-import ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications.OrderNotificationService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.AnalyticsWindow;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeAnalytics;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeStatsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen.KitchenQueue;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing.PromotionQuoteCache;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing.PromotionQuoteCacheStats;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications.OrderStatusDTO;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox.OrderOutboxService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox.OrderOutboxStats;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.stats.OrderStatsRegistry;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.stats.StatusTotals;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEvent;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateService;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
@@ -42,6 +64,7 @@ import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.exception.ComboNotFo
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.InsufficientStockException;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotAvailableException;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.UserService;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.exception.UserNotFoundException;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
@@ -57,6 +80,7 @@ import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DayOfWeek;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.AppliedPromotionResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -70,38 +94,164 @@ public class OrderService {
     private final PromotionService promotionService;
     private final OrderStatusUpdateService statusUpdateService;
     private final ProductRepository productRepository;
-    private final OrderNotificationService notificationService;
+    private final OrderOutboxService outboxService;
+    private final StockLedgerService stockLedgerService;
+    private final OrderStatsRegistry statsRegistry;
+    private final KitchenQueue kitchenQueue;
+    private final PrepTimeAnalytics prepTimeAnalytics;
+    private final PromotionQuoteCache promotionQuoteCache;
+    private final EntityManager entityManager;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int READ_BATCH_SIZE = 500;
     
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductService productService, UserService userService, PromotionService promotionService, OrderStatusUpdateService statusUpdateService, ProductRepository productRepository, OrderNotificationService notificationService) {
+    public OrderService(OrderRepository orderRepository, ProductService productService, UserService userService, PromotionService promotionService, OrderStatusUpdateService statusUpdateService, ProductRepository productRepository, OrderOutboxService outboxService, StockLedgerService stockLedgerService, OrderStatsRegistry statsRegistry, KitchenQueue kitchenQueue, PrepTimeAnalytics prepTimeAnalytics, PromotionQuoteCache promotionQuoteCache, EntityManager entityManager) {
         this.orderRepository = orderRepository;
         this.productService = productService;
         this.userService = userService;
         this.promotionService = promotionService;
         this.statusUpdateService = statusUpdateService;
         this.productRepository = productRepository;
-        this.notificationService = notificationService;
+        this.outboxService = outboxService;
+        this.stockLedgerService = stockLedgerService;
+        this.statsRegistry = statsRegistry;
+        this.kitchenQueue = kitchenQueue;
+        this.prepTimeAnalytics = prepTimeAnalytics;
+        this.promotionQuoteCache = promotionQuoteCache;
+        this.entityManager = entityManager;
     }
 
 
     public Map<Product, Integer> getOrderRequestDetails(CreateOrderRequest request) throws IllegalArgumentException {
-        Map<Product, Integer> orderRequestDetails = new HashMap<Product, Integer>();
-        for (OrderItemRequest itemRequest : request.items()) {
-            Product product = productService.getProductById(itemRequest.productId());
-            orderRequestDetails.put(product, itemRequest.quantity());
-        }
-        return orderRequestDetails;
+        Map<Long, Product> cart = resolveCart(request.items());
+        return toProductQuantityMap(request.items(), cart);
     }
 
     public List<OrderDetailsResponse> getAllOrders() {
-        return orderRepository.findAll().stream()
+        return toResponses(orderRepository.findAll());
+    }
+
+    public OrderPageResponse getOrdersPage(String cursor, Integer limit) {
+        int size = pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPage(page);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.createdAt(), after.orderNumber(), page);
+        }
+        return toPage(orders, size);
+    }
+
+    public OrderPageResponse getUserOrdersPage(String email, String cursor, Integer limit) {
+        User user = userService.getUserByEmail(email);
+        int size = pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPageByUserId(user.getId(), page);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfterByUserId(user.getId(), after.createdAt(), after.orderNumber(), page);
+        }
+        return toPage(orders, size);
+    }
+
+    /**
+     * Streams every order to the given sink without materializing the whole history:
+     * rows come from a database cursor and are detached once converted.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(Consumer<OrderDetailsResponse> sink) {
+        List<Order> chunk = new ArrayList<>(READ_BATCH_SIZE);
+        try (Stream<Order> orders = orderRepository.streamAllOrderedByCreatedAt()) {
+            orders.forEach(order -> {
+                chunk.add(order);
+                if (chunk.size() == READ_BATCH_SIZE) {
+                    exportChunk(chunk, sink);
+                }
+            });
+        }
+        exportChunk(chunk, sink);
+    }
+
+    private void exportChunk(List<Order> chunk, Consumer<OrderDetailsResponse> sink) {
+        toResponses(chunk).forEach(sink);
+        chunk.forEach(entityManager::detach);
+        chunk.clear();
+    }
+
+    /**
+     * Builds the responses with a fixed number of queries: the items and the applied
+     * promotions of all the given orders are fetched together instead of once per order.
+     */
+    private List<OrderDetailsResponse> toResponses(List<Order> orders) {
+        List<Long> orderNumbers = orders.stream().map(Order::getOrderNumber).toList();
+        for (int from = 0; from < orderNumbers.size(); from += READ_BATCH_SIZE) {
+            List<Long> batch = orderNumbers.subList(from, Math.min(from + READ_BATCH_SIZE, orderNumbers.size()));
+            orderRepository.fetchItems(batch);
+            orderRepository.fetchAppliedPromotions(batch);
+        }
+        return orders.stream()
             .map(OrderDetailsResponse::from)
             .toList();
     }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private OrderPageResponse toPage(List<Order> orders, int size) {
+        boolean hasMore = orders.size() > size;
+        List<Order> pageOrders = hasMore ? orders.subList(0, size) : orders;
+        String nextCursor = hasMore ? OrderCursor.after(pageOrders.get(pageOrders.size() - 1)).encode() : null;
+        return new OrderPageResponse(
+            toResponses(pageOrders),
+            nextCursor,
+            hasMore
+        );
+    }
   
     public OrderDetailsResponse createOrder(CreateOrderRequest request, String email) throws RuntimeException {
         User user = userService.getUserByEmail(email);
-        List<OrderItem> orderItems = this.getOrderItems(request.items());
+        Map<Long, Product> cart = resolveCart(request.items());
+        return placeOrder(user, request.items(), cart, null);
+    }
+
+    /**
+     * Places an order for a cart whose promotions were already resolved, as a cart session
+     * does. The session's products may be stale, so they are loaded again here: availability
+     * and stock are checked on the stored state, and the promotions are evaluated again if a
+     * price changed since the session resolved them.
+     */
+    public OrderDetailsResponse createOrder(List<OrderItemRequest> items, Map<Long, Product> resolved,
+                                            PromotionCombination promotions, String email) throws RuntimeException {
+        User user = userService.getUserByEmail(email);
+        Map<Long, Product> cart = resolveCart(items);
+        return placeOrder(user, items, cart, samePrices(cart, resolved) ? promotions : null);
+    }
+
+    private boolean samePrices(Map<Long, Product> cart, Map<Long, Product> resolved) {
+        for (Map.Entry<Long, Product> entry : cart.entrySet()) {
+            Product previous = resolved.get(entry.getKey());
+            if (previous == null || previous.getPrice().compareTo(entry.getValue().getPrice()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private OrderDetailsResponse placeOrder(User user, List<OrderItemRequest> items, Map<Long, Product> cart,
+                                            PromotionCombination promotions) {
+        List<OrderItem> orderItems = this.getOrderItems(items, cart);
+        Map<Product, Integer> productQuantityMap = toProductQuantityMap(items, cart);
+        stockLedgerService.reserve(productQuantityMap);
         
         Order order = new Order();
         order.setUserId(user.getId());
@@ -113,33 +263,43 @@ public class OrderService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         order.setSubtotal(subtotal);
         
-        applyPromotions(order);
+        applyPromotions(order, productQuantityMap, promotions);
         
         Order savedOrder = orderRepository.save(order);
-        statusUpdateService.recordStateChange(savedOrder, savedOrder.getStatus(), savedOrder.getStatus(), null);
+        outboxService.recordCreated(savedOrder);
+        statsRegistry.recordCreated(savedOrder.getStatusCode(), savedOrder.getSubtotal());
+        kitchenQueue.recordCreated(savedOrder);
         
         return OrderDetailsResponse.from(savedOrder);
     }
 
-    private Map<Product, Integer> getProductQuantityMap(List<OrderItemRequest> items) {
+    /**
+     * Loads every product of the cart (and its ingredient/combo graph) in a single batch,
+     * so the rest of the order placement works on the resolved instances.
+     */
+    private Map<Long, Product> resolveCart(List<OrderItemRequest> items) {
+        List<Long> productIds = items.stream()
+            .map(OrderItemRequest::productId)
+            .toList();
+        return productService.getProductsByIds(productIds);
+    }
+
+    private Map<Product, Integer> toProductQuantityMap(List<OrderItemRequest> items, Map<Long, Product> cart) {
         Map<Product, Integer> productQuantityMap = new HashMap<>();
         for (OrderItemRequest item : items) {
-            Product p = productService.getProductById(item.productId());
-            if (!p.isAvailable()) {
-                throw new ProductNotAvailableException(p.getName());
-            }
-            productQuantityMap.put(p, item.quantity());
+            productQuantityMap.merge(cart.get(item.productId()), item.quantity(), Integer::sum);
         }
         return productQuantityMap;
     }
 
-    private Map<Product, Integer> getProductQuantityMapFromOrderItems(List<OrderItem> orderItems) {
-        Map<Product, Integer> productQuantityMap = new HashMap<>();
-        for (OrderItem item : orderItems) {
-            Product p = productService.getProductById(item.getProductId());
-            productQuantityMap.put(p, item.getQuantity());
+    private Map<Product, Integer> getProductQuantityMap(List<OrderItemRequest> items) {
+        Map<Long, Product> cart = resolveCart(items);
+        for (Product p : cart.values()) {
+            if (!p.isAvailable()) {
+                throw new ProductNotAvailableException(p.getName());
+            }
         }
-        return productQuantityMap;
+        return toProductQuantityMap(items, cart);
     }
 
     private BigDecimal calculateSubtotal(Map<Product, Integer> productQuantityMap) {
@@ -148,10 +308,39 @@ public class OrderService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    /**
+     * Identical carts are served from the quote cache. No transaction is opened here, so a
+     * hit does not touch the database; on a miss the products are loaded by ProductService.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CalculatePromotionResponse calculateAppliablePromotions(List<OrderItemRequest> items) {
+        return promotionQuoteCache.get(items, () -> quotePromotions(items));
+    }
+
+    public PromotionQuoteCacheStats getPromotionQuoteCacheStats() {
+        return promotionQuoteCache.stats();
+    }
+
+    public OrderOutboxStats getOutboxStats() {
+        return outboxService.stats();
+    }
+
+    public int replayExhaustedOutboxEvents() {
+        return outboxService.replayExhausted();
+    }
+
+    private CalculatePromotionResponse quotePromotions(List<OrderItemRequest> items) {
         Map<Product, Integer> productQuantityMap = getProductQuantityMap(items);
         PromotionCombination appliablePromotions = promotionService.getAppliablePromotions(productQuantityMap);
-        log.debug("👍👍👍👍👍👍👍👍DISCOUNT OPTIMIZER👍👍👍👍👍👍👍👍👍👍👍: {}", appliablePromotions);
+        return toPromotionResponse(productQuantityMap, appliablePromotions);
+    }
+
+    /**
+     * Builds the quote of an already evaluated cart. Works on the given instances only.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CalculatePromotionResponse toPromotionResponse(Map<Product, Integer> productQuantityMap,
+                                                          PromotionCombination appliablePromotions) {
         Map<Promotion, BigDecimal> promotions = appliablePromotions.promotions();
         
         BigDecimal subtotal = calculateSubtotal(productQuantityMap);
@@ -192,27 +381,26 @@ public class OrderService {
     }
 
     @Transactional  
-    private void applyPromotions(Order order) {
-        Map<Product, Integer> productQuantityMap = getProductQuantityMapFromOrderItems(order.getItems());
-        PromotionCombination appliablePromotions = promotionService.getAppliablePromotions(productQuantityMap);
+    private void applyPromotions(Order order, Map<Product, Integer> productQuantityMap, PromotionCombination promotions) {
+        PromotionCombination appliablePromotions = promotions != null
+            ? promotions
+            : promotionService.getAppliablePromotions(productQuantityMap);
         
         order.setDiscountAmount(appliablePromotions.discount());
         order.setAppliedPromotions(getAppliedPromotions(appliablePromotions.promotions()));
     }
 
     @Transactional
-    private List<OrderItem> getOrderItems(List<OrderItemRequest> orderRequestItems) {
+    private List<OrderItem> getOrderItems(List<OrderItemRequest> orderRequestItems, Map<Long, Product> cart) {
         List<OrderItem> orderItems = new ArrayList<>();
         
         for (OrderItemRequest itemRequest : orderRequestItems) {
-            Product product = productService.getProductById(itemRequest.productId());
+            Product product = cart.get(itemRequest.productId());
             
             if (!product.isAvailable()) {
                 throw new ProductNotAvailableException(product.getName());
             }
             
-            product.consumeStock(itemRequest.quantity());
-            
             OrderItem orderItem = new OrderItem();
             orderItem.setProductId(product.getId());
             orderItem.setProductName(product.getName());
@@ -227,11 +415,13 @@ public class OrderService {
     }
 
     private void restoreStockForItems(List<OrderItem> orderItems) {
+        Map<Long, Product> products = productService.getProductsByIds(
+            orderItems.stream().map(OrderItem::getProductId).toList());
+        Map<Product, Integer> productQuantityMap = new HashMap<>();
         for (OrderItem item : orderItems) {
-            Long productId = item.getProductId();
-            Integer quantity = item.getQuantity();
-            productService.restoreProductStock(productId, quantity);
+            productQuantityMap.merge(products.get(item.getProductId()), item.getQuantity(), Integer::sum);
         }
+        stockLedgerService.release(productQuantityMap);
     }
 
     public OrderDetailsResponse getOrderById(Long orderId) {
@@ -244,9 +434,7 @@ public class OrderService {
     public List<OrderDetailsResponse> getUserOrders(String email) {
         var user = userService.getUserByEmail(email);
         List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
-        return orders.stream()
-            .map(OrderDetailsResponse::from)
-            .collect(Collectors.toList());
+        return toResponses(orders);
     }
 
     public boolean userCanAccessOrder(Long orderId, String email) {
@@ -258,10 +446,11 @@ public class OrderService {
     }
     
     public List<OrderDetailsResponse> getPendingOrders() {
-        List<Order> orders = orderRepository.findByStatus("PENDING");
-        return orders.stream()
-            .map(OrderDetailsResponse::from)
-            .collect(Collectors.toList());
+        return kitchenQueue.view("PENDING");
+    }
+
+    public Map<String, List<OrderDetailsResponse>> getKitchenQueue() {
+        return kitchenQueue.views();
     }
     
     public OrderDetailsResponse cancelOrder(Long orderId, String reason) {
@@ -272,11 +461,9 @@ public class OrderService {
         this.restoreStockForItems(order.getItems());
         Order updated = orderRepository.save(order);
         log.info("Order {} cancelled and stock restored", orderId);
-        statusUpdateService.recordStateChange(updated, previousStatus, updated.getStatus(), null);
-
-
-
-        notificationService.notifyStatusChange(updated);
+        outboxService.recordTransition(updated, previousStatus, null);
+        statsRegistry.recordTransition(previousStatus.getStatusCode(), updated.getStatusCode(), updated.getSubtotal());
+        kitchenQueue.recordTransition(updated);
         return OrderDetailsResponse.from(updated);
     }
 
@@ -289,9 +476,9 @@ public class OrderService {
         this.restoreStockForItems(order.getItems());
         Order updated = orderRepository.save(order);
         log.info("Order {} rejected and stock restored", orderId);
-        statusUpdateService.recordStateChange(updated, previousStatus, updated.getStatus(), reason);
-
-        notificationService.notifyStatusChange(updated);
+        outboxService.recordTransition(updated, previousStatus, reason);
+        statsRegistry.recordTransition(previousStatus.getStatusCode(), updated.getStatusCode(), updated.getSubtotal());
+        kitchenQueue.recordTransition(updated);
         return OrderDetailsResponse.from(updated);
     }
     
@@ -302,10 +489,9 @@ public class OrderService {
         order.moveOrderForward();
         Order updated = orderRepository.save(order);
         log.info("Order {} moved forward to {}", orderId, updated.getStatus().getStatusCode());
-        statusUpdateService.recordStateChange(updated, previousStatus, updated.getStatus(), null);
-
-        
-        notificationService.notifyStatusChange(updated);
+        outboxService.recordTransition(updated, previousStatus, null);
+        statsRegistry.recordTransition(previousStatus.getStatusCode(), updated.getStatusCode(), updated.getSubtotal());
+        kitchenQueue.recordTransition(updated);
         return OrderDetailsResponse.from(updated);
     }
     
@@ -316,9 +502,9 @@ public class OrderService {
         order.moveOrderBackward();
         Order updated = orderRepository.save(order);
         log.info("Order {} moved backward to {}", orderId, updated.getStatus().getStatusCode());
-        statusUpdateService.recordStateChange(updated, previousStatus, updated.getStatus(), null);
-
-        notificationService.notifyStatusChange(updated);
+        outboxService.recordTransition(updated, previousStatus, null);
+        statsRegistry.recordTransition(previousStatus.getStatusCode(), updated.getStatusCode(), updated.getSubtotal());
+        kitchenQueue.recordTransition(updated);
         return OrderDetailsResponse.from(updated);
     }
     
@@ -330,91 +516,138 @@ public class OrderService {
         order.setStatus(new CancelledOrderStatus());
         Order updated = orderRepository.save(order);
         log.info("Order {} force cancelled by staff. Reason: {}", orderId, reason);
-        statusUpdateService.recordStateChange(updated, previousStatus, updated.getStatus(), reason);
-
-        notificationService.notifyStatusChange(updated);
+        outboxService.recordTransition(updated, previousStatus, reason);
+        statsRegistry.recordTransition(previousStatus.getStatusCode(), updated.getStatusCode(), updated.getSubtotal());
+        kitchenQueue.recordTransition(updated);
         return OrderDetailsResponse.from(updated);
     }
 
+    /**
+     * Applies the same transition to several orders in one transaction. Orders that are
+     * missing or cannot make the transition are reported and left untouched; the rest are
+     * loaded in one query and written, with their outbox events, in JDBC batches.
+     */
+    public BulkTransitionResponse applyBulkTransition(BulkTransitionRequest request) {
+        List<Long> orderNumbers = request.orderNumbers().stream().distinct().toList();
+        Map<Long, Order> orders = orderRepository.findAllById(orderNumbers).stream()
+            .collect(Collectors.toMap(Order::getOrderNumber, Function.identity()));
+        if (request.action() == BulkTransitionAction.REJECT) {
+            orderRepository.fetchItems(orderNumbers);
+        }
+
+        List<BulkTransitionResult> results = new ArrayList<>();
+        Map<Order, OrderStatus> transitioned = new LinkedHashMap<>();
+        List<OrderItem> itemsToRestore = new ArrayList<>();
+
+        for (Long orderNumber : orderNumbers) {
+            Order order = orders.get(orderNumber);
+            if (order == null) {
+                results.add(BulkTransitionResult.failed(orderNumber, null, new OrderNotFoundException(orderNumber).getMessage()));
+                continue;
+            }
+            OrderStatus previousStatus = order.getStatus();
+            try {
+                switch (request.action()) {
+                    case FORWARD -> order.moveOrderForward();
+                    case BACKWARD -> order.moveOrderBackward();
+                    case REJECT -> order.rejectOrder();
+                }
+            } catch (BusinessRuleException e) {
+                results.add(BulkTransitionResult.failed(orderNumber, previousStatus.getStatusCode(), e.getMessage()));
+                continue;
+            }
+            transitioned.put(order, previousStatus);
+            if (request.action() == BulkTransitionAction.REJECT) {
+                itemsToRestore.addAll(order.getItems());
+            }
+            statsRegistry.recordTransition(previousStatus.getStatusCode(), order.getStatusCode(), order.getSubtotal());
+            kitchenQueue.recordTransition(order);
+            results.add(BulkTransitionResult.succeeded(orderNumber, previousStatus.getStatusCode(), order.getStatusCode()));
+        }
+
+        if (!itemsToRestore.isEmpty()) {
+            restoreStockForItems(itemsToRestore);
+        }
+        String reason = null;
+        if (request.action() == BulkTransitionAction.REJECT) {
+            reason = request.reason() != null ? request.reason() : "Sin motivo especificado";
+        }
+        outboxService.recordTransitions(transitioned, reason);
+
+        BulkTransitionResponse response = BulkTransitionResponse.from(results);
+        log.info("Bulk {} applied to {} orders, {} failed", request.action(), response.succeeded(), response.failed());
+        return response;
+    }
+
     public Map<String, Object> getOrderTrackingStats(String email) {
         var user = userService.getUserByEmail(email);
-        
-        List<Order> allOrders = orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        Map<String, StatusTotals> totals = OrderStatsRegistry.toTotals(orderRepository.summarizeByStatusForUser(user.getId()));
         
         Map<String, Object> stats = new HashMap<>();
         
-        long pendingCount = allOrders.stream()
-            .filter(o -> "PENDING".equals(o.getStatus().getStatusCode())).count();
-        long confirmedCount = allOrders.stream()
-            .filter(o -> "CONFIRMED".equals(o.getStatus().getStatusCode())).count();
-        long deliveredCount = allOrders.stream()
-            .filter(o -> "COMPLETED".equals(o.getStatus().getStatusCode())).count();
-        long rejectedCount = allOrders.stream()
-            .filter(o -> "REJECTED".equals(o.getStatus().getStatusCode())).count();
-        
-        BigDecimal totalSpent = allOrders.stream()
-            .map(Order::getSubtotal)
+        BigDecimal totalSpent = totals.values().stream()
+            .map(StatusTotals::subtotal)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        stats.put("totalOrders", allOrders.size());
-        stats.put("pendingCount", pendingCount);
-        stats.put("confirmedCount", confirmedCount);
-        stats.put("deliveredCount", deliveredCount);
-        stats.put("rejectedCount", rejectedCount);
+        stats.put("totalOrders", totalCount(totals));
+        stats.put("pendingCount", count(totals, "PENDING"));
+        stats.put("confirmedCount", count(totals, "CONFIRMED"));
+        stats.put("deliveredCount", count(totals, "COMPLETED"));
+        stats.put("rejectedCount", count(totals, "REJECTED"));
         stats.put("totalSpent", totalSpent);
         
         return stats;
     }
     
     public Map<String, Object> getStaffDashboardStats() {
-        List<Order> allOrders = orderRepository.findAll();
+        Map<String, StatusTotals> totals = statsRegistry.snapshot();
         
         Map<String, Object> stats = new HashMap<>();
         
-        long pendingCount = allOrders.stream()
-            .filter(o -> "PENDING".equals(o.getStatus().getStatusCode())).count();
-        long preparingCount = allOrders.stream()
-            .filter(o -> "CONFIRMED".equals(o.getStatus().getStatusCode())).count();
-        long completedCount = allOrders.stream()
-            .filter(o -> "COMPLETED".equals(o.getStatus().getStatusCode())).count();
-        
-        stats.put("pendingCount", pendingCount);
-        stats.put("preparingCount", preparingCount);
-        stats.put("completedCount", completedCount);
+        stats.put("pendingCount", count(totals, "PENDING"));
+        stats.put("preparingCount", count(totals, "CONFIRMED"));
+        stats.put("completedCount", count(totals, "COMPLETED"));
         
         return stats;
     }
 
     public Map<String, Object> getAdminDashboardStats() {
-        List<Order> allOrders = orderRepository.findAll();
+        Map<String, StatusTotals> totals = statsRegistry.snapshot();
         
         Map<String, Object> stats = new HashMap<>();
         
-        long pendingCount = allOrders.stream()
-            .filter(o -> "PENDING".equals(o.getStatus().getStatusCode())).count();
-        long confirmedCount = allOrders.stream()
-            .filter(o -> "CONFIRMED".equals(o.getStatus().getStatusCode())).count();
-        long deliveredCount = allOrders.stream()
-            .filter(o -> "COMPLETED".equals(o.getStatus().getStatusCode())).count();
-        long rejectedCount = allOrders.stream()
-            .filter(o -> "REJECTED".equals(o.getStatus().getStatusCode())).count();
+        BigDecimal totalSpent = subtotal(totals, "CONFIRMED").add(subtotal(totals, "COMPLETED"));
         
-        BigDecimal totalSpent = allOrders.stream()
-            .filter(o -> "CONFIRMED".equals(o.getStatus().getStatusCode()) || 
-                        "COMPLETED".equals(o.getStatus().getStatusCode()))
-            .map(Order::getSubtotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        stats.put("totalOrders", allOrders.size());
-        stats.put("pendingCount", pendingCount);
-        stats.put("confirmedCount", confirmedCount);
-        stats.put("deliveredCount", deliveredCount);
-        stats.put("rejectedCount", rejectedCount);
+        stats.put("totalOrders", totalCount(totals));
+        stats.put("pendingCount", count(totals, "PENDING"));
+        stats.put("confirmedCount", count(totals, "CONFIRMED"));
+        stats.put("deliveredCount", count(totals, "COMPLETED"));
+        stats.put("rejectedCount", count(totals, "REJECTED"));
         stats.put("totalSpent", totalSpent);
         
         return stats;
     }
 
+    private long count(Map<String, StatusTotals> totals, String status) {
+        return totals.getOrDefault(status, StatusTotals.EMPTY).count();
+    }
+
+    private BigDecimal subtotal(Map<String, StatusTotals> totals, String status) {
+        return totals.getOrDefault(status, StatusTotals.EMPTY).subtotal();
+    }
+
+    private long totalCount(Map<String, StatusTotals> totals) {
+        return totals.values().stream().mapToLong(StatusTotals::count).sum();
+    }
+
+    public PrepTimeStatsResponse getPrepTimeStats(String fromStatus, String toStatus, AnalyticsWindow window) {
+        return prepTimeAnalytics.getStats(fromStatus, toStatus, window);
+    }
+
+    public List<PrepTimeStatsResponse> getAllPrepTimeStats(AnalyticsWindow window) {
+        return prepTimeAnalytics.getAllStats(window);
+    }
+
     public Instant getTimeWhenStatusReached(Long orderId, String status) {
         OrderStatus orderStatus = new OrderStatusConverter().convertToEntityAttribute(status);
         return statusUpdateService.getTimeWhenStatusReached(orderId, orderStatus).orElseThrow(() -> new StatusNeverReachedException(orderId, orderStatus));
@@ -0,0 +1,20 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+public enum AnalyticsWindow {
+    TODAY,
+    LAST_24_HOURS,
+    LAST_7_DAYS;
+
+    public Instant since(Instant now, ZoneId zone) {
+        return switch (this) {
+            case TODAY -> LocalDate.ofInstant(now, zone).atStartOfDay(zone).toInstant();
+            case LAST_24_HOURS -> now.minus(Duration.ofHours(24));
+            case LAST_7_DAYS -> now.minus(RollingLatencyHistogram.RETENTION);
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.InvalidStatusRangeException;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Latency between the statuses of the order flow (e.g. CONFIRMED to READY), fed by the
+ * status changes as the outbox dispatcher records them. For every pair of statuses of
+ * the flow it keeps a {@link RollingLatencyHistogram}, measured from the first time an
+ * order reached each status. The last {@link RollingLatencyHistogram#RETENTION} of history
+ * is replayed at startup with one ordered scan.
+ */
+@Component
+@Slf4j
+public class PrepTimeAnalytics {
+
+    public static final List<String> FLOW = List.of("PENDING", "CONFIRMED", "PREPARING", "READY", "COMPLETED");
+    private static final Set<String> FINAL_STATUSES = Set.of("COMPLETED", "CANCELLED", "REJECTED");
+    private static final ZoneId ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    private record Transition(String from, String to) {}
+
+    private record StatusChange(Long orderNumber, String status, Instant at) {}
+
+    private final OrderStatusUpdateEventRepository historyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    private final Map<Transition, RollingLatencyHistogram> histograms = new LinkedHashMap<>();
+    private final Map<Long, Map<String, Instant>> reached = new ConcurrentHashMap<>();
+    private final List<StatusChange> bufferedDuringBackfill = new ArrayList<>();
+    private volatile boolean backfilled;
+
+    @Autowired
+    public PrepTimeAnalytics(OrderStatusUpdateEventRepository historyRepository, PlatformTransactionManager transactionManager) {
+        this(historyRepository, transactionManager, Clock.systemUTC());
+    }
+
+    PrepTimeAnalytics(OrderStatusUpdateEventRepository historyRepository, PlatformTransactionManager transactionManager, Clock clock) {
+        this.historyRepository = historyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.clock = clock;
+        for (int i = 0; i < FLOW.size(); i++) {
+            for (int j = i + 1; j < FLOW.size(); j++) {
+                histograms.put(new Transition(FLOW.get(i), FLOW.get(j)), new RollingLatencyHistogram());
+            }
+        }
+    }
+
+    /**
+     * Records that an order reached a status. Changes received before the startup replay
+     * finishes are applied right after it.
+     */
+    public void record(Long orderNumber, String status, Instant at) {
+        StatusChange change = new StatusChange(orderNumber, status, at);
+        if (!backfilled) {
+            synchronized (bufferedDuringBackfill) {
+                if (!backfilled) {
+                    bufferedDuringBackfill.add(change);
+                    return;
+                }
+            }
+        }
+        apply(change);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Instant since = clock.instant().minus(RollingLatencyHistogram.RETENTION);
+        long[] replayed = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<StatusChangeRow> rows = historyRepository.streamChangesSince(since)) {
+                rows.forEach(row -> {
+                    apply(new StatusChange(row.getOrderNumber(), row.getNewStatus().getStatusCode(), row.getChangedAt()));
+                    replayed[0]++;
+                });
+            }
+        });
+        synchronized (bufferedDuringBackfill) {
+            bufferedDuringBackfill.forEach(this::apply);
+            bufferedDuringBackfill.clear();
+            backfilled = true;
+        }
+        log.info("Prep time analytics replayed {} status changes since {}", replayed[0], since);
+    }
+
+    public PrepTimeStatsResponse getStats(String fromStatus, String toStatus, AnalyticsWindow window) {
+        RollingLatencyHistogram histogram = fromStatus == null || toStatus == null
+            ? null
+            : histograms.get(new Transition(fromStatus.toUpperCase(), toStatus.toUpperCase()));
+        if (histogram == null) {
+            throw new InvalidStatusRangeException(fromStatus, toStatus);
+        }
+        Instant now = clock.instant();
+        Instant since = window.since(now, ZONE);
+        return PrepTimeStatsResponse.of(fromStatus.toUpperCase(), toStatus.toUpperCase(), window, since, histogram.since(since, now));
+    }
+
+    public List<PrepTimeStatsResponse> getAllStats(AnalyticsWindow window) {
+        return histograms.keySet().stream()
+            .map(transition -> getStats(transition.from(), transition.to(), window))
+            .toList();
+    }
+
+    /**
+     * Forgets orders that never reached a final status within the retention period.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.analytics.evict-interval-ms:3600000}",
+            initialDelayString = "${app.orders.analytics.evict-interval-ms:3600000}")
+    public void evictStale() {
+        Instant cutoff = clock.instant().minus(RollingLatencyHistogram.RETENTION);
+        reached.values().removeIf(statuses -> statuses.values().stream().allMatch(at -> at.isBefore(cutoff)));
+    }
+
+    private void apply(StatusChange change) {
+        Instant now = clock.instant();
+        reached.compute(change.orderNumber(), (orderNumber, statuses) -> {
+            Map<String, Instant> current = statuses != null ? statuses : new HashMap<>();
+            if (current.putIfAbsent(change.status(), change.at()) == null) {
+                int to = FLOW.indexOf(change.status());
+                for (int from = 0; from < to; from++) {
+                    Instant reachedAt = current.get(FLOW.get(from));
+                    if (reachedAt != null) {
+                        long latency = Math.max(0, Duration.between(reachedAt, change.at()).toMillis());
+                        histograms.get(new Transition(FLOW.get(from), change.status())).record(change.at(), latency, now);
+                    }
+                }
+            }
+            return FINAL_STATUSES.contains(change.status()) ? null : current;
+        });
+    }
+}
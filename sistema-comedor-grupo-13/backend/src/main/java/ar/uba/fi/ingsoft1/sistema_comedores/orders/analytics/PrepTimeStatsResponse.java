@@ -0,0 +1,32 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import java.time.Instant;
+
+public record PrepTimeStatsResponse(
+    String fromStatus,
+    String toStatus,
+    AnalyticsWindow window,
+    Instant since,
+    long count,
+    long p50Millis,
+    long p90Millis,
+    long p95Millis,
+    long p99Millis,
+    long maxMillis
+) {
+    public static PrepTimeStatsResponse of(String fromStatus, String toStatus, AnalyticsWindow window,
+                                           Instant since, LatencyHistogram histogram) {
+        return new PrepTimeStatsResponse(
+            fromStatus,
+            toStatus,
+            window,
+            since,
+            histogram.count(),
+            histogram.valueAtPercentile(50),
+            histogram.valueAtPercentile(90),
+            histogram.valueAtPercentile(95),
+            histogram.valueAtPercentile(99),
+            histogram.max()
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring of hourly {@link LatencyHistogram}s covering the last {@link #SLOTS} hours. Slots
+ * are allocated on first use and recycled once their hour falls out of the ring, so the
+ * memory is bounded regardless of the traffic.
+ */
+public class RollingLatencyHistogram {
+
+    public static final int SLOTS = 7 * 24;
+    public static final Duration RETENTION = Duration.ofHours(SLOTS);
+
+    private record Slot(long hour, LatencyHistogram histogram) {}
+
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(SLOTS);
+
+    /**
+     * Records a latency in the slot of the hour it was observed at. Observations older
+     * than the ring are ignored.
+     */
+    public void record(Instant observedAt, long latencyMillis, Instant now) {
+        long hour = hourOf(observedAt);
+        if (hour <= hourOf(now) - SLOTS) {
+            return;
+        }
+        int index = (int) Math.floorMod(hour, (long) SLOTS);
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.hour() == hour) {
+                slot.histogram().record(latencyMillis);
+                return;
+            }
+            if (slot != null && slot.hour() > hour) {
+                // The slot already holds a newer hour: this observation is out of the ring
+                return;
+            }
+            slots.compareAndSet(index, slot, new Slot(hour, new LatencyHistogram()));
+        }
+    }
+
+    /**
+     * Merges the slots of the hours from the one containing {@code since} up to now.
+     */
+    public LatencyHistogram since(Instant since, Instant now) {
+        long fromHour = Math.max(hourOf(since), hourOf(now) - SLOTS + 1);
+        long toHour = hourOf(now);
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int i = 0; i < SLOTS; i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.hour() >= fromHour && slot.hour() <= toHour) {
+                merged.add(slot.histogram());
+            }
+        }
+        return merged;
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 3600L);
+    }
+}
@@ -0,0 +1,11 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+
+import java.time.Instant;
+
+public interface StatusChangeRow {
+    Long getOrderNumber();
+    OrderStatus getNewStatus();
+    Instant getChangedAt();
+}
@@ -0,0 +1,12 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CartItemRequest(
+    @NotNull(message = "El producto es obligatorio")
+    Long productId,
+    @NotNull(message = "La cantidad es obligatoria")
+    @Positive(message = "La cantidad debe ser positiva")
+    Integer quantity
+) {}
@@ -0,0 +1,176 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.CartView;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cart held on the server between requests. Besides its lines it keeps the resolved products,
+ * the {@link CartView} aggregates and the standalone discount of each promotion, so a change
+ * only re-evaluates the promotions of the categories it touched.
+ *
+ * Not thread-safe; {@link CartSessionService} synchronizes on the session.
+ */
+public class CartSession {
+
+    private final UUID id;
+    private final String ownerEmail;
+
+    private final Map<Long, Integer> quantities = new LinkedHashMap<>();
+    private final Map<Long, Product> products = new HashMap<>();
+    private long priceVersion = -1;
+    private CartView view = CartView.of(Map.of());
+
+    // Promotion evaluation state, valid for the catalog version it was computed with
+    private final Map<Promotion, BigDecimal> standaloneDiscounts = new HashMap<>();
+    private int changedCategories;
+    private long catalogVersion = -1;
+    private PromotionCombination combination;
+
+    private long lastAccessMillis;
+    private boolean checkedOut;
+
+    CartSession(UUID id, String ownerEmail, long nowMillis) {
+        this.id = id;
+        this.ownerEmail = ownerEmail;
+        this.lastAccessMillis = nowMillis;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    boolean isCheckedOut() {
+        return checkedOut;
+    }
+
+    void checkedOut() {
+        checkedOut = true;
+    }
+
+    boolean isEmpty() {
+        return quantities.isEmpty();
+    }
+
+    Collection<Long> productIds() {
+        return quantities.keySet();
+    }
+
+    Map<Long, Product> products() {
+        return products;
+    }
+
+    CartView view() {
+        return view;
+    }
+
+    List<OrderItemRequest> items() {
+        List<OrderItemRequest> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> items.add(new OrderItemRequest(productId, quantity)));
+        return items;
+    }
+
+    Map<Product, Integer> productQuantities() {
+        Map<Product, Integer> cart = new HashMap<>();
+        quantities.forEach((productId, quantity) -> cart.put(products.get(productId), quantity));
+        return cart;
+    }
+
+    /**
+     * Sets the quantity of a line, removing it when it reaches zero, and updates the
+     * aggregates of the product's category only.
+     */
+    void setQuantity(Product product, int quantity) {
+        if (quantity <= 0) {
+            quantities.remove(product.getId());
+            products.remove(product.getId());
+        } else {
+            quantities.put(product.getId(), quantity);
+            products.put(product.getId(), product);
+        }
+        ProductCategory category = product.getCategory();
+        view = view.withCategory(category, linesOf(category));
+        changedCategories |= CartView.categoryBit(category);
+        combination = null;
+    }
+
+    int quantityOf(Long productId) {
+        return quantities.getOrDefault(productId, 0);
+    }
+
+    /**
+     * Replaces every resolved product after a price change and drops all the promotion
+     * results computed with the previous prices.
+     */
+    void replaceProducts(Map<Long, Product> resolved, long priceVersion) {
+        products.clear();
+        products.putAll(resolved);
+        this.priceVersion = priceVersion;
+        view = CartView.of(productQuantities());
+        standaloneDiscounts.clear();
+        changedCategories = 0;
+        catalogVersion = -1;
+        combination = null;
+    }
+
+    Map<Promotion, BigDecimal> standaloneDiscounts() {
+        return standaloneDiscounts;
+    }
+
+    int changedCategories() {
+        return changedCategories;
+    }
+
+    long priceVersion() {
+        return priceVersion;
+    }
+
+    long catalogVersion() {
+        return catalogVersion;
+    }
+
+    PromotionCombination combination() {
+        return combination;
+    }
+
+    void evaluated(PromotionCombination combination, long catalogVersion) {
+        this.combination = combination;
+        this.catalogVersion = catalogVersion;
+        this.changedCategories = 0;
+    }
+
+    private Map<Product, Integer> linesOf(ProductCategory category) {
+        Map<Product, Integer> lines = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product.getCategory() == category) {
+                lines.put(product, entry.getValue());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,98 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.config.security.JwtUserDetails;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/orders/carts")
+@Tag(name = "Carts", description = "Carritos guardados en el servidor con cálculo incremental de promociones")
+public class CartSessionController {
+
+    private final CartSessionService cartSessionService;
+
+    @Autowired
+    public CartSessionController(CartSessionService cartSessionService) {
+        this.cartSessionService = cartSessionService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Crear carrito", description = "Crea un carrito vacío del usuario autenticado")
+    public ResponseEntity<?> createCart(@AuthenticationPrincipal JwtUserDetails userDetails) {
+        CartSessionResponse cart = cartSessionService.createCart(userDetails.username());
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("success", true, "data", cart));
+    }
+
+    @GetMapping("/{cartId}")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Obtener carrito", description = "Retorna los productos del carrito y las promociones aplicables")
+    public ResponseEntity<?> getCart(
+        @PathVariable UUID cartId,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        CartSessionResponse cart = cartSessionService.getCart(cartId, userDetails.username());
+        return ResponseEntity.ok(Map.of("success", true, "data", cart));
+    }
+
+    @PostMapping("/{cartId}/items")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Agregar producto al carrito", description = "Suma la cantidad indicada del producto y recalcula las promociones")
+    public ResponseEntity<?> addItem(
+        @PathVariable UUID cartId,
+        @Valid @RequestBody CartItemRequest request,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        CartSessionResponse cart = cartSessionService.addItem(cartId, userDetails.username(), request);
+        return ResponseEntity.ok(Map.of("success", true, "data", cart));
+    }
+
+    @DeleteMapping("/{cartId}/items/{productId}")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Quitar producto del carrito", description = "Quita la línea del producto y recalcula las promociones")
+    public ResponseEntity<?> removeItem(
+        @PathVariable UUID cartId,
+        @PathVariable Long productId,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        CartSessionResponse cart = cartSessionService.removeItem(cartId, userDetails.username(), productId);
+        return ResponseEntity.ok(Map.of("success", true, "data", cart));
+    }
+
+    @DeleteMapping("/{cartId}")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Descartar carrito", description = "Elimina el carrito sin crear un pedido")
+    public ResponseEntity<Void> deleteCart(
+        @PathVariable UUID cartId,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        cartSessionService.deleteCart(cartId, userDetails.username());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{cartId}/checkout")
+    @PreAuthorize("hasAuthority('STUDENT')")
+    @Operation(summary = "Confirmar carrito", description = "Crea el pedido con los productos y promociones del carrito")
+    public ResponseEntity<?> checkout(
+        @PathVariable UUID cartId,
+        @AuthenticationPrincipal JwtUserDetails userDetails
+    ) {
+        OrderDetailsResponse order = cartSessionService.checkout(cartId, userDetails.username());
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+            "success", true,
+            "message", "Pedido creado exitosamente",
+            "order", order
+        ));
+    }
+}
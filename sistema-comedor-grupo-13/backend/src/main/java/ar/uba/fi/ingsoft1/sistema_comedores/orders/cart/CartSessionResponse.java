@@ -0,0 +1,13 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CartSessionResponse(
+    UUID id,
+    List<OrderItemResponse> items,
+    CalculatePromotionResponse quote
+) {}
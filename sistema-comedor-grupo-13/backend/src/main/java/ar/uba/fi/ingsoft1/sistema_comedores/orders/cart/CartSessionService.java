@@ -0,0 +1,204 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.CartSessionNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.EmptyCartException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductPriceVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotAvailableException;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.CartView;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalog;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cart sessions: the cart is kept on the server and changed one line at a time. After a
+ * change only the promotions that affect the changed categories are evaluated again; the
+ * others keep the discount computed for them before. Checking out places the order with the
+ * promotions already resolved by the session; the order itself loads the products again.
+ */
+@Service
+@Slf4j
+public class CartSessionService {
+
+    private final CartSessionStore store;
+    private final ProductService productService;
+    private final ProductPriceVersion priceVersion;
+    private final PromotionCatalogRegistry catalogRegistry;
+    private final OrderService orderService;
+    private final Duration optimizerTimeBudget;
+
+    @Autowired
+    public CartSessionService(CartSessionStore store, ProductService productService, ProductPriceVersion priceVersion,
+                              PromotionCatalogRegistry catalogRegistry, OrderService orderService,
+                              @Value("${app.promotions.optimizer.time-budget-ms:50}") long optimizerTimeBudgetMs) {
+        this.store = store;
+        this.productService = productService;
+        this.priceVersion = priceVersion;
+        this.catalogRegistry = catalogRegistry;
+        this.orderService = orderService;
+        this.optimizerTimeBudget = Duration.ofMillis(optimizerTimeBudgetMs);
+    }
+
+    public CartSessionResponse createCart(String email) {
+        CartSession session = store.create(email);
+        synchronized (session) {
+            return toResponse(session);
+        }
+    }
+
+    public CartSessionResponse getCart(UUID cartId, String email) {
+        CartSession session = find(cartId, email);
+        synchronized (session) {
+            return toResponse(session);
+        }
+    }
+
+    public CartSessionResponse addItem(UUID cartId, String email, CartItemRequest item) {
+        CartSession session = find(cartId, email);
+        synchronized (session) {
+            Product product = resolve(session, item.productId());
+            if (!product.isAvailable()) {
+                throw new ProductNotAvailableException(product.getName());
+            }
+            session.setQuantity(product, session.quantityOf(item.productId()) + item.quantity());
+            return toResponse(session);
+        }
+    }
+
+    public CartSessionResponse removeItem(UUID cartId, String email, Long productId) {
+        CartSession session = find(cartId, email);
+        synchronized (session) {
+            Product product = session.products().get(productId);
+            if (product != null) {
+                session.setQuantity(product, 0);
+            }
+            return toResponse(session);
+        }
+    }
+
+    public void deleteCart(UUID cartId, String email) {
+        find(cartId, email);
+        store.remove(cartId);
+    }
+
+    public OrderDetailsResponse checkout(UUID cartId, String email) {
+        CartSession session = find(cartId, email);
+        synchronized (session) {
+            // A concurrent checkout of the same cart may have placed the order while this one
+            // waited for the session
+            if (session.isCheckedOut()) {
+                throw new CartSessionNotFoundException(cartId);
+            }
+            if (session.isEmpty()) {
+                throw new EmptyCartException(cartId);
+            }
+            PromotionCombination promotions = evaluate(session);
+            OrderDetailsResponse order = orderService.createOrder(session.items(), session.products(), promotions, email);
+            session.checkedOut();
+            store.remove(cartId);
+            log.debug("Cart session {} checked out", cartId);
+            return order;
+        }
+    }
+
+    private CartSession find(UUID cartId, String email) {
+        return store.find(cartId, email).orElseThrow(() -> new CartSessionNotFoundException(cartId));
+    }
+
+    /**
+     * Returns the product from the session, loading it if it is new to the cart. If prices
+     * changed since the session resolved its products, all of them are loaded again.
+     */
+    private Product resolve(CartSession session, Long productId) {
+        long prices = priceVersion.current();
+        if (session.priceVersion() != prices) {
+            Set<Long> ids = new LinkedHashSet<>(session.productIds());
+            ids.add(productId);
+            Map<Long, Product> resolved = productService.getProductsByIds(ids);
+            Map<Long, Product> inCart = new HashMap<>(resolved);
+            inCart.keySet().retainAll(session.productIds());
+            session.replaceProducts(inCart, prices);
+            return resolved.get(productId);
+        }
+        Product product = session.products().get(productId);
+        return product != null ? product : productService.getProductsByIds(List.of(productId)).get(productId);
+    }
+
+    /**
+     * Best promotion combination for the session. Only the product-specific promotions that
+     * affect a category changed since the last evaluation are evaluated again; the search
+     * then reuses the discounts kept for the rest.
+     */
+    private PromotionCombination evaluate(CartSession session) {
+        long prices = priceVersion.current();
+        if (session.priceVersion() != prices) {
+            Map<Long, Product> resolved = session.isEmpty()
+                    ? new HashMap<>()
+                    : productService.getProductsByIds(session.productIds());
+            session.replaceProducts(resolved, prices);
+        }
+
+        PromotionCatalog catalog = catalogRegistry.active();
+        if (session.catalogVersion() == catalog.version() && session.combination() != null) {
+            return session.combination();
+        }
+        Map<Promotion, BigDecimal> discounts = session.standaloneDiscounts();
+        int changed = session.catalogVersion() == catalog.version() ? session.changedCategories() : -1;
+
+        CartView view = session.view();
+        Set<Promotion> candidates = catalog.candidatesFor(session.products().values());
+        Map<Promotion, BigDecimal> known = new HashMap<>();
+        for (Promotion promotion : candidates) {
+            if (promotion.getPromotionCategory() == PromotionCategory.ORDER_LEVEL) {
+                continue;
+            }
+            BigDecimal discount = discounts.get(promotion);
+            if (discount == null || (DiscountOptimizer.affectedCategories(promotion) & changed) != 0) {
+                discount = DiscountOptimizer.standaloneDiscount(promotion, view);
+            }
+            known.put(promotion, discount);
+        }
+        discounts.clear();
+        discounts.putAll(known);
+
+        PromotionCombination combination = new DiscountOptimizer(candidates, view, known, optimizerTimeBudget)
+                .getBestPromotions();
+        session.evaluated(combination, catalog.version());
+        return combination;
+    }
+
+    private CartSessionResponse toResponse(CartSession session) {
+        PromotionCombination promotions = evaluate(session);
+        List<OrderItemResponse> items = new ArrayList<>();
+        for (OrderItemRequest item : session.items()) {
+            Product product = session.products().get(item.productId());
+            items.add(new OrderItemResponse(product.getId(), product.getName(), product.getPrice(), item.quantity(),
+                    product.getPrice().multiply(BigDecimal.valueOf(item.quantity()))));
+        }
+        CalculatePromotionResponse quote = orderService.toPromotionResponse(session.productQuantities(), promotions);
+        return new CartSessionResponse(session.getId(), items, quote);
+    }
+}
@@ -0,0 +1,136 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory store of cart sessions, bounded by count, by count per user and by idle time.
+ * A user at the limit loses their own session idle for the longest, so one user cannot push
+ * out everyone else's carts; when the whole store is full, the session idle for the longest
+ * is dropped to make room.
+ */
+@Component
+@Slf4j
+public class CartSessionStore {
+
+    private final int maxSessions;
+    private final int maxSessionsPerUser;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<UUID, CartSession> sessions;
+    private final Map<String, Integer> sessionsByOwner = new HashMap<>();
+
+    @Autowired
+    public CartSessionStore(@Value("${app.orders.cart-sessions.max-sessions:5000}") int maxSessions,
+                            @Value("${app.orders.cart-sessions.max-sessions-per-user:5}") int maxSessionsPerUser,
+                            @Value("${app.orders.cart-sessions.ttl-ms:1800000}") long ttlMillis) {
+        this(maxSessions, maxSessionsPerUser, ttlMillis, Clock.systemUTC());
+    }
+
+    CartSessionStore(int maxSessions, int maxSessionsPerUser, long ttlMillis, Clock clock) {
+        this.maxSessions = maxSessions;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CartSession> eldest) {
+                if (size() <= CartSessionStore.this.maxSessions) {
+                    return false;
+                }
+                forget(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public synchronized CartSession create(String ownerEmail) {
+        if (sessionsByOwner.getOrDefault(ownerEmail, 0) >= maxSessionsPerUser) {
+            removeEldestOf(ownerEmail);
+        }
+        CartSession session = new CartSession(UUID.randomUUID(), ownerEmail, clock.millis());
+        sessionsByOwner.merge(ownerEmail, 1, Integer::sum);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Returns the session if it exists, has not expired and belongs to the given user.
+     */
+    public synchronized Optional<CartSession> find(UUID id, String ownerEmail) {
+        CartSession session = sessions.get(id);
+        if (session == null || !session.getOwnerEmail().equals(ownerEmail)) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        if (isExpired(session, now)) {
+            remove(id);
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session);
+    }
+
+    public synchronized void remove(UUID id) {
+        CartSession session = sessions.remove(id);
+        if (session != null) {
+            forget(session);
+        }
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.cart-sessions.purge-interval-ms:60000}",
+            initialDelayString = "${app.orders.cart-sessions.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = clock.millis();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> {
+            if (!isExpired(session, now)) {
+                return false;
+            }
+            forget(session);
+            return true;
+        });
+        int purged = before - sessions.size();
+        if (purged > 0) {
+            log.debug("Purged {} expired cart sessions", purged);
+        }
+    }
+
+    /**
+     * Drops the session of the user that was idle for the longest. Sessions are kept in access
+     * order, so it is the first one found.
+     */
+    private void removeEldestOf(String ownerEmail) {
+        for (Iterator<CartSession> it = sessions.values().iterator(); it.hasNext(); ) {
+            CartSession session = it.next();
+            if (session.getOwnerEmail().equals(ownerEmail)) {
+                it.remove();
+                forget(session);
+                return;
+            }
+        }
+    }
+
+    private void forget(CartSession session) {
+        sessionsByOwner.computeIfPresent(session.getOwnerEmail(), (owner, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean isExpired(CartSession session, long now) {
+        return now - session.getLastAccessMillis() >= ttlMillis;
+    }
+}
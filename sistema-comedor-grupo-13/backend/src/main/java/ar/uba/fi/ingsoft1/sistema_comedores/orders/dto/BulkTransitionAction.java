@@ -0,0 +1,7 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+public enum BulkTransitionAction {
+    FORWARD,
+    BACKWARD,
+    REJECT
+}
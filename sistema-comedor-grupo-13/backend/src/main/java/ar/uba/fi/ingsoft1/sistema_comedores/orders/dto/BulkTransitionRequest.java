@@ -0,0 +1,16 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record BulkTransitionRequest(
+    @NotNull(message = "La acción es obligatoria")
+    BulkTransitionAction action,
+    @NotEmpty(message = "Debe indicar al menos un pedido")
+    @Size(max = 200, message = "No se pueden actualizar más de 200 pedidos a la vez")
+    List<@NotNull Long> orderNumbers,
+    String reason
+) {}
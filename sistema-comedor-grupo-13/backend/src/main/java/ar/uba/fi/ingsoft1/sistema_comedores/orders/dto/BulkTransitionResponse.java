@@ -0,0 +1,14 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+import java.util.List;
+
+public record BulkTransitionResponse(
+    int succeeded,
+    int failed,
+    List<BulkTransitionResult> results
+) {
+    public static BulkTransitionResponse from(List<BulkTransitionResult> results) {
+        int succeeded = (int) results.stream().filter(BulkTransitionResult::success).count();
+        return new BulkTransitionResponse(succeeded, results.size() - succeeded, results);
+    }
+}
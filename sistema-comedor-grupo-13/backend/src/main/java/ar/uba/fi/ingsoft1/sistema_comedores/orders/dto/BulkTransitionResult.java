@@ -0,0 +1,17 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+public record BulkTransitionResult(
+    Long orderNumber,
+    boolean success,
+    String previousStatus,
+    String newStatus,
+    String error
+) {
+    public static BulkTransitionResult succeeded(Long orderNumber, String previousStatus, String newStatus) {
+        return new BulkTransitionResult(orderNumber, true, previousStatus, newStatus, null);
+    }
+
+    public static BulkTransitionResult failed(Long orderNumber, String currentStatus, String error) {
+        return new BulkTransitionResult(orderNumber, false, currentStatus, currentStatus, error);
+    }
+}
@@ -0,0 +1,43 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.InvalidOrderCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the (createdAt, orderNumber) descending order used by the order listings.
+ * Travels to the client as an opaque URL-safe token.
+ */
+public record OrderCursor(Instant createdAt, Long orderNumber) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getOrderNumber());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + orderNumber;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) throws InvalidOrderCursorException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidOrderCursorException(token);
+            }
+            return new OrderCursor(
+                Instant.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidOrderCursorException(token);
+        }
+    }
+}
@@ -77,4 +77,21 @@ public record OrderDetailsResponse(
             user
         );
     }
-}
\ No newline at end of file
+
+    public OrderDetailsResponse withStatus(String status, Instant updatedAt) {
+        return new OrderDetailsResponse(
+            id,
+            orderNumber,
+            userId,
+            status,
+            subtotal,
+            discountAmount,
+            appliedPromotions,
+            totalAmount,
+            items,
+            createdAt,
+            updatedAt,
+            user
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+    List<OrderDetailsResponse> orders,
+    String nextCursor,
+    boolean hasMore
+) {}
@@ -0,0 +1,13 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.exception;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.ResourceNotFoundException;
+
+import java.util.UUID;
+
+public class CartSessionNotFoundException extends ResourceNotFoundException {
+
+    public CartSessionNotFoundException(UUID cartId) {
+        super(String.format("Carrito %s no encontrado o expirado", cartId));
+    }
+
+}
@@ -0,0 +1,13 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.exception;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.BusinessRuleException;
+
+import java.util.UUID;
+
+public class EmptyCartException extends BusinessRuleException {
+
+    public EmptyCartException(UUID cartId) {
+        super("El carrito " + cartId + " no tiene productos");
+    }
+
+}
@@ -0,0 +1,10 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.exception;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.BusinessRuleException;
+
+public class InvalidOrderCursorException extends BusinessRuleException {
+
+    public InvalidOrderCursorException(String cursor) {
+        super("Cursor de paginación inválido: " + cursor);
+    }
+}
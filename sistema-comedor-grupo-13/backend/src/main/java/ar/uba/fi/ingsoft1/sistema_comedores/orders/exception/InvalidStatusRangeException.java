@@ -0,0 +1,10 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.exception;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.BusinessRuleException;
+
+public class InvalidStatusRangeException extends BusinessRuleException {
+
+    public InvalidStatusRangeException(String fromStatus, String toStatus) {
+        super("No se registran tiempos de " + fromStatus + " a " + toStatus);
+    }
+}
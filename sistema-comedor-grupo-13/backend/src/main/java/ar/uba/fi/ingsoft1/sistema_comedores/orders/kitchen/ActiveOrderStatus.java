@@ -0,0 +1,8 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+
+public interface ActiveOrderStatus {
+    Long getOrderNumber();
+    OrderStatus getStatus();
+}
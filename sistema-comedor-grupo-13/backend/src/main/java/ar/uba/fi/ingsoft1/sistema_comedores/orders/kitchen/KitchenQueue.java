@@ -0,0 +1,188 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ConfirmedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PreparingOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ReadyOrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Live view of the orders the kitchen is working on, partitioned by status and sorted
+ * newest first like the order listings, so the staff screens do not query the orders
+ * table on every poll. OrderService applies creations and transitions after their
+ * transaction commits; the queue is loaded at startup and rebuilt whenever the periodic
+ * check finds it out of sync with the database.
+ */
+@Component
+@Slf4j
+public class KitchenQueue {
+
+    /** Bound as query parameters, so the status converter turns them into the stored codes. */
+    public static final List<OrderStatus> ACTIVE_ORDER_STATUSES = List.of(
+        new PendingOrderStatus(), new ConfirmedOrderStatus(), new PreparingOrderStatus(), new ReadyOrderStatus());
+
+    public static final List<String> ACTIVE_STATUSES = ACTIVE_ORDER_STATUSES.stream()
+        .map(OrderStatus::getStatusCode)
+        .toList();
+
+    private static final Comparator<OrderDetailsResponse> NEWEST_FIRST = Comparator
+        .comparing(OrderDetailsResponse::createdAt, Comparator.reverseOrder())
+        .thenComparing(OrderDetailsResponse::orderNumber, Comparator.reverseOrder());
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Snapshot state = Snapshot.empty();
+    private long mutations;
+
+    @Autowired
+    public KitchenQueue(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void recordCreated(Order order) {
+        OrderDetailsResponse response = OrderDetailsResponse.from(order);
+        Transactions.afterCommit(() -> move(response.orderNumber(), response.status(), response));
+    }
+
+    /**
+     * Must be called inside the transaction that changed the order: if the order is not
+     * queued yet its full response is built while its collections can still be loaded.
+     */
+    public void recordTransition(Order order) {
+        String status = order.getStatusCode();
+        OrderDetailsResponse fallback = ACTIVE_STATUSES.contains(status) && !state.byNumber().containsKey(order.getOrderNumber())
+            ? OrderDetailsResponse.from(order)
+            : null;
+        Transactions.afterCommit(() -> move(order.getOrderNumber(), status, fallback));
+    }
+
+    /**
+     * Orders currently in the given status, newest first.
+     */
+    public List<OrderDetailsResponse> view(String status) {
+        NavigableSet<OrderDetailsResponse> partition = state.partitions().get(status);
+        if (partition == null) {
+            throw new IllegalArgumentException("Not a kitchen queue status: " + status);
+        }
+        return List.copyOf(partition);
+    }
+
+    public Map<String, List<OrderDetailsResponse>> views() {
+        Map<String, List<OrderDetailsResponse>> views = new LinkedHashMap<>();
+        for (String status : ACTIVE_STATUSES) {
+            views.put(status, view(status));
+        }
+        return views;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long version = mutations();
+        Snapshot loaded = transactionTemplate.execute(status -> load());
+        synchronized (this) {
+            if (mutations != version) {
+                log.info("Kitchen queue changed while it was being loaded, retrying on the next check");
+                return;
+            }
+            state = loaded;
+        }
+        log.info("Kitchen queue loaded with {} active orders", loaded.byNumber().size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.kitchen.verify-interval-ms:30000}",
+            initialDelayString = "${app.orders.kitchen.verify-interval-ms:30000}")
+    public void verify() {
+        long version = mutations();
+        Map<Long, String> stored = new HashMap<>();
+        for (ActiveOrderStatus entry : orderRepository.findActiveStatuses(ACTIVE_ORDER_STATUSES)) {
+            stored.put(entry.getOrderNumber(), entry.getStatus().getStatusCode());
+        }
+
+        Map<Long, String> queued = new HashMap<>();
+        synchronized (this) {
+            if (mutations != version) {
+                // Transitions committed meanwhile, compare again on the next check
+                return;
+            }
+            state.byNumber().forEach((orderNumber, response) -> queued.put(orderNumber, response.status()));
+        }
+
+        if (!stored.equals(queued)) {
+            log.warn("Kitchen queue drifted from the database ({} queued, {} stored), rebuilding", queued.size(), stored.size());
+            rebuild();
+        }
+    }
+
+    private synchronized long mutations() {
+        return mutations;
+    }
+
+    private synchronized void move(Long orderNumber, String status, OrderDetailsResponse fallback) {
+        mutations++;
+        OrderDetailsResponse current = state.byNumber().remove(orderNumber);
+        if (current != null) {
+            state.partitions().get(current.status()).remove(current);
+        }
+        if (!ACTIVE_STATUSES.contains(status)) {
+            return;
+        }
+        OrderDetailsResponse next = current != null ? current.withStatus(status, Instant.now()) : fallback;
+        if (next != null) {
+            state.add(next);
+        }
+    }
+
+    private Snapshot load() {
+        List<Order> orders = orderRepository.findByStatusIn(ACTIVE_ORDER_STATUSES);
+        List<Long> orderNumbers = orders.stream().map(Order::getOrderNumber).toList();
+        if (!orderNumbers.isEmpty()) {
+            orderRepository.fetchItems(orderNumbers);
+            orderRepository.fetchAppliedPromotions(orderNumbers);
+        }
+        Snapshot loaded = Snapshot.empty();
+        orders.stream().map(OrderDetailsResponse::from).forEach(loaded::add);
+        return loaded;
+    }
+
+    private record Snapshot(Map<String, NavigableSet<OrderDetailsResponse>> partitions,
+                            Map<Long, OrderDetailsResponse> byNumber) {
+
+        static Snapshot empty() {
+            Map<String, NavigableSet<OrderDetailsResponse>> partitions = new HashMap<>();
+            for (String status : ACTIVE_STATUSES) {
+                partitions.put(status, new ConcurrentSkipListSet<>(NEWEST_FIRST));
+            }
+            return new Snapshot(Map.copyOf(partitions), new ConcurrentHashMap<>());
+        }
+
+        void add(OrderDetailsResponse response) {
+            partitions.get(response.status()).add(response);
+            byNumber.put(response.orderNumber(), response);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications;
+
+/**
+ * State of the SSE fan-out: open connections, updates waiting to be sent (in total and in the
+ * fullest queue) and counters since startup.
+ */
+public record NotificationStats(
+        int connections,
+        int queuedEvents,
+        int maxQueueDepth,
+        int queueCapacity,
+        long delivered,
+        long coalesced,
+        long dropped,
+        long evicted
+) {}
@@ -0,0 +1,33 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/notifications")
+@Tag(name = "Notifications", description = "Estado del envío de notificaciones de pedidos")
+public class NotificationStatsController {
+
+    private final OrderNotificationService notificationService;
+
+    @Autowired
+    public NotificationStatsController(OrderNotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Estadísticas de notificaciones",
+            description = "Conexiones abiertas, eventos en cola, enviados, reemplazados por uno más nuevo, descartados y conexiones cerradas por lentas")
+    public ResponseEntity<?> getStats() {
+        return ResponseEntity.ok(Map.of("success", true, "data", notificationService.getStats()));
+    }
+}
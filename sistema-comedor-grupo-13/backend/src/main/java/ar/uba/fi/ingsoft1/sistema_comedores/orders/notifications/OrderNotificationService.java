@@ -1,51 +1,77 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications;
 
-import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.User;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Pushes order status updates to the customers' SSE connections. Publishing only queues the
+ * update: every connection has a bounded queue drained by a virtual thread of its own, so a
+ * slow or dead client holds up neither the caller nor the other clients.
+ * <p>
+ * A queued update is replaced by a newer one for the same order, since only the latest status
+ * matters. A connection whose queue overflows, or whose send stays blocked longer than the
+ * stall timeout, is closed and its pending updates dropped; the browser's EventSource
+ * reconnects. A heartbeat comment keeps idle connections open through proxies.
+ * <p>
+ * Connections are kept by user id, resolved once when subscribing.
+ */
 @Service
+@Slf4j
 public class OrderNotificationService {
 
+    static final String UPDATE_EVENT = "order-status-update";
+
     private final UserRepository userRepository;
+    private final int queueCapacity;
+    private final Duration stallTimeout;
+
+    private final Map<Long, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
 
-    public OrderNotificationService(UserRepository userRepository) {
+    @Autowired
+    public OrderNotificationService(UserRepository userRepository,
+                                    @Value("${app.orders.notifications.queue-capacity:64}") int queueCapacity,
+                                    @Value("${app.orders.notifications.stall-timeout-ms:30000}") long stallTimeoutMs) {
         this.userRepository = userRepository;
+        this.queueCapacity = queueCapacity;
+        this.stallTimeout = Duration.ofMillis(stallTimeoutMs);
     }
 
-    
-    private final Map<String, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
-
     public SseEmitter subscribe(String email) {
-        System.out.println("SSE subscription started");
-
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-
-        emitters.computeIfAbsent(email, e -> new CopyOnWriteArrayList<>()).add(emitter);
-
-        emitter.onCompletion(() -> {
-            System.out.println("SSE emitter completed");
-            removeEmitter(email, emitter);
-        });
-
-        emitter.onTimeout(() -> {
-            System.out.println("SSE emitter timeout");
-            removeEmitter(email, emitter);
-        });
-
-        emitter.onError((e) -> {
-            System.out.println("SSE emitter error: " + e.getMessage());
-            removeEmitter(email, emitter);
-        });
+        Optional<User> user = userRepository.findByEmail(email);
+        if (user.isEmpty()) {
+            // Nothing would ever be sent on it, so it is closed instead of held open
+            log.debug("SSE subscription for unknown user {}, closing it", email);
+            emitter.complete();
+            return emitter;
+        }
+        register(user.get().getId(), email, emitter);
 
         try {
             emitter.send(
@@ -53,65 +79,213 @@ public class OrderNotificationService {
                     .name("connected")
                     .data("SSE connection established")
             );
-        } catch (Exception ignored) {
-            System.out.println("Failed to send initial SSE 'connected' event");
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Failed to send initial SSE 'connected' event: {}", e.getMessage());
         }
-
         return emitter;
     }
 
-    private void removeEmitter(String email, SseEmitter emitter) {
-        List<SseEmitter> list = emitters.get(email);
-
-        if (list != null) {
-            list.remove(emitter);
+    Subscriber register(long userId, String email, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, email, emitter);
+        subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> close(subscriber, false));
+        emitter.onTimeout(() -> close(subscriber, false));
+        emitter.onError(e -> close(subscriber, false));
+        return subscriber;
+    }
 
-            if (list.isEmpty()) {
-                emitters.remove(email);
+    /**
+     * Queues a status update for every connection of the user. Never blocks.
+     */
+    public void publish(Long userId, Long orderNumber, String status) {
+        List<Subscriber> connections = userId != null ? subscribers.get(userId) : null;
+        if (connections == null) {
+            return;
+        }
+        for (Subscriber subscriber : connections) {
+            if (!subscriber.offer(orderNumber, status)) {
+                dropped.incrementAndGet();
+                log.warn("SSE connection of user {} has {} updates queued, closing it", userId, queueCapacity);
+                close(subscriber, true);
             }
         }
+    }
 
-        System.out.println("SSE emitter removed");
+    public void notifyStatusChange(Order order) {
+        if (order == null) {
+            return;
+        }
+        publish(order.getUserId(), order.getOrderNumber(), order.getStatus().getStatusCode());
     }
 
-    public void sendOrderUpdate(String email, Object event) {
-        List<SseEmitter> list = emitters.get(email);
+    /**
+     * Closes the connections stuck in a send and queues a heartbeat on the others.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.notifications.heartbeat-interval-ms:15000}",
+            initialDelayString = "${app.orders.notifications.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (List<Subscriber> connections : subscribers.values()) {
+            for (Subscriber subscriber : connections) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince != 0 && now - sendingSince > stallTimeout.toNanos()) {
+                    log.warn("SSE connection of user {} stalled for more than {} ms, closing it",
+                            subscriber.userId, stallTimeout.toMillis());
+                    close(subscriber, true);
+                } else {
+                    subscriber.heartbeat();
+                }
+            }
+        }
+    }
 
-        if (list == null || list.isEmpty()) {
-            System.out.println("No active SSE connections");
-            return;
+    public NotificationStats getStats() {
+        int connections = 0;
+        int queued = 0;
+        int maxDepth = 0;
+        for (List<Subscriber> list : subscribers.values()) {
+            for (Subscriber subscriber : list) {
+                int depth = subscriber.depth();
+                connections++;
+                queued += depth;
+                maxDepth = Math.max(maxDepth, depth);
+            }
         }
+        return new NotificationStats(connections, queued, maxDepth, queueCapacity, delivered.get(),
+                coalesced.get(), dropped.get(), evicted.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
 
-        for (SseEmitter emitter : list) {
+    private void close(Subscriber subscriber, boolean evict) {
+        int lost;
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+            lost = subscriber.pending.size();
+            subscriber.pending.clear();
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        dropped.addAndGet(lost);
+        if (evict) {
+            evicted.incrementAndGet();
             try {
-                emitter.send(
-                    SseEmitter.event()
-                        .name("order-status-update")
-                        .data(event)
-                );
-            } catch (IOException e) {
-                System.out.println("Emitter send failed — removing emitter");
-                removeEmitter(email, emitter);
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Failed to complete evicted SSE emitter: {}", e.getMessage());
             }
         }
     }
 
-    public void notifyStatusChange(Order order) {
-        if (order == null) return;
+    /**
+     * One SSE connection: the updates waiting to be sent, by order, and whether its sender
+     * is running.
+     */
+    final class Subscriber {
+        private final long userId;
+        private final String email;
+        private final SseEmitter emitter;
+        private final LinkedHashMap<Long, String> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean draining;
+        private boolean closed;
+        private volatile long sendingSince;
 
-        User user = userRepository.findById(order.getUserId()).orElse(null);
-        if (user == null) {
-            System.out.println("User not found for order");
-            return;
+        private Subscriber(long userId, String email, SseEmitter emitter) {
+            this.userId = userId;
+            this.email = email;
+            this.emitter = emitter;
         }
 
-        sendOrderUpdate(
-            user.getEmail(),
-            new OrderStatusDTO(
-                order.getOrderNumber(),
-                order.getStatus().getStatusCode(),
-                user.getEmail()
-            )
-        );
+        /**
+         * @return false if the queue is full and the update was not accepted
+         */
+        private synchronized boolean offer(Long orderNumber, String status) {
+            if (closed) {
+                return true;
+            }
+            if (pending.containsKey(orderNumber)) {
+                // Keeps its place in the queue with the newer status
+                pending.put(orderNumber, status);
+                coalesced.incrementAndGet();
+                return true;
+            }
+            if (pending.size() >= queueCapacity) {
+                return false;
+            }
+            pending.put(orderNumber, status);
+            startDraining();
+            return true;
+        }
+
+        private synchronized void heartbeat() {
+            if (!closed) {
+                heartbeatDue = true;
+                startDraining();
+            }
+        }
+
+        private synchronized int depth() {
+            return pending.size();
+        }
+
+        private void startDraining() {
+            if (!draining) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean update;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    update = !pending.isEmpty();
+                    if (update) {
+                        Iterator<Map.Entry<Long, String>> next = pending.entrySet().iterator();
+                        Map.Entry<Long, String> entry = next.next();
+                        next.remove();
+                        event = SseEmitter.event()
+                            .name(UPDATE_EVENT)
+                            .data(new OrderStatusDTO(entry.getKey(), entry.getValue(), email));
+                    } else {
+                        heartbeatDue = false;
+                        event = SseEmitter.event().comment("heartbeat");
+                    }
+                    sendingSince = System.nanoTime();
+                }
+                try {
+                    emitter.send(event);
+                    if (update) {
+                        delivered.incrementAndGet();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("SSE send to user {} failed, closing the connection: {}", userId, e.getMessage());
+                    if (update) {
+                        dropped.incrementAndGet();
+                    }
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    close(this, true);
+                    return;
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,202 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeAnalytics;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications.OrderNotificationService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEvent;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEventRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the order outbox in the background. Each batch is projected into the status
+ * history and deleted in one transaction, then fed to the prep time analytics and queued
+ * for the customers' SSE connections, which {@link OrderNotificationService} sends without
+ * holding up the drain. Those side effects run after the events are gone from the table, so
+ * a failure in one of them is logged and does not stop the rest of the batch.
+ * <p>
+ * A failed batch is retried event by event; events that keep failing are retried with
+ * exponential backoff and left in the table after {@link #MAX_ATTEMPTS}, where
+ * {@link OrderOutboxService#stats()} counts them and {@link OrderOutboxService#replayExhausted()}
+ * queues them again.
+ */
+@Component
+@Slf4j
+public class OrderOutboxDispatcher {
+
+    static final int MAX_ATTEMPTS = 10;
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderStatusUpdateEventRepository historyRepository;
+    private final OrderNotificationService notificationService;
+    private final PrepTimeAnalytics prepTimeAnalytics;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retryBackoff;
+
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("order-outbox-", 0).factory());
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    @Autowired
+    public OrderOutboxDispatcher(OrderOutboxRepository outboxRepository,
+                                 OrderStatusUpdateEventRepository historyRepository,
+                                 OrderNotificationService notificationService,
+                                 PrepTimeAnalytics prepTimeAnalytics,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.orders.outbox.batch-size:100}") int batchSize,
+                                 @Value("${app.orders.outbox.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.historyRepository = historyRepository;
+        this.notificationService = notificationService;
+        this.prepTimeAnalytics = prepTimeAnalytics;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+    }
+
+    /**
+     * Queues a drain of the outbox. Calls made while a drain is already queued are merged
+     * into it, so a burst of transitions is dispatched in a few batches.
+     */
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            drainer.execute(() -> {
+                drainQueued.set(false);
+                dispatchPending();
+            });
+        }
+    }
+
+    /**
+     * Picks up the events due for a retry and the ones left behind by a restart.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.outbox.poll-interval-ms:5000}",
+            initialDelayString = "${app.orders.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Dispatches every due event on the calling thread.
+     */
+    public void dispatchPending() {
+        try {
+            while (dispatchBatch()) {
+                // keep going while full batches succeed
+            }
+        } catch (RuntimeException e) {
+            log.error("Order outbox drain failed, pending events kept for the next poll", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return whether a full batch was dispatched without errors, so there may be more.
+     */
+    private boolean dispatchBatch() {
+        List<Long> ids = outboxRepository.findDispatchableIds(MAX_ATTEMPTS, Instant.now(), PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return false;
+        }
+        try {
+            dispatch(ids);
+        } catch (RuntimeException e) {
+            log.warn("Order outbox batch of {} events failed, retrying them one by one", ids.size(), e);
+            ids.forEach(this::dispatchOne);
+            return false;
+        }
+        return ids.size() == batchSize;
+    }
+
+    private void dispatchOne(Long id) {
+        try {
+            dispatch(List.of(id));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findById(id).ifPresent(event -> scheduleRetry(event, e)));
+        }
+    }
+
+    private void dispatch(List<Long> ids) {
+        List<OrderOutboxEvent> events = transactionTemplate.execute(status ->
+            project(outboxRepository.lockAllByIdIn(ids)));
+        for (OrderOutboxEvent event : events) {
+            String statusCode = event.getNewStatus().getStatusCode();
+            try {
+                prepTimeAnalytics.record(event.getOrderNumber(), statusCode, event.getOccurredAt());
+            } catch (RuntimeException e) {
+                log.error("Could not record prep time of order {} ({})", event.getOrderNumber(), statusCode, e);
+            }
+            if (event.isNotifyCustomer()) {
+                try {
+                    notificationService.publish(event.getUserId(), event.getOrderNumber(), statusCode);
+                } catch (RuntimeException e) {
+                    log.error("Could not notify order {} ({}) to user {}", event.getOrderNumber(), statusCode,
+                            event.getUserId(), e);
+                }
+            }
+        }
+    }
+
+    private List<OrderOutboxEvent> project(List<OrderOutboxEvent> events) {
+        historyRepository.saveAll(events.stream().map(this::toHistory).toList());
+        outboxRepository.deleteAllInBatch(events);
+        return events;
+    }
+
+    private OrderStatusUpdateEvent toHistory(OrderOutboxEvent event) {
+        OrderStatusUpdateEvent history = new OrderStatusUpdateEvent();
+        history.setOrder(entityManager.getReference(Order.class, event.getOrderNumber()));
+        history.setPreviousStatus(event.getPreviousStatus());
+        history.setNewStatus(event.getNewStatus());
+        history.setChangeReason(event.getChangeReason());
+        history.setChangedAt(event.getOccurredAt());
+        return history;
+    }
+
+    private void scheduleRetry(OrderOutboxEvent event, RuntimeException error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(String.valueOf(error.getMessage()));
+        event.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        if (attempts >= MAX_ATTEMPTS) {
+            log.error("Order outbox event {} of order {} failed {} times, giving up until it is replayed", event.getId(), event.getOrderNumber(), attempts, error);
+        } else {
+            log.warn("Order outbox event {} of order {} failed (attempt {}): {}", event.getId(), event.getOrderNumber(), attempts, error.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
@@ -0,0 +1,67 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import java.time.Instant;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatusConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Status change of an order waiting to be projected into the status history and pushed
+ * to the customer. Written in the same transaction as the order itself.
+ */
+@Entity
+@Table(name = "order_outbox")
+@NoArgsConstructor
+@Getter
+@Setter
+public class OrderOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_number", nullable = false)
+    private Long orderNumber;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(nullable = true)
+    private OrderStatus previousStatus;
+
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(nullable = false)
+    private OrderStatus newStatus;
+
+    @Column(nullable = true, columnDefinition = "TEXT")
+    private String changeReason;
+
+    @Column(nullable = false)
+    private boolean notifyCustomer;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(nullable = true, columnDefinition = "TEXT")
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.occurredAt == null) {
+            this.occurredAt = Instant.now();
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.occurredAt;
+        }
+    }
+}
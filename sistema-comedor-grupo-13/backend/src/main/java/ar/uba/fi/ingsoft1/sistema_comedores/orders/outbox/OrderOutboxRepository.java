@@ -0,0 +1,43 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    @Query("SELECT e.id FROM OrderOutboxEvent e WHERE e.attempts < :maxAttempts AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Long> findDispatchableIds(@Param("maxAttempts") int maxAttempts, @Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Locks the given events, skipping the ones another instance is already dispatching
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.id IN :ids ORDER BY e.id")
+    List<OrderOutboxEvent> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+    /**
+     * Gives the events that ran out of attempts a fresh set, due right away
+     */
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.attempts = 0, e.nextAttemptAt = :now WHERE e.attempts >= :maxAttempts")
+    int resetExhausted(@Param("maxAttempts") int maxAttempts, @Param("now") Instant now);
+}
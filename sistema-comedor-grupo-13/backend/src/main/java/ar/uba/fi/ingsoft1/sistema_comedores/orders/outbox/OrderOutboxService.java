@@ -0,0 +1,109 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+
+/**
+ * Records the side effects of an order change in the outbox, inside the transaction that
+ * changes the order. The {@link OrderOutboxDispatcher} applies them once it commits.
+ */
+@Service
+public class OrderOutboxService {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderOutboxDispatcher dispatcher;
+
+    @Autowired
+    public OrderOutboxService(OrderOutboxRepository outboxRepository, OrderOutboxDispatcher dispatcher) {
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * A newly placed order: only its initial status is added to the history.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        enqueue(order, order.getStatus(), null, false);
+    }
+
+    /**
+     * A status transition: added to the history and notified to the customer.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, OrderStatus previousStatus, String reason) {
+        enqueue(order, previousStatus, reason, true);
+    }
+
+    /**
+     * Several transitions sharing the same reason, inserted in a single batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Map<Order, OrderStatus> previousStatuses, String reason) {
+        if (previousStatuses.isEmpty()) {
+            return;
+        }
+        List<OrderOutboxEvent> events = new ArrayList<>();
+        previousStatuses.forEach((order, previousStatus) ->
+            events.add(toEvent(order, previousStatus, reason, true)));
+        outboxRepository.saveAll(events);
+        wakeUpAfterCommit();
+    }
+
+    /**
+     * Events still being dispatched or retried, and the ones left behind after
+     * {@link OrderOutboxDispatcher#MAX_ATTEMPTS} failures.
+     */
+    @Transactional(readOnly = true)
+    public OrderOutboxStats stats() {
+        return new OrderOutboxStats(
+            outboxRepository.countByAttemptsLessThan(OrderOutboxDispatcher.MAX_ATTEMPTS),
+            outboxRepository.countByAttemptsGreaterThanEqual(OrderOutboxDispatcher.MAX_ATTEMPTS),
+            OrderOutboxDispatcher.MAX_ATTEMPTS);
+    }
+
+    /**
+     * Puts the exhausted events back in the queue and wakes the dispatcher once it commits.
+     *
+     * @return how many events were queued again
+     */
+    @Transactional
+    public int replayExhausted() {
+        int replayed = outboxRepository.resetExhausted(OrderOutboxDispatcher.MAX_ATTEMPTS, Instant.now());
+        if (replayed > 0) {
+            wakeUpAfterCommit();
+        }
+        return replayed;
+    }
+
+    private void enqueue(Order order, OrderStatus previousStatus, String reason, boolean notifyCustomer) {
+        outboxRepository.save(toEvent(order, previousStatus, reason, notifyCustomer));
+        wakeUpAfterCommit();
+    }
+
+    private OrderOutboxEvent toEvent(Order order, OrderStatus previousStatus, String reason, boolean notifyCustomer) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderNumber(order.getOrderNumber());
+        event.setUserId(order.getUserId());
+        event.setPreviousStatus(previousStatus);
+        event.setNewStatus(order.getStatus());
+        event.setChangeReason(reason);
+        event.setNotifyCustomer(notifyCustomer);
+        return event;
+    }
+
+    private void wakeUpAfterCommit() {
+        Transactions.afterCommit(dispatcher::wakeUp);
+    }
+}
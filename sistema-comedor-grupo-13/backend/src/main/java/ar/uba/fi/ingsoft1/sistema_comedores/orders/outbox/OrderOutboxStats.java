@@ -0,0 +1,7 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+public record OrderOutboxStats(
+    long pending,
+    long exhausted,
+    int maxAttempts
+) {}
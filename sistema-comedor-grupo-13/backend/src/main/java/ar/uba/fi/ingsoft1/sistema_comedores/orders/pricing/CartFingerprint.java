@@ -0,0 +1,28 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Canonical form of a cart: its productId:quantity pairs sorted by product, with repeated
+ * products merged, plus the price, product and promotion versions it was priced with. The
+ * product version covers activation, stock and availability, which decide whether the cart
+ * can be quoted at all.
+ */
+public record CartFingerprint(String items, long priceVersion, long productVersion, long catalogVersion) {
+
+    public static CartFingerprint of(List<OrderItemRequest> items, long priceVersion, long productVersion,
+                                     long catalogVersion) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : items) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        quantities.forEach((productId, quantity) -> joiner.add(productId + ":" + quantity));
+        return new CartFingerprint(joiner.toString(), priceVersion, productVersion, catalogVersion);
+    }
+}
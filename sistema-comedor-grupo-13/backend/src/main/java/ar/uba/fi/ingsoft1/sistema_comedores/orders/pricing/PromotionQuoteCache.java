@@ -0,0 +1,146 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductPriceVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-limited cache of calculate-promotion results keyed by {@link CartFingerprint}.
+ * The key includes the price, product and promotion versions, and the whole cache is dropped
+ * as soon as any of them moves, so a hit is always priced with the current prices and
+ * promotions, and never quotes a product that was deactivated or ran out since.
+ */
+@Component
+@Slf4j
+public class PromotionQuoteCache {
+
+    private record Entry(CalculatePromotionResponse response, long expiresAt) {}
+
+    private final ProductPriceVersion priceVersion;
+    private final ProductCatalogVersion productVersion;
+    private final PromotionCatalogRegistry catalogRegistry;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<CartFingerprint, Entry> entries;
+    private long cachedPriceVersion = -1;
+    private long cachedProductVersion = -1;
+    private long cachedCatalogVersion = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public PromotionQuoteCache(ProductPriceVersion priceVersion, ProductCatalogVersion productVersion,
+                               PromotionCatalogRegistry catalogRegistry,
+                               @Value("${app.orders.promotion-cache.max-entries:10000}") int maxEntries,
+                               @Value("${app.orders.promotion-cache.ttl-ms:60000}") long ttlMillis) {
+        this(priceVersion, productVersion, catalogRegistry, maxEntries, ttlMillis, Clock.systemUTC());
+    }
+
+    PromotionQuoteCache(ProductPriceVersion priceVersion, ProductCatalogVersion productVersion,
+                        PromotionCatalogRegistry catalogRegistry, int maxEntries, long ttlMillis, Clock clock) {
+        this.priceVersion = priceVersion;
+        this.productVersion = productVersion;
+        this.catalogRegistry = catalogRegistry;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CartFingerprint, Entry> eldest) {
+                if (size() > PromotionQuoteCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for this cart, or computes and caches it. Failures are not cached.
+     */
+    public CalculatePromotionResponse get(List<OrderItemRequest> items, Supplier<CalculatePromotionResponse> calculation) {
+        CartFingerprint key = CartFingerprint.of(items, priceVersion.current(), productVersion.current(),
+                catalogRegistry.active().version());
+        CalculatePromotionResponse cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        CalculatePromotionResponse response = calculation.get();
+        store(key, response);
+        return response;
+    }
+
+    public PromotionQuoteCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new PromotionQuoteCacheStats(hitCount, missCount, total == 0 ? 0 : (double) hitCount / total,
+                evictions.sum(), invalidations.sum(), size, maxEntries, ttlMillis);
+    }
+
+    private synchronized CalculatePromotionResponse lookup(CartFingerprint key) {
+        if (key.priceVersion() < cachedPriceVersion || key.productVersion() < cachedProductVersion
+                || key.catalogVersion() < cachedCatalogVersion) {
+            // Versions read before a newer change, already superseded
+            return null;
+        }
+        if (!isCurrent(key)) {
+            if (!entries.isEmpty()) {
+                invalidations.increment();
+                log.debug("Promotion quote cache dropped {} entries after a price, product or promotion change",
+                        entries.size());
+            }
+            entries.clear();
+            cachedPriceVersion = key.priceVersion();
+            cachedProductVersion = key.productVersion();
+            cachedCatalogVersion = key.catalogVersion();
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response();
+    }
+
+    private synchronized void store(CartFingerprint key, CalculatePromotionResponse response) {
+        // A calculation that started before a version change belongs to the previous generation
+        if (isCurrent(key)) {
+            entries.put(key, new Entry(response, clock.millis() + ttlMillis));
+        }
+    }
+
+    private boolean isCurrent(CartFingerprint key) {
+        return key.priceVersion() == cachedPriceVersion && key.productVersion() == cachedProductVersion
+                && key.catalogVersion() == cachedCatalogVersion;
+    }
+}
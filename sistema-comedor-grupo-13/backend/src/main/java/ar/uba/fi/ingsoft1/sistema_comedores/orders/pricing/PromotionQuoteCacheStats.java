@@ -0,0 +1,12 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing;
+
+public record PromotionQuoteCacheStats(
+    long hits,
+    long misses,
+    double hitRate,
+    long evictions,
+    long invalidations,
+    int size,
+    int maxEntries,
+    long ttlMillis
+) {}
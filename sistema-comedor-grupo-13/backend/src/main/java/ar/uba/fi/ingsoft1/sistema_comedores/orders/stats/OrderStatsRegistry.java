@@ -0,0 +1,102 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.stats;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live per-status order counters and subtotal sums, so the dashboards do not scan the
+ * orders table. OrderService applies every creation and transition after its transaction
+ * commits, and a periodic reconcile against the GROUP BY query corrects any drift. Changes
+ * applied while the query runs are kept on top of its result rather than overwritten.
+ */
+@Component
+@Slf4j
+public class OrderStatsRegistry {
+
+    private final OrderRepository orderRepository;
+    private final AtomicReference<Map<String, StatusTotals>> totals = new AtomicReference<>(Map.of());
+
+    @Autowired
+    public OrderStatsRegistry(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    public void recordCreated(String status, BigDecimal subtotal) {
+        Transactions.afterCommit(() -> totals.updateAndGet(current -> {
+            Map<String, StatusTotals> next = new HashMap<>(current);
+            next.put(status, next.getOrDefault(status, StatusTotals.EMPTY).add(subtotal));
+            return Map.copyOf(next);
+        }));
+    }
+
+    public void recordTransition(String fromStatus, String toStatus, BigDecimal subtotal) {
+        if (fromStatus.equals(toStatus)) {
+            return;
+        }
+        Transactions.afterCommit(() -> totals.updateAndGet(current -> {
+            Map<String, StatusTotals> next = new HashMap<>(current);
+            next.put(fromStatus, next.getOrDefault(fromStatus, StatusTotals.EMPTY).subtract(subtotal));
+            next.put(toStatus, next.getOrDefault(toStatus, StatusTotals.EMPTY).add(subtotal));
+            return Map.copyOf(next);
+        }));
+    }
+
+    /**
+     * Consistent view of all the counters at a single point in time.
+     */
+    public Map<String, StatusTotals> snapshot() {
+        return totals.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.orders.stats.reconcile-interval-ms:60000}",
+            initialDelayString = "${app.orders.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        Map<String, StatusTotals> before = totals.get();
+        Map<String, StatusTotals> stored = toTotals(orderRepository.summarizeByStatus());
+        Map<String, StatusTotals> reconciled = totals.updateAndGet(current ->
+            current == before ? stored : withChanges(stored, before, current));
+        if (reconciled != stored) {
+            // Orders changed during the query; the drift is checked again on the next run
+            log.debug("Order status counters changed while reconciling, kept the concurrent changes");
+        } else if (!before.isEmpty() && !before.equals(stored)) {
+            log.warn("Order status counters drifted from the database, reconciled: {} -> {}", before, stored);
+        }
+    }
+
+    /**
+     * Adds to {@code stored} what changed from {@code before} to {@code current}.
+     */
+    private static Map<String, StatusTotals> withChanges(Map<String, StatusTotals> stored,
+                                                         Map<String, StatusTotals> before,
+                                                         Map<String, StatusTotals> current) {
+        Map<String, StatusTotals> result = new HashMap<>(stored);
+        current.forEach((status, now) -> {
+            StatusTotals then = before.getOrDefault(status, StatusTotals.EMPTY);
+            StatusTotals base = result.getOrDefault(status, StatusTotals.EMPTY);
+            result.put(status, new StatusTotals(base.count() + now.count() - then.count(),
+                base.subtotal().add(now.subtotal()).subtract(then.subtotal())));
+        });
+        return Map.copyOf(result);
+    }
+
+    public static Map<String, StatusTotals> toTotals(Iterable<OrderStatusSummary> summaries) {
+        Map<String, StatusTotals> result = new HashMap<>();
+        for (OrderStatusSummary summary : summaries) {
+            BigDecimal subtotal = summary.getSubtotalSum() != null ? summary.getSubtotalSum() : BigDecimal.ZERO;
+            result.put(summary.getStatus().getStatusCode(), new StatusTotals(summary.getOrderCount(), subtotal));
+        }
+        return Map.copyOf(result);
+    }
+}
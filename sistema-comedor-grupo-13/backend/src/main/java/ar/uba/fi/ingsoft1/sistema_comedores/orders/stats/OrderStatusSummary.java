@@ -0,0 +1,14 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.stats;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of the {@code GROUP BY status} aggregation over orders.
+ */
+public interface OrderStatusSummary {
+    OrderStatus getStatus();
+    Long getOrderCount();
+    BigDecimal getSubtotalSum();
+}
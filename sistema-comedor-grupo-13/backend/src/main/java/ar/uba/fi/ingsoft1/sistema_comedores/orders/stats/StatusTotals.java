@@ -0,0 +1,16 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.stats;
+
+import java.math.BigDecimal;
+
+public record StatusTotals(long count, BigDecimal subtotal) {
+
+    public static final StatusTotals EMPTY = new StatusTotals(0, BigDecimal.ZERO);
+
+    public StatusTotals add(BigDecimal amount) {
+        return new StatusTotals(count + 1, subtotal.add(amount));
+    }
+
+    public StatusTotals subtract(BigDecimal amount) {
+        return new StatusTotals(count - 1, subtotal.subtract(amount));
+    }
+}
@@ -2,7 +2,14 @@ package ar.uba.fi.ingsoft1.sistema_comedores.orders.status;
 
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
 
+/**
+ * States are stateless and every transition assigns a new instance, so they are treated as
+ * immutable: the loaded reference is the dirty-checking snapshot and an untouched order is
+ * never rewritten on flush.
+ */
+@Immutable
 @Converter(autoApply = true)
 public class OrderStatusConverter implements AttributeConverter<OrderStatus, String> {
 
@@ -17,7 +17,8 @@ import lombok.*;
 public class OrderStatusUpdateEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_state_update_events_seq")
+    @SequenceGenerator(name = "order_state_update_events_seq", sequenceName = "order_state_update_events_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,14 +1,19 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.StatusChangeRow;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderStatusUpdateEventRepository extends JpaRepository<OrderStatusUpdateEvent, Long> {
@@ -46,4 +51,14 @@ public interface OrderStatusUpdateEventRepository extends JpaRepository<OrderSta
      * Page through all events for a specific order
      */
     Page<OrderStatusUpdateEvent> findByOrderOrderNumber(Long orderNumber, Pageable pageable);
+
+    /**
+     * Stream every change since the given instant, in the order they happened
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.order.orderNumber AS orderNumber, e.newStatus AS newStatus, e.changedAt AS changedAt FROM OrderStatusUpdateEvent e WHERE e.changedAt >= ?1 ORDER BY e.changedAt ASC, e.id ASC")
+    Stream<StatusChangeRow> streamChangesSince(Instant since);
 }
\ No newline at end of file
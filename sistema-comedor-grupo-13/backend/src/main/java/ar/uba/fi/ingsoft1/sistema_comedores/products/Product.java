@@ -16,6 +16,7 @@ import java.util.Set;
 import java.util.HashSet;
 
 @Entity(name = "products") 
+@EntityListeners(ProductCatalogListener.class)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "product_type", discriminatorType = DiscriminatorType.STRING)
 @Getter
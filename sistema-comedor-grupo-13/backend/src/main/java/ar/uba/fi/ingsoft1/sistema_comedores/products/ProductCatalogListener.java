@@ -0,0 +1,30 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on products and combo lines: any change written through JPA outdates the
+ * {@link ProductCatalogVersion}. Stock written with JDBC is reported by the stock propagation.
+ */
+@Component
+public class ProductCatalogListener {
+
+    private final ObjectProvider<ProductCatalogVersion> catalogVersion;
+
+    @Autowired
+    public ProductCatalogListener(ObjectProvider<ProductCatalogVersion> catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        catalogVersion.ifAvailable(ProductCatalogVersion::bumpAfterCommit);
+    }
+}
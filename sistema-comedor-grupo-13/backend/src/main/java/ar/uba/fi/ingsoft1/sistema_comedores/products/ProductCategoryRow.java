@@ -0,0 +1,9 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products;
+
+/**
+ * Id and category of a product, without loading the entity.
+ */
+public interface ProductCategoryRow {
+    Long getId();
+    ProductCategory getCategory();
+}
@@ -1,5 +1,6 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.products;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.Ingredient;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.dto.IngredientDetailsResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.dto.UpdateIngredientStockRequest;
@@ -30,9 +31,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -44,10 +47,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 class ProductController {
 
     private final ProductService productService;
+    private final ProductCatalogVersion catalogVersion;
+    private final JsonResponseCache responseCache;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductCatalogVersion catalogVersion,
+                             JsonResponseCache responseCache) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.responseCache = responseCache;
     }
 
     @GetMapping("/all")
@@ -93,11 +101,13 @@ class ProductController {
 
     @GetMapping("/available")
     @Operation(summary = "Obtener productos disponibles")
-    @ApiResponse(responseCode = "200", description = "Lista de productos disponibles obtenida exitosamente")
-    public ResponseEntity<List<ProductDetailsResponse>> getAvailableProducts() {
+    @ApiResponse(responseCode = "200", description = "Lista de productos disponibles obtenida exitosamente",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductDetailsResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado", content = @Content)
+    public ResponseEntity<byte[]> getAvailableProducts(HttpServletRequest request) {
         SearchProductRequest filter = new SearchProductRequest(null, null, null, true, null);
-        List<ProductDetailsResponse> products = productService.getProducts(filter);
-        return ResponseEntity.ok(products);
+        return responseCache.respond(request, "products/available", catalogVersion.current(),
+                () -> productService.getProducts(filter));
     }
 
     @GetMapping("/{id}")
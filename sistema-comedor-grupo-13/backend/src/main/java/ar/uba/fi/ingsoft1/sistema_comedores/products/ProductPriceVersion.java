@@ -0,0 +1,27 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped every time a product or combo price changes, so results computed from
+ * prices can tell whether they are still current.
+ */
+@Component
+public class ProductPriceVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the version once the surrounding transaction commits.
+     */
+    public void bumpAfterCommit() {
+        Transactions.afterCommit(version::incrementAndGet);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +33,10 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     Optional<Product> findByName(String name);
 
     List<Product> findByAvailableTrue();
+
+    @Query("SELECT DISTINCT p FROM products p LEFT JOIN FETCH p.observers WHERE p.id IN :ids")
+    List<Product> findAllByIdWithObservers(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS id, p.category AS category FROM products p")
+    List<ProductCategoryRow> findAllCategories();
 }
\ No newline at end of file
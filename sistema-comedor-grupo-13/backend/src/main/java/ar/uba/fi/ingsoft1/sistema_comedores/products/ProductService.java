@@ -5,12 +5,16 @@ import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.IngredientRepository;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientNotFoundException;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderItem;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboProductObserver;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockKey;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ElaborateProductRepository;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.dto.AddIngredientRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.dto.RemoveIngredientRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.exception.IngredientNotInProductException;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductAlreadyExistsException;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.common.audit.AuditLogWriter;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.ResourceNotFoundException;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.base.TechnicalException;
@@ -34,6 +38,9 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -48,9 +55,13 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ElaborateProductRepository elaborateProductRepository;
+    private final ComboRepository comboRepository;
     private final IngredientRepository ingredientRepository;
-    private final ProductAuditLogRepository productAuditLogRepository;
+    private final AuditLogWriter auditLogWriter;
     private final ImageService imageService;
+    private final StockLedgerService stockLedgerService;
+    private final ProductPriceVersion priceVersion;
 
     private void checkNotExistsByNameOrThrow(String name) throws ProductAlreadyExistsException {
         if (productRepository.existsByName(name)) {
@@ -62,14 +73,21 @@ public class ProductService {
     ProductService(
             ProductRepository productRepository,
             ElaborateProductRepository elaborateProductRepository,
+            ComboRepository comboRepository,
             IngredientRepository ingredientRepository,
-            ProductAuditLogRepository productAuditLogRepository,
-            ImageService imageService
+            AuditLogWriter auditLogWriter,
+            ImageService imageService,
+            StockLedgerService stockLedgerService,
+            ProductPriceVersion priceVersion
     ) {
         this.productRepository = productRepository;
+        this.elaborateProductRepository = elaborateProductRepository;
+        this.comboRepository = comboRepository;
         this.ingredientRepository = ingredientRepository;
-        this.productAuditLogRepository = productAuditLogRepository;
+        this.auditLogWriter = auditLogWriter;
         this.imageService = imageService;
+        this.stockLedgerService = stockLedgerService;
+        this.priceVersion = priceVersion;
     }
   
     public List<ProductDetailsResponse> getProducts(SearchProductRequest filter) {
@@ -90,6 +108,53 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    /**
+     * Resolves a whole cart in a fixed number of queries: the products themselves, the
+     * ingredients of the elaborate ones and the components of the combos (plus the
+     * ingredients of elaborate components). Everything is loaded into the current
+     * persistence context, so consuming stock afterwards does not trigger lazy loads.
+     */
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) throws ProductNotFoundException {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, Product> productsById = productRepository.findAllByIdWithObservers(uniqueIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        for (Long id : uniqueIds) {
+            if (!productsById.containsKey(id)) {
+                throw new ProductNotFoundException(id);
+            }
+        }
+
+        Set<Long> elaborateIds = new LinkedHashSet<>();
+        Set<Long> comboIds = new LinkedHashSet<>();
+        for (Product product : productsById.values()) {
+            if (product instanceof ElaborateProduct) {
+                elaborateIds.add(product.getId());
+            } else if (product instanceof Combo) {
+                comboIds.add(product.getId());
+            }
+        }
+
+        if (!comboIds.isEmpty()) {
+            for (Combo combo : comboRepository.findAllByIdWithProducts(comboIds)) {
+                combo.getComboProducts().stream()
+                        .map(comboProduct -> comboProduct.getProduct())
+                        .filter(component -> component instanceof ElaborateProduct)
+                        .forEach(component -> elaborateIds.add(component.getId()));
+            }
+        }
+
+        if (!elaborateIds.isEmpty()) {
+            elaborateProductRepository.findAllByIdWithIngredients(elaborateIds);
+        }
+
+        Map<Long, Product> orderedProducts = new LinkedHashMap<>();
+        for (Long id : uniqueIds) {
+            orderedProducts.put(id, productsById.get(id));
+        }
+        return orderedProducts;
+    }
+
     public ProductType getProductTypeById(Long productId) {
         return productRepository.findById(productId)
             .map(Product::getProductType)
@@ -105,7 +170,7 @@ public class ProductService {
         log.setProductName(product.getName());
         log.setOperation(AdminOperation.CREATE);
         log.setModifiedAt(Instant.now());
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
 
         return new ProductDetailsResponse(product);
     }
@@ -133,7 +198,7 @@ public class ProductService {
         productAuditlog.setProductName(product.getName());
         productAuditlog.setOperation(AdminOperation.CREATE);
         productAuditlog.setModifiedAt(Instant.now());
-        productAuditLogRepository.save(productAuditlog);
+        auditLogWriter.record(productAuditlog);
 
         return new ProductDetailsResponse(product);
     }
@@ -209,7 +274,7 @@ public class ProductService {
         log.setOperation(AdminOperation.DEACTIVATE);
         log.setModifiedAt(Instant.now());
         log.setReason(reason);
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
     }
 
     @Transactional
@@ -228,7 +293,7 @@ public class ProductService {
         log.setProductName(product.getName());
         log.setOperation(AdminOperation.REACTIVATE);
         log.setModifiedAt(Instant.now());
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
     }
 
     public void changeProductName(Long id, String newName) throws ProductNotFoundException, ProductAlreadyExistsException {
@@ -243,7 +308,7 @@ public class ProductService {
         log.setOperation(AdminOperation.CHANGE_NAME);
         log.setModifiedAt(Instant.now());
         log.setReason("oldName=" + oldName);
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
     }
 
     public void changeProductPrice(Long id, BigDecimal newPrice) throws ProductNotFoundException {
@@ -251,13 +316,14 @@ public class ProductService {
         BigDecimal oldPrice = product.getPrice();
         product.setPrice(newPrice);
         productRepository.save(product);
+        priceVersion.bumpAfterCommit();
 
         ProductAuditLog log = new ProductAuditLog();
         log.setProductName(product.getName());
         log.setOperation(AdminOperation.CHANGE_PRICE);
         log.setModifiedAt(Instant.now());
         log.setReason("oldPrice=" + oldPrice);
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
     }
 
     @Transactional
@@ -284,7 +350,7 @@ public class ProductService {
         auditLog.setOperation(AdminOperation.CHANGE_IMAGE);
         auditLog.setModifiedAt(Instant.now());
         auditLog.setReason("Imagen actualizada");
-        productAuditLogRepository.save(auditLog);
+        auditLogWriter.record(auditLog);
         
         return new ProductDetailsResponse(product);
     }
@@ -300,13 +366,14 @@ public class ProductService {
         simpleProduct.setAvailable(newStock > 0 && simpleProduct.isActive());
         simpleProduct.notifyObserversStockChange();
         simpleProduct = productRepository.save(simpleProduct);
+        stockLedgerService.overwrite(StockKey.simpleProduct(simpleProduct.getId()), BigDecimal.valueOf(newStock));
 
         ProductAuditLog log = new ProductAuditLog();
         log.setProductName(simpleProduct.getName());
         log.setOperation(AdminOperation.UPDATE_STOCK);
         log.setModifiedAt(Instant.now());
         log.setReason("oldStock=" + oldStock + ", newStock=" + newStock);
-        productAuditLogRepository.save(log);
+        auditLogWriter.record(log);
     }
 
 }
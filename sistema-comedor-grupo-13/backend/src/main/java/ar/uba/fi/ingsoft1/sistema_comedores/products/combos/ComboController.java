@@ -1,14 +1,19 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.products.combos;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.ComboDetailsResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.CreateComboRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.UpdateComboNameRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.UpdateComboPriceRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.exception.*;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 
@@ -29,10 +34,15 @@ import java.util.Map;
 public class ComboController {
 
     private final ComboService comboService;
+    private final ProductCatalogVersion catalogVersion;
+    private final JsonResponseCache responseCache;
 
     @Autowired
-    public ComboController(ComboService comboService) {
+    public ComboController(ComboService comboService, ProductCatalogVersion catalogVersion,
+                           JsonResponseCache responseCache) {
         this.comboService = comboService;
+        this.catalogVersion = catalogVersion;
+        this.responseCache = responseCache;
     }
 
     @GetMapping("/all")
@@ -55,10 +65,12 @@ public class ComboController {
 
     @GetMapping("/available")
     @Operation(summary = "Obtener solo combos disponibles")
-    @ApiResponse(responseCode = "200", description = "Lista de combos disponibles obtenida exitosamente")
-    public ResponseEntity<List<ComboDetailsResponse>> getAvailableCombos() {
-        List<ComboDetailsResponse> combos = comboService.getAvailableCombos();
-        return ResponseEntity.ok(combos);
+    @ApiResponse(responseCode = "200", description = "Lista de combos disponibles obtenida exitosamente",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ComboDetailsResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado", content = @Content)
+    public ResponseEntity<byte[]> getAvailableCombos(HttpServletRequest request) {
+        return responseCache.respond(request, "combos/available", catalogVersion.current(),
+                comboService::getAvailableCombos);
     }
 
     @GetMapping("/{id}")
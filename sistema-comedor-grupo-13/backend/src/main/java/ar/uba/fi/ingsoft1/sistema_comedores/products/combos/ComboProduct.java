@@ -1,8 +1,11 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.products.combos;
 
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogListener;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockGraphListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -15,6 +18,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@EntityListeners({StockGraphListener.class, ProductCatalogListener.class})
 @Table(name = "combo_products")
 @Getter
 @Setter
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,4 +59,13 @@ public interface ComboRepository extends JpaRepository<Combo, Long> {
             LEFT JOIN FETCH cp.product
     """)
     List<Combo> findAllWithProducts();
+
+    @Query("""
+            SELECT DISTINCT c
+            FROM Combo c
+            LEFT JOIN FETCH c.comboProducts cp
+            LEFT JOIN FETCH cp.product
+            WHERE c.id IN :ids
+    """)
+    List<Combo> findAllByIdWithProducts(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -8,9 +8,10 @@ import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotAvailab
 import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductPriceVersion;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductAuditLog;
-import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductAuditLogRepository;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.common.audit.AuditLogWriter;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
 import ar.uba.fi.ingsoft1.sistema_comedores.image.ImageService;
 import ar.uba.fi.ingsoft1.sistema_comedores.image.ObjectPrefixConsts;
@@ -32,20 +33,23 @@ public class ComboService {
 
     private final ComboRepository comboRepository;
     private final ProductRepository productRepository;
-    private final ProductAuditLogRepository productAuditLogRepository;
+    private final AuditLogWriter auditLogWriter;
     private final ImageService imageService;
+    private final ProductPriceVersion priceVersion;
 
     @Autowired
     public ComboService(
             ComboRepository comboRepository,
             ProductRepository productRepository,
-            ProductAuditLogRepository productAuditLogRepository,
-            ImageService imageService
+            AuditLogWriter auditLogWriter,
+            ImageService imageService,
+            ProductPriceVersion priceVersion
     ) {
         this.comboRepository = comboRepository;
         this.productRepository = productRepository;
-        this.productAuditLogRepository = productAuditLogRepository;
+        this.auditLogWriter = auditLogWriter;
         this.imageService = imageService;
+        this.priceVersion = priceVersion;
     }
 
     private Map<Product, Integer> getProductsFromIds(Map<Long, Integer> productIds) throws ProductNotFoundException, ProductNotAvailableException {
@@ -79,7 +83,7 @@ public class ComboService {
         auditLog.setProductName(combo.getName());
         auditLog.setOperation(AdminOperation.CREATE);
         auditLog.setModifiedAt(Instant.now());
-        productAuditLogRepository.save(auditLog);
+        auditLogWriter.record(auditLog);
 
         return new ComboDetailsResponse(combo); 
     }
@@ -138,6 +142,7 @@ public class ComboService {
         }
 
         comboRepository.save(combo);
+        priceVersion.bumpAfterCommit();
     }
 
     @Transactional
@@ -164,7 +169,7 @@ public class ComboService {
         auditLog.setOperation(AdminOperation.CHANGE_IMAGE);
         auditLog.setModifiedAt(Instant.now());
         auditLog.setReason("Imagen actualizada");
-        productAuditLogRepository.save(auditLog);
+        auditLogWriter.record(auditLog);
         
         return new ProductDetailsResponse(combo);
     }
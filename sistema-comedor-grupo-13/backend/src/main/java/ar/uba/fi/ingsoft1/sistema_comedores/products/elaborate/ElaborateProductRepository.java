@@ -1,5 +1,6 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -52,4 +53,13 @@ public interface ElaborateProductRepository extends JpaRepository<ElaborateProdu
             LEFT JOIN FETCH pi.ingredient
     """)
     List<ElaborateProduct> findAllWithIngredients();
+
+    @Query("""
+            SELECT DISTINCT ep 
+            FROM ElaborateProduct ep 
+            LEFT JOIN FETCH ep.productIngredients pi
+            LEFT JOIN FETCH pi.ingredient
+            WHERE ep.id IN :ids
+    """)
+    List<ElaborateProduct> findAllByIdWithIngredients(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,8 +3,10 @@ package ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate;
 import java.math.BigDecimal;
 
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.Ingredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockGraphListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,6 +19,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(StockGraphListener.class)
 @Table(name = "elaborate_product_ingredients")
 @Getter
 @Setter
@@ -0,0 +1,9 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.exception;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.exception.ValidationException;
+
+public class InvalidStockImportException extends ValidationException {
+    public InvalidStockImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,484 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of derived stock: ingredients feed elaborate products and products feed
+ * combos. It only holds the structure (which product depends on which input and in what
+ * quantity). Stock values are passed in for the nodes a change can reach, so stock edited
+ * through the entities never leaves the graph stale.
+ *
+ * A change is propagated in topological order: each derived product is recalculated at most
+ * once, and only if one of its inputs actually changed. The rules are the ones of
+ * {@code ElaborateProduct.calculateStock()} and {@code Combo.calculateStock()}.
+ */
+public final class StockGraph {
+
+    private record Requirement(long inputId, long quantity) {}
+
+    public record IngredientRow(long id, boolean available) {}
+
+    public record ProductRow(long id, int stock, boolean available) {}
+
+    public record Changes(List<IngredientRow> ingredients, List<ProductRow> products) {
+
+        public boolean isEmpty() {
+            return ingredients.isEmpty() && products.isEmpty();
+        }
+    }
+
+    private static final int[] NONE = new int[0];
+
+    // Ingredients and products are numbered densely when the graph is built, so propagating
+    // a change walks plain arrays instead of looking up boxed ids on every edge
+    private final Map<Long, Integer> ingredientIndex = new HashMap<>();
+    private final Map<Long, Integer> productIndex = new HashMap<>();
+    private final long[] ingredientIds;
+    private final long[] productIds;
+    private final boolean[] elaborate;
+    private final int[][] inputs;
+    private final long[][] quantities;
+    private final int[][] ingredientDependents;
+    private final int[][] productDependents;
+    private final int[] depth;
+    private final int derivedCount;
+    private final int maxDepth;
+
+    private StockGraph(Map<Long, List<Requirement>> recipes, Map<Long, List<Requirement>> components) {
+        recipes.forEach((productId, recipe) -> {
+            index(productIndex, productId);
+            recipe.forEach(requirement -> index(ingredientIndex, requirement.inputId()));
+        });
+        components.forEach((comboId, combo) -> {
+            index(productIndex, comboId);
+            combo.forEach(requirement -> index(productIndex, requirement.inputId()));
+        });
+        this.ingredientIds = ids(ingredientIndex);
+        this.productIds = ids(productIndex);
+
+        int products = productIds.length;
+        this.elaborate = new boolean[products];
+        this.inputs = new int[products][];
+        this.quantities = new long[products][];
+        List<Set<Integer>> byIngredient = sets(ingredientIds.length);
+        List<Set<Integer>> byProduct = sets(products);
+        int derived = 0;
+        for (int product = 0; product < products; product++) {
+            long id = productIds[product];
+            List<Requirement> recipe = recipes.get(id);
+            List<Requirement> requirements = recipe != null ? recipe : components.get(id);
+            if (requirements == null) {
+                inputs[product] = NONE;
+                continue;
+            }
+            derived++;
+            elaborate[product] = recipe != null;
+            Map<Long, Integer> index = recipe != null ? ingredientIndex : productIndex;
+            List<Set<Integer>> dependents = recipe != null ? byIngredient : byProduct;
+            inputs[product] = new int[requirements.size()];
+            quantities[product] = new long[requirements.size()];
+            for (int i = 0; i < requirements.size(); i++) {
+                int input = index.get(requirements.get(i).inputId());
+                inputs[product][i] = input;
+                quantities[product][i] = requirements.get(i).quantity();
+                dependents.get(input).add(product);
+            }
+        }
+        this.derivedCount = derived;
+        this.ingredientDependents = arrays(byIngredient);
+        this.productDependents = arrays(byProduct);
+        this.depth = depths();
+        this.maxDepth = Arrays.stream(depth).max().orElse(0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Empty stock values to be filled with the nodes a change can reach.
+     */
+    public Values values() {
+        return new Values(this);
+    }
+
+    /**
+     * Number of derived products (elaborate products with a recipe and combos with components).
+     */
+    public int size() {
+        return derivedCount;
+    }
+
+    /**
+     * Derived products whose stock can change when the given ingredients or products do.
+     */
+    public Set<Long> affectedBy(Collection<Long> ingredientIds, Collection<Long> productIds) {
+        boolean[] affected = new boolean[this.productIds.length];
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (Long ingredientId : ingredientIds) {
+            Integer ingredient = ingredientIndex.get(ingredientId);
+            if (ingredient == null) {
+                continue;
+            }
+            for (int product : ingredientDependents[ingredient]) {
+                if (!affected[product]) {
+                    affected[product] = true;
+                    pending.add(product);
+                }
+            }
+        }
+        for (Long productId : productIds) {
+            Integer product = productIndex.get(productId);
+            if (product != null) {
+                pending.add(product);
+            }
+        }
+        while (!pending.isEmpty()) {
+            for (int combo : productDependents[pending.poll()]) {
+                if (!affected[combo]) {
+                    affected[combo] = true;
+                    pending.add(combo);
+                }
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        for (int product = 0; product < affected.length; product++) {
+            if (affected[product]) {
+                ids.add(this.productIds[product]);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Ingredients read when recalculating the given products.
+     */
+    public Set<Long> ingredientInputs(Collection<Long> productIds) {
+        return inputs(productIds, true, ingredientIds);
+    }
+
+    /**
+     * Products read when recalculating the given products.
+     */
+    public Set<Long> productInputs(Collection<Long> productIds) {
+        return inputs(productIds, false, this.productIds);
+    }
+
+    /**
+     * Applies a stock change of the given ingredients and simple products to the values,
+     * which must come from {@link #values()} of this graph and hold every node returned by
+     * {@link #affectedBy} and its inputs. Returns the rows whose stock or availability changed.
+     */
+    public Changes propagate(Values values, Collection<Long> ingredientIds, Collection<Long> productIds) {
+        if (values.graph != this) {
+            throw new IllegalArgumentException("Stock values were created for another graph");
+        }
+        Pending pending = new Pending();
+        List<IngredientRow> ingredientRows = new ArrayList<>();
+        List<ProductRow> productRows = new ArrayList<>();
+
+        for (Long id : ingredientIds) {
+            Node ingredient = values.ingredient(id);
+            if (ingredient == null) {
+                continue;
+            }
+            boolean available = ingredient.active && ingredient.stock > 0;
+            if (available != ingredient.available) {
+                ingredient.available = available;
+                ingredientRows.add(new IngredientRow(id, available));
+            }
+            Integer index = ingredientIndex.get(id);
+            if (index != null) {
+                pending.enqueue(ingredientDependents[index]);
+            }
+        }
+        for (Long id : productIds) {
+            Node product = values.product(id);
+            if (product == null) {
+                continue;
+            }
+            boolean available = product.active && product.stock > 0;
+            if (available != product.available) {
+                product.available = available;
+                productRows.add(new ProductRow(id, (int) product.stock, available));
+            }
+            Integer index = productIndex.get(id);
+            if (index != null) {
+                pending.enqueue(productDependents[index]);
+            }
+        }
+
+        for (int level = 1; level <= maxDepth; level++) {
+            // The level can only grow while it is walked if the graph has a cycle
+            for (int i = 0; i < pending.sizes[level]; i++) {
+                int index = pending.levels[level][i];
+                Node product = values.products[index];
+                // Inactive products are not recalculated until they are restored
+                if (product == null || !product.active) {
+                    continue;
+                }
+                int stock = elaborate[index] ? elaborateStock(index, values) : comboStock(index, values);
+                boolean available = stock > 0;
+                if (stock == product.stock && available == product.available) {
+                    continue;
+                }
+                product.stock = stock;
+                product.available = available;
+                productRows.add(new ProductRow(this.productIds[index], stock, available));
+                pending.enqueue(productDependents[index]);
+            }
+        }
+        return new Changes(ingredientRows, productRows);
+    }
+
+    private int elaborateStock(int product, Values values) {
+        int[] recipe = inputs[product];
+        long stock = Long.MAX_VALUE;
+        for (int i = 0; i < recipe.length; i++) {
+            Node ingredient = values.ingredients[recipe[i]];
+            if (ingredient == null || !ingredient.available) {
+                return 0;
+            }
+            stock = Math.min(stock, ingredient.stock / quantities[product][i]);
+        }
+        return (int) Math.min(stock, Integer.MAX_VALUE);
+    }
+
+    private int comboStock(int combo, Values values) {
+        int[] components = inputs[combo];
+        long stock = Long.MAX_VALUE;
+        for (int i = 0; i < components.length; i++) {
+            Node product = values.products[components[i]];
+            if (product == null || !product.available || !product.active) {
+                return 0;
+            }
+            stock = Math.min(stock, product.stock / quantities[combo][i]);
+        }
+        return (int) Math.min(stock, Integer.MAX_VALUE);
+    }
+
+    private Set<Long> inputs(Collection<Long> productIds, boolean recipes, long[] inputIds) {
+        Set<Long> ids = new HashSet<>();
+        for (Long productId : productIds) {
+            Integer product = productIndex.get(productId);
+            if (product == null || !derived(product) || elaborate[product] != recipes) {
+                continue;
+            }
+            for (int input : inputs[product]) {
+                ids.add(inputIds[input]);
+            }
+        }
+        return ids;
+    }
+
+    private boolean derived(int product) {
+        return quantities[product] != null;
+    }
+
+    private static void index(Map<Long, Integer> index, long id) {
+        index.putIfAbsent(id, index.size());
+    }
+
+    private static long[] ids(Map<Long, Integer> index) {
+        long[] ids = new long[index.size()];
+        index.forEach((id, position) -> ids[position] = id);
+        return ids;
+    }
+
+    private static List<Set<Integer>> sets(int size) {
+        List<Set<Integer>> sets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sets.add(new LinkedHashSet<>());
+        }
+        return sets;
+    }
+
+    private static int[][] arrays(List<Set<Integer>> sets) {
+        int[][] arrays = new int[sets.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = sets.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * Topological depth of every derived product (Kahn's algorithm over the combo edges);
+     * inputs that are not derived stay at 0. Products left in a cycle, which the catalog
+     * should never contain, go last.
+     */
+    private int[] depths() {
+        int products = productIds.length;
+        int[] depths = new int[products];
+        int[] inDegree = new int[products];
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int product = 0; product < products; product++) {
+            if (!derived(product)) {
+                continue;
+            }
+            if (!elaborate[product]) {
+                for (int component : inputs[product]) {
+                    if (derived(component)) {
+                        inDegree[product]++;
+                    }
+                }
+            }
+            if (inDegree[product] == 0) {
+                ready.add(product);
+                depths[product] = 1;
+            }
+        }
+        int maxDepth = 1;
+        while (!ready.isEmpty()) {
+            int product = ready.poll();
+            int next = depths[product] + 1;
+            for (int combo : productDependents[product]) {
+                depths[combo] = Math.max(depths[combo], next);
+                maxDepth = Math.max(maxDepth, next);
+                // A combo listing the same component twice has a single edge from it
+                for (int component : inputs[combo]) {
+                    if (component == product) {
+                        inDegree[combo]--;
+                    }
+                }
+                if (inDegree[combo] == 0) {
+                    ready.add(combo);
+                }
+            }
+        }
+        for (int product = 0; product < products; product++) {
+            if (inDegree[product] > 0) {
+                depths[product] = maxDepth + 1;
+            }
+        }
+        return depths;
+    }
+
+    /**
+     * Products queued by one propagation, per topological level, so every product is
+     * recalculated once and after all its inputs.
+     */
+    private final class Pending {
+
+        private final boolean[] queued = new boolean[productIds.length];
+        private final int[][] levels = new int[maxDepth + 1][];
+        private final int[] sizes = new int[maxDepth + 1];
+
+        private void enqueue(int[] dependents) {
+            for (int product : dependents) {
+                if (queued[product]) {
+                    continue;
+                }
+                queued[product] = true;
+                int level = depth[product];
+                if (levels[level] == null) {
+                    levels[level] = new int[16];
+                } else if (sizes[level] == levels[level].length) {
+                    levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+                }
+                levels[level][sizes[level]++] = product;
+            }
+        }
+    }
+
+    private static final class Node {
+        private long stock;
+        private final boolean active;
+        private boolean available;
+
+        private Node(long stock, boolean active, boolean available) {
+            this.stock = stock;
+            this.active = active;
+            this.available = available;
+        }
+    }
+
+    /**
+     * Stored stock of the nodes a change can reach. Ingredient stock is kept in ledger units.
+     * Nodes of the graph are kept by their index; changed inputs outside it (an ingredient no
+     * recipe uses, a product no combo contains) are kept by id.
+     */
+    public static final class Values {
+
+        private final StockGraph graph;
+        private final Node[] ingredients;
+        private final Node[] products;
+        private final Map<Long, Node> otherIngredients = new HashMap<>();
+        private final Map<Long, Node> otherProducts = new HashMap<>();
+
+        private Values(StockGraph graph) {
+            this.graph = graph;
+            this.ingredients = new Node[graph.ingredientIds.length];
+            this.products = new Node[graph.productIds.length];
+        }
+
+        public void ingredient(long id, BigDecimal stock, boolean active, boolean available) {
+            Node node = new Node(StockKey.ingredient(id).toUnits(stock), active, available);
+            Integer index = graph.ingredientIndex.get(id);
+            if (index != null) {
+                ingredients[index] = node;
+            } else {
+                otherIngredients.put(id, node);
+            }
+        }
+
+        public void product(long id, int stock, boolean active, boolean available) {
+            Node node = new Node(stock, active, available);
+            Integer index = graph.productIndex.get(id);
+            if (index != null) {
+                products[index] = node;
+            } else {
+                otherProducts.put(id, node);
+            }
+        }
+
+        private Node ingredient(long id) {
+            Integer index = graph.ingredientIndex.get(id);
+            return index != null ? ingredients[index] : otherIngredients.get(id);
+        }
+
+        private Node product(long id) {
+            Integer index = graph.productIndex.get(id);
+            return index != null ? products[index] : otherProducts.get(id);
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<Long, List<Requirement>> recipes = new HashMap<>();
+        private final Map<Long, List<Requirement>> components = new HashMap<>();
+
+        private Builder() {}
+
+        /**
+         * An elaborate product needs the given quantity of an ingredient per unit.
+         */
+        public Builder ingredient(long productId, long ingredientId, BigDecimal quantity) {
+            long units = StockKey.ingredient(ingredientId).toUnits(quantity);
+            recipes.computeIfAbsent(productId, id -> new ArrayList<>()).add(new Requirement(ingredientId, units));
+            return this;
+        }
+
+        /**
+         * A combo contains the given quantity of a product per unit.
+         */
+        public Builder component(long comboId, long productId, int quantity) {
+            components.computeIfAbsent(comboId, id -> new ArrayList<>()).add(new Requirement(productId, quantity));
+            return this;
+        }
+
+        public StockGraph build() {
+            return new StockGraph(recipes, components);
+        }
+    }
+}
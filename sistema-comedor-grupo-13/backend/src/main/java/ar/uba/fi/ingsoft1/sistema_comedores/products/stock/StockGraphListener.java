@@ -0,0 +1,29 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on recipe and combo lines: any change to them outdates the {@link StockGraph}.
+ */
+@Component
+public class StockGraphListener {
+
+    private final ObjectProvider<StockPropagationService> propagationService;
+
+    @Autowired
+    public StockGraphListener(ObjectProvider<StockPropagationService> propagationService) {
+        this.propagationService = propagationService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object line) {
+        propagationService.ifAvailable(StockPropagationService::structureChanged);
+    }
+}
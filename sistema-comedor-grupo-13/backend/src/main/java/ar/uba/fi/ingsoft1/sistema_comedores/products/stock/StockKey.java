@@ -0,0 +1,32 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public record StockKey(StockResource resource, Long id) {
+
+    public static StockKey ingredient(Long id) {
+        return new StockKey(StockResource.INGREDIENT, id);
+    }
+
+    public static StockKey simpleProduct(Long id) {
+        return new StockKey(StockResource.SIMPLE_PRODUCT, id);
+    }
+
+    /**
+     * Converts a stock quantity to the integer units the ledger counts in, rounding up so a
+     * reservation never takes less than what will be consumed.
+     */
+    public long toUnits(BigDecimal quantity) {
+        if (quantity == null) {
+            return 0L;
+        }
+        return quantity.movePointRight(resource.getScale())
+                .setScale(0, RoundingMode.UP)
+                .longValueExact();
+    }
+
+    public BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, resource.getScale());
+    }
+}
@@ -0,0 +1,364 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.Ingredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.Combo;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ElaborateProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ProductIngredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.InsufficientStockException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admits or rejects orders against the {@link StockReservationLedger} and keeps it in step
+ * with the stored stock.
+ * <p>
+ * Every stock change is written to the ingredient/products tables by the transaction that
+ * makes it, so a committed order never depends on memory to reach the database. The ledger
+ * learns about the change when that transaction commits: the stripes of the keys it touched
+ * are held from just before the commit until the ledger is updated, so consumed stock and
+ * absolute stock sets reach the ledger in the same order as they reach the database.
+ * <p>
+ * The stock and availability of elaborate products and combos follow from the base stock.
+ * They are recalculated in the background for the keys changed by orders, and for everything
+ * at startup.
+ */
+@Service
+@Slf4j
+public class StockLedgerService {
+
+    private final StockReservationLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StockPropagationService propagationService;
+    private final Set<StockKey> changed = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public StockLedgerService(StockReservationLedger ledger, JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              StockPropagationService propagationService) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.propagationService = propagationService;
+    }
+
+    /**
+     * Loads the stored stock of every ingredient and simple product into the ledger and
+     * recalculates the derived stock, which may be behind if the application stopped before
+     * the last propagation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        List<Long> ingredientIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, stock FROM ingredient", rs -> {
+            StockKey key = StockKey.ingredient(rs.getLong("id"));
+            ledger.overwrite(key, key.toUnits(rs.getBigDecimal("stock")));
+            ingredientIds.add(key.id());
+        });
+        jdbcTemplate.query("SELECT id, stock FROM products WHERE product_type = 'SIMPLE'", rs -> {
+            StockKey key = StockKey.simpleProduct(rs.getLong("id"));
+            ledger.overwrite(key, rs.getLong("stock"));
+            productIds.add(key.id());
+        });
+        if (!ingredientIds.isEmpty() || !productIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> propagationService.propagate(ingredientIds, productIds));
+        }
+        log.info("Stock ledger reconciled with stored stock");
+    }
+
+    /**
+     * Reserves the base stock needed by a resolved cart and subtracts it from the stored
+     * stock in the current transaction. The reservation is given back if it rolls back.
+     */
+    public void reserve(Map<Product, Integer> cart) throws InsufficientStockException {
+        Map<Product, Map<StockKey, Long>> demandByProduct = new LinkedHashMap<>();
+        Map<StockKey, Long> demand = new HashMap<>();
+        for (Map.Entry<Product, Integer> entry : cart.entrySet()) {
+            Map<StockKey, Long> productDemand = new HashMap<>();
+            expand(entry.getKey(), entry.getValue(), productDemand);
+            demandByProduct.put(entry.getKey(), productDemand);
+            productDemand.forEach((key, units) -> demand.merge(key, units, Long::sum));
+        }
+
+        Set<StockKey> shortfalls = ledger.reserve(demand);
+        if (!shortfalls.isEmpty()) {
+            throw insufficientStock(cart, demandByProduct, shortfalls);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeDeltas(demand, "-");
+            ledger.commit(demand);
+            changed.addAll(demand.keySet());
+            return;
+        }
+        pendingChanges().reserved(demand);
+        writeDeltas(demand, "-");
+    }
+
+    /**
+     * Adds back the stock of a cancelled or rejected cart in the current transaction.
+     */
+    public void release(Map<Product, Integer> cart) {
+        Map<StockKey, Long> amounts = new HashMap<>();
+        cart.forEach((product, quantity) -> expand(product, quantity, amounts));
+        writeDeltas(amounts, "+");
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledger.restock(amounts);
+            changed.addAll(amounts.keySet());
+            return;
+        }
+        pendingChanges().restocked(amounts);
+    }
+
+    /**
+     * Records a stock value set directly on the entity (manual updates, imports), once the
+     * transaction that writes it commits.
+     */
+    public void overwrite(StockKey key, BigDecimal stock) {
+        long units = key.toUnits(stock);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledger.overwrite(key, units);
+            return;
+        }
+        pendingChanges().overwritten(key, units);
+    }
+
+    public BigDecimal getAvailable(StockKey key) {
+        return key.fromUnits(ledger.available(key));
+    }
+
+    /**
+     * Recalculates the stock of the elaborate products and combos built from the ingredients
+     * and simple products consumed or restocked by orders since the last run.
+     */
+    @Scheduled(fixedDelayString = "${app.stock.ledger.propagation-interval-ms:1000}",
+            initialDelayString = "${app.stock.ledger.propagation-interval-ms:1000}")
+    public void propagateChanges() {
+        Set<StockKey> keys = new HashSet<>();
+        for (Iterator<StockKey> it = changed.iterator(); it.hasNext(); ) {
+            keys.add(it.next());
+            it.remove();
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Long> ingredientIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        for (StockKey key : keys) {
+            (key.resource() == StockResource.INGREDIENT ? ingredientIds : productIds).add(key.id());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> propagationService.propagate(ingredientIds, productIds));
+            log.debug("Derived stock recalculated for {} changed keys", keys.size());
+        } catch (RuntimeException e) {
+            changed.addAll(keys);
+            log.error("Derived stock propagation failed, {} keys kept for the next attempt", keys.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void propagateOnShutdown() {
+        propagateChanges();
+    }
+
+    /**
+     * Adds the given amounts to the stored stock ("+") or subtracts them ("-"). Rows are
+     * updated in key order so concurrent orders lock them in the same order.
+     */
+    private void writeDeltas(Map<StockKey, Long> amounts, String sign) {
+        List<Object[]> ingredientUpdates = new ArrayList<>();
+        List<Object[]> productUpdates = new ArrayList<>();
+        List<StockKey> keys = new ArrayList<>(amounts.keySet());
+        keys.sort(Comparator.comparing(StockKey::resource).thenComparingLong(StockKey::id));
+
+        for (StockKey key : keys) {
+            long units = amounts.get(key);
+            if (key.resource() == StockResource.INGREDIENT) {
+                ingredientUpdates.add(new Object[]{key.fromUnits(units), key.id()});
+            } else {
+                productUpdates.add(new Object[]{units, key.id()});
+            }
+        }
+
+        if (!ingredientUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE ingredient SET stock = stock " + sign + " ? WHERE id = ?", ingredientUpdates);
+        }
+        if (!productUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET stock = stock " + sign + " ? WHERE id = ?", productUpdates);
+        }
+    }
+
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges changes && changes.belongsTo(this)) {
+                return changes;
+            }
+        }
+        PendingChanges changes = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(changes);
+        return changes;
+    }
+
+    /**
+     * The stock changes of one transaction, applied to the ledger in the order they were
+     * written once it commits.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Set<StockKey> keys = new HashSet<>();
+        private final List<Runnable> onCommit = new ArrayList<>();
+        private final List<Map<StockKey, Long>> reservations = new ArrayList<>();
+        private StockReservationLedger.Hold hold;
+
+        private boolean belongsTo(StockLedgerService service) {
+            return StockLedgerService.this == service;
+        }
+
+        private void reserved(Map<StockKey, Long> amounts) {
+            reservations.add(amounts);
+            keys.addAll(amounts.keySet());
+            onCommit.add(() -> {
+                ledger.commit(amounts);
+                changed.addAll(amounts.keySet());
+            });
+        }
+
+        private void restocked(Map<StockKey, Long> amounts) {
+            keys.addAll(amounts.keySet());
+            onCommit.add(() -> {
+                ledger.restock(amounts);
+                changed.addAll(amounts.keySet());
+            });
+        }
+
+        private void overwritten(StockKey key, long units) {
+            keys.add(key);
+            onCommit.add(() -> ledger.overwrite(key, units));
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Pending entity writes would otherwise run inside the commit, waiting on row
+            // locks while the stripes are held
+            entityManager.flush();
+            hold = ledger.hold(keys);
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                onCommit.forEach(Runnable::run);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status != STATUS_COMMITTED) {
+                    reservations.forEach(ledger::cancel);
+                }
+                if (status == STATUS_UNKNOWN) {
+                    log.error("Outcome of a stock change is unknown, the ledger may be off for {}", keys);
+                }
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (hold != null) {
+                hold.release();
+                hold = null;
+            }
+        }
+    }
+
+    private void expand(Product product, long quantity, Map<StockKey, Long> demand) {
+        Product resolved = (Product) Hibernate.unproxy(product);
+        if (resolved instanceof SimpleProduct) {
+            StockKey key = StockKey.simpleProduct(resolved.getId());
+            ledger.track(key, resolved.getStock() != null ? resolved.getStock() : 0L);
+            demand.merge(key, quantity, Long::sum);
+        } else if (resolved instanceof ElaborateProduct elaborate) {
+            for (ProductIngredient productIngredient : elaborate.getProductIngredients()) {
+                Ingredient ingredient = productIngredient.getIngredient();
+                StockKey key = StockKey.ingredient(ingredient.getId());
+                ledger.track(key, key.toUnits(ingredient.getStock()));
+                BigDecimal required = productIngredient.getQuantity().multiply(BigDecimal.valueOf(quantity));
+                demand.merge(key, key.toUnits(required), Long::sum);
+            }
+        } else if (resolved instanceof Combo combo) {
+            for (ComboProduct comboProduct : combo.getComboProducts()) {
+                expand(comboProduct.getProduct(), quantity * comboProduct.getQuantity(), demand);
+            }
+        }
+    }
+
+    private InsufficientStockException insufficientStock(Map<Product, Integer> cart,
+                                                         Map<Product, Map<StockKey, Long>> demandByProduct,
+                                                         Set<StockKey> shortfalls) {
+        for (Map.Entry<Product, Map<StockKey, Long>> entry : demandByProduct.entrySet()) {
+            if (Collections.disjoint(entry.getValue().keySet(), shortfalls)) {
+                continue;
+            }
+            Product product = (Product) Hibernate.unproxy(entry.getKey());
+            int requested = cart.get(entry.getKey());
+            int stock = product.getStock() != null ? product.getStock() : 0;
+
+            if (product instanceof ElaborateProduct elaborate) {
+                List<Ingredient> missing = elaborate.getProductIngredients().stream()
+                        .map(ProductIngredient::getIngredient)
+                        .filter(ingredient -> shortfalls.contains(StockKey.ingredient(ingredient.getId())))
+                        .toList();
+                return InsufficientStockException.forMissingIngredients(product.getName(), stock, requested, missing);
+            }
+            if (product instanceof Combo combo) {
+                List<Product> missing = combo.getComboProducts().stream()
+                        .map(ComboProduct::getProduct)
+                        .filter(component -> {
+                            Map<StockKey, Long> componentDemand = new HashMap<>();
+                            expand(component, 1, componentDemand);
+                            return !Collections.disjoint(componentDemand.keySet(), shortfalls);
+                        })
+                        .toList();
+                return InsufficientStockException.forMissingProducts(product.getName(), stock, requested, missing);
+            }
+            int available = (int) ledger.available(StockKey.simpleProduct(product.getId()));
+            return InsufficientStockException.forSimpleProduct(product.getName(), available, requested);
+        }
+        throw new IllegalStateException("Stock shortfall without a matching product: " + shortfalls);
+    }
+}
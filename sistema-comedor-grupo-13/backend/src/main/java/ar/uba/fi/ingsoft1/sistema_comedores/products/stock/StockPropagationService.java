@@ -0,0 +1,126 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recalculates the stock and availability of elaborate products and combos after the base
+ * stock changed, using the {@link StockGraph} instead of the entity observers. Only the rows
+ * a change can reach are read, and only the ones that changed are written, in one batch.
+ *
+ * The graph is built from {@code elaborate_product_ingredients} and {@code combo_products}
+ * and rebuilt after a recipe or combo change commits.
+ */
+@Service
+@Slf4j
+public class StockPropagationService {
+
+    private static final int IN_CLAUSE_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogVersion catalogVersion;
+    private final AtomicLong structureVersion = new AtomicLong();
+    private StockGraph graph;
+    private long graphVersion = -1;
+
+    @Autowired
+    public StockPropagationService(JdbcTemplate jdbcTemplate, ProductCatalogVersion catalogVersion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Marks the graph as outdated once the current transaction commits.
+     */
+    public void structureChanged() {
+        Transactions.afterCommit(structureVersion::incrementAndGet);
+    }
+
+    /**
+     * Propagates a stock change of the given ingredients and simple products, whose new stock
+     * is already written. Must run in the transaction that wrote it.
+     */
+    public StockGraph.Changes propagate(Collection<Long> ingredientIds, Collection<Long> productIds) {
+        StockGraph graph = graph();
+        Set<Long> affected = graph.affectedBy(ingredientIds, productIds);
+
+        Set<Long> ingredients = new HashSet<>(ingredientIds);
+        ingredients.addAll(graph.ingredientInputs(affected));
+        Set<Long> products = new HashSet<>(productIds);
+        products.addAll(affected);
+        products.addAll(graph.productInputs(affected));
+
+        StockGraph.Values values = graph.values();
+        queryByIds("SELECT id, stock, active, available FROM ingredient WHERE id IN (%s)", ingredients,
+                rs -> values.ingredient(rs.getLong("id"), rs.getBigDecimal("stock"),
+                        rs.getBoolean("active"), rs.getBoolean("available")));
+        queryByIds("SELECT id, stock, active, available FROM products WHERE id IN (%s)", products,
+                rs -> values.product(rs.getLong("id"), rs.getInt("stock"),
+                        rs.getBoolean("active"), rs.getBoolean("available")));
+
+        StockGraph.Changes changes = graph.propagate(values, ingredientIds, productIds);
+        write(changes);
+        if (!productIds.isEmpty() || !changes.products().isEmpty()) {
+            catalogVersion.bumpAfterCommit();
+        }
+        log.debug("Stock change reached {} derived products, {} rows updated",
+                affected.size(), changes.ingredients().size() + changes.products().size());
+        return changes;
+    }
+
+    synchronized StockGraph graph() {
+        long version = structureVersion.get();
+        if (graph == null || graphVersion != version) {
+            StockGraph.Builder builder = StockGraph.builder();
+            jdbcTemplate.query("SELECT product_id, ingredient_id, quantity FROM elaborate_product_ingredients",
+                    (RowCallbackHandler) rs -> builder.ingredient(rs.getLong("product_id"),
+                            rs.getLong("ingredient_id"), rs.getBigDecimal("quantity")));
+            jdbcTemplate.query("SELECT combo_id, product_id, quantity FROM combo_products",
+                    (RowCallbackHandler) rs -> builder.component(rs.getLong("combo_id"),
+                            rs.getLong("product_id"), rs.getInt("quantity")));
+            graph = builder.build();
+            graphVersion = version;
+            log.debug("Stock graph built with {} derived products", graph.size());
+        }
+        return graph;
+    }
+
+    private void write(StockGraph.Changes changes) {
+        if (!changes.ingredients().isEmpty()) {
+            List<Object[]> rows = new ArrayList<>();
+            for (StockGraph.IngredientRow row : changes.ingredients()) {
+                rows.add(new Object[]{row.available(), row.id()});
+            }
+            jdbcTemplate.batchUpdate("UPDATE ingredient SET available = ? WHERE id = ?", rows);
+        }
+        if (!changes.products().isEmpty()) {
+            List<Object[]> rows = new ArrayList<>();
+            for (StockGraph.ProductRow row : changes.products()) {
+                rows.add(new Object[]{row.stock(), row.available(), row.id()});
+            }
+            jdbcTemplate.batchUpdate("UPDATE products SET stock = ?, available = ? WHERE id = ?", rows);
+        }
+    }
+
+    private void queryByIds(String sql, Set<Long> ids, RowCallbackHandler handler) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + IN_CLAUSE_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(sql.formatted(placeholders), handler, chunk.toArray());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory stock counters for ingredients and simple products.
+ * <p>
+ * Each key keeps the units stored in the database and the units reserved by orders whose
+ * transaction has not committed yet; what can still be ordered is the difference. Keys are
+ * guarded by a fixed set of striped locks: an order locks the stripes of all the keys it
+ * needs in ascending order, checks them and applies the whole reservation at once, so it
+ * either gets everything or nothing.
+ * <p>
+ * The ledger is the source of truth for admission while the application runs, which assumes
+ * a single backend instance. The stored stock itself is written by the transactions that
+ * change it, see {@link StockLedgerService}.
+ */
+@Component
+public class StockReservationLedger {
+
+    private static final int STRIPES = 64;
+
+    private static final class Counter {
+        private long stored;
+        private long reserved;
+
+        private Counter(long stored) {
+            this.stored = stored;
+        }
+    }
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<StockKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public StockReservationLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isTracked(StockKey key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * Starts tracking a key with the given stored units, unless it is already tracked.
+     */
+    public void track(StockKey key, long units) {
+        counters.putIfAbsent(key, new Counter(units));
+    }
+
+    /**
+     * Replaces the stored units of a key, used when the stored stock is set to an absolute
+     * value (startup, manual stock updates). Reservations still in flight are kept.
+     */
+    public void overwrite(StockKey key, long units) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            counters.computeIfAbsent(key, k -> new Counter(units)).stored = units;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long available(StockKey key) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            Counter counter = counters.get(key);
+            return counter != null ? counter.stored - counter.reserved : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves every demanded amount atomically.
+     *
+     * @return the keys without enough stock; empty when the reservation was applied
+     */
+    public Set<StockKey> reserve(Map<StockKey, Long> demand) {
+        int[] stripes = stripesFor(demand.keySet());
+        lockAll(stripes);
+        try {
+            Set<StockKey> shortfalls = new HashSet<>();
+            for (Map.Entry<StockKey, Long> entry : demand.entrySet()) {
+                Counter counter = counters.get(entry.getKey());
+                if (counter == null || counter.stored - counter.reserved < entry.getValue()) {
+                    shortfalls.add(entry.getKey());
+                }
+            }
+            if (!shortfalls.isEmpty()) {
+                return shortfalls;
+            }
+            for (Map.Entry<StockKey, Long> entry : demand.entrySet()) {
+                counters.get(entry.getKey()).reserved += entry.getValue();
+            }
+            return Set.of();
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    /**
+     * Turns reservations into consumed stock, once the order that made them committed.
+     */
+    public void commit(Map<StockKey, Long> amounts) {
+        update(amounts, (counter, units) -> {
+            counter.reserved -= units;
+            counter.stored -= units;
+        });
+    }
+
+    /**
+     * Drops reservations whose order rolled back.
+     */
+    public void cancel(Map<StockKey, Long> amounts) {
+        update(amounts, (counter, units) -> counter.reserved -= units);
+    }
+
+    /**
+     * Adds back the stock of cancelled or rejected orders, once the change committed.
+     */
+    public void restock(Map<StockKey, Long> amounts) {
+        update(amounts, (counter, units) -> counter.stored += units);
+    }
+
+    /**
+     * Locks the stripes of the given keys until the returned hold is released. Used to keep
+     * the ledger changes of a transaction in the same order as its commit.
+     */
+    public Hold hold(Collection<StockKey> keys) {
+        int[] stripes = stripesFor(keys);
+        lockAll(stripes);
+        return new Hold(stripes);
+    }
+
+    public final class Hold {
+        private final int[] stripes;
+        private boolean released;
+
+        private Hold(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                unlockAll(stripes);
+            }
+        }
+    }
+
+    private void update(Map<StockKey, Long> amounts, BiConsumer<Counter, Long> change) {
+        int[] stripes = stripesFor(amounts.keySet());
+        lockAll(stripes);
+        try {
+            for (Map.Entry<StockKey, Long> entry : amounts.entrySet()) {
+                Counter counter = counters.get(entry.getKey());
+                if (counter == null) {
+                    throw new IllegalStateException("Stock key not tracked by the ledger: " + entry.getKey());
+                }
+                change.accept(counter, entry.getValue());
+            }
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    private ReentrantLock lockFor(StockKey key) {
+        return locks[stripeOf(key)];
+    }
+
+    private static int stripeOf(StockKey key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private static int[] stripesFor(Collection<StockKey> keys) {
+        return keys.stream()
+                .mapToInt(StockReservationLedger::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private void lockAll(int[] stripes) {
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+
+    private void unlockAll(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+/**
+ * Base resources whose stock is physically consumed by an order. Elaborate products and
+ * combos derive their stock from these. The scale is the number of decimal places kept
+ * by the ledger (it matches the column scale).
+ */
+public enum StockResource {
+    INGREDIENT(3),
+    SIMPLE_PRODUCT(0);
+
+    private final int scale;
+
+    StockResource(int scale) {
+        this.scale = scale;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,51 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/products/stock/import")
+@Tag(name = "Stock import", description = "Carga masiva de stock de ingredientes y productos simples")
+public class StockImportController {
+
+    private final StockImportService stockImportService;
+
+    @Autowired
+    public StockImportController(StockImportService stockImportService) {
+        this.stockImportService = stockImportService;
+    }
+
+    @PostMapping(consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Importar stock desde CSV",
+            description = "Columnas type (INGREDIENT o PRODUCT), id o name, y stock. Retorna el resultado de cada fila")
+    @ApiResponse(responseCode = "200", description = "Importación procesada")
+    @ApiResponse(responseCode = "400", description = "Cabecera inválida", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Acceso denegado - requiere rol ADMIN", content = @Content)
+    public ResponseEntity<?> importCsv(InputStream body) {
+        StockImportReport report = stockImportService.importStock(body, StockImportFormat.CSV);
+        return ResponseEntity.ok(Map.of("success", true, "data", report));
+    }
+
+    @PostMapping(consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Importar stock desde NDJSON",
+            description = "Un objeto por línea con type, id o name, y stock. Retorna el resultado de cada fila")
+    @ApiResponse(responseCode = "200", description = "Importación procesada")
+    @ApiResponse(responseCode = "403", description = "Acceso denegado - requiere rol ADMIN", content = @Content)
+    public ResponseEntity<?> importNdjson(InputStream body) {
+        StockImportReport report = stockImportService.importStock(body, StockImportFormat.NDJSON);
+        return ResponseEntity.ok(Map.of("success", true, "data", report));
+    }
+}
@@ -0,0 +1,6 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+public enum StockImportFormat {
+    CSV,
+    NDJSON
+}
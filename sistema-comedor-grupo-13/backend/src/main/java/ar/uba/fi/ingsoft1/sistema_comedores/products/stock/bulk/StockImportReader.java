@@ -0,0 +1,204 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.InvalidStockImportException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a stock import one line at a time, so the whole file is never held in memory.
+ *
+ * CSV needs a header with the columns {@code type}, {@code stock} and {@code id} and/or
+ * {@code name}, in any order. NDJSON has one object per line with the same fields. A row
+ * that cannot be parsed is returned with its error; only a bad CSV header stops the import.
+ */
+public class StockImportReader {
+
+    private static final String[] COLUMNS = {"type", "id", "name", "stock"};
+
+    private final BufferedReader reader;
+    private final StockImportFormat format;
+    private final ObjectReader jsonReader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int line;
+
+    public StockImportReader(InputStream input, StockImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        if (format == StockImportFormat.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * Returns the next row, or {@code null} at the end of the input. Blank lines are skipped.
+     */
+    public StockImportRow next() {
+        String text = nextLine();
+        while (text != null && text.isBlank()) {
+            text = nextLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        return format == StockImportFormat.CSV ? parseCsv(text) : parseJson(text);
+    }
+
+    private String nextLine() {
+        try {
+            String text = reader.readLine();
+            if (text != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+            }
+            return text;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readHeader() {
+        String header = nextLine();
+        List<String> names = header != null ? splitCsv(header) : null;
+        if (names != null) {
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+                for (String column : COLUMNS) {
+                    if (column.equals(name)) {
+                        columns.put(column, i);
+                    }
+                }
+            }
+        }
+        if (!columns.containsKey("type") || !columns.containsKey("stock")
+                || (!columns.containsKey("id") && !columns.containsKey("name"))) {
+            throw new InvalidStockImportException(
+                    "La cabecera del CSV debe incluir las columnas type, stock e id o name");
+        }
+    }
+
+    private StockImportRow parseCsv(String text) {
+        List<String> values = splitCsv(text);
+        if (values == null) {
+            return StockImportRow.invalid(line, "Comillas sin cerrar en la línea");
+        }
+        return toRow(csvValue(values, "type"), csvValue(values, "id"), csvValue(values, "name"),
+                csvValue(values, "stock"));
+    }
+
+    private String csvValue(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private StockImportRow parseJson(String text) {
+        JsonNode node;
+        try {
+            node = jsonReader.readTree(text);
+        } catch (JsonProcessingException e) {
+            return StockImportRow.invalid(line, "JSON inválido");
+        }
+        if (node == null || !node.isObject()) {
+            return StockImportRow.invalid(line, "Cada línea debe ser un objeto JSON");
+        }
+        return toRow(jsonValue(node, "type"), jsonValue(node, "id"), jsonValue(node, "name"),
+                jsonValue(node, "stock"));
+    }
+
+    private static String jsonValue(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.isNumber() ? value.decimalValue().toPlainString() : value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private StockImportRow toRow(String type, String id, String name, String stock) {
+        StockImportTarget target;
+        try {
+            target = type == null ? null : StockImportTarget.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            target = null;
+        }
+        if (target == null) {
+            return StockImportRow.invalid(line, "El tipo debe ser INGREDIENT o PRODUCT");
+        }
+        Long parsedId = null;
+        if (id != null) {
+            try {
+                parsedId = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                return new StockImportRow(line, target, null, name, null, "El id debe ser un número entero");
+            }
+        }
+        if (parsedId == null && name == null) {
+            return new StockImportRow(line, target, null, null, null, "Se requiere el id o el nombre");
+        }
+        if (stock == null) {
+            return new StockImportRow(line, target, parsedId, name, null, "El stock es obligatorio");
+        }
+        try {
+            return new StockImportRow(line, target, parsedId, name, new BigDecimal(stock), null);
+        } catch (NumberFormatException e) {
+            return new StockImportRow(line, target, parsedId, name, null, "El stock debe ser un número");
+        }
+    }
+
+    /**
+     * Splits a CSV line on commas, honouring double quotes ({@code ""} inside quotes is a quote).
+     * Returns {@code null} if a quote is left open.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
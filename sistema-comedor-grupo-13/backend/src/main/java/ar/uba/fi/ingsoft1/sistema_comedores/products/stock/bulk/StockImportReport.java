@@ -0,0 +1,15 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import java.util.List;
+
+public record StockImportReport(
+        int total,
+        int applied,
+        int rejected,
+        List<StockImportRowResult> rows
+) {
+    public static StockImportReport of(List<StockImportRowResult> rows) {
+        int applied = (int) rows.stream().filter(row -> row.status() == StockImportStatus.APPLIED).count();
+        return new StockImportReport(rows.size(), applied, rows.size() - applied, rows);
+    }
+}
@@ -0,0 +1,24 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import java.math.BigDecimal;
+
+/**
+ * A parsed row of a stock import. The item is identified by id or, if there is none, by
+ * name. Rows that could not be parsed carry the error instead.
+ */
+public record StockImportRow(
+        int line,
+        StockImportTarget target,
+        Long id,
+        String name,
+        BigDecimal stock,
+        String error
+) {
+    public static StockImportRow invalid(int line, String error) {
+        return new StockImportRow(line, null, null, null, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,24 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import java.math.BigDecimal;
+
+public record StockImportRowResult(
+        int line,
+        StockImportTarget target,
+        Long id,
+        String name,
+        BigDecimal previousStock,
+        BigDecimal stock,
+        StockImportStatus status,
+        String error
+) {
+    public static StockImportRowResult applied(int line, StockImportTarget target, Long id, String name,
+                                               BigDecimal previousStock, BigDecimal stock) {
+        return new StockImportRowResult(line, target, id, name, previousStock, stock, StockImportStatus.APPLIED, null);
+    }
+
+    public static StockImportRowResult rejected(StockImportRow row, String error) {
+        return new StockImportRowResult(row.line(), row.target(), row.id(), row.name(), null, row.stock(),
+                StockImportStatus.REJECTED, error);
+    }
+}
@@ -0,0 +1,278 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockKey;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockPropagationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk stock import for ingredients and simple products. The input is streamed and applied
+ * in chunks, each in its own transaction: the items of a chunk are looked up with one query
+ * per table and their stock and audit rows are written in JDBC batches. The stock of the
+ * elaborate products and combos that depend on a chunk is recalculated in the same
+ * transaction, so a failure in a later chunk does not leave committed stock unpropagated.
+ *
+ * Like {@code PUT /ingredients/{id}/stock} and {@code PUT /products/{id}/stock}, a row sets
+ * the stock to the given value. A row with an id is matched by id, otherwise by name.
+ */
+@Service
+@Slf4j
+public class StockImportService {
+
+    private static final BigDecimal MAX_INGREDIENT_STOCK = new BigDecimal("10000000");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLedgerService stockLedgerService;
+    private final StockPropagationService propagationService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Clock clock;
+
+    @Autowired
+    public StockImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              StockLedgerService stockLedgerService, StockPropagationService propagationService,
+                              ObjectMapper objectMapper,
+                              @Value("${app.stock.import.chunk-size:500}") int chunkSize) {
+        this(jdbcTemplate, transactionManager, stockLedgerService, propagationService, objectMapper, chunkSize,
+                Clock.systemUTC());
+    }
+
+    StockImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       StockLedgerService stockLedgerService, StockPropagationService propagationService,
+                       ObjectMapper objectMapper, int chunkSize, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stockLedgerService = stockLedgerService;
+        this.propagationService = propagationService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    public StockImportReport importStock(InputStream input, StockImportFormat format) {
+        StockImportReader reader = new StockImportReader(input, format, objectMapper);
+        List<StockImportRowResult> results = new ArrayList<>();
+
+        List<StockImportRow> chunk = new ArrayList<>(chunkSize);
+        for (StockImportRow row = reader.next(); row != null; row = reader.next()) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                applyChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, results);
+        }
+        StockImportReport report = StockImportReport.of(results);
+        log.info("Stock import: {} rows, {} applied, {} rejected", report.total(), report.applied(), report.rejected());
+        return report;
+    }
+
+    private void applyChunk(List<StockImportRow> rows, List<StockImportRowResult> results) {
+        List<StockImportRowResult> chunkResults;
+        try {
+            chunkResults = transactionTemplate.execute(status -> {
+                List<StockImportRowResult> written = writeChunk(rows);
+                propagate(written);
+                return written;
+            });
+        } catch (RuntimeException e) {
+            log.error("Stock import chunk starting at line {} failed", rows.get(0).line(), e);
+            for (StockImportRow row : rows) {
+                results.add(StockImportRowResult.rejected(row, row.isValid() ? "No se pudo aplicar el lote" : row.error()));
+            }
+            return;
+        }
+        results.addAll(chunkResults);
+    }
+
+    private void propagate(List<StockImportRowResult> chunkResults) {
+        Set<Long> ingredientIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (StockImportRowResult result : chunkResults) {
+            if (result.status() == StockImportStatus.APPLIED) {
+                (result.target() == StockImportTarget.INGREDIENT ? ingredientIds : productIds).add(result.id());
+            }
+        }
+        if (!ingredientIds.isEmpty() || !productIds.isEmpty()) {
+            propagationService.propagate(ingredientIds, productIds);
+        }
+    }
+
+    private List<StockImportRowResult> writeChunk(List<StockImportRow> rows) {
+        Items ingredients = lookup(rows, StockImportTarget.INGREDIENT,
+                "SELECT id, name, stock FROM ingredient WHERE %s IN (%s)");
+        Items products = lookup(rows, StockImportTarget.PRODUCT,
+                "SELECT id, name, stock FROM products WHERE product_type = 'SIMPLE' AND %s IN (%s)");
+
+        Timestamp now = Timestamp.from(clock.instant());
+        List<StockImportRowResult> results = new ArrayList<>(rows.size());
+        List<Object[]> ingredientUpdates = new ArrayList<>();
+        List<Object[]> ingredientAudits = new ArrayList<>();
+        List<Object[]> productUpdates = new ArrayList<>();
+        List<Object[]> productAudits = new ArrayList<>();
+
+        for (StockImportRow row : rows) {
+            if (!row.isValid()) {
+                results.add(StockImportRowResult.rejected(row, row.error()));
+                continue;
+            }
+            boolean ingredient = row.target() == StockImportTarget.INGREDIENT;
+            Item item = (ingredient ? ingredients : products).find(row);
+            if (item == null) {
+                results.add(StockImportRowResult.rejected(row, (ingredient ? "Ingrediente" : "Producto simple")
+                        + " no encontrado: " + (row.id() != null ? row.id() : row.name())));
+                continue;
+            }
+            String error = ingredient ? validateIngredientStock(row.stock()) : validateProductStock(row.stock());
+            if (error != null) {
+                results.add(StockImportRowResult.rejected(row, error));
+                continue;
+            }
+
+            BigDecimal previous = item.stock != null ? item.stock : BigDecimal.ZERO;
+            if (ingredient) {
+                BigDecimal stock = row.stock().setScale(3);
+                ingredientUpdates.add(new Object[]{stock, stock, item.id});
+                ingredientAudits.add(new Object[]{item.name, AdminOperation.UPDATE_STOCK.name(), now,
+                        stock.subtract(previous)});
+                stockLedgerService.overwrite(StockKey.ingredient(item.id), stock);
+                item.stock = stock;
+            } else {
+                int stock = row.stock().intValueExact();
+                productUpdates.add(new Object[]{stock, stock, now, item.id});
+                productAudits.add(new Object[]{item.name, now, AdminOperation.UPDATE_STOCK.name(),
+                        "oldStock=" + previous.intValue() + ", newStock=" + stock});
+                stockLedgerService.overwrite(StockKey.simpleProduct(item.id), BigDecimal.valueOf(stock));
+                item.stock = BigDecimal.valueOf(stock);
+            }
+            results.add(StockImportRowResult.applied(row.line(), row.target(), item.id, item.name, previous, item.stock));
+        }
+
+        if (!ingredientUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE ingredient SET stock = ?, available = (active AND ? > 0) WHERE id = ?",
+                    ingredientUpdates);
+            jdbcTemplate.batchUpdate("INSERT INTO ingredient_audit_log (ingredient_name, operation, modified_at, "
+                    + "amount_delta) VALUES (?, ?, ?, ?)", ingredientAudits);
+        }
+        if (!productUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET stock = ?, available = (active AND ? > 0), updated_at = ? "
+                    + "WHERE id = ?", productUpdates);
+            jdbcTemplate.batchUpdate("INSERT INTO product_audit_log (product_name, modified_at, operation, reason) "
+                    + "VALUES (?, ?, ?, ?)", productAudits);
+        }
+        return results;
+    }
+
+    private static String validateIngredientStock(BigDecimal stock) {
+        if (stock.signum() <= 0) {
+            return "El stock del ingrediente debe ser positivo";
+        }
+        if (stock.stripTrailingZeros().scale() > 3) {
+            return "El stock del ingrediente admite hasta 3 decimales";
+        }
+        if (stock.compareTo(MAX_INGREDIENT_STOCK) >= 0) {
+            return "El stock del ingrediente supera el máximo permitido";
+        }
+        return null;
+    }
+
+    private static String validateProductStock(BigDecimal stock) {
+        if (stock.signum() < 0) {
+            return "El stock del producto debe ser mayor o igual a 0";
+        }
+        if (stock.stripTrailingZeros().scale() > 0) {
+            return "El stock del producto debe ser un número entero";
+        }
+        if (stock.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            return "El stock del producto supera el máximo permitido";
+        }
+        return null;
+    }
+
+    /**
+     * Loads the items of one target referenced by a chunk, with one query for the ids and
+     * one for the names.
+     */
+    private Items lookup(List<StockImportRow> rows, StockImportTarget target, String sql) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (StockImportRow row : rows) {
+            if (row.isValid() && row.target() == target) {
+                if (row.id() != null) {
+                    ids.add(row.id());
+                } else {
+                    names.add(row.name());
+                }
+            }
+        }
+        Items items = new Items();
+        RowCallbackHandler handler = rs -> items.add(new Item(rs.getLong("id"), rs.getString("name"),
+                rs.getBigDecimal("stock")));
+        query(sql, "id", ids, handler);
+        query(sql, "name", names, handler);
+        return items;
+    }
+
+    private void query(String sql, String column, Collection<?> values, RowCallbackHandler handler) {
+        if (values.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(values.size(), "?"));
+        jdbcTemplate.query(sql.formatted(column, placeholders), handler, values.toArray());
+    }
+
+    private static final class Item {
+        private final long id;
+        private final String name;
+        private BigDecimal stock;
+
+        private Item(long id, String name, BigDecimal stock) {
+            this.id = id;
+            this.name = name;
+            this.stock = stock;
+        }
+    }
+
+    private static final class Items {
+        private final Map<Long, Item> byId = new HashMap<>();
+        private final Map<String, Item> byName = new HashMap<>();
+
+        private void add(Item item) {
+            // The same item may come from both queries; keep one instance so repeated rows see each other
+            Item existing = byId.putIfAbsent(item.id, item);
+            Item kept = existing != null ? existing : item;
+            byName.put(kept.name, kept);
+        }
+
+        private Item find(StockImportRow row) {
+            return row.id() != null ? byId.get(row.id()) : byName.get(row.name());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+/**
+ * What a row of a stock import updates: an ingredient or a simple product.
+ */
+public enum StockImportTarget {
+    INGREDIENT,
+    PRODUCT
+}
@@ -1,15 +1,11 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
-import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import jakarta.persistence.*;
 import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -47,53 +43,30 @@ public class BuyXGetY extends Promotion {
         this.freeQuantity = freeQty;
     }
 
-    @Override
-    public boolean appliesTo(Map<Product, Integer> products) {
-        int requiredCount = products.entrySet()
-                .stream()
-                .filter(entry -> {
-                    Product product = entry.getKey();
-                    return product.getCategory() == requiredCategory;
-                })
-                .mapToInt(Map.Entry::getValue)
-                .sum();
-        return requiredCount >= requiredQuantity;
+    private BuyXGetY(BuyXGetY source) {
+        super(source);
+        this.requiredCategory = source.requiredCategory;
+        this.freeCategory = source.freeCategory;
+        this.requiredQuantity = source.requiredQuantity;
+        this.freeQuantity = source.freeQuantity;
     }
 
     @Override
-    public BigDecimal calculateDiscount(Map<Product, Integer> products) {
-        int requiredCount = products.entrySet()
-                .stream()
-                .filter(entry -> {
-                    Product product = entry.getKey();
-                    return product.getCategory() == requiredCategory;
-                })
-                .mapToInt(Map.Entry::getValue)
-                .sum();
+    public boolean appliesTo(CartView cart) {
+        return cart.units(requiredCategory) >= requiredQuantity;
+    }
 
-        int timesApplied = requiredCount / requiredQuantity;
+    @Override
+    public BigDecimal calculateDiscount(CartView cart) {
+        int timesApplied = cart.units(requiredCategory) / requiredQuantity;
         int totalFreeProducts = timesApplied * freeQuantity;
-        
-        List<Map.Entry<Product, Integer>> freeProducts = products.entrySet()
-                .stream()
-                .filter(entry -> entry.getKey().getCategory() == freeCategory)
-                .sorted(Comparator.comparing(entry -> entry.getKey().getPrice()))
-                .toList();
-        
-        BigDecimal discount = BigDecimal.ZERO;
-        
-        if (!freeProducts.isEmpty()) {
-            int remaining = totalFreeProducts;
-            for (Map.Entry<Product, Integer> entry : freeProducts) {
-                if (remaining == 0) { break; }
-                int quantityToDiscount = Math.min(remaining, entry.getValue());
-                BigDecimal pricePerUnit = entry.getKey().getPrice();
-                discount = discount.add(pricePerUnit.multiply(BigDecimal.valueOf(quantityToDiscount)));
-                remaining -= quantityToDiscount;
-            }
-        }
-        
-        return discount;
+        // The cheapest products of the free category are the ones given away
+        return CartView.amount(cart.cheapestUnitsCents(freeCategory, totalFreeProducts));
+    }
+
+    @Override
+    public BuyXGetY copy() {
+        return new BuyXGetY(this);
     }
 
     @Override
@@ -1,6 +1,5 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
-import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Positive;
@@ -8,9 +7,6 @@ import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -45,37 +41,28 @@ public class BuyXPayY extends Promotion {
         this.chargedQuantity = charged;
     }
 
-    @Override
-    public boolean appliesTo(Map<Product, Integer> products) {
-        int totalQuantity = products.entrySet().stream()
-                .filter(entry -> entry.getKey().getCategory() == category)
-                .mapToInt(Map.Entry::getValue)
-                .sum();
+    private BuyXPayY(BuyXPayY source) {
+        super(source);
+        this.category = source.category;
+        this.requiredQuantity = source.requiredQuantity;
+        this.chargedQuantity = source.chargedQuantity;
+    }
 
-        return totalQuantity >= requiredQuantity;
+    @Override
+    public boolean appliesTo(CartView cart) {
+        return cart.units(category) >= requiredQuantity;
     }
 
     @Override
-    public BigDecimal calculateDiscount(Map<Product, Integer> products) {
-        List<Map.Entry<Product, Integer>> categoryProducts = products.entrySet().stream()
-                .filter(entry -> entry.getKey().getCategory() == category)
-                .sorted(Comparator.comparing(entry -> entry.getKey().getPrice()))
-                .toList();
-        int totalQuantity = categoryProducts.stream()
-                .mapToInt(Map.Entry::getValue)
-                .sum();
-        int timesApplied = totalQuantity / requiredQuantity;
+    public BigDecimal calculateDiscount(CartView cart) {
+        int timesApplied = cart.units(category) / requiredQuantity;
         int freeProducts = timesApplied * (requiredQuantity - chargedQuantity);
-        BigDecimal discount = BigDecimal.ZERO;
-        int remaining = freeProducts;
-        for (Map.Entry<Product, Integer> entry : categoryProducts) {
-            if (remaining == 0) break;
-            int quantityToDiscount = Math.min(remaining, entry.getValue());
-            BigDecimal pricePerUnit = entry.getKey().getPrice();
-            discount = discount.add(pricePerUnit.multiply(BigDecimal.valueOf(quantityToDiscount)));
-            remaining -= quantityToDiscount;
-        }
-        return discount;
+        return CartView.amount(cart.cheapestUnitsCents(category, freeProducts));
+    }
+
+    @Override
+    public BuyXPayY copy() {
+        return new BuyXPayY(this);
     }
 
     @Override
@@ -0,0 +1,187 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Read-only view of a cart grouped by product category, built once per evaluation so that
+ * promotions can be checked without streaming or sorting the cart again. Amounts are kept in
+ * cents; {@link #amount(long)} converts back to BigDecimal for results.
+ *
+ * Within a category, lines are sorted by unit price, cheapest first.
+ */
+public final class CartView {
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final long[] NO_PRICES = new long[0];
+    private static final int[] NO_QUANTITIES = new int[0];
+
+    private final int presentCategories;
+    private final int[] units;
+    private final long[] subtotalCents;
+    private final long[][] unitPriceCents;
+    private final int[][] quantities;
+    private final long totalCents;
+
+    private CartView(int presentCategories, int[] units, long[] subtotalCents,
+                     long[][] unitPriceCents, int[][] quantities, long totalCents) {
+        this.presentCategories = presentCategories;
+        this.units = units;
+        this.subtotalCents = subtotalCents;
+        this.unitPriceCents = unitPriceCents;
+        this.quantities = quantities;
+        this.totalCents = totalCents;
+    }
+
+    public static CartView of(Map<Product, Integer> cart) {
+        int[] lines = new int[CATEGORIES.length];
+        for (Product product : cart.keySet()) {
+            lines[product.getCategory().ordinal()]++;
+        }
+
+        int presentCategories = 0;
+        long[][] prices = new long[CATEGORIES.length][];
+        int[][] quantities = new int[CATEGORIES.length][];
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (lines[c] == 0) {
+                prices[c] = NO_PRICES;
+                quantities[c] = NO_QUANTITIES;
+            } else {
+                presentCategories |= 1 << c;
+                prices[c] = new long[lines[c]];
+                quantities[c] = new int[lines[c]];
+            }
+        }
+
+        int[] filled = new int[CATEGORIES.length];
+        int[] units = new int[CATEGORIES.length];
+        long[] subtotalCents = new long[CATEGORIES.length];
+        long totalCents = 0;
+        for (Map.Entry<Product, Integer> entry : cart.entrySet()) {
+            int c = entry.getKey().getCategory().ordinal();
+            long price = toCents(entry.getKey().getPrice());
+            int quantity = entry.getValue();
+            insertSorted(prices[c], quantities[c], filled[c]++, price, quantity);
+            units[c] += quantity;
+            subtotalCents[c] += price * quantity;
+            totalCents += price * quantity;
+        }
+        return new CartView(presentCategories, units, subtotalCents, prices, quantities, totalCents);
+    }
+
+    /**
+     * Copy of this view with the lines of one category replaced. The other categories are
+     * shared with this view, so a cart that changes one line at a time only rebuilds the
+     * aggregates of that line's category.
+     */
+    public CartView withCategory(ProductCategory category, Map<Product, Integer> lines) {
+        int c = category.ordinal();
+        long[] prices = lines.isEmpty() ? NO_PRICES : new long[lines.size()];
+        int[] lineQuantities = lines.isEmpty() ? NO_QUANTITIES : new int[lines.size()];
+        int categoryUnits = 0;
+        long categorySubtotal = 0;
+        int filled = 0;
+        for (Map.Entry<Product, Integer> entry : lines.entrySet()) {
+            if (entry.getKey().getCategory() != category) {
+                throw new IllegalArgumentException("Product " + entry.getKey().getName() + " is not a " + category.name());
+            }
+            long price = toCents(entry.getKey().getPrice());
+            int quantity = entry.getValue();
+            insertSorted(prices, lineQuantities, filled++, price, quantity);
+            categoryUnits += quantity;
+            categorySubtotal += price * quantity;
+        }
+
+        int[] newUnits = units.clone();
+        long[] newSubtotals = subtotalCents.clone();
+        long[][] newPrices = unitPriceCents.clone();
+        int[][] newQuantities = quantities.clone();
+        newUnits[c] = categoryUnits;
+        newSubtotals[c] = categorySubtotal;
+        newPrices[c] = prices;
+        newQuantities[c] = lineQuantities;
+        int present = lines.isEmpty() ? presentCategories & ~categoryBit(category) : presentCategories | categoryBit(category);
+        return new CartView(present, newUnits, newSubtotals, newPrices, newQuantities,
+                totalCents - subtotalCents[c] + categorySubtotal);
+    }
+
+    private static void insertSorted(long[] prices, int[] quantities, int size, long price, int quantity) {
+        int i = size;
+        while (i > 0 && prices[i - 1] > price) {
+            prices[i] = prices[i - 1];
+            quantities[i] = quantities[i - 1];
+            i--;
+        }
+        prices[i] = price;
+        quantities[i] = quantity;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal amount(long cents) {
+        return cents == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(cents, 2);
+    }
+
+    public static int categoryBit(ProductCategory category) {
+        return 1 << category.ordinal();
+    }
+
+    /**
+     * Bit set of the categories with at least one line in the cart, see {@link #categoryBit}.
+     */
+    public int presentCategories() {
+        return presentCategories;
+    }
+
+    public boolean contains(ProductCategory category) {
+        return (presentCategories & categoryBit(category)) != 0;
+    }
+
+    public int units(ProductCategory category) {
+        return units[category.ordinal()];
+    }
+
+    public long subtotalCents(ProductCategory category) {
+        return subtotalCents[category.ordinal()];
+    }
+
+    public long totalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Price of the {@code count} cheapest units of a category, or of all of them if there
+     * are fewer.
+     */
+    public long cheapestUnitsCents(ProductCategory category, int count) {
+        long[] prices = unitPriceCents[category.ordinal()];
+        int[] lineQuantities = quantities[category.ordinal()];
+        long cents = 0;
+        int remaining = count;
+        for (int i = 0; i < prices.length && remaining > 0; i++) {
+            int taken = Math.min(remaining, lineQuantities[i]);
+            cents += prices[i] * taken;
+            remaining -= taken;
+        }
+        return cents;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if ((presentCategories & (1 << c)) != 0) {
+                joiner.add(CATEGORIES[c].name() + " x" + units[c] + " " + Arrays.toString(unitPriceCents[c]));
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -1,163 +1,325 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
-import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.AppliedPromotionResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Picks the combination of promotions with the largest total discount for a cart.
+ *
+ * Product-specific promotions that share products cannot be combined, so they are split into
+ * conflict groups and each group is solved exactly with a memoized branch-and-bound search.
+ * Order-level promotions are applied on top of the result. If the search of a group runs out
+ * of time budget, that group is solved with the greedy heuristic instead.
+ *
+ * Every promotion is evaluated against the same {@link CartView}, built once per optimizer.
+ * A promotion affects whole categories, so conflicts are tracked as category bit sets.
+ */
 @Slf4j
 public class DiscountOptimizer {
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(50);
+
+    // Groups are solved with one bit per promotion
+    private static final int MAX_EXACT_GROUP_SIZE = Long.SIZE - 1;
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
     private final Set<Promotion> promotions;
-    private final Map<Product, Integer> cart;
+    private final CartView cart;
+    private final Map<Promotion, BigDecimal> knownDiscounts;
+    private final Duration timeBudget;
 
     public record PromotionCombination(Map<Promotion, BigDecimal> promotions, BigDecimal discount) {}
 
     public DiscountOptimizer(Set<Promotion> promotions, Map<Product, Integer> cart) {
+        this(promotions, cart, DEFAULT_TIME_BUDGET);
+    }
+
+    public DiscountOptimizer(Set<Promotion> promotions, Map<Product, Integer> cart, Duration timeBudget) {
+        this(promotions, CartView.of(cart), timeBudget);
+    }
+
+    public DiscountOptimizer(Set<Promotion> promotions, CartView cart) {
+        this(promotions, cart, DEFAULT_TIME_BUDGET);
+    }
+
+    public DiscountOptimizer(Set<Promotion> promotions, CartView cart, Duration timeBudget) {
+        this(promotions, cart, Map.of(), timeBudget);
+    }
+
+    /**
+     * Optimizer that takes the standalone discount of some product-specific promotions as
+     * already known, as computed by {@link #standaloneDiscount}, instead of evaluating them.
+     */
+    public DiscountOptimizer(Set<Promotion> promotions, CartView cart, Map<Promotion, BigDecimal> knownDiscounts,
+                             Duration timeBudget) {
         this.promotions = promotions;
         this.cart = cart;
+        this.knownDiscounts = knownDiscounts;
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Discount of a promotion applied alone to the cart, zero if it does not apply.
+     */
+    public static BigDecimal standaloneDiscount(Promotion promo, CartView cart) {
+        return promo.appliesTo(cart) ? promo.calculateDiscount(cart) : BigDecimal.ZERO;
     }
 
     public PromotionCombination getBestPromotions() {
-        // Log cart contents
-        log.debug("🛒 Cart contents: {}", cart.entrySet().stream()
-                .map(e -> e.getKey().getName() + " (category: " + e.getKey().getCategory() + ") x" + e.getValue())
-                .toList());
-        
-        List<Promotion> applicablePromotions = new ArrayList<>();
-        for (Promotion p : promotions) {
-            boolean applies = p.appliesTo(cart);
-            if (applies) {
-                applicablePromotions.add(p);
+        log.debug("🛒 Cart contents: {}", cart);
+
+        Candidates candidates = collectCandidates();
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        Map<Promotion, BigDecimal> selectedPromotions = new HashMap<>();
+        for (List<Candidate> group : conflictGroups(candidates.productPromotions())) {
+            List<Candidate> chosen;
+            if (group.size() == 1) {
+                chosen = group;
+            } else if (group.size() > MAX_EXACT_GROUP_SIZE) {
+                log.warn("Conflict group of {} promotions is too large for the exact search, using greedy", group.size());
+                chosen = greedy(group);
+            } else {
+                try {
+                    chosen = new GroupSearch(group, deadline).solve();
+                } catch (TimeBudgetExceededException e) {
+                    log.warn("Promotion search exceeded its {} ms budget, using greedy for a group of {} promotions",
+                            timeBudget.toMillis(), group.size());
+                    chosen = greedy(group);
+                }
             }
+            chosen.forEach(candidate -> selectedPromotions.put(candidate.promotion(), candidate.discount()));
         }
 
-        if (applicablePromotions.isEmpty()) {
-            return new PromotionCombination(new HashMap<>(), BigDecimal.ZERO);
+        PromotionCombination result = withOrderPromotions(selectedPromotions, candidates.orderPromotions());
+        log.debug("🎯 Final combination - Total discount: {}", result.discount());
+        return result;
+    }
+
+    /**
+     * Previous heuristic: claims products for the promotions with the highest standalone
+     * discount first. Used as the fallback of the exact search and as its baseline.
+     */
+    PromotionCombination getGreedyPromotions() {
+        Candidates candidates = collectCandidates();
+        Map<Promotion, BigDecimal> selectedPromotions = new HashMap<>();
+        for (Candidate candidate : greedy(candidates.productPromotions())) {
+            selectedPromotions.put(candidate.promotion(), candidate.discount());
         }
+        return withOrderPromotions(selectedPromotions, candidates.orderPromotions());
+    }
 
-        // Separate product-specific and order-level promotions
-        List<PromotionWithDiscount> productPromotions = new ArrayList<>();
-        List<PromotionWithDiscount> orderPromotions = new ArrayList<>();
-        
-        for (Promotion promo : applicablePromotions) {
-            BigDecimal discount = promo.calculateDiscount(cart);
-            Set<Product> affectedProducts = getProductsInPromotion(promo);
-            PromotionWithDiscount pwd = new PromotionWithDiscount(promo, discount, affectedProducts);
-            
+    /**
+     * Computes the discount of every applicable product-specific promotion once. The search
+     * only combines these values.
+     */
+    private Candidates collectCandidates() {
+        List<Candidate> productPromotions = new ArrayList<>();
+        List<Promotion> orderPromotions = new ArrayList<>();
+
+        for (Promotion promo : promotions) {
             if (promo.getPromotionCategory() == PromotionCategory.ORDER_LEVEL) {
-                orderPromotions.add(pwd);
+                if (promo.appliesTo(cart)) {
+                    orderPromotions.add(promo);
+                }
+                continue;
+            }
+
+            int affected = affectedCategories(promo) & cart.presentCategories();
+            BigDecimal discount = knownDiscounts.get(promo);
+            if (discount == null) {
+                discount = standaloneDiscount(promo, cart);
+            }
+            if (discount.compareTo(BigDecimal.ZERO) > 0) {
+                productPromotions.add(new Candidate(promo, discount, affected));
             } else {
-                productPromotions.add(pwd);
+                log.debug("❌ Promotion {} yielded zero discount", promo.getName());
             }
         }
-        
-        // Sort product promotions by discount (highest first)
-        productPromotions.sort(Comparator.comparing(PromotionWithDiscount::discount).reversed());
 
-        Map<Promotion, BigDecimal> selectedPromotions = new HashMap<>();
-        Set<Product> usedProducts = new HashSet<>();
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-
-        // Phase 1: Greedy selection of product-specific promotions
-        for (PromotionWithDiscount pwd : productPromotions) {
-            // Check if any products from this promotion are already used by another promotion
-            boolean hasConflict = pwd.affectedProducts.stream().anyMatch(usedProducts::contains);
-            
-            if (!hasConflict) {
-                // Filter cart to only affected products for this promotion
-                Map<Product, Integer> filteredCart = filterCart(pwd.affectedProducts);
-                
-                // Recalculate discount with filtered cart to ensure accurate result
-                BigDecimal discount = pwd.promotion.calculateDiscount(filteredCart);
-                
-                if (discount.compareTo(BigDecimal.ZERO) > 0) {
-                    selectedPromotions.put(pwd.promotion, discount);
-                    totalDiscount = totalDiscount.add(discount);
-                    usedProducts.addAll(pwd.affectedProducts);
-                    
-                } else {
-                    log.debug("❌ Promotion {} yielded zero discount", pwd.promotion.getName());
+        // Highest discount first: the greedy order, and the branching order of the search
+        productPromotions.sort(Comparator.comparing(Candidate::discount).reversed());
+        return new Candidates(productPromotions, orderPromotions);
+    }
+
+    /**
+     * Splits the promotions into groups connected by shared products. Groups are independent,
+     * so the best combination is the union of the best combination of each group.
+     */
+    private List<List<Candidate>> conflictGroups(List<Candidate> candidates) {
+        int[] parent = new int[candidates.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            for (int j = i + 1; j < candidates.size(); j++) {
+                if (candidates.get(i).conflictsWith(candidates.get(j))) {
+                    parent[root(parent, i)] = root(parent, j);
                 }
-            } else {
-                log.debug("⚠️ Skipping promotion '{}' - products already used by another promotion", pwd.promotion.getName());
             }
         }
 
-        // Phase 2: Apply order-level promotions (they can apply alongside product promotions)
-        for (PromotionWithDiscount pwd : orderPromotions) {
-            // Check if promotion still applies to cart after product-specific discounts
-            if (pwd.promotion.appliesTo(cart)) {
-                BigDecimal discount = pwd.promotion.calculateDiscount(cart);
-                
-                if (discount.compareTo(BigDecimal.ZERO) > 0) {
-                    selectedPromotions.put(pwd.promotion, discount);
-                    totalDiscount = totalDiscount.add(discount);
-                    
-                    log.debug("✅ Applied order-level promotion: {}, discount: {}", pwd.promotion.getName(), discount);
-                }
-            } else {
-                log.debug("❌ Order-level promotion no longer applies after product discounts: {}", pwd.promotion.getName());
+        Map<Integer, List<Candidate>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            groups.computeIfAbsent(root(parent, i), r -> new ArrayList<>()).add(candidates.get(i));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private List<Candidate> greedy(List<Candidate> candidates) {
+        List<Candidate> chosen = new ArrayList<>();
+        int usedCategories = 0;
+        for (Candidate candidate : candidates) {
+            if ((candidate.categories() & usedCategories) != 0) {
+                log.debug("⚠️ Skipping promotion '{}' - products already used by another promotion",
+                        candidate.promotion().getName());
+                continue;
             }
+            chosen.add(candidate);
+            usedCategories |= candidate.categories();
         }
+        return chosen;
+    }
 
-        PromotionCombination result = new PromotionCombination(selectedPromotions, totalDiscount);
-        log.debug("🎯 Final greedy combination - Total discount: {}", totalDiscount);
-        
-        return result;
+    private PromotionCombination withOrderPromotions(Map<Promotion, BigDecimal> selectedPromotions,
+                                                     List<Promotion> orderPromotions) {
+        BigDecimal totalDiscount = selectedPromotions.values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Order-level promotions can apply alongside product promotions
+        for (Promotion promo : orderPromotions) {
+            BigDecimal discount = promo.calculateDiscount(cart);
+            if (discount.compareTo(BigDecimal.ZERO) > 0) {
+                selectedPromotions.put(promo, discount);
+                totalDiscount = totalDiscount.add(discount);
+                log.debug("✅ Applied order-level promotion: {}, discount: {}", promo.getName(), discount);
+            }
+        }
+        return new PromotionCombination(selectedPromotions, totalDiscount);
     }
 
     /**
-     * Determines which products are affected by a promotion based on its type.
-     * 
-     * This is crucial for the greedy optimizer to avoid conflicts between promotions
-     * that might affect overlapping products.
+     * Categories of the products a promotion affects, as a {@link CartView#categoryBit} set.
+     * Promotions that affect a common product are never combined.
      */
-    private Set<Product> getProductsInPromotion(Promotion promo) {
-        Set<Product> affected = new HashSet<>();
-        
+    public static int affectedCategories(Promotion promo) {
         if (promo instanceof PercentageDiscount pd) {
-            // Products of the specific category
-            for (Product p : cart.keySet()) {
-                if (p.getCategory() == pd.getCategory()) {
-                    affected.add(p);
+            return CartView.categoryBit(pd.getCategory());
+        } else if (promo instanceof BuyXGetY bxgy) {
+            return CartView.categoryBit(bxgy.getRequiredCategory()) | CartView.categoryBit(bxgy.getFreeCategory());
+        } else if (promo instanceof BuyXPayY bxpy) {
+            return CartView.categoryBit(bxpy.getCategory());
+        }
+        // FixedDiscount applies to entire order
+        return -1;
+    }
+
+    /**
+     * Maximum-discount search over one conflict group. A state is the set of promotions still
+     * available; each state is solved once. The first available promotion is either taken
+     * (dropping the ones it conflicts with) or skipped, and skipping is only explored when the
+     * remaining discounts could beat taking it.
+     */
+    private static final class GroupSearch {
+        private final List<Candidate> candidates;
+        private final BigDecimal[] discounts;
+        private final long[] conflicts;
+        private final long deadline;
+        private final Map<Long, Selection> memo = new HashMap<>();
+        private int steps;
+
+        GroupSearch(List<Candidate> candidates, long deadline) {
+            this.candidates = candidates;
+            this.deadline = deadline;
+            this.discounts = new BigDecimal[candidates.size()];
+            this.conflicts = new long[candidates.size()];
+            for (int i = 0; i < candidates.size(); i++) {
+                discounts[i] = candidates.get(i).discount();
+                for (int j = 0; j < candidates.size(); j++) {
+                    if (i != j && candidates.get(i).conflictsWith(candidates.get(j))) {
+                        conflicts[i] |= 1L << j;
+                    }
                 }
             }
-        } else if (promo instanceof BuyXGetY bxgy) {
-            // Products of both required and free categories
-            for (Product p : cart.keySet()) {
-                if (p.getCategory() == bxgy.getRequiredCategory() || p.getCategory() == bxgy.getFreeCategory()) {
-                    affected.add(p);
+        }
+
+        List<Candidate> solve() {
+            long chosen = best((1L << candidates.size()) - 1).chosen();
+            List<Candidate> result = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if ((chosen & (1L << i)) != 0) {
+                    result.add(candidates.get(i));
                 }
             }
-        } else if (promo instanceof BuyXPayY bxpy) {
-            // Products of the category
-            for (Product p : cart.keySet()) {
-                if (p.getCategory() == bxpy.getCategory()) {
-                    affected.add(p);
+            return result;
+        }
+
+        private Selection best(long available) {
+            if (available == 0) {
+                return Selection.NONE;
+            }
+            Selection known = memo.get(available);
+            if (known != null) {
+                return known;
+            }
+            if (steps++ % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0) {
+                throw new TimeBudgetExceededException();
+            }
+
+            int next = Long.numberOfTrailingZeros(available);
+            long bit = 1L << next;
+            Selection result = best(available & ~bit & ~conflicts[next]).plus(next, discounts[next]);
+
+            if ((available & conflicts[next]) != 0
+                    && upperBound(available & ~bit).compareTo(result.discount()) > 0) {
+                Selection skip = best(available & ~bit);
+                if (skip.discount().compareTo(result.discount()) > 0) {
+                    result = skip;
                 }
             }
-        } else {
-            // FixedDiscount applies to entire order, include all products
-            affected.addAll(cart.keySet());
+            memo.put(available, result);
+            return result;
         }
-        
-        return affected;
-    }
 
-    /**
-     * Filters the cart to contain only the specified products.
-     */
-    private Map<Product, Integer> filterCart(Set<Product> products) {
-        Map<Product, Integer> filtered = new HashMap<>();
-        for (Product p : products) {
-            if (cart.containsKey(p)) {
-                filtered.put(p, cart.get(p));
+        private BigDecimal upperBound(long available) {
+            BigDecimal bound = BigDecimal.ZERO;
+            for (long rest = available; rest != 0; rest &= rest - 1) {
+                bound = bound.add(discounts[Long.numberOfTrailingZeros(rest)]);
             }
+            return bound;
+        }
+    }
+
+    private record Selection(BigDecimal discount, long chosen) {
+        static final Selection NONE = new Selection(BigDecimal.ZERO, 0L);
+
+        Selection plus(int index, BigDecimal amount) {
+            return new Selection(discount.add(amount), chosen | (1L << index));
         }
-        return filtered;
     }
 
-    private record PromotionWithDiscount(Promotion promotion, BigDecimal discount, Set<Product> affectedProducts) {}
-}
\ No newline at end of file
+    private record Candidate(Promotion promotion, BigDecimal discount, int categories) {
+        boolean conflictsWith(Candidate other) {
+            return (categories & other.categories) != 0;
+        }
+    }
+
+    private record Candidates(List<Candidate> productPromotions, List<Promotion> orderPromotions) {}
+
+    private static final class TimeBudgetExceededException extends RuntimeException {
+        TimeBudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
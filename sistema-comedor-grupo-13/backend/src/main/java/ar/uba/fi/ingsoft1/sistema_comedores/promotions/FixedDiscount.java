@@ -1,13 +1,11 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
-import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -36,21 +34,26 @@ public class FixedDiscount extends Promotion {
         this.discountAmount = fixedDiscount;
     }
 
+    private FixedDiscount(FixedDiscount source) {
+        super(source);
+        this.minimumPurchase = source.minimumPurchase;
+        this.discountAmount = source.discountAmount;
+    }
+
     @Override
-    public boolean appliesTo(Map<Product, Integer> products) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (Map.Entry<Product, Integer> entry : products.entrySet()) {
-            BigDecimal unitPrice = entry.getKey().getPrice();
-            Integer quantity = entry.getValue();
-            total = total.add(unitPrice.multiply(BigDecimal.valueOf(quantity)));
-        }
-        return total.compareTo(minimumPurchase) >= 0;
+    public boolean appliesTo(CartView cart) {
+        return cart.totalCents() >= CartView.toCents(minimumPurchase);
     }
 
     @Override
-    public BigDecimal calculateDiscount(Map<Product, Integer> products) {
-        return appliesTo(products) ? discountAmount : BigDecimal.ZERO;
+    public BigDecimal calculateDiscount(CartView cart) {
+        return appliesTo(cart) ? discountAmount : BigDecimal.ZERO;
     }
    
+    @Override
+    public FixedDiscount copy() {
+        return new FixedDiscount(this);
+    }
+
     public String getType() { return "FIXED_DISCOUNT"; }
 }
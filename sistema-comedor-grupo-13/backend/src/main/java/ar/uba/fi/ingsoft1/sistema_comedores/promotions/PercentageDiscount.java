@@ -1,6 +1,5 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
-import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
@@ -9,7 +8,6 @@ import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -40,23 +38,28 @@ public class PercentageDiscount extends Promotion {
         this.multiplier = BigDecimal.valueOf(1 - discount / 100.0);
     }
 
+    private PercentageDiscount(PercentageDiscount source) {
+        super(source);
+        this.category = source.category;
+        this.multiplier = source.multiplier;
+    }
+
     @Override
-    public boolean appliesTo(Map<Product, Integer> products) {
-        return products
-                .keySet()
-                .stream()
-                .anyMatch(product -> product.getCategory() == category);
+    public boolean appliesTo(CartView cart) {
+        return cart.contains(category);
     }
 
     @Override
-    public BigDecimal calculateDiscount(Map<Product, Integer> products) {
-        if (!appliesTo(products)) { return BigDecimal.ZERO; }
-        BigDecimal subtotal = products.entrySet().stream()
-                .filter(entry -> entry.getKey().getCategory() == category)
-                .map(entry -> entry.getKey().getPrice().multiply(BigDecimal.valueOf(entry.getValue())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public BigDecimal calculateDiscount(CartView cart) {
+        if (!appliesTo(cart)) { return BigDecimal.ZERO; }
+        BigDecimal subtotal = CartView.amount(cart.subtotalCents(category));
         return subtotal.multiply(BigDecimal.ONE.subtract(multiplier));
     }
 
+    @Override
+    public PercentageDiscount copy() {
+        return new PercentageDiscount(this);
+    }
+
     public String getType() { return "PERCENTAGE_DISCOUNT"; }
 }
@@ -3,6 +3,7 @@ package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,7 +14,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -68,6 +69,11 @@ public abstract class Promotion {
     @LastModifiedDate
     private Instant updatedAt;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile WeeklySchedule weeklySchedule;
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
@@ -93,42 +99,83 @@ public abstract class Promotion {
         onCreate();
     }
 
+    /**
+     * Copies the rules of {@code source}, leaving the copy outside any persistence context.
+     */
+    protected Promotion(Promotion source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.description = source.description;
+        this.active = source.active;
+        this.startDate = source.startDate;
+        this.endDate = source.endDate;
+        this.applicableDays = new HashSet<>(source.applicableDays);
+        this.applicableHours = new HashSet<>(source.applicableHours);
+        this.promotionCategory = source.promotionCategory;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+    }
+
     public boolean isCurrentlyValid() {
-        if (!active) {
-            return false;
-        }
+        return isValidAt(LocalDateTime.now(WeeklySchedule.ZONE));
+    }
 
-        LocalDate now = LocalDate.now();
+    public boolean isValidAt(LocalDateTime dateTime) {
+        return isValidOn(dateTime.toLocalDate()) && getWeeklySchedule().isActiveAt(dateTime);
+    }
 
-        if (startDate != null && now.isBefore(startDate)) {
+    /**
+     * Checks the active flag and the date range, leaving out the days and hours.
+     */
+    public boolean isValidOn(LocalDate date) {
+        if (!active) {
             return false;
         }
-        if (endDate != null && now.isAfter(endDate)) {
+        if (startDate != null && date.isBefore(startDate)) {
             return false;
         }
+        return endDate == null || !date.isAfter(endDate);
+    }
 
-        if (!applicableDays.isEmpty()) {
-            DayOfWeek currentDay = DayOfWeek.valueOf(
-                    java.time.DayOfWeek.from(now).name()
-            );
-            if (!applicableDays.contains(currentDay)) {
-                return false;
-            }
+    /**
+     * Applicable days and hours compiled into minutes of the week, built on first use.
+     */
+    public WeeklySchedule getWeeklySchedule() {
+        WeeklySchedule schedule = weeklySchedule;
+        if (schedule == null) {
+            schedule = WeeklySchedule.of(applicableDays, applicableHours);
+            weeklySchedule = schedule;
         }
+        return schedule;
+    }
 
-        if (!applicableHours.isEmpty()) {
-            LocalTime currentTime = LocalTime.now();
-            return applicableHours.stream()
-                    .anyMatch(timeRange -> timeRange.contains(currentTime));
-        }
+    public void setApplicableDays(Set<DayOfWeek> applicableDays) {
+        this.applicableDays = applicableDays;
+        this.weeklySchedule = null;
+    }
+
+    public void setApplicableHours(Set<TimeRange> applicableHours) {
+        this.applicableHours = applicableHours;
+        this.weeklySchedule = null;
+    }
 
-        return true;
+    public boolean appliesTo(Map<Product, Integer> products) {
+        return appliesTo(CartView.of(products));
     }
 
-    public abstract boolean appliesTo(Map<Product, Integer> products);
+    public BigDecimal calculateDiscount(Map<Product, Integer> products) {
+        return calculateDiscount(CartView.of(products));
+    }
 
-    public abstract BigDecimal calculateDiscount(Map<Product, Integer> products);
+    public abstract boolean appliesTo(CartView cart);
+
+    public abstract BigDecimal calculateDiscount(CartView cart);
 
     public abstract String getType();
 
+    /**
+     * Unmanaged copy with the same rules, safe to evaluate from other threads.
+     */
+    public abstract Promotion copy();
+
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.PromotionRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.UpdatePromotionRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.PromotionDetailsResponse;
@@ -7,10 +9,16 @@ import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.UpdatePromotionReques
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.PromotionAlreadyExistsException;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.InvalidPromotionException;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.PromotionNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation.PromotionSimulationRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation.PromotionSimulationResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation.PromotionSimulationService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +37,9 @@ import java.util.Map;
 public class PromotionController {
 
     private final PromotionService promotionService;
+    private final PromotionSimulationService simulationService;
+    private final PromotionCatalogRegistry catalogRegistry;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
     @Operation(summary = "Obtener todas las promociones")
@@ -49,10 +60,23 @@ public class PromotionController {
 
     @GetMapping("/valid")
     @Operation(summary = "Obtener promociones actualmente válidas")
-    @ApiResponse(responseCode = "200", description = "Lista de promociones válidas obtenida exitosamente")
-    public ResponseEntity<List<PromotionDetailsResponse>> getCurrentlyValidPromotions() {
-        List<PromotionDetailsResponse> promotions = promotionService.getCurrentlyValidPromotions();
-        return ResponseEntity.ok(promotions);
+    @ApiResponse(responseCode = "200", description = "Lista de promociones válidas obtenida exitosamente",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PromotionDetailsResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado", content = @Content)
+    public ResponseEntity<byte[]> getCurrentlyValidPromotions(HttpServletRequest request) {
+        // The catalog gets a new version on every change and when the date rolls over
+        return responseCache.respond(request, "promotions/valid", catalogRegistry.current().version(),
+                promotionService::getCurrentlyValidPromotions);
+    }
+
+    @PostMapping("/simulations")
+    @Operation(summary = "Simular el impacto de una promoción sobre los pedidos de un rango de fechas")
+    @ApiResponse(responseCode = "200", description = "Simulación realizada exitosamente")
+    @ApiResponse(responseCode = "400", description = "Datos de simulación inválidos", content = @Content)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PromotionSimulationResponse> simulatePromotion(
+            @Valid @RequestBody PromotionSimulationRequest request) {
+        return ResponseEntity.ok(simulationService.simulate(request));
     }
 
     @GetMapping("/{id}")
@@ -5,14 +5,17 @@ import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderItem;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.*;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.PromotionAlreadyExistsException;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.PromotionNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
@@ -28,6 +31,10 @@ public class PromotionService {
 
     private final PromotionRepository promotionRepository;
     private final ProductService productService;
+    private final PromotionCatalogRegistry catalogRegistry;
+
+    @Value("${app.promotions.optimizer.time-budget-ms:50}")
+    private long optimizerTimeBudgetMs;
 
     @Transactional(readOnly = true)
     public List<PromotionDetailsResponse> getAllPromotions() {
@@ -71,6 +78,7 @@ public class PromotionService {
         };
 
         promotionRepository.save(promotion);
+        catalogRegistry.rebuildAfterCommit();
     }
 
     @Transactional
@@ -111,6 +119,7 @@ public class PromotionService {
         }
 
         promotionRepository.save(promotion);
+        catalogRegistry.rebuildAfterCommit();
     }
 
     @Transactional
@@ -118,6 +127,7 @@ public class PromotionService {
         Promotion promotion = promotionRepository.findById(id)
                 .orElseThrow(() -> new PromotionNotFoundException(id));
         promotionRepository.delete(promotion);
+        catalogRegistry.rebuildAfterCommit();
     }
 
     @Transactional
@@ -126,6 +136,7 @@ public class PromotionService {
                 .orElseThrow(() -> new PromotionNotFoundException(id));
         promotion.setActive(true);
         Promotion updatedPromotion = promotionRepository.save(promotion);
+        catalogRegistry.rebuildAfterCommit();
         return new PromotionDetailsResponse(updatedPromotion);
     }
 
@@ -135,15 +146,16 @@ public class PromotionService {
                 .orElseThrow(() -> new PromotionNotFoundException(id));
         promotion.setActive(false);
         Promotion updatedPromotion = promotionRepository.save(promotion);
+        catalogRegistry.rebuildAfterCommit();
         return new PromotionDetailsResponse(updatedPromotion);
     }
 
-    @Transactional
     public PromotionCombination getAppliablePromotions(Map<Product, Integer> productQuantityMap) {
 
-        Set<Promotion> validPromotions = new HashSet<>(promotionRepository.findCurrentlyValidPromotions());
+        Set<Promotion> validPromotions = catalogRegistry.active().candidatesFor(productQuantityMap.keySet());
 
-        DiscountOptimizer discountOptimizer = new DiscountOptimizer(validPromotions, productQuantityMap);
+        DiscountOptimizer discountOptimizer = new DiscountOptimizer(validPromotions, productQuantityMap,
+                Duration.ofMillis(optimizerTimeBudgetMs));
 
         return discountOptimizer.getBestPromotions();
     }
@@ -0,0 +1,130 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * Minutes of the week (Monday 00:00 = 0) in which a promotion applies, compiled from its
+ * applicable days and hours. Checking validity is a single bit test.
+ * <p>
+ * A minute is active when a range covers part of it, not just its first instant: a range
+ * ending at 14:00 covers up to 13:59, and one ending at 14:00:30 also covers 14:00. Inside
+ * whole minutes this gives the same answer as {@link TimeRange#contains}; it can only differ
+ * within the minutes where a range starts or ends at a second other than zero, and at the
+ * exact instant a range ends on the minute.
+ */
+public final class WeeklySchedule {
+
+    /** Days and hours of the promotions are those of the dining hall. */
+    public static final ZoneId ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    public static final WeeklySchedule ALWAYS = new WeeklySchedule(allMinutes());
+
+    private final long[] minutes;
+
+    private WeeklySchedule(long[] minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * An empty set of days means every day and an empty set of hours means the whole day,
+     * like in {@link Promotion#isCurrentlyValid()}. Ranges that end before they start wrap
+     * within the same day, and a range that starts and ends at the same time covers it all.
+     */
+    public static WeeklySchedule of(Collection<DayOfWeek> days, Collection<TimeRange> hours) {
+        boolean allDays = days == null || days.isEmpty();
+        boolean allHours = hours == null || hours.isEmpty();
+        if (allDays && allHours) {
+            return ALWAYS;
+        }
+
+        long[] dayMinutes = new long[words(MINUTES_PER_DAY)];
+        if (allHours) {
+            setRange(dayMinutes, 0, MINUTES_PER_DAY - 1);
+        } else {
+            for (TimeRange range : hours) {
+                int start = minuteOfDay(range.getStartTime());
+                int end = endMinuteOfDay(range.getEndTime());
+                if (range.getStartTime().isBefore(range.getEndTime())) {
+                    setRange(dayMinutes, start, end - 1);
+                } else if (range.getStartTime().isAfter(range.getEndTime())) {
+                    setRange(dayMinutes, start, MINUTES_PER_DAY - 1);
+                    setRange(dayMinutes, 0, end - 1);
+                } else {
+                    setRange(dayMinutes, 0, MINUTES_PER_DAY - 1);
+                }
+            }
+        }
+
+        long[] weekMinutes = new long[words(MINUTES_PER_WEEK)];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (allDays || days.contains(day)) {
+                int offset = day.ordinal() * MINUTES_PER_DAY;
+                for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                    if (isSet(dayMinutes, minute)) {
+                        set(weekMinutes, offset + minute);
+                    }
+                }
+            }
+        }
+        return new WeeklySchedule(weekMinutes);
+    }
+
+    /**
+     * Minute of the week a date-time falls in; seconds only place it within that minute.
+     */
+    public static int minuteOfWeek(LocalDateTime dateTime) {
+        return (dateTime.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY
+                + dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    public boolean isActiveAt(int minuteOfWeek) {
+        return isSet(minutes, minuteOfWeek);
+    }
+
+    public boolean isActiveAt(LocalDateTime dateTime) {
+        return isActiveAt(minuteOfWeek(dateTime));
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * First minute a range ending at the given time no longer covers: the end minute itself
+     * when the range ends right as it starts, the next one otherwise.
+     */
+    private static int endMinuteOfDay(LocalTime time) {
+        boolean onTheMinute = time.getSecond() == 0 && time.getNano() == 0;
+        return minuteOfDay(time) + (onTheMinute ? 0 : 1);
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            set(bits, i);
+        }
+    }
+
+    private static long[] allMinutes() {
+        long[] bits = new long[words(MINUTES_PER_WEEK)];
+        setRange(bits, 0, MINUTES_PER_WEEK - 1);
+        return bits;
+    }
+}
@@ -0,0 +1,163 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.BuyXGetY;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.BuyXPayY;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PercentageDiscount;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionCategory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the promotions valid on a given date, indexed by the product
+ * category that triggers them. Order-level promotions are candidates for every cart.
+ */
+public final class PromotionCatalog {
+
+    private final long version;
+    private final LocalDate validOn;
+    private final Map<ProductCategory, List<Promotion>> byProductCategory;
+    private final List<Promotion> orderLevel;
+    private final int size;
+
+    private PromotionCatalog(long version, LocalDate validOn,
+                             Map<ProductCategory, List<Promotion>> byProductCategory,
+                             List<Promotion> orderLevel, int size) {
+        this.version = version;
+        this.validOn = validOn;
+        this.byProductCategory = byProductCategory;
+        this.orderLevel = orderLevel;
+        this.size = size;
+    }
+
+    /**
+     * Indexes the active promotions whose date range includes {@code date}.
+     */
+    public static PromotionCatalog of(long version, LocalDate date, Collection<? extends Promotion> promotions) {
+        Map<ProductCategory, List<Promotion>> byCategory = new EnumMap<>(ProductCategory.class);
+        List<Promotion> orderLevel = new ArrayList<>();
+        for (Promotion promotion : promotions) {
+            if (!promotion.isValidOn(date)) {
+                continue;
+            }
+            // Compiled here so readers of the snapshot only test bits
+            promotion.getWeeklySchedule();
+            ProductCategory trigger = triggerCategory(promotion);
+            if (trigger == null) {
+                orderLevel.add(promotion);
+            } else {
+                byCategory.computeIfAbsent(trigger, c -> new ArrayList<>()).add(promotion);
+            }
+        }
+
+        return indexed(version, date, byCategory, orderLevel);
+    }
+
+    /**
+     * The promotions of this snapshot whose days and hours include the given minute of the week,
+     * published under {@code version}.
+     */
+    public PromotionCatalog activeAt(int minuteOfWeek, long version) {
+        Map<ProductCategory, List<Promotion>> byCategory = new EnumMap<>(ProductCategory.class);
+        byProductCategory.forEach((category, promotions) -> {
+            List<Promotion> active = activeAt(promotions, minuteOfWeek);
+            if (!active.isEmpty()) {
+                byCategory.put(category, active);
+            }
+        });
+        return indexed(version, validOn, byCategory, activeAt(orderLevel, minuteOfWeek));
+    }
+
+    private static List<Promotion> activeAt(List<Promotion> promotions, int minuteOfWeek) {
+        return promotions.stream()
+                .filter(promotion -> promotion.getWeeklySchedule().isActiveAt(minuteOfWeek))
+                .toList();
+    }
+
+    private static PromotionCatalog indexed(long version, LocalDate validOn,
+                                            Map<ProductCategory, List<Promotion>> byCategory,
+                                            List<Promotion> orderLevel) {
+        Map<ProductCategory, List<Promotion>> index = new EnumMap<>(ProductCategory.class);
+        int size = orderLevel.size();
+        for (Map.Entry<ProductCategory, List<Promotion>> entry : byCategory.entrySet()) {
+            index.put(entry.getKey(), List.copyOf(entry.getValue()));
+            size += entry.getValue().size();
+        }
+        return new PromotionCatalog(version, validOn, index, List.copyOf(orderLevel), size);
+    }
+
+    /**
+     * Promotions that can apply to a cart with these products: the ones triggered by a
+     * category present in the cart, plus the order-level ones.
+     */
+    public Set<Promotion> candidatesFor(Collection<Product> products) {
+        Set<ProductCategory> categories = EnumSet.noneOf(ProductCategory.class);
+        for (Product product : products) {
+            if (product.getCategory() != null) {
+                categories.add(product.getCategory());
+            }
+        }
+
+        Set<Promotion> candidates = new HashSet<>(orderLevel);
+        for (ProductCategory category : categories) {
+            candidates.addAll(byProductCategory.getOrDefault(category, List.of()));
+        }
+        return candidates;
+    }
+
+    public List<Promotion> byProductCategory(ProductCategory category) {
+        return byProductCategory.getOrDefault(category, List.of());
+    }
+
+    public List<Promotion> promotions() {
+        List<Promotion> all = new ArrayList<>(orderLevel);
+        byProductCategory.values().forEach(all::addAll);
+        return all;
+    }
+
+    public List<Promotion> orderLevel() {
+        return orderLevel;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public LocalDate validOn() {
+        return validOn;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Category a cart must contain for the promotion to apply, or {@code null} when it is
+     * evaluated against the whole order.
+     */
+    private static ProductCategory triggerCategory(Promotion promotion) {
+        if (promotion.getPromotionCategory() == PromotionCategory.ORDER_LEVEL) {
+            return null;
+        }
+        if (promotion instanceof PercentageDiscount percentage) {
+            return percentage.getCategory();
+        }
+        if (promotion instanceof BuyXPayY buyXPayY) {
+            return buyXPayY.getCategory();
+        }
+        if (promotion instanceof BuyXGetY buyXGetY) {
+            return buyXGetY.getRequiredCategory();
+        }
+        return null;
+    }
+}
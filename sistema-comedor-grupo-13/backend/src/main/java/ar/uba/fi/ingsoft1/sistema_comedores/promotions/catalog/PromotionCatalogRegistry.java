@@ -0,0 +1,131 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.utils.Transactions;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.WeeklySchedule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link PromotionCatalog}. PromotionService asks for a rebuild after every
+ * committed change, and a new snapshot is also built when the date rolls over, so evaluating
+ * the promotions of a cart never goes to the database.
+ *
+ * On top of it, the promotions whose days and hours include the current minute are published
+ * once per minute, so carts are evaluated against a precomputed "active now" snapshot.
+ */
+@Component
+@Slf4j
+public class PromotionCatalogRegistry {
+
+    private static final ZoneId ZONE = WeeklySchedule.ZONE;
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    private final PromotionRepository promotionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile PromotionCatalog current;
+    private volatile ActiveCatalog active;
+
+    private record ActiveCatalog(long epochMinute, PromotionCatalog source, PromotionCatalog catalog) {}
+
+    @Autowired
+    public PromotionCatalogRegistry(PromotionRepository promotionRepository, PlatformTransactionManager transactionManager) {
+        this(promotionRepository, transactionManager, Clock.systemUTC());
+    }
+
+    PromotionCatalogRegistry(PromotionRepository promotionRepository, PlatformTransactionManager transactionManager,
+                             Clock clock) {
+        this.promotionRepository = promotionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.clock = clock;
+    }
+
+    /**
+     * Snapshot for today. A snapshot left over from a previous day is replaced before it is
+     * returned, in case the midnight rebuild has not run yet.
+     */
+    public PromotionCatalog current() {
+        PromotionCatalog catalog = current;
+        if (catalog == null || !catalog.validOn().equals(today())) {
+            rebuild();
+            catalog = current;
+        }
+        return catalog;
+    }
+
+    /**
+     * Promotions valid at the current minute, including their days and hours. Only the
+     * cached minute is compared on each call; the snapshot is recomputed when it changes.
+     */
+    public PromotionCatalog active() {
+        ActiveCatalog snapshot = active;
+        long epochMinute = clock.millis() / MILLIS_PER_MINUTE;
+        if (snapshot == null || snapshot.epochMinute() != epochMinute || snapshot.source() != current) {
+            snapshot = publishActive(epochMinute);
+        }
+        return snapshot.catalog();
+    }
+
+    @Scheduled(cron = "0 * * * * *", zone = "America/Argentina/Buenos_Aires")
+    public void tick() {
+        publishActive(clock.millis() / MILLIS_PER_MINUTE);
+    }
+
+    private synchronized ActiveCatalog publishActive(long epochMinute) {
+        ActiveCatalog snapshot = active;
+        if (snapshot != null && snapshot.epochMinute() == epochMinute && snapshot.source() == current) {
+            return snapshot;
+        }
+        PromotionCatalog catalog = current();
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMinute * MILLIS_PER_MINUTE), ZONE);
+        PromotionCatalog activeNow = catalog.activeAt(WeeklySchedule.minuteOfWeek(now), versions.incrementAndGet());
+        if (snapshot != null && snapshot.catalog().promotions().equals(activeNow.promotions())) {
+            // Same promotions as the previous minute, keep the published instance and its version
+            activeNow = snapshot.catalog();
+        }
+        snapshot = new ActiveCatalog(epochMinute, catalog, activeNow);
+        active = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot once the surrounding transaction commits.
+     */
+    public void rebuildAfterCommit() {
+        Transactions.afterCommit(this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *", zone = "America/Argentina/Buenos_Aires")
+    public synchronized void rebuild() {
+        LocalDate today = today();
+        List<Promotion> active = transactionTemplate.execute(status -> promotionRepository.findByActiveTrue());
+        PromotionCatalog catalog = PromotionCatalog.of(versions.incrementAndGet(), today, active);
+        current = catalog;
+        log.debug("Promotion catalog v{} built for {} with {} promotions", catalog.version(), today, catalog.size());
+    }
+
+    private LocalDate today() {
+        return LocalDate.ofInstant(clock.instant(), ZONE);
+    }
+}
@@ -2,6 +2,7 @@ package ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto;
 
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DayOfWeek;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import jakarta.validation.constraints.*;
@@ -35,4 +36,6 @@ public sealed interface PromotionRequest permits BuyXGetYRequest, BuyXPayYReques
     LocalDate endDate();
     Set<DayOfWeek> applicableDays();
     Set<TimeRangeRequest> applicableHours();
+
+    Promotion toEntity();
 }
\ No newline at end of file
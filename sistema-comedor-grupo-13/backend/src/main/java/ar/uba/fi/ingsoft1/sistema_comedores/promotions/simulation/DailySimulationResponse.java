@@ -0,0 +1,13 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySimulationResponse(
+        LocalDate date,
+        long orders,
+        long affectedOrders,
+        BigDecimal currentDiscount,
+        BigDecimal simulatedDiscount,
+        BigDecimal additionalDiscount
+) {}
@@ -0,0 +1,15 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One item of a historical order, as replayed by the promotion simulation.
+ */
+public interface OrderItemRow {
+    Long getOrderNumber();
+    Instant getCreatedAt();
+    Long getProductId();
+    BigDecimal getUnitPrice();
+    Integer getQuantity();
+}
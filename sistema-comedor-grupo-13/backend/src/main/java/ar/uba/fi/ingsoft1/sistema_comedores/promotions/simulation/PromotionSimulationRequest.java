@@ -0,0 +1,19 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.PromotionRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public record PromotionSimulationRequest(
+        @NotNull(message = "La promoción a simular es obligatoria")
+        @Valid
+        PromotionRequest promotion,
+
+        @NotNull(message = "La fecha de inicio es obligatoria")
+        LocalDate from,
+
+        @NotNull(message = "La fecha de fin es obligatoria")
+        LocalDate to
+) {}
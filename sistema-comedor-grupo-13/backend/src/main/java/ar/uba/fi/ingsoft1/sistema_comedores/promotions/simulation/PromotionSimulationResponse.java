@@ -0,0 +1,39 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of replaying the orders of a date range with and without a draft promotion.
+ * {@code additionalDiscount} is the cost of the draft: how much more would have been discounted.
+ */
+public record PromotionSimulationResponse(
+        String promotionName,
+        LocalDate from,
+        LocalDate to,
+        long orders,
+        long affectedOrders,
+        BigDecimal currentDiscount,
+        BigDecimal simulatedDiscount,
+        BigDecimal additionalDiscount,
+        List<DailySimulationResponse> days
+) {
+    static PromotionSimulationResponse of(String promotionName, LocalDate from, LocalDate to, SimulationTotals totals) {
+        List<DailySimulationResponse> days = totals.days().entrySet().stream()
+                .map(entry -> entry.getValue().toResponse(entry.getKey()))
+                .toList();
+        SimulationTotals.DayTotals overall = totals.overall();
+        return new PromotionSimulationResponse(
+                promotionName,
+                from,
+                to,
+                overall.orders,
+                overall.affectedOrders,
+                overall.currentDiscount,
+                overall.simulatedDiscount,
+                overall.simulatedDiscount.subtract(overall.currentDiscount),
+                days
+        );
+    }
+}
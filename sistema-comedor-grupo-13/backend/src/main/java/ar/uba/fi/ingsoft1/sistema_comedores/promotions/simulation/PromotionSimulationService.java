@@ -0,0 +1,201 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.CartView;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.WeeklySchedule;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.InvalidPromotionException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Replays the orders of a date range with the promotions configured today, with and without
+ * a draft promotion, to estimate what the draft would have cost.
+ *
+ * Order items are streamed from the database and grouped into chunks of orders, which are
+ * evaluated on a ForkJoinPool while the next chunk is read. Only a bounded number of chunks
+ * is in flight, so memory does not grow with the size of the range.
+ */
+@Service
+@Slf4j
+public class PromotionSimulationService {
+
+    private static final ZoneId ZONE = WeeklySchedule.ZONE;
+    private static final int ORDERS_PER_CHUNK = 1_000;
+    private static final int ORDERS_PER_TASK = 64;
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final PromotionRepository promotionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+
+    private record HistoricalOrder(LocalDateTime placedAt, Map<Product, Integer> cart) {}
+
+    @Autowired
+    public PromotionSimulationService(OrderRepository orderRepository, ProductRepository productRepository,
+                                      PromotionRepository promotionRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.promotionRepository = promotionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxChunksInFlight = parallelism * 2;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public PromotionSimulationResponse simulate(PromotionSimulationRequest request) {
+        if (request.to().isBefore(request.from())) {
+            throw new InvalidPromotionException("La fecha de fin debe ser igual o posterior a la fecha de inicio");
+        }
+        Promotion draft = request.promotion().toEntity();
+        Instant from = request.from().atStartOfDay(ZONE).toInstant();
+        Instant to = request.to().plusDays(1).atStartOfDay(ZONE).toInstant();
+
+        long start = System.nanoTime();
+        SimulationTotals totals = transactionTemplate.execute(status -> replay(draft, from, to));
+        PromotionSimulationResponse response = PromotionSimulationResponse.of(draft.getName(), request.from(),
+                request.to(), totals);
+        log.info("Simulated promotion '{}' over {} orders in {} ms", draft.getName(), response.orders(),
+                (System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+
+    private SimulationTotals replay(Promotion draft, Instant from, Instant to) {
+        // The pool threads work on unmanaged copies, never on the entities of this transaction
+        List<Promotion> configured = promotionRepository.findByActiveTrue().stream()
+                .map(Promotion::copy)
+                .toList();
+        // Compiled before the schedules are read from the pool threads
+        configured.forEach(Promotion::getWeeklySchedule);
+        draft.getWeeklySchedule();
+
+        Map<Long, ProductCategory> categories = new HashMap<>();
+        productRepository.findAllCategories().forEach(row -> categories.put(row.getId(), row.getCategory()));
+
+        SimulationTotals totals = new SimulationTotals();
+        Deque<ForkJoinTask<SimulationTotals>> inFlight = new ArrayDeque<>();
+        List<HistoricalOrder> chunk = new ArrayList<>(ORDERS_PER_CHUNK);
+        try (Stream<OrderItemRow> rows = orderRepository.streamItemsPlacedBetween(from, to)) {
+            Long orderNumber = null;
+            Map<Product, Integer> cart = null;
+            for (Iterator<OrderItemRow> it = rows.iterator(); it.hasNext(); ) {
+                OrderItemRow row = it.next();
+                if (!row.getOrderNumber().equals(orderNumber)) {
+                    if (chunk.size() == ORDERS_PER_CHUNK) {
+                        submit(new ReplayTask(configured, draft, chunk), inFlight, totals);
+                        chunk = new ArrayList<>(ORDERS_PER_CHUNK);
+                    }
+                    orderNumber = row.getOrderNumber();
+                    cart = new HashMap<>();
+                    chunk.add(new HistoricalOrder(LocalDateTime.ofInstant(row.getCreatedAt(), ZONE), cart));
+                }
+                // Priced as sold, categorized as the product is today
+                Product product = new SimpleProduct("", "", row.getUnitPrice(),
+                        categories.get(row.getProductId()), true, null);
+                cart.put(product, row.getQuantity());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inFlight.add(pool.submit(new ReplayTask(configured, draft, chunk)));
+        }
+        while (!inFlight.isEmpty()) {
+            totals.merge(inFlight.poll().join());
+        }
+        return totals;
+    }
+
+    private void submit(ReplayTask task, Deque<ForkJoinTask<SimulationTotals>> inFlight, SimulationTotals totals) {
+        inFlight.add(pool.submit(task));
+        while (inFlight.size() > maxChunksInFlight) {
+            totals.merge(inFlight.poll().join());
+        }
+    }
+
+    private static final class ReplayTask extends RecursiveTask<SimulationTotals> {
+        private final List<Promotion> configured;
+        private final Promotion draft;
+        private final List<HistoricalOrder> orders;
+
+        ReplayTask(List<Promotion> configured, Promotion draft, List<HistoricalOrder> orders) {
+            this.configured = configured;
+            this.draft = draft;
+            this.orders = orders;
+        }
+
+        @Override
+        protected SimulationTotals compute() {
+            if (orders.size() > ORDERS_PER_TASK) {
+                int middle = orders.size() / 2;
+                ReplayTask left = new ReplayTask(configured, draft, orders.subList(0, middle));
+                ReplayTask right = new ReplayTask(configured, draft, orders.subList(middle, orders.size()));
+                left.fork();
+                return right.compute().merge(left.join());
+            }
+            SimulationTotals totals = new SimulationTotals();
+            orders.forEach(order -> replay(order, totals));
+            return totals;
+        }
+
+        private void replay(HistoricalOrder order, SimulationTotals totals) {
+            Set<Promotion> valid = new HashSet<>();
+            for (Promotion promotion : configured) {
+                if (promotion.isValidAt(order.placedAt())) {
+                    valid.add(promotion);
+                }
+            }
+            CartView cart = CartView.of(order.cart());
+            BigDecimal currentDiscount = new DiscountOptimizer(valid, cart).getBestPromotions().discount();
+
+            // The draft is evaluated on its days and hours, ignoring its dates and active flag
+            BigDecimal simulatedDiscount = currentDiscount;
+            boolean affected = false;
+            if (draft.getWeeklySchedule().isActiveAt(WeeklySchedule.minuteOfWeek(order.placedAt()))
+                    && draft.appliesTo(cart)) {
+                valid.add(draft);
+                PromotionCombination withDraft = new DiscountOptimizer(valid, cart).getBestPromotions();
+                simulatedDiscount = withDraft.discount();
+                affected = withDraft.promotions().containsKey(draft);
+            }
+            totals.record(order.placedAt().toLocalDate(), currentDiscount, simulatedDiscount, affected);
+        }
+    }
+}
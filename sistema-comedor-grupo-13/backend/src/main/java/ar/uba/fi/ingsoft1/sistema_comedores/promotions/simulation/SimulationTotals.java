@@ -0,0 +1,59 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-day accumulator of a simulation. Each task fills its own instance and the results
+ * are merged, so no state is shared between threads.
+ */
+class SimulationTotals {
+
+    static final class DayTotals {
+        long orders;
+        long affectedOrders;
+        BigDecimal currentDiscount = BigDecimal.ZERO;
+        BigDecimal simulatedDiscount = BigDecimal.ZERO;
+
+        void add(DayTotals other) {
+            orders += other.orders;
+            affectedOrders += other.affectedOrders;
+            currentDiscount = currentDiscount.add(other.currentDiscount);
+            simulatedDiscount = simulatedDiscount.add(other.simulatedDiscount);
+        }
+
+        DailySimulationResponse toResponse(LocalDate date) {
+            return new DailySimulationResponse(date, orders, affectedOrders, currentDiscount, simulatedDiscount,
+                    simulatedDiscount.subtract(currentDiscount));
+        }
+    }
+
+    private final Map<LocalDate, DayTotals> days = new TreeMap<>();
+
+    void record(LocalDate date, BigDecimal currentDiscount, BigDecimal simulatedDiscount, boolean affected) {
+        DayTotals day = days.computeIfAbsent(date, d -> new DayTotals());
+        day.orders++;
+        if (affected) {
+            day.affectedOrders++;
+        }
+        day.currentDiscount = day.currentDiscount.add(currentDiscount);
+        day.simulatedDiscount = day.simulatedDiscount.add(simulatedDiscount);
+    }
+
+    SimulationTotals merge(SimulationTotals other) {
+        other.days.forEach((date, totals) -> days.computeIfAbsent(date, d -> new DayTotals()).add(totals));
+        return this;
+    }
+
+    Map<LocalDate, DayTotals> days() {
+        return days;
+    }
+
+    DayTotals overall() {
+        DayTotals overall = new DayTotals();
+        days.values().forEach(overall::add);
+        return overall;
+    }
+}
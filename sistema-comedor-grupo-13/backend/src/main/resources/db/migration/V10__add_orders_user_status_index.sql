@@ -0,0 +1,2 @@
+-- Covers the per-user GROUP BY status aggregation of the order tracking stats
+CREATE INDEX IF NOT EXISTS idx_orders_user_status ON orders(user_id, status) INCLUDE (subtotal);
@@ -0,0 +1,6 @@
+-- Keyset pagination of the order listings on (created_at, order_number)
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_order_number ON orders(created_at DESC, order_number DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_at_order_number ON orders(user_id, created_at DESC, order_number DESC);
+
+-- Superseded by idx_orders_created_at_order_number
+DROP INDEX IF EXISTS idx_orders_created_at;
@@ -0,0 +1,17 @@
+-- Side effects of order status changes, drained in the background by OrderOutboxDispatcher
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    order_number BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    previous_status VARCHAR(50),
+    new_status VARCHAR(50) NOT NULL,
+    change_reason TEXT,
+    notify_customer BOOLEAN NOT NULL DEFAULT FALSE,
+    occurred_at TIMESTAMP NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    CONSTRAINT fk_order_outbox_order FOREIGN KEY (order_number) REFERENCES orders(order_number) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_outbox_next_attempt ON order_outbox(next_attempt_at, id);
@@ -0,0 +1,2 @@
+-- OrderOutboxEvent allocates ids in blocks of 50 so bulk transitions can batch their inserts
+ALTER SEQUENCE order_outbox_id_seq INCREMENT BY 50;
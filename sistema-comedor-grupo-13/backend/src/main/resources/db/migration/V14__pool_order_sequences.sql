@@ -0,0 +1,4 @@
+-- Order and OrderStatusUpdateEvent allocate ids in blocks of 50 (pooled optimizer), so
+-- placing an order no longer costs a nextval round-trip and their inserts can be batched
+ALTER SEQUENCE orders_order_number_seq INCREMENT BY 50;
+ALTER SEQUENCE order_state_update_events_id_seq INCREMENT BY 50;
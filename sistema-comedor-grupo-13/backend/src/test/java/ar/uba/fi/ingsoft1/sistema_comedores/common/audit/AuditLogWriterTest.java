@@ -0,0 +1,307 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.audit;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.IngredientAuditLog;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductAuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuditLogWriterTest {
+
+    private static final String PRODUCT_INSERT =
+            "INSERT INTO product_audit_log (product_name, modified_at, operation, reason) VALUES (?, ?, ?, ?)";
+    private static final String INGREDIENT_INSERT = "INSERT INTO ingredient_audit_log "
+            + "(ingredient_name, operation, modified_at, amount_delta, reason) VALUES (?, ?, ?, ?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<AuditLogWriter> writers = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MutableClock clock = new MutableClock();
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-05-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (AuditLogWriter writer : writers) {
+            writer.shutdown();
+        }
+    }
+
+    private AuditLogWriter writer(boolean async, int capacity, int flushSize) {
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, transactionManager, objectMapper, async, capacity,
+                flushSize, tempDir.resolve("audit-fallback.ndjson"), clock);
+        writers.add(writer);
+        return writer;
+    }
+
+    private static ProductAuditLog productLog(String name) {
+        ProductAuditLog log = new ProductAuditLog();
+        log.setProductName(name);
+        log.setOperation(AdminOperation.UPDATE_STOCK);
+        log.setModifiedAt(Instant.parse("2025-05-01T10:00:00Z"));
+        log.setReason("oldStock=1, newStock=2");
+        return log;
+    }
+
+    private static IngredientAuditLog ingredientLog(String name) {
+        IngredientAuditLog log = new IngredientAuditLog();
+        log.setIngredientName(name);
+        log.setOperation(AdminOperation.UPDATE_STOCK);
+        log.setModifiedAt(Instant.parse("2025-05-01T10:00:00Z"));
+        log.setAmountDelta(new BigDecimal("1.500"));
+        return log;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> batches(String sql) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(eq(sql), rows.capture());
+        return rows.getAllValues();
+    }
+
+    private static int rows(List<List<Object[]>> batches) {
+        return batches.stream().mapToInt(List::size).sum();
+    }
+
+    private static List<Object> names(List<List<Object[]>> batches) {
+        return batches.stream().flatMap(List::stream).map(row -> row[0]).toList();
+    }
+
+    private void writeFallback(String... lines) throws IOException {
+        Files.write(tempDir.resolve("audit-fallback.ndjson"), List.of(lines));
+    }
+
+    private String line(String productName) throws IOException {
+        return objectMapper.writeValueAsString(AuditEntry.of(productLog(productName)));
+    }
+
+    @Test
+    void flush_writesTheQueueInBatchesOfTheFlushSize() {
+        AuditLogWriter writer = writer(true, 100, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.record(productLog("Producto " + i));
+        }
+        writer.record(ingredientLog("Tomate"));
+
+        writer.flush();
+
+        List<List<Object[]>> products = batches(PRODUCT_INSERT);
+        assertEquals(5, rows(products));
+        assertTrue(products.stream().allMatch(batch -> batch.size() <= 2));
+        Object[] ingredient = batches(INGREDIENT_INSERT).get(0).get(0);
+        assertEquals("Tomate", ingredient[0]);
+        assertEquals(0, new BigDecimal("1.5").compareTo((BigDecimal) ingredient[3]));
+
+        AuditLogWriterStats stats = writer.getStats();
+        assertEquals(0, stats.queueDepth());
+        assertEquals(6, stats.enqueued());
+        assertEquals(6, stats.written());
+    }
+
+    @Test
+    void record_queuesTheEntryOnlyAfterTheTransactionCommits() {
+        AuditLogWriter writer = writer(true, 100, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.record(productLog("Agua"));
+            assertEquals(0, writer.getStats().queueDepth());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, writer.getStats().queueDepth());
+    }
+
+    @Test
+    void flush_whenTheDatabaseFails_spillsToTheFallbackFileAndReplaysItLater() {
+        AuditLogWriter writer = writer(true, 100, 10);
+        doThrow(new DataAccessResourceFailureException("connection refused"))
+                .doReturn(new int[0])
+                .when(jdbcTemplate).batchUpdate(eq(PRODUCT_INSERT), anyList());
+        for (int i = 0; i < 3; i++) {
+            writer.record(productLog("Producto " + i));
+        }
+
+        writer.flush();
+
+        AuditLogWriterStats stats = writer.getStats();
+        assertEquals(3, stats.spilled());
+        assertEquals(0, stats.written());
+        assertEquals(0, stats.queueDepth());
+        assertTrue(Files.exists(tempDir.resolve("audit-fallback.ndjson")));
+
+        writer.flush();
+
+        assertEquals(3, writer.getStats().replayed());
+        assertEquals(0, writer.getStats().dropped());
+        assertFalse(Files.exists(tempDir.resolve("audit-fallback.ndjson")));
+        List<List<Object[]>> products = batches(PRODUCT_INSERT);
+        List<Object[]> replayed = new ArrayList<>();
+        products.subList(1, products.size()).forEach(replayed::addAll);
+        assertEquals(List.of("Producto 0", "Producto 1", "Producto 2"),
+                replayed.stream().map(row -> row[0]).toList());
+        assertEquals(AdminOperation.UPDATE_STOCK.name(), replayed.get(0)[2]);
+    }
+
+    @Test
+    void flush_movesAMalformedFallbackLineToQuarantineAndReplaysTheRest() throws IOException {
+        AuditLogWriter writer = writer(true, 100, 10);
+        writeFallback(line("Producto 0"), "{\"target\":\"PRODUCT\",\"name\":\"Produ", line("Producto 1"));
+
+        writer.flush();
+
+        assertEquals(2, writer.getStats().replayed());
+        assertEquals(List.of("Producto 0", "Producto 1"), names(batches(PRODUCT_INSERT)));
+        assertEquals(List.of("{\"target\":\"PRODUCT\",\"name\":\"Produ"),
+                Files.readAllLines(tempDir.resolve("audit-fallback.ndjson.quarantine")));
+        assertFalse(Files.exists(tempDir.resolve("audit-fallback.ndjson")));
+        assertFalse(Files.exists(tempDir.resolve("audit-fallback.ndjson.replaying")));
+    }
+
+    @Test
+    void flush_quarantinesAFallbackEntryTheDatabaseRejects() throws IOException {
+        AuditLogWriter writer = writer(true, 100, 10);
+        when(jdbcTemplate.batchUpdate(eq(PRODUCT_INSERT), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> "Rechazado".equals(row[0]))) {
+                throw new DataIntegrityViolationException("value too long for column");
+            }
+            return new int[rows.size()];
+        });
+        writeFallback(line("Producto 0"), line("Rechazado"), line("Producto 1"));
+
+        writer.flush();
+
+        AuditLogWriterStats stats = writer.getStats();
+        assertEquals(2, stats.replayed());
+        assertEquals(1, stats.quarantined());
+        List<String> quarantined = Files.readAllLines(tempDir.resolve("audit-fallback.ndjson.quarantine"));
+        assertEquals(1, quarantined.size());
+        assertEquals("Rechazado", objectMapper.readValue(quarantined.get(0), AuditEntry.class).name());
+        assertFalse(Files.exists(tempDir.resolve("audit-fallback.ndjson.replaying")));
+    }
+
+    @Test
+    void flush_whenTheDatabaseFailsDuringAReplay_keepsTheRestAndBacksOff() throws IOException {
+        AuditLogWriter writer = writer(true, 100, 2);
+        doReturn(new int[0])
+                .doThrow(new DataAccessResourceFailureException("connection refused"))
+                .doReturn(new int[0])
+                .when(jdbcTemplate).batchUpdate(eq(PRODUCT_INSERT), anyList());
+        writeFallback(line("Producto 0"), line("Producto 1"), line("Producto 2"), line("Producto 3"));
+
+        writer.flush();
+
+        assertEquals(2, writer.getStats().replayed());
+        assertEquals(2, Files.readAllLines(tempDir.resolve("audit-fallback.ndjson.replaying")).size());
+
+        writer.flush();
+        assertEquals(2, batches(PRODUCT_INSERT).size());
+
+        clock.advance(Duration.ofSeconds(1));
+        writer.flush();
+
+        assertEquals(4, writer.getStats().replayed());
+        assertEquals(0, writer.getStats().quarantined());
+        assertEquals(List.of("Producto 0", "Producto 1", "Producto 2", "Producto 3", "Producto 2", "Producto 3"),
+                names(batches(PRODUCT_INSERT)));
+        assertFalse(Files.exists(tempDir.resolve("audit-fallback.ndjson.replaying")));
+    }
+
+    @Test
+    void record_whenTheQueueIsFull_spillsInsteadOfBlocking() {
+        AuditLogWriter writer = writer(true, 2, 100);
+        for (int i = 0; i < 3; i++) {
+            writer.record(productLog("Producto " + i));
+        }
+
+        AuditLogWriterStats stats = writer.getStats();
+        assertEquals(2, stats.queueDepth());
+        assertEquals(1, stats.spilled());
+
+        writer.flush();
+
+        assertEquals(2, writer.getStats().written());
+        assertEquals(1, writer.getStats().replayed());
+    }
+
+    @Test
+    void record_whenSynchronous_insertsRightAway() {
+        AuditLogWriter writer = writer(false, 100, 100);
+
+        writer.record(productLog("Agua"));
+
+        assertEquals(1, rows(batches(PRODUCT_INSERT)));
+        assertEquals(1, writer.getStats().written());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,164 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.common.http;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.menu.MenuItemDTO;
+import ar.uba.fi.ingsoft1.sistema_comedores.menu.MenuItemType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonResponseCache cache = new JsonResponseCache(objectMapper);
+
+    private static List<MenuItemDTO> menu(int size) {
+        List<MenuItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(new MenuItemDTO(i, MenuItemType.PRODUCT, "Producto " + i, "Descripción del producto " + i,
+                    BigDecimal.valueOf(1000 + i, 2), "http://localhost/minio/images/" + i + ".png", "MAIN_COURSE",
+                    BigDecimal.valueOf(1000 + i, 2), BigDecimal.ZERO, true, 10 + i));
+        }
+        return items;
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/menu");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    @Test
+    void respond_serializesOncePerVersion() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        List<MenuItemDTO> items = menu(3);
+
+        ResponseEntity<byte[]> first = cache.respond(request(null, null), "menu", 1, () -> {
+            loads.incrementAndGet();
+            return items;
+        });
+        ResponseEntity<byte[]> second = cache.respond(request(null, null), "menu", 1, () -> {
+            loads.incrementAndGet();
+            return items;
+        });
+
+        assertEquals(1, loads.get());
+        assertSame(first.getBody(), second.getBody());
+        assertArrayEquals(objectMapper.writeValueAsBytes(items), first.getBody());
+        assertNull(first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        cache.respond(request(null, null), "menu", 2, () -> {
+            loads.incrementAndGet();
+            return items;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void respond_answersNotModifiedForAMatchingETag() {
+        ResponseEntity<byte[]> first = cache.respond(request(null, null), "menu", 1, () -> menu(3));
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<byte[]> revalidated = cache.respond(request("W/" + etag, null), "menu", 1, () -> menu(3));
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+
+        // Same content under a new version keeps the ETag
+        ResponseEntity<byte[]> bumped = cache.respond(request("\"other\", " + etag, null), "menu", 2, () -> menu(3));
+        assertEquals(HttpStatus.NOT_MODIFIED, bumped.getStatusCode());
+
+        ResponseEntity<byte[]> changed = cache.respond(request(etag, null), "menu", 3, () -> menu(4));
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void respond_sendsTheGzipVariantWhenAccepted() throws Exception {
+        List<MenuItemDTO> items = menu(50);
+
+        ResponseEntity<byte[]> compressed = cache.respond(request(null, "br, gzip;q=0.8"), "menu", 1, () -> items);
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))) {
+            assertArrayEquals(objectMapper.writeValueAsBytes(items), gzip.readAllBytes());
+        }
+
+        ResponseEntity<byte[]> refused = cache.respond(request(null, "gzip;q=0"), "menu", 1, () -> items);
+        assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        ResponseEntity<byte[]> small = cache.respond(request(null, "gzip"), "categories", 1, () -> List.of("PIZZA"));
+        assertNull(small.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void respond_tagsEachEncodingSeparately() {
+        List<MenuItemDTO> items = menu(50);
+
+        String plainEtag = cache.respond(request(null, null), "menu", 1, () -> items).getHeaders().getETag();
+        String gzipEtag = cache.respond(request(null, "gzip"), "menu", 1, () -> items).getHeaders().getETag();
+        assertNotEquals(plainEtag, gzipEtag);
+        assertTrue(gzipEtag.endsWith("-gz\""));
+
+        // The tag of one encoding does not revalidate the other
+        ResponseEntity<byte[]> crossed = cache.respond(request(plainEtag, "gzip"), "menu", 1, () -> items);
+        assertEquals(HttpStatus.OK, crossed.getStatusCode());
+        assertEquals("gzip", crossed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        ResponseEntity<byte[]> revalidated = cache.respond(request(gzipEtag, "gzip"), "menu", 1, () -> items);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals(gzipEtag, revalidated.getHeaders().getETag());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, revalidated.getHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_requestsPerSecond() throws Exception {
+        List<MenuItemDTO> items = menu(300);
+        int requests = 20_000;
+
+        long sink = 0;
+        long serializeStart = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += objectMapper.writeValueAsBytes(items).length;
+        }
+        long serializeNanos = System.nanoTime() - serializeStart;
+
+        MockHttpServletRequest plain = request(null, "gzip");
+        long cachedStart = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += cache.respond(plain, "menu", 1, () -> items).getBody().length;
+        }
+        long cachedNanos = System.nanoTime() - cachedStart;
+
+        String etag = cache.respond(plain, "menu", 1, () -> items).getHeaders().getETag();
+        MockHttpServletRequest conditional = request(etag, "gzip");
+        long notModifiedStart = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += cache.respond(conditional, "menu", 1, () -> items).getStatusCode().value();
+        }
+        long notModifiedNanos = System.nanoTime() - notModifiedStart;
+
+        assertTrue(sink > 0);
+        assertTrue(cachedNanos < serializeNanos, "cached gzip " + cachedNanos / requests + " ns/request, "
+                + "serialized per request " + serializeNanos / requests + " ns/request");
+        assertTrue(notModifiedNanos < serializeNanos, "304 " + notModifiedNanos / requests + " ns/request, "
+                + "serialized per request " + serializeNanos / requests + " ns/request");
+    }
+}
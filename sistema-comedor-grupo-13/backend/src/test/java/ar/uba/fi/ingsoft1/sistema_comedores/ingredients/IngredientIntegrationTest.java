@@ -161,7 +161,8 @@ class IngredientIntegrationTest {
                 .findFirst()
                 .orElseThrow(() -> new AssertionError("No se encontró log de UPDATE_STOCK"));
 
-        assertEquals(BigDecimal.valueOf(15), updateLog.getAmountDelta());
+        // Audit rows are written with JDBC, so the delta comes back with the column scale
+        assertEquals(0, BigDecimal.valueOf(15).compareTo(updateLog.getAmountDelta()));
     }
 
     @Test
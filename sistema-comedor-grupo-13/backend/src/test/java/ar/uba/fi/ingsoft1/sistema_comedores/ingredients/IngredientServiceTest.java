@@ -1,11 +1,13 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.ingredients;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.audit.AuditLogWriter;
 import ar.uba.fi.ingsoft1.sistema_comedores.common.enums.AdminOperation;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.dto.CreateIngredientRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.dto.IngredientDetailsResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientAlreadyExistsException;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientInProductException;
 import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.exception.IngredientNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,7 +33,10 @@ class IngredientServiceTest {
     private IngredientRepository repository;
 
     @Mock
-    private IngredientAuditLogRepository auditRepo;
+    private AuditLogWriter auditLogWriter;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
 
     @InjectMocks
     private IngredientService service;
@@ -94,7 +99,6 @@ class IngredientServiceTest {
             i.setId(3L);
             return i;
         });
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.createIngredient(request);
 
@@ -103,7 +107,7 @@ class IngredientServiceTest {
         assertTrue(result.isAvailable());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(AdminOperation.CREATE, logCaptor.getValue().getOperation());
     }
 
@@ -118,7 +122,6 @@ class IngredientServiceTest {
             i.setId(3L);
             return i;
         });
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.createIngredient(request);
 
@@ -136,7 +139,6 @@ class IngredientServiceTest {
             i.setId(3L);
             return i;
         });
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.createIngredient(request);
 
@@ -159,7 +161,6 @@ class IngredientServiceTest {
         when(repository.findByNameAndActiveTrue("Zanahoria")).thenReturn(Optional.empty());
         when(repository.findByName("Zanahoria")).thenReturn(Optional.of(inactive));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.createIngredient(request);
 
@@ -167,7 +168,7 @@ class IngredientServiceTest {
         assertEquals(BigDecimal.valueOf(15), result.getStock());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(AdminOperation.REACTIVATE, logCaptor.getValue().getOperation());
     }
 
@@ -187,7 +188,6 @@ class IngredientServiceTest {
         when(repository.findByNameAndActiveTrue("Zanahoria")).thenReturn(Optional.empty());
         when(repository.findByName("Zanahoria")).thenReturn(Optional.of(inactive));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.createIngredient(request);
 
@@ -212,14 +212,13 @@ class IngredientServiceTest {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.findByNameAndActiveTrue("Tomate Perita")).thenReturn(Optional.empty());
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.changeName(1L, "Tomate Perita");
 
         assertEquals("Tomate Perita", result.getName());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(AdminOperation.CHANGE_NAME, logCaptor.getValue().getOperation());
         assertTrue(logCaptor.getValue().getReason().contains("Tomate"));
     }
@@ -232,7 +231,7 @@ class IngredientServiceTest {
 
         assertEquals("Tomate", result.getName());
         verify(repository, never()).save(any());
-        verify(auditRepo, never()).save(any());
+        verify(auditLogWriter, never()).record(any(IngredientAuditLog.class));
     }
 
     @Test
@@ -280,7 +279,6 @@ class IngredientServiceTest {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.findByNameAndActiveTrue("Tomate Rojo")).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.changeName(1L, "Tomate Rojo");
 
@@ -293,7 +291,6 @@ class IngredientServiceTest {
     void deactivateIngredient_success() throws IngredientNotFoundException {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         IngredientDetailsResponse result = service.deactivateIngredient(1L, "Stock vencido");
 
@@ -301,7 +298,7 @@ class IngredientServiceTest {
         assertFalse(result.available());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(AdminOperation.DEACTIVATE, logCaptor.getValue().getOperation());
         assertEquals("Stock vencido", logCaptor.getValue().getReason());
     }
@@ -310,7 +307,6 @@ class IngredientServiceTest {
     void deactivateIngredient_success_withNullReason() throws IngredientNotFoundException {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         IngredientDetailsResponse result = service.deactivateIngredient(1L, null);
 
@@ -326,7 +322,7 @@ class IngredientServiceTest {
 
         assertFalse(result.active());
         verify(repository, never()).save(any());
-        verify(auditRepo, never()).save(any());
+        verify(auditLogWriter, never()).record(any(IngredientAuditLog.class));
     }
 
     @Test
@@ -353,7 +349,6 @@ class IngredientServiceTest {
     void updateStock_success() throws IngredientNotFoundException {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.updateStock(1L, BigDecimal.valueOf(25));
 
@@ -361,7 +356,7 @@ class IngredientServiceTest {
         assertTrue(result.isAvailable());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(AdminOperation.UPDATE_STOCK, logCaptor.getValue().getOperation());
         assertEquals(BigDecimal.valueOf(15), logCaptor.getValue().getAmountDelta());
     }
@@ -370,7 +365,6 @@ class IngredientServiceTest {
     void updateStock_setsUnavailable_whenZeroStock() throws IngredientNotFoundException {
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.updateStock(1L, BigDecimal.ZERO);
 
@@ -383,14 +377,13 @@ class IngredientServiceTest {
         testIngredient.setStock(null);
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Ingredient result = service.updateStock(1L, BigDecimal.valueOf(5));
 
         assertEquals(BigDecimal.valueOf(5), result.getStock());
 
         ArgumentCaptor<IngredientAuditLog> logCaptor = ArgumentCaptor.forClass(IngredientAuditLog.class);
-        verify(auditRepo).save(logCaptor.capture());
+        verify(auditLogWriter).record(logCaptor.capture());
         assertEquals(BigDecimal.valueOf(5), logCaptor.getValue().getAmountDelta());
     }
 
@@ -408,7 +401,6 @@ class IngredientServiceTest {
 
         when(repository.findById(1L)).thenReturn(Optional.of(testIngredient));
         when(repository.save(any(Ingredient.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(auditRepo.save(any(IngredientAuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
         service.updateStock(1L, BigDecimal.valueOf(20));
 
@@ -0,0 +1,123 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.dto.ComboDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MenuCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ComboService comboService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ProductCatalogVersion catalogVersion = new ProductCatalogVersion();
+
+    private MenuCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        catalog = new MenuCatalog(productRepository, comboService, catalogVersion, transactionManager);
+    }
+
+    private static SimpleProduct product(long id, String name, ProductCategory category, int stock) {
+        SimpleProduct product = new SimpleProduct(name, "", BigDecimal.TEN, category, true, stock);
+        product.setId(id);
+        return product;
+    }
+
+    private static ComboDetailsResponse combo(long id, String name, boolean available) {
+        return new ComboDetailsResponse(id, name, "", BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO, List.of(),
+                null, available, true, null, available ? 5 : 0);
+    }
+
+    @Test
+    void current_groupsAvailableItemsByCategorySortedByName() {
+        List<Product> products = List.of(
+                product(1, "Sprite", ProductCategory.DRINK, 3),
+                product(2, "agua", ProductCategory.DRINK, 3),
+                product(3, "Flan", ProductCategory.DESSERT, 0),
+                product(4, "Brownie", ProductCategory.DESSERT, 2));
+        when(productRepository.findAll()).thenReturn(products);
+        when(comboService.getAllCombos()).thenReturn(List.of(
+                combo(10, "Menú ejecutivo", true), combo(11, "Combo agotado", false), combo(12, "Desayuno", true)));
+
+        MenuSnapshot menu = catalog.current();
+
+        assertEquals(List.of("agua", "Brownie", "Sprite", "Desayuno", "Menú ejecutivo"),
+                menu.items().stream().map(MenuItemDTO::name).toList());
+        assertEquals(List.of("agua", "Sprite"),
+                menu.category(ProductCategory.DRINK).stream().map(MenuItemDTO::name).toList());
+        assertEquals(List.of("Desayuno", "Menú ejecutivo"),
+                menu.category(ProductCategory.COMBO).stream().map(MenuItemDTO::name).toList());
+        assertTrue(menu.category(ProductCategory.PIZZA).isEmpty());
+        assertEquals(3, menu.products().size());
+        assertEquals(2, menu.combos().size());
+        assertThrows(UnsupportedOperationException.class, () -> menu.items().clear());
+    }
+
+    @Test
+    void current_reusesTheSnapshotUntilTheCatalogChanges() {
+        when(productRepository.findAll()).thenReturn(List.of(product(1, "Agua", ProductCategory.DRINK, 3)));
+        when(comboService.getAllCombos()).thenReturn(List.of());
+
+        MenuSnapshot first = catalog.current();
+        assertSame(first, catalog.current());
+        verify(productRepository, times(1)).findAll();
+
+        when(productRepository.findAll()).thenReturn(List.of());
+        catalogVersion.bumpAfterCommit();
+
+        MenuSnapshot second = catalog.current();
+        assertNotSame(first, second);
+        assertTrue(second.items().isEmpty());
+        verify(productRepository, times(2)).findAll();
+        verify(comboService, times(2)).getAllCombos();
+    }
+
+    @Test
+    void search_followsRenamesAndDeactivations() {
+        SimpleProduct cafe = product(1, "Café con leche", ProductCategory.DRINK, 3);
+        when(productRepository.findAll()).thenReturn(List.of(cafe, product(2, "Té", ProductCategory.DRINK, 3)));
+        when(comboService.getAllCombos()).thenReturn(List.of(combo(10, "Desayuno cafetero", true)));
+
+        assertEquals(List.of("Café con leche", "Desayuno cafetero"),
+                catalog.search("cafe", 10).stream().map(MenuItemDTO::name).toList());
+
+        when(productRepository.findAll()).thenReturn(List.of(product(1, "Cortado", ProductCategory.DRINK, 3),
+                product(2, "Té", ProductCategory.DRINK, 0)));
+        when(comboService.getAllCombos()).thenReturn(List.of(combo(10, "Desayuno cafetero", false)));
+        catalogVersion.bumpAfterCommit();
+
+        assertTrue(catalog.search("cafe", 10).isEmpty());
+        assertTrue(catalog.search("te", 10).isEmpty());
+        assertEquals(List.of("Cortado"), catalog.search("CORT", 10).stream().map(MenuItemDTO::name).toList());
+    }
+}
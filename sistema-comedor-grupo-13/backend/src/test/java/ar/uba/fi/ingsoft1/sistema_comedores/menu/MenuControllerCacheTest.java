@@ -0,0 +1,107 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MenuController.class)
+@AutoConfigureMockMvc
+@Import(JsonResponseCache.class)
+class MenuControllerCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private MenuService menuService;
+
+    @MockBean
+    private MenuTypeaheadService typeaheadService;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Product product = new SimpleProduct("Producto " + id, "Descripción del producto " + id,
+                    new BigDecimal("1000.00"), ProductCategory.MAIN_COURSE, true, 10);
+            product.setId(id);
+            products.add(product);
+        }
+        when(menuService.getSnapshot()).thenReturn(MenuSnapshot.build(1, products, List.of()));
+    }
+
+    @Test
+    @WithMockUser
+    void getMenu_revalidatesWithTheETag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/menu"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(20, objectMapper.readTree(first.getResponse().getContentAsByteArray()).size());
+
+        mockMvc.perform(get("/menu").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        // The snapshot is serialized once for both requests
+        verify(menuService, times(2)).getSnapshot();
+    }
+
+    @Test
+    @WithMockUser
+    void getMenu_sendsTheGzipVariantUnderItsOwnETag() throws Exception {
+        String plainEtag = mockMvc.perform(get("/menu"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult compressed = mockMvc.perform(get("/menu").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        String gzipEtag = compressed.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(gzipEtag);
+        assertTrue(gzipEtag.endsWith("-gz\""));
+        assertNotEquals(plainEtag, gzipEtag);
+        try (GZIPInputStream gzip = new GZIPInputStream(
+                new ByteArrayInputStream(compressed.getResponse().getContentAsByteArray()))) {
+            JsonNode items = objectMapper.readTree(gzip.readAllBytes());
+            assertEquals(20, items.size());
+        }
+
+        mockMvc.perform(get("/menu")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isNotModified());
+    }
+}
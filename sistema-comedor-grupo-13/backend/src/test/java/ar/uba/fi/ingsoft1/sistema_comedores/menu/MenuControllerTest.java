@@ -1,5 +1,6 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.menu;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.common.http.JsonResponseCache;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboService;
@@ -13,7 +14,10 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
@@ -44,6 +48,7 @@ public class MenuControllerTest {
     private MenuService menuService;
     
     private MenuController menuController;
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private List<Product> testProducts;
 
     @BeforeEach
@@ -58,6 +63,16 @@ public class MenuControllerTest {
         Field field = MenuController.class.getDeclaredField("menuService");
         field.setAccessible(true);
         field.set(menuController, menuService);
+        Field cacheField = MenuController.class.getDeclaredField("responseCache");
+        cacheField.setAccessible(true);
+        cacheField.set(menuController, new JsonResponseCache(objectMapper));
+    }
+
+    /**
+     * El menú se responde con el JSON ya serializado
+     */
+    private List<MenuItemDTO> items(ResponseEntity<byte[]> response) throws Exception {
+        return objectMapper.readValue(response.getBody(), new TypeReference<List<MenuItemDTO>>() {});
     }
 
     private List<Product> createTestProducts() {
@@ -86,62 +101,65 @@ public class MenuControllerTest {
 
     @SuppressWarnings("null")
     @Test
-    public void testGetMenuReturnsResponseEntity() {
+    public void testGetMenuReturnsResponseEntity() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu(null, null);
+        ResponseEntity<byte[]> response = menuController.getMenu(null, null, new MockHttpServletRequest());
+        List<MenuItemDTO> items = items(response);
 
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
-        assertTrue(response.getBody().size() > 0);
+        assertTrue(items.size() > 0);
     }
 
     @Test
-    public void testGetMenuWithSearchParameter() {
+    public void testGetMenuWithSearchParameter() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu(null, "Hamburguesa");
+        ResponseEntity<byte[]> response = menuController.getMenu(null, "Hamburguesa", new MockHttpServletRequest());
+        List<MenuItemDTO> items = items(response);
 
         // Assert
         assertNotNull(response);
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals("Hamburguesa Clásica", response.getBody().get(0).name());
+        assertEquals(1, items.size());
+        assertEquals("Hamburguesa Clásica", items.get(0).name());
     }
 
     @Test
-    public void testGetMenuWithCategoryParameter() {
+    public void testGetMenuWithCategoryParameter() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu("SANDWICH", null);
+        ResponseEntity<byte[]> response = menuController.getMenu("SANDWICH", null, new MockHttpServletRequest());
 
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
+        assertFalse(items(response).isEmpty());
     }
 
     @Test
-    public void testGetCategoriesReturnsMap() {
+    public void testGetCategoriesReturnsMap() throws Exception {
         // Act
-        ResponseEntity<Map<String, List<String>>> response = menuController.getCategories();
+        ResponseEntity<byte[]> response = menuController.getCategories(new MockHttpServletRequest());
+        Map<String, List<String>> body = objectMapper.readValue(response.getBody(), new TypeReference<>() {});
 
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody().containsKey("categories"));
-        assertFalse(response.getBody().get("categories").isEmpty());
+        assertTrue(body.containsKey("categories"));
+        assertFalse(body.get("categories").isEmpty());
     }
 
     @Test
@@ -160,14 +178,14 @@ public class MenuControllerTest {
     }
 
     @Test
-    public void testGetMenuReturnsMenuItemDTOWithCorrectStructure() {
+    public void testGetMenuReturnsMenuItemDTOWithCorrectStructure() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu(null, null);
-        List<MenuItemDTO> items = response.getBody();
+        ResponseEntity<byte[]> response = menuController.getMenu(null, null, new MockHttpServletRequest());
+        List<MenuItemDTO> items = items(response);
 
         // Assert
         assertNotNull(items);
@@ -183,30 +201,32 @@ public class MenuControllerTest {
     }
 
     @Test
-    public void testSearchMenuIsCaseInsensitive() {
+    public void testSearchMenuIsCaseInsensitive() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu(null, "HAMBURGUESA");
+        ResponseEntity<byte[]> response = menuController.getMenu(null, "HAMBURGUESA", new MockHttpServletRequest());
+        List<MenuItemDTO> items = items(response);
 
         // Assert
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, items.size());
     }
 
     @Test
-    public void testGetMenuReturnsAllAvailableItems() {
+    public void testGetMenuReturnsAllAvailableItems() throws Exception {
         // Arrange
         List<Product> products = createTestProducts();
         when(productRepository.findAll()).thenReturn(products);
         
         // Act
-        ResponseEntity<List<MenuItemDTO>> response = menuController.getMenu(null, null);
+        ResponseEntity<byte[]> response = menuController.getMenu(null, null, new MockHttpServletRequest());
+        List<MenuItemDTO> items = items(response);
 
         // Assert
-        assertEquals(2, response.getBody().size());
-        assertTrue(response.getBody().stream().allMatch(MenuItemDTO::isAvailable));
+        assertEquals(2, items.size());
+        assertTrue(items.stream().allMatch(MenuItemDTO::isAvailable));
     }
 }
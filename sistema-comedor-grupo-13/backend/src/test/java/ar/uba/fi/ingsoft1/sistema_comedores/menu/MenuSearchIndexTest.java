@@ -0,0 +1,183 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuSearchIndexTest {
+
+    private static final String[] WORDS = {"hamburguesa", "clásica", "café", "con", "leche", "ensalada", "césar",
+            "pollo", "milanesa", "napolitana", "tostado", "jamón", "queso", "medialuna", "manteca", "jugo", "naranja",
+            "exprimido", "tarta", "verdura", "empanada", "carne", "pizza", "muzzarella", "fugazzeta", "ñoquis",
+            "salsa", "tomate", "agua", "mineral", "gaseosa", "limón", "brownie", "nuez", "flan", "dulce"};
+    private static final String[] SYLLABLES = {"ca", "fé", "ma", "ri", "to", "lo", "ña", "que", "sa", "bo", "ni",
+            "ta", "za", "le", "mi", "pe", "rú", "go", "ve", "dú"};
+
+    private static MenuItemDTO item(long id, MenuItemType type, String name, String description) {
+        return new MenuItemDTO(id, type, name, description, BigDecimal.TEN, null, "MAIN_COURSE",
+                BigDecimal.TEN, BigDecimal.ZERO, true, 10);
+    }
+
+    private static MenuItemDTO item(long id, String name, String description) {
+        return item(id, MenuItemType.PRODUCT, name, description);
+    }
+
+    private static List<String> names(List<MenuItemDTO> items) {
+        return items.stream().map(MenuItemDTO::name).toList();
+    }
+
+    @Test
+    void search_ignoresCaseAndAccents() {
+        MenuSearchIndex index = new MenuSearchIndex();
+        index.sync(List.of(
+                item(1, "Café con leche", "Taza grande"),
+                item(2, "Ensalada César", "Pollo, croutones y aderezo"),
+                item(3, "Ñoquis", "Con salsa de tomate")));
+
+        assertEquals(List.of("Café con leche"), names(index.search("cafe", 10)));
+        assertEquals(List.of("Ensalada César"), names(index.search("CESAR", 10)));
+        assertEquals(List.of("Ñoquis"), names(index.search("noquis", 10)));
+        assertEquals(List.of("Café con leche"), names(index.search("  Café,  LECHE ", 10)));
+        assertTrue(index.search("!!", 10).isEmpty());
+    }
+
+    @Test
+    void search_matchesPrefixesAndInfixesOfEveryToken() {
+        MenuSearchIndex index = new MenuSearchIndex();
+        index.sync(List.of(
+                item(1, "Hamburguesa clásica", "Carne con queso"),
+                item(2, "Hamburguesa vegana", "Medallón de lentejas"),
+                item(3, "Tostado", "Jamón y queso")));
+
+        assertEquals(List.of("Hamburguesa clásica", "Hamburguesa vegana"), names(index.search("burg", 10)));
+        assertEquals(List.of("Hamburguesa clásica"), names(index.search("hamb ques", 10)));
+        assertEquals(List.of("Hamburguesa clásica", "Hamburguesa vegana"), names(index.search("ha", 10)));
+        assertTrue(index.search("hamb jamon", 10).isEmpty());
+        assertEquals(1, index.search("hamburguesa", 1).size());
+    }
+
+    @Test
+    void search_ranksNameMatchesAndWholeWordsFirst() {
+        MenuSearchIndex index = new MenuSearchIndex();
+        index.sync(List.of(
+                item(1, "Tostado", "Con queso y tomate"),
+                item(2, "Tarta de queso", ""),
+                item(3, "Quesadilla", "Tortilla de maíz"),
+                item(4, "Requesón", "Untable")));
+
+        assertEquals(List.of("Tarta de queso", "Tostado", "Requesón"), names(index.search("queso", 10)));
+        // Equal scores are ordered by name
+        assertEquals(List.of("Quesadilla", "Tarta de queso", "Requesón", "Tostado"),
+                names(index.search("ques", 10)));
+    }
+
+    @Test
+    void sync_updatesOnlyWhatChanged() {
+        MenuSearchIndex index = new MenuSearchIndex();
+        MenuItemDTO cafe = item(1, "Café", "Espresso");
+        MenuItemDTO combo = item(1, MenuItemType.COMBO, "Desayuno", "Café con medialunas");
+        assertEquals(2, index.sync(List.of(cafe, combo)));
+
+        // The same items, with a new stock, are not re-indexed but are returned updated
+        MenuItemDTO restocked = new MenuItemDTO(1, MenuItemType.PRODUCT, "Café", "Espresso", BigDecimal.ONE, null,
+                "DRINK", BigDecimal.ONE, BigDecimal.ZERO, true, 99);
+        assertEquals(0, index.sync(List.of(restocked, combo)));
+        assertEquals(99, index.search("cafe", 1).get(0).stock());
+
+        // Renamed product and a combo that left the menu
+        assertEquals(2, index.sync(List.of(item(1, "Cortado", "Espresso con leche"))));
+        assertEquals(1, index.size());
+        assertTrue(index.search("cafe", 10).isEmpty());
+        assertTrue(index.search("desayuno", 10).isEmpty());
+        assertEquals(List.of("Cortado"), names(index.search("corta", 10)));
+    }
+
+    private static List<MenuItemDTO> catalog(int size, Random random) {
+        List<MenuItemDTO> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(item(i, phrase(random, 2 + random.nextInt(3)) + " " + i, phrase(random, 4 + random.nextInt(8))));
+        }
+        return items;
+    }
+
+    /**
+     * Words from {@link #WORDS}, mixed with made-up ones so the catalog has a few thousand terms.
+     */
+    private static String word(Random random) {
+        if (random.nextInt(3) == 0) {
+            return WORDS[random.nextInt(WORDS.length)];
+        }
+        Random made = new Random(random.nextInt(4_000));
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + made.nextInt(3); i > 0; i--) {
+            word.append(SYLLABLES[made.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = word(random);
+            phrase.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+        return phrase.toString();
+    }
+
+    /**
+     * The search the menu used before the index: lower case and {@code contains} on every item.
+     */
+    private static List<MenuItemDTO> linearScan(List<MenuItemDTO> items, String query) {
+        String searchQuery = query.toLowerCase().trim();
+        List<MenuItemDTO> results = new ArrayList<>();
+        for (MenuItemDTO item : items) {
+            if (item.name().toLowerCase().contains(searchQuery) ||
+                (item.description() != null && item.description().toLowerCase().contains(searchQuery))) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_searchOverALargeCatalog() {
+        Random random = new Random(13);
+        List<MenuItemDTO> items = catalog(30_000, random);
+        MenuSearchIndex index = new MenuSearchIndex();
+        index.sync(items);
+
+        String[] queries = {"fugazzeta", "milanesa napolitana", "cafe leche", "jamón queso", "brow", "ñoq",
+                "tarta verdura", "exprim", "cama", "quesa lo"};
+        int rounds = 200;
+
+        long matches = 0;
+        long scanStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                matches += linearScan(items, query).size();
+            }
+        }
+        long scanNanos = System.nanoTime() - scanStart;
+
+        long indexStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                matches += index.search(query, 50).size();
+            }
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        long searches = (long) rounds * queries.length;
+        assertEquals(items.size(), index.size());
+        assertTrue(matches > 0);
+        assertTrue(indexNanos < scanNanos, "index " + indexNanos / searches + " ns/query, "
+                + "linear scan " + scanNanos / searches + " ns/query");
+    }
+}
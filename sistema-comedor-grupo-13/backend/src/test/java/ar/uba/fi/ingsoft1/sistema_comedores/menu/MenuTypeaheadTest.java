@@ -0,0 +1,186 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.menu;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MenuTypeaheadTest {
+
+    private static final String[] SYLLABLES = {"ca", "fé", "ma", "ri", "to", "lo", "ña", "que", "sa", "bo", "ni",
+            "ta", "za", "le", "mi", "pe", "rú", "go", "ve", "dú"};
+
+    private static MenuItemDTO item(long id, MenuItemType type, String name) {
+        return new MenuItemDTO(id, type, name, "", BigDecimal.TEN, null, "MAIN_COURSE",
+                BigDecimal.TEN, BigDecimal.ZERO, true, 10);
+    }
+
+    private static MenuItemDTO item(long id, String name) {
+        return item(id, MenuItemType.PRODUCT, name);
+    }
+
+    private static MenuPopularity.Counts popularity(long version, Map<Long, Long> byProduct) {
+        return new MenuPopularity.Counts(version, byProduct);
+    }
+
+    private static List<String> names(List<MenuItemDTO> items) {
+        return items.stream().map(MenuItemDTO::name).toList();
+    }
+
+    @Test
+    void suggest_matchesTheStartOfAnyWordRegardlessOfAccents() {
+        MenuTypeahead typeahead = MenuTypeahead.build(1, MenuPopularity.Counts.EMPTY, List.of(
+                item(1, "Café con leche"),
+                item(2, "Ensalada César"),
+                item(3, "Cortado"),
+                item(4, "Té")));
+
+        assertEquals(List.of("Café con leche", "Cortado", "Ensalada César"), names(typeahead.suggest("c", 10)));
+        assertEquals(List.of("Café con leche"), names(typeahead.suggest("CAFE", 10)));
+        assertEquals(List.of("Café con leche"), names(typeahead.suggest("lech", 10)));
+        assertEquals(List.of("Café con leche"), names(typeahead.suggest("café  con l", 10)));
+        assertEquals(List.of("Ensalada César"), names(typeahead.suggest("ces", 10)));
+        assertEquals(List.of("Té"), names(typeahead.suggest("te", 10)));
+        assertTrue(typeahead.suggest("afe", 10).isEmpty());
+        assertTrue(typeahead.suggest("cafeteria", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ranksByRecentOrdersThenByName() {
+        MenuTypeahead typeahead = MenuTypeahead.build(1, popularity(3, Map.of(3L, 40L, 10L, 15L, 2L, 15L)),
+                List.of(
+                        item(1, "Pizza muzzarella"),
+                        item(2, "Pizza fugazzeta"),
+                        item(3, "Pancho"),
+                        item(10, MenuItemType.COMBO, "Pizza y gaseosa")));
+
+        assertEquals(List.of("Pancho", "Pizza fugazzeta", "Pizza y gaseosa", "Pizza muzzarella"),
+                names(typeahead.suggest("p", 10)));
+        assertEquals(List.of("Pizza fugazzeta", "Pizza y gaseosa"), names(typeahead.suggest("pizz", 2)));
+        assertEquals(List.of("Pancho"), names(typeahead.suggest("", 1)));
+        assertEquals(MenuTypeahead.MAX_SUGGESTIONS, MenuTypeahead.build(1, MenuPopularity.Counts.EMPTY,
+                catalog(100, new Random(1))).suggest("", 500).size());
+    }
+
+    private static List<MenuItemDTO> catalog(int size, Random random) {
+        List<MenuItemDTO> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int word = 1 + random.nextInt(3); word > 0; word--) {
+                for (int syllable = 1 + random.nextInt(3); syllable > 0; syllable--) {
+                    name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                name.append(' ');
+            }
+            items.add(item(i, name.toString().trim()));
+        }
+        return items;
+    }
+
+    private static Map<Long, Long> randomPopularity(int size, Random random) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (long id = 0; id < size; id++) {
+            if (random.nextInt(3) > 0) {
+                counts.put(id, (long) random.nextInt(500));
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    void suggest_matchesAScanOfTheWholeMenu() {
+        Random random = new Random(5);
+        List<MenuItemDTO> items = catalog(2_000, random);
+        MenuPopularity.Counts counts = popularity(1, randomPopularity(items.size(), random));
+        MenuTypeahead typeahead = MenuTypeahead.build(1, counts, items);
+
+        Comparator<MenuItemDTO> ranking = Comparator.<MenuItemDTO>comparingLong(item -> counts.of(item.id()))
+                .reversed().thenComparing(item -> MenuTypeahead.normalize(item.name()));
+        for (String prefix : List.of("c", "ca", "caf", "cafe", "que", "quesa", "ma ri", "rú", "du", "ñ", "zzz")) {
+            String folded = MenuTypeahead.normalize(prefix);
+            List<MenuItemDTO> expected = items.stream()
+                    .filter(item -> (" " + MenuTypeahead.normalize(item.name())).contains(" " + folded))
+                    .sorted(ranking)
+                    .limit(8)
+                    .toList();
+            assertEquals(expected, typeahead.suggest(prefix, 8), "prefix " + prefix);
+        }
+    }
+
+    @Test
+    void service_swapsInANewTypeaheadWhenTheMenuOrThePopularityChange() {
+        MenuCatalog menuCatalog = mock(MenuCatalog.class);
+        MenuPopularity popularity = mock(MenuPopularity.class);
+        MenuTypeaheadService service = new MenuTypeaheadService(menuCatalog, popularity);
+        List<MenuItemDTO> items = List.of(item(1, "Agua"), item(2, "Alfajor"));
+        when(menuCatalog.current()).thenReturn(new MenuSnapshot(1, items, items, List.of(), Map.of()));
+        when(popularity.current()).thenReturn(MenuPopularity.Counts.EMPTY);
+
+        MenuTypeahead first = service.current();
+        assertSame(first, service.current());
+        assertEquals(List.of("Agua", "Alfajor"), names(service.suggest("a", 5)));
+
+        when(popularity.current()).thenReturn(popularity(1, Map.of(2L, 3L)));
+        assertNotSame(first, service.current());
+        assertEquals(List.of("Alfajor", "Agua"), names(service.suggest("a", 5)));
+
+        List<MenuItemDTO> renamed = List.of(item(1, "Agua mineral"));
+        when(menuCatalog.current()).thenReturn(new MenuSnapshot(2, renamed, renamed, List.of(), Map.of()));
+        assertEquals(List.of("Agua mineral"), names(service.suggest("min", 5)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_latencyPerKeystroke() {
+        Random random = new Random(9);
+        List<MenuItemDTO> items = catalog(30_000, random);
+        MenuPopularity.Counts counts = popularity(1, randomPopularity(items.size(), random));
+        MenuTypeahead typeahead = MenuTypeahead.build(1, counts, items);
+        MenuSearchIndex index = new MenuSearchIndex();
+        index.sync(items);
+
+        // Every keystroke of a few names, as typed while building a cart
+        List<String> keystrokes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String name = items.get(random.nextInt(items.size())).name();
+            for (int length = 1; length <= name.length(); length++) {
+                keystrokes.add(name.substring(0, length));
+            }
+        }
+
+        long found = 0;
+        long[] latencies = new long[keystrokes.size()];
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < keystrokes.size(); i++) {
+                long start = System.nanoTime();
+                found += typeahead.suggest(keystrokes.get(i), 8).size();
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        long searchStart = System.nanoTime();
+        for (String keystroke : keystrokes) {
+            found += index.search(keystroke, 8).size();
+        }
+        long searchNanos = System.nanoTime() - searchStart;
+
+        assertEquals(items.size(), typeahead.size());
+        assertTrue(found > 0);
+        long median = sorted[sorted.length / 2];
+        assertTrue(median < searchNanos / keystrokes.size(), "typeahead p50 " + median + " ns/keystroke, "
+                + "p99 " + sorted[sorted.length * 99 / 100] + " ns, full-text search "
+                + searchNanos / keystrokes.size() + " ns/keystroke");
+    }
+}
@@ -0,0 +1,128 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderPageResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.user.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of statements issued by the order listings: it must not depend on
+ * how many orders are listed.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class OrderListingQueryBudgetTest {
+
+    private static final int ORDERS = 30;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.admin.email}")
+    private String adminEmail;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Long userId = userService.getUserByEmail(adminEmail).getId();
+        for (int i = 0; i < ORDERS; i++) {
+            orderRepository.save(newOrder(userId));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    private Order newOrder(Long userId) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setStatus(new PendingOrderStatus());
+
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(1L, "Hamburguesa", new BigDecimal("3500.00"), 1));
+        items.add(new OrderItem(2L, "Coca Cola", new BigDecimal("1500.00"), 2));
+        order.setItems(items);
+        order.setSubtotal(new BigDecimal("6500.00"));
+
+        AppliedPromotion promotion = new AppliedPromotion();
+        promotion.setAppliedPromotionName("Promo");
+        promotion.setAppliedPromotionType("FIXED_DISCOUNT");
+        promotion.setAppliedDiscount(new BigDecimal("500.00"));
+        order.setAppliedPromotions(new ArrayList<>(List.of(promotion)));
+        order.setDiscountAmount(new BigDecimal("500.00"));
+        return order;
+    }
+
+    private void assertAllLoaded(List<OrderDetailsResponse> orders) {
+        for (OrderDetailsResponse order : orders) {
+            assertEquals(2, order.items().size());
+            assertEquals(1, order.appliedPromotions().size());
+        }
+    }
+
+    @Test
+    void ordersPage_staysWithinQueryBudget() {
+        OrderPageResponse page = orderService.getOrdersPage(null, 25);
+
+        assertEquals(25, page.orders().size());
+        assertAllLoaded(page.orders());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Orders page used " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void userOrders_staysWithinQueryBudget() {
+        List<OrderDetailsResponse> orders = orderService.getUserOrders(adminEmail);
+
+        assertEquals(ORDERS, orders.size());
+        assertAllLoaded(orders);
+        // user lookup + orders + items + applied promotions
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "User orders used " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void allOrders_staysWithinQueryBudget() {
+        List<OrderDetailsResponse> orders = orderService.getAllOrders();
+
+        assertTrue(orders.size() >= ORDERS);
+        assertAllLoaded(orders);
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "All orders used " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
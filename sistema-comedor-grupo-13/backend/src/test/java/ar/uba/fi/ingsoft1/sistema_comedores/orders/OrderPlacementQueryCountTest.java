@@ -0,0 +1,237 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.Ingredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.IngredientRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.CreateOrderRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.Combo;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ElaborateProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockKey;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderPlacementQueryCountTest$StatementCounter")
+@ActiveProfiles("test")
+@Transactional
+class OrderPlacementQueryCountTest {
+
+    /**
+     * Registered through hibernate.session_factory.statement_inspector on this test's context only.
+     * Sequence calls are counted apart from the selects: with pooled ids they only happen
+     * once every allocation block.
+     */
+    public static class StatementCounter implements StatementInspector {
+
+        private static final AtomicLong selects = new AtomicLong();
+        private static final AtomicLong inserts = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.stripLeading().toLowerCase();
+            if (statement.startsWith("select") && !statement.contains("next value for") && !statement.contains("nextval(")) {
+                selects.incrementAndGet();
+            } else if (statement.startsWith("insert")) {
+                inserts.incrementAndGet();
+            }
+            return sql;
+        }
+
+        static void reset() {
+            selects.set(0);
+            inserts.set(0);
+        }
+
+        static long selects() {
+            return selects.get();
+        }
+
+        static long inserts() {
+            return inserts.get();
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    /**
+     * Selects one order placement may send, whatever the size of the cart: the user, the
+     * cart products, the combo components, the elaborate ingredients and the eagerly loaded
+     * observers of each of those, in batches.
+     */
+    private static final long MAX_SELECTS_PER_ORDER = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.admin.email}")
+    private String adminEmail;
+
+    private List<Long> createProducts(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = "Producto_" + UUID.randomUUID().toString().substring(0, 8);
+            SimpleProduct product = new SimpleProduct(name, "Producto de prueba", new BigDecimal("100.00"),
+                    ProductCategory.MAIN_COURSE, true, 50);
+            ids.add(productRepository.save(product).getId());
+        }
+        return ids;
+    }
+
+    private static String uniqueName(String prefix) {
+        return prefix + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Creates, for each step, a simple product, an elaborate product with its own ingredient
+     * and a combo of both, and returns their ids in that order.
+     */
+    private List<Long> createMixedProducts(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SimpleProduct simple = productRepository.save(new SimpleProduct(uniqueName("Producto_"),
+                    "Producto de prueba", new BigDecimal("100.00"), ProductCategory.MAIN_COURSE, true, 50));
+
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(uniqueName("Ingrediente_"));
+            ingredient.setUnitMeasure("kg");
+            ingredient.setStock(new BigDecimal("100"));
+            ingredient.setActive(true);
+            ingredient.setAvailable(true);
+            ingredient = ingredientRepository.save(ingredient);
+
+            ElaborateProduct elaborate = productRepository.save(new ElaborateProduct(uniqueName("Elaborado_"),
+                    "Producto de prueba", new BigDecimal("200.00"), ProductCategory.MAIN_COURSE, true));
+            elaborate.addIngredient(ingredient, BigDecimal.ONE);
+            ingredientRepository.save(ingredient);
+            elaborate = productRepository.save(elaborate);
+
+            Combo combo = productRepository.save(new Combo(uniqueName("Combo_"), "Combo de prueba",
+                    new BigDecimal("250.00"), true));
+            combo.addProduct(simple, 1);
+            combo.addProduct(elaborate, 1);
+            productRepository.save(simple);
+            productRepository.save(elaborate);
+            combo = productRepository.save(combo);
+
+            ids.add(simple.getId());
+            ids.add(elaborate.getId());
+            ids.add(combo.getId());
+        }
+        return ids;
+    }
+
+    private long selectsForOrder(List<Long> productIds) {
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderItemRequest> items = productIds.stream()
+                .map(id -> new OrderItemRequest(id, 2))
+                .toList();
+
+        StatementCounter.reset();
+        orderService.createOrder(new CreateOrderRequest(items, null), adminEmail);
+        long selects = StatementCounter.selects();
+
+        entityManager.flush();
+        return selects;
+    }
+
+    @Test
+    void createOrder_selectCountDoesNotGrowWithCartSize() {
+        List<Long> productIds = createProducts(6);
+
+        long singleItemSelects = selectsForOrder(productIds.subList(0, 1));
+        long fullCartSelects = selectsForOrder(productIds);
+
+        assertTrue(singleItemSelects > 0);
+        assertEquals(singleItemSelects, fullCartSelects);
+        assertTrue(fullCartSelects <= MAX_SELECTS_PER_ORDER, "Order placement sent " + fullCartSelects + " selects");
+    }
+
+    @Test
+    void createOrder_selectCountOfElaborateAndComboLinesDoesNotGrowWithCartSize() {
+        List<Long> productIds = createMixedProducts(4);
+
+        long oneOfEachSelects = selectsForOrder(productIds.subList(0, 3));
+        long fullCartSelects = selectsForOrder(productIds);
+
+        assertEquals(oneOfEachSelects, fullCartSelects);
+        assertTrue(fullCartSelects <= MAX_SELECTS_PER_ORDER, "Order placement sent " + fullCartSelects + " selects");
+    }
+
+    @Test
+    void createOrder_reservesStockOfEveryResolvedProduct() {
+        List<Long> productIds = createProducts(3);
+
+        selectsForOrder(productIds);
+
+        for (Long id : productIds) {
+            assertEquals(0, new BigDecimal(48).compareTo(stockLedgerService.getAvailable(StockKey.simpleProduct(id))));
+        }
+    }
+
+    /**
+     * Insert statements sent to the database by one order placement, flushed with the
+     * given JDBC batch size (null means the configured one).
+     */
+    private long insertsForOrder(List<Long> productIds, Integer jdbcBatchSize) {
+        entityManager.flush();
+        entityManager.clear();
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(jdbcBatchSize);
+
+        List<OrderItemRequest> items = productIds.stream()
+                .map(id -> new OrderItemRequest(id, 1))
+                .toList();
+
+        StatementCounter.reset();
+        orderService.createOrder(new CreateOrderRequest(items, null), adminEmail);
+        entityManager.flush();
+        long inserts = StatementCounter.inserts();
+
+        session.setJdbcBatchSize(null);
+        return inserts;
+    }
+
+    @Test
+    void createOrder_batchesTheInsertsOfTheOrderAggregate() {
+        List<Long> productIds = createProducts(8);
+
+        long unbatched = insertsForOrder(productIds, 1);
+        long batched = insertsForOrder(productIds, null);
+
+        // orders, order_items and order_outbox (plus applied_promotions when a promotion applies)
+        assertTrue(batched <= 4, "Order placement sent " + batched + " insert statements");
+        assertTrue(unbatched >= batched + productIds.size() - 1);
+    }
+}
@@ -1,17 +1,31 @@
 package ar.uba.fi.ingsoft1.sistema_comedores.orders;
 
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionAction;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.BulkTransitionResponse;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.CreateOrderRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeAnalytics;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen.KitchenQueue;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing.PromotionQuoteCache;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications.OrderNotificationService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox.OrderOutboxService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.stats.OrderStatsRegistry;
 import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateService;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotAvailableException;
 import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.User;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.UserService;
 import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionService;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.CompletedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -24,6 +38,7 @@ import org.mockito.quality.Strictness;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -55,6 +70,27 @@ class OrderServiceTest {
     @Mock
     private OrderNotificationService notificationService;
     
+    @Mock
+    private OrderOutboxService outboxService;
+    
+    @Mock
+    private StockLedgerService stockLedgerService;
+    
+    @Mock
+    private OrderStatsRegistry statsRegistry;
+    
+    @Mock
+    private KitchenQueue kitchenQueue;
+    
+    @Mock
+    private PrepTimeAnalytics prepTimeAnalytics;
+    
+    @Mock
+    private PromotionQuoteCache promotionQuoteCache;
+    
+    @Mock
+    private EntityManager entityManager;
+    
     @InjectMocks
     private OrderService orderService;
     
@@ -156,5 +192,55 @@ class OrderServiceTest {
         assertNotNull(response);
         verify(orderRepository).save(any(Order.class));
     }
-}
+    
+    @Test
+    void testCreateOrderFromASessionChecksTheStoredProducts() {
+        SimpleProduct deactivated = new SimpleProduct("Pizza", "Deliciosa pizza", new BigDecimal("15.99"), ProductCategory.MAIN_COURSE, false, 100);
+        deactivated.setId(1L);
+        when(userService.getUserByEmail("test@example.com")).thenReturn(testUser);
+        when(productService.getProductsByIds(List.of(1L))).thenReturn(Map.of(1L, deactivated));
+        PromotionCombination promotions = new PromotionCombination(Map.of(), BigDecimal.ZERO);
 
+        assertThrows(ProductNotAvailableException.class, () -> orderService.createOrder(
+            List.of(testItemRequest), Map.of(1L, testProduct), promotions, "test@example.com"));
+        verify(stockLedgerService, never()).reserve(any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+    
+    @Test
+    void testApplyBulkTransitionReportsPerOrderResults() {
+        // Arrange
+        Order pending = new Order();
+        pending.setOrderNumber(1L);
+        pending.setUserId(1L);
+        pending.setSubtotal(new BigDecimal("10.00"));
+        pending.setStatus(new PendingOrderStatus());
+        
+        Order completed = new Order();
+        completed.setOrderNumber(2L);
+        completed.setUserId(1L);
+        completed.setSubtotal(new BigDecimal("20.00"));
+        completed.setStatus(new CompletedOrderStatus());
+        
+        when(orderRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(pending, completed));
+        BulkTransitionRequest request = new BulkTransitionRequest(BulkTransitionAction.FORWARD, List.of(1L, 2L, 3L, 1L), null);
+        
+        // Act
+        BulkTransitionResponse response = orderService.applyBulkTransition(request);
+        
+        // Assert
+        assertEquals(1, response.succeeded());
+        assertEquals(2, response.failed());
+        assertEquals(3, response.results().size());
+        assertTrue(response.results().get(0).success());
+        assertEquals("CONFIRMED", response.results().get(0).newStatus());
+        assertFalse(response.results().get(1).success());
+        assertEquals("COMPLETED", response.results().get(1).newStatus());
+        assertFalse(response.results().get(2).success());
+        assertEquals("CONFIRMED", pending.getStatusCode());
+        assertEquals("COMPLETED", completed.getStatusCode());
+        verify(outboxService).recordTransitions(argThat(transitions ->
+            transitions.size() == 1 && transitions.containsKey(pending)), isNull());
+        verify(stockLedgerService, never()).release(any());
+    }
+}
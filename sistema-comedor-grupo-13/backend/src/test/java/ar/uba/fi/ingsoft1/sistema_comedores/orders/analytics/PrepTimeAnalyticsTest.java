@@ -0,0 +1,139 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.InvalidStatusRangeException;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatusConverter;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PrepTimeAnalyticsTest {
+
+    // 15:00 in Buenos Aires
+    private static final Instant NOW = Instant.parse("2025-06-02T18:00:00Z");
+
+    @Mock
+    private OrderStatusUpdateEventRepository historyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PrepTimeAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        analytics = new PrepTimeAnalytics(historyRepository, transactionManager, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private StatusChangeRow row(long orderNumber, String status, Instant changedAt) {
+        OrderStatus orderStatus = new OrderStatusConverter().convertToEntityAttribute(status);
+        StatusChangeRow row = mock(StatusChangeRow.class);
+        when(row.getOrderNumber()).thenReturn(orderNumber);
+        when(row.getNewStatus()).thenReturn(orderStatus);
+        when(row.getChangedAt()).thenReturn(changedAt);
+        return row;
+    }
+
+    @Test
+    void backfill_replaysHistoryIntoTransitionPercentiles() {
+        Instant morning = NOW.minus(Duration.ofHours(3));
+        when(historyRepository.streamChangesSince(any())).thenAnswer(invocation -> Stream.of(
+                row(1L, "CONFIRMED", morning),
+                row(2L, "CONFIRMED", morning),
+                row(1L, "PREPARING", morning.plusSeconds(60)),
+                row(1L, "READY", morning.plusSeconds(600)),
+                row(2L, "READY", morning.plusSeconds(1200))));
+
+        analytics.backfill();
+        PrepTimeStatsResponse stats = analytics.getStats("CONFIRMED", "READY", AnalyticsWindow.TODAY);
+
+        assertEquals(2, stats.count());
+        assertEquals(600_000, stats.p50Millis(), 600_000 * 0.04);
+        assertEquals(1_200_000, stats.p95Millis(), 1_200_000 * 0.04);
+        assertEquals(1_200_000, stats.maxMillis());
+        assertEquals(1, analytics.getStats("preparing", "ready", AnalyticsWindow.TODAY).count());
+    }
+
+    @Test
+    void record_buffersChangesUntilBackfillFinishes() {
+        when(historyRepository.streamChangesSince(any())).thenAnswer(invocation -> Stream.empty());
+        analytics.record(1L, "CONFIRMED", NOW.minusSeconds(300));
+        analytics.record(1L, "READY", NOW);
+
+        assertEquals(0, analytics.getStats("CONFIRMED", "READY", AnalyticsWindow.TODAY).count());
+
+        analytics.backfill();
+
+        assertEquals(1, analytics.getStats("CONFIRMED", "READY", AnalyticsWindow.TODAY).count());
+    }
+
+    @Test
+    void record_countsOnlyTheFirstTimeAStatusIsReached() {
+        when(historyRepository.streamChangesSince(any())).thenAnswer(invocation -> Stream.empty());
+        analytics.backfill();
+
+        analytics.record(1L, "CONFIRMED", NOW.minusSeconds(900));
+        analytics.record(1L, "PREPARING", NOW.minusSeconds(600));
+        analytics.record(1L, "CONFIRMED", NOW.minusSeconds(300));
+        analytics.record(1L, "PREPARING", NOW);
+
+        PrepTimeStatsResponse stats = analytics.getStats("CONFIRMED", "PREPARING", AnalyticsWindow.LAST_24_HOURS);
+        assertEquals(1, stats.count());
+        assertEquals(300_000, stats.maxMillis());
+    }
+
+    @Test
+    void getStats_windowExcludesOlderChanges() {
+        when(historyRepository.streamChangesSince(any())).thenAnswer(invocation -> Stream.empty());
+        analytics.backfill();
+        Instant yesterday = NOW.minus(Duration.ofHours(20));
+
+        analytics.record(1L, "PENDING", yesterday);
+        analytics.record(1L, "CONFIRMED", yesterday.plusSeconds(30));
+
+        assertEquals(0, analytics.getStats("PENDING", "CONFIRMED", AnalyticsWindow.TODAY).count());
+        assertEquals(1, analytics.getStats("PENDING", "CONFIRMED", AnalyticsWindow.LAST_24_HOURS).count());
+        assertEquals(10, analytics.getAllStats(AnalyticsWindow.LAST_7_DAYS).size());
+    }
+
+    @Test
+    void getStats_rejectsPairsOutsideTheFlow() {
+        assertThrows(InvalidStatusRangeException.class,
+                () -> analytics.getStats("READY", "CONFIRMED", AnalyticsWindow.TODAY));
+        assertThrows(InvalidStatusRangeException.class,
+                () -> analytics.getStats("CONFIRMED", "CANCELLED", AnalyticsWindow.TODAY));
+    }
+
+    @Test
+    void latencyHistogram_reportsPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(5_000, histogram.valueAtPercentile(50), 5_000 * 0.04);
+        assertEquals(9_900, histogram.valueAtPercentile(99), 9_900 * 0.04);
+        assertEquals(10_000, histogram.valueAtPercentile(100));
+    }
+}
@@ -0,0 +1,228 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.CartSessionNotFoundException;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.EmptyCartException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductPriceVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.BuyXPayY;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.CartView;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PercentageDiscount;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalog;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CartSessionServiceTest {
+
+    private static final String EMAIL = "student@fi.uba.ar";
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductPriceVersion priceVersion;
+
+    @Mock
+    private PromotionCatalogRegistry catalogRegistry;
+
+    @Mock
+    private OrderService orderService;
+
+    private final Map<Long, Product> stored = new HashMap<>();
+    private PercentageDiscount dessertDiscount;
+    private BuyXPayY drinkThreeForTwo;
+    private CartSessionService service;
+
+    private static Product product(long id, String name, String price, ProductCategory category) {
+        Product product = new SimpleProduct(name, "", new BigDecimal(price), category, true, 100);
+        product.setId(id);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        stored.put(1L, product(1L, "Flan", "100.00", ProductCategory.DESSERT));
+        stored.put(2L, product(2L, "Agua", "60.00", ProductCategory.DRINK));
+        stored.put(3L, product(3L, "Gaseosa", "80.00", ProductCategory.DRINK));
+
+        dessertDiscount = spy(new PercentageDiscount("20% en Postres", "", true, null, null,
+                Set.of(), Set.of(), ProductCategory.DESSERT, 20));
+        drinkThreeForTwo = spy(new BuyXPayY("3x2 en Bebidas", "", true, null, null,
+                Set.of(), Set.of(), ProductCategory.DRINK, 3, 2));
+        PromotionCatalog catalog = PromotionCatalog.of(1, LocalDate.now(), List.of(dessertDiscount, drinkThreeForTwo));
+        when(catalogRegistry.active()).thenReturn(catalog);
+
+        when(priceVersion.current()).thenReturn(0L);
+        when(productService.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Product> found = new HashMap<>();
+            for (Object id : invocation.getArgument(0, Collection.class)) {
+                found.put((Long) id, stored.get(id));
+            }
+            return found;
+        });
+        when(orderService.toPromotionResponse(anyMap(), any())).thenAnswer(invocation -> {
+            PromotionCombination combination = invocation.getArgument(1);
+            return new CalculatePromotionResponse(BigDecimal.ZERO, combination.discount(), BigDecimal.ZERO,
+                    combination.discount().signum() > 0, List.of());
+        });
+
+        service = new CartSessionService(new CartSessionStore(100, 5, 60_000), productService, priceVersion,
+                catalogRegistry, orderService, 50);
+    }
+
+    private BigDecimal discount(CartSessionResponse cart) {
+        return cart.quote().discountAmount();
+    }
+
+    @Test
+    void addItem_onlyReevaluatesThePromotionsOfTheChangedCategory() {
+        UUID cartId = service.createCart(EMAIL).id();
+
+        service.addItem(cartId, EMAIL, new CartItemRequest(1L, 2));
+        service.addItem(cartId, EMAIL, new CartItemRequest(2L, 2));
+        CartSessionResponse cart = service.addItem(cartId, EMAIL, new CartItemRequest(3L, 1));
+
+        // 20% of 200 in desserts plus the cheapest drink of three
+        assertEquals(0, new BigDecimal("100").compareTo(discount(cart)));
+        verify(dessertDiscount, times(1)).calculateDiscount(any(CartView.class));
+        verify(drinkThreeForTwo, times(2)).appliesTo(any(CartView.class));
+        assertEquals(3, cart.items().size());
+    }
+
+    @Test
+    void removeItem_updatesTheQuote() {
+        UUID cartId = service.createCart(EMAIL).id();
+        service.addItem(cartId, EMAIL, new CartItemRequest(2L, 2));
+        service.addItem(cartId, EMAIL, new CartItemRequest(3L, 1));
+
+        CartSessionResponse cart = service.removeItem(cartId, EMAIL, 3L);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(discount(cart)));
+        assertEquals(1, cart.items().size());
+    }
+
+    @Test
+    void getCart_reloadsProductsAfterAPriceChange() {
+        UUID cartId = service.createCart(EMAIL).id();
+        service.addItem(cartId, EMAIL, new CartItemRequest(1L, 1));
+        assertEquals(0, new BigDecimal("20").compareTo(discount(service.getCart(cartId, EMAIL))));
+
+        stored.put(1L, product(1L, "Flan", "150.00", ProductCategory.DESSERT));
+        when(priceVersion.current()).thenReturn(1L);
+
+        CartSessionResponse cart = service.getCart(cartId, EMAIL);
+        assertEquals(0, new BigDecimal("30").compareTo(discount(cart)));
+        assertEquals(0, new BigDecimal("150.00").compareTo(cart.items().get(0).unitPrice()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkout_reusesTheResolvedProductsAndPromotions() {
+        UUID cartId = service.createCart(EMAIL).id();
+        service.addItem(cartId, EMAIL, new CartItemRequest(1L, 2));
+        service.addItem(cartId, EMAIL, new CartItemRequest(2L, 3));
+        clearInvocations(productService);
+
+        service.checkout(cartId, EMAIL);
+
+        ArgumentCaptor<List<OrderItemRequest>> items = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Map<Long, Product>> products = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<PromotionCombination> promotions = ArgumentCaptor.forClass(PromotionCombination.class);
+        verify(orderService).createOrder(items.capture(), products.capture(), promotions.capture(), eq(EMAIL));
+        verifyNoInteractions(productService);
+
+        assertEquals(List.of(new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 3)), items.getValue());
+        assertSame(stored.get(1L), products.getValue().get(1L));
+        assertEquals(Set.of(dessertDiscount, drinkThreeForTwo), promotions.getValue().promotions().keySet());
+        assertThrows(CartSessionNotFoundException.class, () -> service.getCart(cartId, EMAIL));
+    }
+
+    @Test
+    void checkout_placesASingleOrderWhenTheCartIsCheckedOutTwiceAtOnce() throws Exception {
+        UUID cartId = service.createCart(EMAIL).id();
+        service.addItem(cartId, EMAIL, new CartItemRequest(1L, 1));
+        CountDownLatch placing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(anyList(), anyMap(), any(), eq(EMAIL))).thenAnswer(invocation -> {
+            placing.countDown();
+            release.await();
+            return null;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> service.checkout(cartId, EMAIL));
+            assertTrue(placing.await(1, TimeUnit.SECONDS));
+            Thread[] waiting = new Thread[1];
+            Future<?> second = executor.submit(() -> {
+                waiting[0] = Thread.currentThread();
+                return service.checkout(cartId, EMAIL);
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (waiting[0] == null || waiting[0].getState() != Thread.State.BLOCKED) {
+                assertTrue(System.nanoTime() < deadline, "second checkout never waited for the session");
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            first.get(1, TimeUnit.SECONDS);
+            ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(CartSessionNotFoundException.class, rejected.getCause());
+            verify(orderService, times(1)).createOrder(anyList(), anyMap(), any(), eq(EMAIL));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void checkout_rejectsAnEmptyCart() {
+        UUID cartId = service.createCart(EMAIL).id();
+
+        assertThrows(EmptyCartException.class, () -> service.checkout(cartId, EMAIL));
+        verify(orderService, never()).createOrder(anyList(), anyMap(), any(), anyString());
+    }
+
+    @Test
+    void sessions_areOnlyVisibleToTheirOwner() {
+        UUID cartId = service.createCart(EMAIL).id();
+
+        assertThrows(CartSessionNotFoundException.class, () -> service.getCart(cartId, "other@fi.uba.ar"));
+        assertThrows(CartSessionNotFoundException.class,
+                () -> service.addItem(cartId, "other@fi.uba.ar", new CartItemRequest(1L, 1)));
+    }
+}
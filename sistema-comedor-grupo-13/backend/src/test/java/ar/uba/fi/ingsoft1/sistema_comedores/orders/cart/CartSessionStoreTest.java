@@ -0,0 +1,55 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartSessionStoreTest {
+
+    private final CartSessionStore store = new CartSessionStore(4, 2, 60_000,
+            Clock.fixed(Instant.parse("2025-01-01T12:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    void create_dropsTheOldestSessionOfAUserAtTheLimit() {
+        UUID first = store.create("a@fi.uba.ar").getId();
+        UUID second = store.create("a@fi.uba.ar").getId();
+        UUID other = store.create("b@fi.uba.ar").getId();
+
+        store.find(first, "a@fi.uba.ar");
+        UUID third = store.create("a@fi.uba.ar").getId();
+
+        assertTrue(store.find(first, "a@fi.uba.ar").isPresent());
+        assertTrue(store.find(second, "a@fi.uba.ar").isEmpty());
+        assertTrue(store.find(third, "a@fi.uba.ar").isPresent());
+        assertTrue(store.find(other, "b@fi.uba.ar").isPresent());
+    }
+
+    @Test
+    void create_byOneUserDoesNotPushOutOtherUsers() {
+        UUID other = store.create("b@fi.uba.ar").getId();
+
+        for (int i = 0; i < 10; i++) {
+            store.create("a@fi.uba.ar");
+        }
+
+        assertTrue(store.find(other, "b@fi.uba.ar").isPresent());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void remove_freesASlotOfTheUser() {
+        UUID first = store.create("a@fi.uba.ar").getId();
+        UUID second = store.create("a@fi.uba.ar").getId();
+
+        store.remove(first);
+        UUID third = store.create("a@fi.uba.ar").getId();
+
+        assertTrue(store.find(second, "a@fi.uba.ar").isPresent());
+        assertTrue(store.find(third, "a@fi.uba.ar").isPresent());
+    }
+}
@@ -0,0 +1,26 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.dto;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.exception.InvalidOrderCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCursorTest {
+
+    @Test
+    void encodeAndDecode_roundTrip() {
+        OrderCursor cursor = new OrderCursor(Instant.parse("2025-05-20T12:34:56.789123Z"), 42L);
+
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_rejectsMalformedTokens() {
+        assertThrows(InvalidOrderCursorException.class, () -> OrderCursor.decode("not-a-cursor"));
+        assertThrows(InvalidOrderCursorException.class, () -> OrderCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,127 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.kitchen;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.Order;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderDetailsResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ConfirmedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class KitchenQueueTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private KitchenQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        queue = new KitchenQueue(orderRepository, transactionManager);
+    }
+
+    private Order order(long orderNumber, OrderStatus status, String createdAt) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setUserId(1L);
+        order.setStatus(status);
+        order.setSubtotal(new BigDecimal("10.00"));
+        order.setDiscountAmount(BigDecimal.ZERO);
+        order.setItems(new ArrayList<>());
+        order.setAppliedPromotions(new ArrayList<>());
+        order.setCreatedAt(Instant.parse(createdAt));
+        order.setUpdatedAt(Instant.parse(createdAt));
+        return order;
+    }
+
+    private ActiveOrderStatus stored(long orderNumber, OrderStatus status) {
+        ActiveOrderStatus entry = mock(ActiveOrderStatus.class);
+        when(entry.getOrderNumber()).thenReturn(orderNumber);
+        when(entry.getStatus()).thenReturn(status);
+        return entry;
+    }
+
+    @Test
+    void recordCreated_keepsEachStatusNewestFirst() {
+        queue.recordCreated(order(1L, new PendingOrderStatus(), "2025-06-01T12:00:00Z"));
+        queue.recordCreated(order(2L, new PendingOrderStatus(), "2025-06-01T12:05:00Z"));
+        queue.recordCreated(order(3L, new PendingOrderStatus(), "2025-06-01T12:01:00Z"));
+
+        List<Long> pending = queue.view("PENDING").stream().map(OrderDetailsResponse::orderNumber).toList();
+
+        assertEquals(List.of(2L, 3L, 1L), pending);
+        assertTrue(queue.view("CONFIRMED").isEmpty());
+    }
+
+    @Test
+    void recordTransition_movesBetweenStatusesAndDropsFinishedOrders() {
+        Order first = order(1L, new PendingOrderStatus(), "2025-06-01T12:00:00Z");
+        Order second = order(2L, new PendingOrderStatus(), "2025-06-01T12:05:00Z");
+        queue.recordCreated(first);
+        queue.recordCreated(second);
+
+        first.moveOrderForward();
+        queue.recordTransition(first);
+        second.cancelOrder();
+        queue.recordTransition(second);
+
+        assertTrue(queue.view("PENDING").isEmpty());
+        assertEquals(1, queue.view("CONFIRMED").size());
+        assertEquals("CONFIRMED", queue.view("CONFIRMED").get(0).status());
+        assertEquals(4, queue.views().size());
+    }
+
+    @Test
+    void view_rejectsStatusesOutsideTheKitchen() {
+        assertThrows(IllegalArgumentException.class, () -> queue.view("COMPLETED"));
+    }
+
+    @Test
+    void verify_rebuildsFromTheDatabaseWhenDrifted() {
+        queue.recordCreated(order(1L, new PendingOrderStatus(), "2025-06-01T12:00:00Z"));
+        Order confirmed = order(2L, new ConfirmedOrderStatus(), "2025-06-01T12:05:00Z");
+        List<ActiveOrderStatus> stored = List.of(stored(2L, new ConfirmedOrderStatus()));
+        when(orderRepository.findActiveStatuses(KitchenQueue.ACTIVE_ORDER_STATUSES)).thenReturn(stored);
+        when(orderRepository.findByStatusIn(KitchenQueue.ACTIVE_ORDER_STATUSES)).thenReturn(List.of(confirmed));
+
+        queue.verify();
+
+        assertTrue(queue.view("PENDING").isEmpty());
+        assertEquals(List.of(2L), queue.view("CONFIRMED").stream().map(OrderDetailsResponse::orderNumber).toList());
+    }
+
+    @Test
+    void verify_keepsTheQueueWhenInSync() {
+        queue.recordCreated(order(1L, new PendingOrderStatus(), "2025-06-01T12:00:00Z"));
+        List<ActiveOrderStatus> stored = List.of(stored(1L, new PendingOrderStatus()));
+        when(orderRepository.findActiveStatuses(KitchenQueue.ACTIVE_ORDER_STATUSES)).thenReturn(stored);
+
+        queue.verify();
+
+        verify(orderRepository, never()).findByStatusIn(any());
+        assertEquals(1, queue.view("PENDING").size());
+    }
+}
@@ -5,13 +5,21 @@ import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ConfirmedOrderStatus;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.User;
 import ar.uba.fi.ingsoft1.sistema_comedores.user.UserRepository;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,7 +29,6 @@ class OrderNotificationServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private OrderNotificationService notificationService;
 
     private User testUser;
@@ -30,6 +37,7 @@ class OrderNotificationServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        notificationService = new OrderNotificationService(userRepository, 2, 10);
 
         testUser = new User();
         testUser.setId(1L);
@@ -42,6 +50,63 @@ class OrderNotificationServiceTest {
         testOrder.setStatus(new ConfirmedOrderStatus());
     }
 
+    @AfterEach
+    void tearDown() {
+        notificationService.shutdown();
+    }
+
+    /**
+     * Records the order updates sent to it. Optionally blocks in the first send until released,
+     * like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Object> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile boolean failing;
+        private volatile boolean completed;
+
+        RecordingEmitter(boolean blocked) {
+            this.release = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(OrderStatusDTO.class::isInstance)
+                    .findFirst()
+                    .orElse("heartbeat"));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void awaitSending() throws InterruptedException {
+            assertTrue(sending.await(1, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
     @Test
     void testSubscribeCreatesEmitter() {
         SseEmitter emitter = notificationService.subscribe("test@example.com");
@@ -51,26 +116,120 @@ class OrderNotificationServiceTest {
     @Test
     void testNotifyStatusChangeSendsEvent() {
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
         SseEmitter emitter = notificationService.subscribe("test@example.com");
 
         assertDoesNotThrow(() -> notificationService.notifyStatusChange(testOrder));
 
         assertNotNull(emitter);
+        assertEquals(1, notificationService.getStats().connections());
     }
 
     @Test
     void testNoEmittersDoesNotThrow() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-
         assertDoesNotThrow(() -> notificationService.notifyStatusChange(testOrder));
     }
 
     @Test
-    void testNotifyStatusChangeUserNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+    void testSubscribeUserNotFound() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
 
+        SseEmitter emitter = notificationService.subscribe("test@example.com");
+        assertNotNull(emitter);
+        // Already completed, so nothing can be sent on it
+        assertThrows(IllegalStateException.class, () -> emitter.send("ping"));
         assertDoesNotThrow(() -> notificationService.notifyStatusChange(testOrder));
+        assertEquals(0, notificationService.getStats().connections());
+    }
+
+    @Test
+    void testNotifyStatusChangeDoesNotLookUpTheUser() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        notificationService.register(1L, "test@example.com", emitter);
+
+        notificationService.notifyStatusChange(testOrder);
+
+        await(() -> emitter.sent.size() == 1);
+        assertEquals(new OrderStatusDTO(123L, "CONFIRMED", "test@example.com"), emitter.sent.get(0));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testQueuedUpdatesOfTheSameOrderAreCoalesced() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(true);
+        notificationService.register(1L, "test@example.com", emitter);
+
+        notificationService.publish(1L, 10L, "CONFIRMED");
+        emitter.awaitSending();
+        notificationService.publish(1L, 11L, "CONFIRMED");
+        notificationService.publish(1L, 11L, "PREPARING");
+        notificationService.publish(1L, 11L, "READY");
+        assertEquals(1, notificationService.getStats().queuedEvents());
+        emitter.release.countDown();
+
+        await(() -> emitter.sent.size() == 2);
+        assertEquals(List.of(
+                new OrderStatusDTO(10L, "CONFIRMED", "test@example.com"),
+                new OrderStatusDTO(11L, "READY", "test@example.com")), emitter.sent);
+        NotificationStats stats = notificationService.getStats();
+        assertEquals(2, stats.delivered());
+        assertEquals(2, stats.coalesced());
+        assertEquals(0, stats.dropped());
+    }
+
+    @Test
+    void testConnectionWithAFullQueueIsEvicted() throws InterruptedException {
+        RecordingEmitter slow = new RecordingEmitter(true);
+        RecordingEmitter fast = new RecordingEmitter(false);
+        notificationService.register(1L, "test@example.com", slow);
+        notificationService.register(1L, "test@example.com", fast);
+
+        for (long orderNumber = 10; orderNumber <= 13; orderNumber++) {
+            int sent = fast.sent.size();
+            notificationService.publish(1L, orderNumber, "CONFIRMED");
+            await(() -> fast.sent.size() == sent + 1);
+        }
+
+        assertTrue(slow.completed);
+        NotificationStats stats = notificationService.getStats();
+        assertEquals(1, stats.connections());
+        assertEquals(1, stats.evicted());
+        assertEquals(3, stats.dropped());
+        slow.release.countDown();
+    }
+
+    @Test
+    void testHeartbeatEvictsStalledConnectionsAndPingsTheOthers() throws InterruptedException {
+        RecordingEmitter stalled = new RecordingEmitter(true);
+        RecordingEmitter idle = new RecordingEmitter(false);
+        notificationService.register(1L, "test@example.com", stalled);
+        notificationService.register(2L, "other@example.com", idle);
+
+        notificationService.publish(1L, 10L, "CONFIRMED");
+        stalled.awaitSending();
+        Thread.sleep(20);
+        notificationService.heartbeat();
+
+        assertTrue(stalled.completed);
+        await(() -> idle.sent.equals(List.of("heartbeat")));
+        assertEquals(1, notificationService.getStats().connections());
+        assertEquals(1, notificationService.getStats().evicted());
+        stalled.release.countDown();
+    }
+
+    @Test
+    void testFailedSendEvictsTheConnection() throws InterruptedException {
+        RecordingEmitter dead = new RecordingEmitter(false);
+        dead.failing = true;
+        notificationService.register(1L, "test@example.com", dead);
+
+        notificationService.publish(1L, 10L, "CONFIRMED");
+
+        await(() -> dead.completed);
+        NotificationStats stats = notificationService.getStats();
+        assertEquals(0, stats.connections());
+        assertEquals(1, stats.dropped());
+        assertEquals(0, stats.delivered());
     }
 }
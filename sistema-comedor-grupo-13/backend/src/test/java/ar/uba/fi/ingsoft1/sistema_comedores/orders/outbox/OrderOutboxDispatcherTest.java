@@ -0,0 +1,160 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.analytics.PrepTimeAnalytics;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.notifications.OrderNotificationService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ConfirmedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEvent;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.history.OrderStatusUpdateEventRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderOutboxDispatcherTest {
+
+    @Mock
+    private OrderOutboxRepository outboxRepository;
+
+    @Mock
+    private OrderStatusUpdateEventRepository historyRepository;
+
+    @Mock
+    private OrderNotificationService notificationService;
+
+    @Mock
+    private PrepTimeAnalytics prepTimeAnalytics;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        dispatcher = new OrderOutboxDispatcher(outboxRepository, historyRepository, notificationService,
+                prepTimeAnalytics, entityManager, transactionManager, 100, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    private OrderOutboxEvent event(long id, long orderNumber, String reason) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setId(id);
+        event.setOrderNumber(orderNumber);
+        event.setUserId(7L);
+        event.setPreviousStatus(new PendingOrderStatus());
+        event.setNewStatus(new ConfirmedOrderStatus());
+        event.setChangeReason(reason);
+        event.setNotifyCustomer(true);
+        event.setOccurredAt(Instant.parse("2025-06-01T12:00:00Z"));
+        event.setNextAttemptAt(event.getOccurredAt());
+        return event;
+    }
+
+    private void givenPending(OrderOutboxEvent... events) {
+        Map<Long, OrderOutboxEvent> byId = List.of(events).stream()
+                .collect(Collectors.toMap(OrderOutboxEvent::getId, Function.identity()));
+        when(outboxRepository.findDispatchableIds(anyInt(), any(), any()))
+                .thenReturn(byId.keySet().stream().sorted().toList())
+                .thenReturn(List.of());
+        when(outboxRepository.lockAllByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(byId::get).toList();
+        });
+        when(outboxRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(byId.get(invocation.<Long>getArgument(0))));
+    }
+
+    @Test
+    void dispatchPending_projectsHistoryDeletesEventsAndNotifies() {
+        OrderOutboxEvent event = event(1L, 42L, null);
+        givenPending(event);
+
+        dispatcher.dispatchPending();
+
+        ArgumentCaptor<List<OrderStatusUpdateEvent>> history = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).saveAll(history.capture());
+        OrderStatusUpdateEvent projected = history.getValue().get(0);
+        assertEquals(event.getOccurredAt(), projected.getChangedAt());
+        assertEquals("CONFIRMED", projected.getNewStatus().getStatusCode());
+        verify(outboxRepository).deleteAllInBatch(List.of(event));
+        verify(prepTimeAnalytics).record(42L, "CONFIRMED", event.getOccurredAt());
+        verify(notificationService).publish(7L, 42L, "CONFIRMED");
+    }
+
+    @Test
+    void dispatchPending_retriesFailedEventsOneByOneWithBackoff() {
+        OrderOutboxEvent healthy = event(1L, 42L, null);
+        OrderOutboxEvent failing = event(2L, 43L, "boom");
+        givenPending(healthy, failing);
+        doAnswer(invocation -> {
+            Iterable<OrderStatusUpdateEvent> history = invocation.getArgument(0);
+            for (OrderStatusUpdateEvent projected : history) {
+                if ("boom".equals(projected.getChangeReason())) {
+                    throw new IllegalStateException("history insert failed");
+                }
+            }
+            return history;
+        }).when(historyRepository).saveAll(any());
+
+        Instant before = Instant.now();
+        dispatcher.dispatchPending();
+
+        verify(outboxRepository).deleteAllInBatch(List.of(healthy));
+        verify(outboxRepository, never()).deleteAllInBatch(List.of(failing));
+        assertEquals(0, healthy.getAttempts());
+        assertEquals(1, failing.getAttempts());
+        assertEquals("history insert failed", failing.getLastError());
+        assertTrue(failing.getNextAttemptAt().isAfter(before));
+        verify(notificationService).publish(7L, 42L, "CONFIRMED");
+        verify(notificationService, never()).publish(anyLong(), eq(43L), anyString());
+    }
+
+    @Test
+    void dispatchPending_keepsDeliveringTheBatchWhenASideEffectFails() {
+        OrderOutboxEvent first = event(1L, 42L, null);
+        OrderOutboxEvent second = event(2L, 43L, null);
+        givenPending(first, second);
+        doThrow(new IllegalStateException("analytics down")).when(prepTimeAnalytics).record(eq(42L), anyString(), any());
+        doThrow(new IllegalStateException("sse down")).when(notificationService).publish(7L, 42L, "CONFIRMED");
+
+        dispatcher.dispatchPending();
+
+        verify(outboxRepository).deleteAllInBatch(List.of(first, second));
+        verify(prepTimeAnalytics).record(43L, "CONFIRMED", second.getOccurredAt());
+        verify(notificationService).publish(7L, 43L, "CONFIRMED");
+        // The events were already projected; they are not retried
+        verify(outboxRepository, times(1)).lockAllByIdIn(anyCollection());
+        assertEquals(0, first.getAttempts());
+    }
+}
@@ -0,0 +1,79 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.outbox;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.ConfirmedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderOutboxServiceTest {
+
+    @Autowired
+    private OrderOutboxService outboxService;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAllInBatch();
+    }
+
+    private OrderOutboxEvent event(int attempts) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderNumber(42L);
+        event.setUserId(7L);
+        event.setPreviousStatus(new PendingOrderStatus());
+        event.setNewStatus(new ConfirmedOrderStatus());
+        event.setNotifyCustomer(true);
+        event.setOccurredAt(Instant.parse("2025-06-01T12:00:00Z"));
+        event.setNextAttemptAt(Instant.now().plusSeconds(3600));
+        event.setAttempts(attempts);
+        return outboxRepository.save(event);
+    }
+
+    @Test
+    void stats_countsPendingAndExhaustedEvents() {
+        event(0);
+        event(OrderOutboxDispatcher.MAX_ATTEMPTS - 1);
+        event(OrderOutboxDispatcher.MAX_ATTEMPTS);
+
+        OrderOutboxStats stats = outboxService.stats();
+
+        assertEquals(2, stats.pending());
+        assertEquals(1, stats.exhausted());
+        assertEquals(OrderOutboxDispatcher.MAX_ATTEMPTS, stats.maxAttempts());
+    }
+
+    @Test
+    void replayExhausted_makesTheExhaustedEventsDueAgain() {
+        OrderOutboxEvent retrying = event(3);
+        OrderOutboxEvent exhausted = event(OrderOutboxDispatcher.MAX_ATTEMPTS);
+        Instant before = Instant.now();
+
+        assertEquals(1, outboxService.replayExhausted());
+        entityManager.clear();
+
+        OrderOutboxEvent replayed = outboxRepository.findById(exhausted.getId()).orElseThrow();
+        assertEquals(0, replayed.getAttempts());
+        assertFalse(replayed.getNextAttemptAt().isAfter(Instant.now()));
+        assertFalse(replayed.getNextAttemptAt().isBefore(before.minusSeconds(1)));
+        assertEquals(3, outboxRepository.findById(retrying.getId()).orElseThrow().getAttempts());
+        assertEquals(0, outboxService.stats().exhausted());
+    }
+}
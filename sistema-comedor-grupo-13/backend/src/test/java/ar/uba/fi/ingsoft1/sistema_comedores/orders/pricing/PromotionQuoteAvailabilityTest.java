@@ -0,0 +1,50 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderService;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.ProductNotAvailableException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PromotionQuoteAvailabilityTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void calculateAppliablePromotions_rejectsACachedCartOnceAProductIsDeactivated() {
+        String name = "Producto_" + UUID.randomUUID().toString().substring(0, 8);
+        Long id = productRepository.save(new SimpleProduct(name, "Producto de prueba", new BigDecimal("100.00"),
+                ProductCategory.DRINK, true, 10)).getId();
+        List<OrderItemRequest> cart = List.of(new OrderItemRequest(id, 2));
+
+        orderService.calculateAppliablePromotions(cart);
+        long hits = orderService.getPromotionQuoteCacheStats().hits();
+        orderService.calculateAppliablePromotions(cart);
+        assertEquals(hits + 1, orderService.getPromotionQuoteCacheStats().hits());
+
+        productService.deactivateProduct(id, "Sin proveedor");
+
+        assertThrows(ProductNotAvailableException.class, () -> orderService.calculateAppliablePromotions(cart));
+    }
+}
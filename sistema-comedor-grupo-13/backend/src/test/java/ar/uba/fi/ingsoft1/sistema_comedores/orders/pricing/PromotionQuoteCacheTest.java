@@ -0,0 +1,165 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.pricing;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.OrderItemRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.dto.promotion.CalculatePromotionResponse;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCatalogVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductPriceVersion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalog;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog.PromotionCatalogRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PromotionQuoteCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private ProductPriceVersion priceVersion;
+
+    @Mock
+    private ProductCatalogVersion productVersion;
+
+    @Mock
+    private PromotionCatalogRegistry catalogRegistry;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-02T15:00:00Z"));
+    private final AtomicInteger calculations = new AtomicInteger();
+    private PromotionQuoteCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(priceVersion.current()).thenReturn(0L);
+        when(productVersion.current()).thenReturn(0L);
+        when(catalogRegistry.active()).thenReturn(PromotionCatalog.of(1, TODAY, List.of()));
+        cache = new PromotionQuoteCache(priceVersion, productVersion, catalogRegistry, 2, 60_000, clock);
+    }
+
+    private CalculatePromotionResponse calculate(List<OrderItemRequest> items) {
+        return cache.get(items, () -> {
+            calculations.incrementAndGet();
+            return new CalculatePromotionResponse(BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.TEN, false, List.of());
+        });
+    }
+
+    @Test
+    void get_reusesTheResultForTheSameCartInAnyOrder() {
+        CalculatePromotionResponse first = calculate(List.of(new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 1)));
+        CalculatePromotionResponse second = calculate(List.of(new OrderItemRequest(2L, 1), new OrderItemRequest(1L, 1),
+                new OrderItemRequest(1L, 1)));
+
+        assertSame(first, second);
+        assertEquals(1, calculations.get());
+    }
+
+    @Test
+    void get_recalculatesAfterAPriceOrPromotionChange() {
+        List<OrderItemRequest> cart = List.of(new OrderItemRequest(1L, 2));
+        calculate(cart);
+
+        when(priceVersion.current()).thenReturn(1L);
+        calculate(cart);
+        calculate(cart);
+
+        when(catalogRegistry.active()).thenReturn(PromotionCatalog.of(2, TODAY, List.of()));
+        calculate(cart);
+
+        assertEquals(3, calculations.get());
+        assertEquals(2, cache.stats().invalidations());
+    }
+
+    @Test
+    void get_recalculatesAfterAProductChange() {
+        List<OrderItemRequest> cart = List.of(new OrderItemRequest(1L, 2));
+        calculate(cart);
+
+        // Deactivations and stock changes move the product catalog version
+        when(productVersion.current()).thenReturn(1L);
+        calculate(cart);
+        calculate(cart);
+
+        assertEquals(2, calculations.get());
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void get_recalculatesExpiredEntries() {
+        List<OrderItemRequest> cart = List.of(new OrderItemRequest(1L, 2));
+        calculate(cart);
+
+        clock.advance(Duration.ofSeconds(59));
+        calculate(cart);
+        clock.advance(Duration.ofSeconds(1));
+        calculate(cart);
+
+        assertEquals(2, calculations.get());
+    }
+
+    @Test
+    void get_evictsTheLeastRecentlyUsedCart() {
+        List<OrderItemRequest> first = List.of(new OrderItemRequest(1L, 1));
+        List<OrderItemRequest> second = List.of(new OrderItemRequest(2L, 1));
+        List<OrderItemRequest> third = List.of(new OrderItemRequest(3L, 1));
+
+        calculate(first);
+        calculate(second);
+        calculate(first);
+        calculate(third);
+        calculate(first);
+        calculate(second);
+
+        assertEquals(4, calculations.get());
+        PromotionQuoteCacheStats stats = cache.stats();
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2.0 / 6, stats.hitRate(), 1e-9);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.orders.stats;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.CompletedOrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.OrderStatus;
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.status.PendingOrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatsRegistryTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderStatsRegistry registry;
+
+    private OrderStatusSummary summary(OrderStatus status, long count, String subtotal) {
+        OrderStatusSummary summary = mock(OrderStatusSummary.class);
+        when(summary.getStatus()).thenReturn(status);
+        when(summary.getOrderCount()).thenReturn(count);
+        when(summary.getSubtotalSum()).thenReturn(new BigDecimal(subtotal));
+        return summary;
+    }
+
+    @Test
+    void recordCreatedAndTransition_moveCountsAndSubtotals() {
+        registry.recordCreated("PENDING", new BigDecimal("100.00"));
+        registry.recordCreated("PENDING", new BigDecimal("50.00"));
+        registry.recordTransition("PENDING", "CONFIRMED", new BigDecimal("100.00"));
+
+        Map<String, StatusTotals> totals = registry.snapshot();
+
+        assertEquals(1, totals.get("PENDING").count());
+        assertEquals(0, new BigDecimal("50.00").compareTo(totals.get("PENDING").subtotal()));
+        assertEquals(1, totals.get("CONFIRMED").count());
+        assertEquals(0, new BigDecimal("100.00").compareTo(totals.get("CONFIRMED").subtotal()));
+    }
+
+    @Test
+    void recordTransition_ignoresSameStatus() {
+        registry.recordCreated("PENDING", BigDecimal.TEN);
+        registry.recordTransition("PENDING", "PENDING", BigDecimal.TEN);
+
+        assertEquals(1, registry.snapshot().get("PENDING").count());
+    }
+
+    @Test
+    void reconcile_replacesCountersWithDatabaseAggregation() {
+        registry.recordCreated("PENDING", BigDecimal.TEN);
+        List<OrderStatusSummary> rows = List.of(
+                summary(new PendingOrderStatus(), 3, "30.00"),
+                summary(new CompletedOrderStatus(), 2, "45.50"));
+        when(orderRepository.summarizeByStatus()).thenReturn(rows);
+
+        registry.reconcile();
+
+        Map<String, StatusTotals> totals = registry.snapshot();
+        assertEquals(3, totals.get("PENDING").count());
+        assertEquals(2, totals.get("COMPLETED").count());
+        assertEquals(0, new BigDecimal("45.50").compareTo(totals.get("COMPLETED").subtotal()));
+    }
+
+    @Test
+    void reconcile_keepsChangesAppliedWhileTheQueryRuns() {
+        registry.recordCreated("PENDING", BigDecimal.TEN);
+        List<OrderStatusSummary> rows = List.of(summary(new PendingOrderStatus(), 3, "30.00"));
+        when(orderRepository.summarizeByStatus()).thenAnswer(invocation -> {
+            // Committed after the query read the table
+            registry.recordCreated("PENDING", new BigDecimal("5.00"));
+            registry.recordTransition("PENDING", "COMPLETED", BigDecimal.TEN);
+            return rows;
+        });
+
+        registry.reconcile();
+
+        Map<String, StatusTotals> totals = registry.snapshot();
+        assertEquals(3, totals.get("PENDING").count());
+        assertEquals(0, new BigDecimal("25.00").compareTo(totals.get("PENDING").subtotal()));
+        assertEquals(1, totals.get("COMPLETED").count());
+        assertEquals(0, BigDecimal.TEN.compareTo(totals.get("COMPLETED").subtotal()));
+    }
+}
@@ -0,0 +1,296 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.ingredients.Ingredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.Combo;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.combos.ComboProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ElaborateProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.elaborate.ProductIngredient;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockGraphTest {
+
+    private static final int INGREDIENTS = 300;
+    private static final int SIMPLE_PRODUCTS = 500;
+    private static final int ELABORATE_PRODUCTS = 3_000;
+    private static final int COMBOS = 1_000;
+
+    /**
+     * Synthetic catalog kept both as entities wired with observers and as a stock graph,
+     * together with the rows the graph would write.
+     */
+    private static final class Catalog {
+        final List<Ingredient> ingredients = new ArrayList<>();
+        final List<SimpleProduct> simpleProducts = new ArrayList<>();
+        final List<Product> derived = new ArrayList<>();
+        StockGraph.Values values;
+        final Map<Long, Integer> storedStock = new HashMap<>();
+        final Map<Long, Boolean> storedAvailable = new HashMap<>();
+        StockGraph graph;
+
+        void apply(StockGraph.Changes changes) {
+            for (StockGraph.ProductRow row : changes.products()) {
+                storedStock.put(row.id(), row.stock());
+                storedAvailable.put(row.id(), row.available());
+            }
+        }
+    }
+
+    private static Ingredient ingredient(long id, String stock) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName("Ingrediente " + id);
+        ingredient.updateStockAndNotify(new BigDecimal(stock));
+        return ingredient;
+    }
+
+    private static SimpleProduct simpleProduct(long id, int stock) {
+        SimpleProduct product = new SimpleProduct("Simple " + id, "", BigDecimal.TEN, ProductCategory.DRINK, true, stock);
+        product.setId(id);
+        return product;
+    }
+
+    private static ElaborateProduct elaborateProduct(long id) {
+        ElaborateProduct product = new ElaborateProduct("Elaborado " + id, "", BigDecimal.TEN,
+                ProductCategory.MAIN_COURSE, true);
+        product.setId(id);
+        return product;
+    }
+
+    private static Combo combo(long id) {
+        Combo combo = new Combo("Combo " + id, "", BigDecimal.TEN, true);
+        combo.setId(id);
+        return combo;
+    }
+
+    private static Catalog catalog(long seed) {
+        Random random = new Random(seed);
+        Catalog catalog = new Catalog();
+        StockGraph.Builder builder = StockGraph.builder();
+
+        for (long id = 1; id <= INGREDIENTS; id++) {
+            catalog.ingredients.add(ingredient(id, random.nextInt(20_000) + "." + random.nextInt(1_000)));
+        }
+        long productId = 1;
+        for (int i = 0; i < SIMPLE_PRODUCTS; i++) {
+            catalog.simpleProducts.add(simpleProduct(productId++, random.nextInt(200)));
+        }
+        List<Product> components = new ArrayList<>(catalog.simpleProducts);
+        for (int i = 0; i < ELABORATE_PRODUCTS; i++) {
+            ElaborateProduct product = elaborateProduct(productId++);
+            int lines = 2 + random.nextInt(5);
+            for (int line = 0; line < lines; line++) {
+                Ingredient ingredient = catalog.ingredients.get(random.nextInt(INGREDIENTS));
+                if (!product.hasIngredient(ingredient)) {
+                    product.addIngredient(ingredient, BigDecimal.valueOf(1 + random.nextInt(2_000), 3));
+                }
+            }
+            catalog.derived.add(product);
+            components.add(product);
+        }
+        for (int i = 0; i < COMBOS; i++) {
+            Combo combo = combo(productId++);
+            int lines = 2 + random.nextInt(3);
+            for (int line = 0; line < lines; line++) {
+                combo.addProduct(components.get(random.nextInt(components.size())), 1 + random.nextInt(3));
+            }
+            catalog.derived.add(combo);
+        }
+        for (int i = 0; i < ELABORATE_PRODUCTS / 20; i++) {
+            catalog.derived.get(random.nextInt(ELABORATE_PRODUCTS)).handleDeactivation();
+        }
+
+        for (Product product : catalog.derived) {
+            if (product instanceof ElaborateProduct elaborate) {
+                for (ProductIngredient line : elaborate.getProductIngredients()) {
+                    builder.ingredient(product.getId(), line.getIngredient().getId(), line.getQuantity());
+                }
+            } else if (product instanceof Combo combo) {
+                for (ComboProduct line : combo.getComboProducts()) {
+                    builder.component(product.getId(), line.getProduct().getId(), line.getQuantity());
+                }
+            }
+        }
+        catalog.graph = builder.build();
+        catalog.values = catalog.graph.values();
+
+        for (Ingredient ingredient : catalog.ingredients) {
+            catalog.values.ingredient(ingredient.getId(), ingredient.getStock(), ingredient.isActive(),
+                    ingredient.isAvailable());
+        }
+        List<Product> products = new ArrayList<>(catalog.simpleProducts);
+        products.addAll(catalog.derived);
+        for (Product product : products) {
+            catalog.values.product(product.getId(), product.getStock(), product.isActive(), product.isAvailable());
+            catalog.storedStock.put(product.getId(), product.getStock());
+            catalog.storedAvailable.put(product.getId(), product.isAvailable());
+        }
+        return catalog;
+    }
+
+    private static BigDecimal randomStock(Random random) {
+        return random.nextInt(5) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextInt(20_000_000), 3);
+    }
+
+    private static StockGraph.Changes updateIngredient(Catalog catalog, Ingredient ingredient, BigDecimal stock) {
+        catalog.values.ingredient(ingredient.getId(), stock, ingredient.isActive(), ingredient.isAvailable());
+        return catalog.graph.propagate(catalog.values, List.of(ingredient.getId()), List.of());
+    }
+
+    @Test
+    void propagate_matchesTheEntityObservers() {
+        Catalog catalog = catalog(7);
+        Random random = new Random(11);
+
+        for (int update = 0; update < 500; update++) {
+            if (random.nextInt(4) == 0) {
+                SimpleProduct product = catalog.simpleProducts.get(random.nextInt(SIMPLE_PRODUCTS));
+                int stock = random.nextInt(3) == 0 ? 0 : random.nextInt(200);
+                catalog.values.product(product.getId(), stock, product.isActive(), product.isAvailable());
+                catalog.apply(catalog.graph.propagate(catalog.values, List.of(), List.of(product.getId())));
+                product.updateStockAndNotify(stock);
+            } else {
+                Ingredient ingredient = catalog.ingredients.get(random.nextInt(INGREDIENTS));
+                BigDecimal stock = randomStock(random);
+                catalog.apply(updateIngredient(catalog, ingredient, stock));
+                ingredient.updateStockAndNotify(stock);
+            }
+
+            for (Product product : catalog.derived) {
+                assertEquals(product.getStock(), catalog.storedStock.get(product.getId()),
+                        "stock of " + product.getName() + " after update " + update);
+                assertEquals(product.isAvailable(), catalog.storedAvailable.get(product.getId()),
+                        "availability of " + product.getName() + " after update " + update);
+            }
+        }
+    }
+
+    @Test
+    void propagate_onlyWritesTheRowsThatChanged() {
+        StockGraph graph = StockGraph.builder()
+                .ingredient(10, 1, new BigDecimal("0.500"))
+                .ingredient(11, 2, new BigDecimal("1"))
+                .component(30, 10, 1)
+                .component(30, 20, 2)
+                .component(31, 11, 1)
+                .build();
+        StockGraph.Values values = graph.values();
+        values.ingredient(1, new BigDecimal("2.000"), true, true);
+        values.ingredient(2, new BigDecimal("3.000"), true, true);
+        values.product(10, 4, true, true);
+        values.product(11, 3, true, true);
+        values.product(20, 10, true, true);
+        values.product(30, 4, true, true);
+        values.product(31, 3, true, true);
+
+        assertEquals(Set.of(10L, 30L), graph.affectedBy(List.of(1L), List.of()));
+
+        values.ingredient(1, new BigDecimal("1.200"), true, true);
+        StockGraph.Changes changes = graph.propagate(values, List.of(1L), List.of());
+        assertEquals(List.of(new StockGraph.ProductRow(10, 2, true), new StockGraph.ProductRow(30, 2, true)),
+                changes.products());
+        assertTrue(changes.ingredients().isEmpty());
+
+        // The simple product still covers two combos, so nothing derived changes
+        values.product(20, 4, true, true);
+        assertTrue(graph.propagate(values, List.of(), List.of(20L)).isEmpty());
+
+        values.ingredient(1, BigDecimal.ZERO, true, true);
+        changes = graph.propagate(values, List.of(1L), List.of());
+        assertEquals(List.of(new StockGraph.IngredientRow(1, false)), changes.ingredients());
+        assertEquals(List.of(new StockGraph.ProductRow(10, 0, false), new StockGraph.ProductRow(30, 0, false)),
+                changes.products());
+    }
+
+    @Test
+    void propagate_recalculatesNestedCombosAfterTheirComponents() {
+        StockGraph graph = StockGraph.builder()
+                .component(40, 30, 1)
+                .component(40, 20, 1)
+                .component(30, 10, 2)
+                .ingredient(10, 1, new BigDecimal("1"))
+                .build();
+        StockGraph.Values values = graph.values();
+        values.ingredient(1, new BigDecimal("8"), true, true);
+        values.product(10, 8, true, true);
+        values.product(20, 10, true, true);
+        values.product(30, 4, true, true);
+        values.product(40, 4, true, true);
+
+        values.ingredient(1, new BigDecimal("4"), true, true);
+        StockGraph.Changes changes = graph.propagate(values, List.of(1L), List.of());
+
+        assertEquals(List.of(new StockGraph.ProductRow(10, 4, true), new StockGraph.ProductRow(30, 2, true),
+                new StockGraph.ProductRow(40, 2, true)), changes.products());
+    }
+
+    @Test
+    void propagate_leavesInactiveProductsUntouched() {
+        StockGraph graph = StockGraph.builder()
+                .ingredient(10, 1, new BigDecimal("1"))
+                .component(30, 10, 1)
+                .build();
+        StockGraph.Values values = graph.values();
+        values.ingredient(1, new BigDecimal("5"), true, true);
+        values.product(10, 5, false, false);
+        values.product(30, 0, true, false);
+
+        values.ingredient(1, new BigDecimal("2"), true, true);
+
+        assertTrue(graph.propagate(values, List.of(1L), List.of()).isEmpty());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_costPerIngredientUpdate() {
+        Catalog graphCatalog = catalog(3);
+        Catalog entityCatalog = catalog(3);
+        int updates = 5_000;
+
+        // Untimed round first, so neither side is measured before the JIT has compiled it
+        long rows = updateWithGraph(graphCatalog, updates, new Random(7));
+        updateWithObservers(entityCatalog, updates, new Random(7));
+
+        long graphStart = System.nanoTime();
+        rows += updateWithGraph(graphCatalog, updates, new Random(5));
+        long graphNanos = System.nanoTime() - graphStart;
+
+        long entityStart = System.nanoTime();
+        updateWithObservers(entityCatalog, updates, new Random(5));
+        long entityNanos = System.nanoTime() - entityStart;
+
+        assertEquals(ELABORATE_PRODUCTS + COMBOS, graphCatalog.graph.size());
+        assertTrue(rows > 0);
+        assertTrue(graphNanos < entityNanos, "graph " + graphNanos / updates + " ns/update, "
+                + "entity observers " + entityNanos / updates + " ns/update");
+    }
+
+    private long updateWithGraph(Catalog catalog, int updates, Random random) {
+        long rows = 0;
+        for (int i = 0; i < updates; i++) {
+            Ingredient ingredient = catalog.ingredients.get(random.nextInt(INGREDIENTS));
+            rows += updateIngredient(catalog, ingredient, randomStock(random)).products().size();
+        }
+        return rows;
+    }
+
+    private void updateWithObservers(Catalog catalog, int updates, Random random) {
+        for (int i = 0; i < updates; i++) {
+            Ingredient ingredient = catalog.ingredients.get(random.nextInt(INGREDIENTS));
+            ingredient.updateStockAndNotify(randomStock(random));
+        }
+    }
+}
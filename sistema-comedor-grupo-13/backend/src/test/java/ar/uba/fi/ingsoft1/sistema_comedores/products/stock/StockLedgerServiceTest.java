@@ -0,0 +1,136 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.dto.UpdateSimpleProductStockRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerServiceTest {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private Long createProduct(int stock) {
+        String name = "Producto_" + UUID.randomUUID().toString().substring(0, 8);
+        return productRepository.save(new SimpleProduct(name, "Producto de prueba", new BigDecimal("100.00"),
+                ProductCategory.DRINK, true, stock)).getId();
+    }
+
+    private long storedStock(Long id) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Long.class, id);
+    }
+
+    private long available(Long id) {
+        return stockLedgerService.getAvailable(StockKey.simpleProduct(id)).longValueExact();
+    }
+
+    private void order(Long id, int quantity, boolean rollback) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findById(id).orElseThrow();
+            stockLedgerService.reserve(Map.of(product, quantity));
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    @Test
+    void reserve_writesTheStockInTheOrderTransaction() {
+        Long id = createProduct(10);
+
+        order(id, 3, false);
+        assertEquals(7, storedStock(id));
+        assertEquals(7, available(id));
+
+        order(id, 2, true);
+        assertEquals(7, storedStock(id));
+        assertEquals(7, available(id));
+    }
+
+    @Test
+    void overwriteDuringConcurrentOrders_leavesTheLedgerEqualToTheStoredStock() throws Exception {
+        Long id = createProduct(1_000);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        order(id, 1, false);
+                        placed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Lock timeouts roll the order back, which must leave the ledger consistent too
+                    }
+                }
+                return null;
+            }));
+        }
+        tasks.add(executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 20; i++) {
+                productService.changeSimpleProductStock(id, new UpdateSimpleProductStockRequest(500 + i));
+                Thread.sleep(2);
+            }
+            return null;
+        }));
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        assertTrue(placed.get() > 0);
+        assertEquals(storedStock(id), available(id));
+    }
+}
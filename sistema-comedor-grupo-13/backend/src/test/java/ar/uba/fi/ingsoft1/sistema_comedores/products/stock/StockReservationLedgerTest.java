@@ -0,0 +1,153 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReservationLedgerTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+    private final StockReservationLedger ledger = new StockReservationLedger();
+
+    private interface Attempt {
+        boolean run(int thread, int attempt);
+    }
+
+    private int runConcurrently(Attempt attempt) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (attempt.run(thread, i)) {
+                        successes.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        return successes.get();
+    }
+
+    @Test
+    void reserve_neverOversellsASingleKey() throws InterruptedException {
+        StockKey key = StockKey.simpleProduct(1L);
+        ledger.overwrite(key, 1_000);
+
+        int successes = runConcurrently((thread, i) -> ledger.reserve(Map.of(key, 1L)).isEmpty());
+
+        assertEquals(1_000, successes);
+        assertEquals(0, ledger.available(key));
+        ledger.commit(Map.of(key, 1_000L));
+        assertEquals(0, ledger.available(key));
+    }
+
+    @Test
+    void reserve_appliesMultiKeyOrdersAllOrNothing() throws InterruptedException {
+        StockKey bread = StockKey.ingredient(1L);
+        StockKey meat = StockKey.ingredient(2L);
+        StockKey soda = StockKey.simpleProduct(3L);
+        ledger.overwrite(bread, bread.toUnits(new BigDecimal("500")));
+        ledger.overwrite(meat, meat.toUnits(new BigDecimal("60")));
+        ledger.overwrite(soda, 700);
+
+        long breadPerOrder = bread.toUnits(BigDecimal.ONE);
+        long meatPerOrder = meat.toUnits(new BigDecimal("0.15"));
+
+        int successes = runConcurrently((thread, i) -> {
+            Map<StockKey, Long> demand = thread % 2 == 0
+                    ? Map.of(bread, breadPerOrder, meat, meatPerOrder, soda, 1L)
+                    : Map.of(bread, breadPerOrder, meat, meatPerOrder);
+            return ledger.reserve(demand).isEmpty();
+        });
+
+        // 60 kg of meat at 0.15 kg per order limits the run to 400 orders.
+        assertEquals(400, successes);
+        assertEquals(bread.toUnits(new BigDecimal("100")), ledger.available(bread));
+        assertEquals(0, ledger.available(meat));
+        assertTrue(ledger.available(soda) >= 300);
+    }
+
+    @Test
+    void cancel_restoresTheAvailabilityOfARolledBackReservation() {
+        StockKey key = StockKey.simpleProduct(1L);
+        ledger.overwrite(key, 10);
+
+        assertTrue(ledger.reserve(Map.of(key, 4L)).isEmpty());
+        assertEquals(6, ledger.available(key));
+        ledger.cancel(Map.of(key, 4L));
+
+        assertEquals(10, ledger.available(key));
+    }
+
+    @Test
+    void overwrite_keepsReservationsStillInFlight() {
+        StockKey key = StockKey.simpleProduct(1L);
+        ledger.overwrite(key, 10);
+        assertTrue(ledger.reserve(Map.of(key, 4L)).isEmpty());
+
+        // A manual stock set commits before the order: the order's "stock - 4" lands on it
+        ledger.overwrite(key, 20);
+        assertEquals(16, ledger.available(key));
+        ledger.commit(Map.of(key, 4L));
+        assertEquals(16, ledger.available(key));
+
+        ledger.restock(Map.of(key, 4L));
+        assertEquals(20, ledger.available(key));
+    }
+
+    @Test
+    void reserve_reportsShortfallsWithoutTouchingOtherKeys() {
+        StockKey enough = StockKey.simpleProduct(1L);
+        StockKey scarce = StockKey.simpleProduct(2L);
+        ledger.overwrite(enough, 10);
+        ledger.overwrite(scarce, 1);
+
+        assertEquals(java.util.Set.of(scarce), ledger.reserve(Map.of(enough, 5L, scarce, 2L)));
+        assertEquals(10, ledger.available(enough));
+        assertEquals(1, ledger.available(scarce));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughput_comparedWithEntityReadModifyWrite() throws InterruptedException {
+        StockKey key = StockKey.simpleProduct(1L);
+        int totalAttempts = THREADS * ATTEMPTS_PER_THREAD;
+        ledger.overwrite(key, totalAttempts);
+
+        int ledgerOrders = runConcurrently((thread, i) -> ledger.reserve(Map.of(key, 1L)).isEmpty());
+
+        // Current path: consumeStock on a shared entity, serialized like the row it maps to.
+        SimpleProduct product = new SimpleProduct("Coca Cola", "", BigDecimal.TEN, ProductCategory.DRINK, true, totalAttempts);
+        int entityOrders = runConcurrently((thread, i) -> {
+            synchronized (product) {
+                product.consumeStock(1);
+                return true;
+            }
+        });
+
+        assertEquals(totalAttempts, ledgerOrders);
+        assertEquals(totalAttempts, entityOrders);
+        assertEquals(0, ledger.available(key));
+        assertEquals(0, product.getStock());
+    }
+}
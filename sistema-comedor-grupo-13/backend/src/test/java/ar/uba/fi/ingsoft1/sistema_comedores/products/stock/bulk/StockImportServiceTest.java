@@ -0,0 +1,199 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.products.stock.bulk;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.exception.InvalidStockImportException;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockKey;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockLedgerService;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.stock.StockPropagationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockImportServiceTest {
+
+    private static final String INGREDIENT_UPDATE =
+            "UPDATE ingredient SET stock = ?, available = (active AND ? > 0) WHERE id = ?";
+    private static final String PRODUCT_UPDATE =
+            "UPDATE products SET stock = ?, available = (active AND ? > 0), updated_at = ? WHERE id = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private StockPropagationService propagationService;
+
+    // id -> {name, stock}
+    private final Map<Long, Object[]> ingredients = Map.of(
+            1L, new Object[]{"Harina, 000", new BigDecimal("2.000")},
+            2L, new Object[]{"Tomate", new BigDecimal("10.000")});
+    private final Map<Long, Object[]> products = Map.of(
+            10L, new Object[]{"Agua", new BigDecimal("4")});
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            List<Object> values = Arrays.asList(invocation.getArguments()).subList(2, invocation.getArguments().length);
+            Map<Long, Object[]> table = sql.contains("FROM ingredient") ? ingredients : products;
+            boolean byId = sql.contains("id IN");
+            for (Map.Entry<Long, Object[]> entry : table.entrySet()) {
+                if (values.contains(byId ? entry.getKey() : entry.getValue()[0])) {
+                    handler.processRow(row(entry.getKey(), entry.getValue()));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static ResultSet row(long id, Object[] values) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("name")).thenReturn((String) values[0]);
+        when(rs.getBigDecimal("stock")).thenReturn((BigDecimal) values[1]);
+        return rs;
+    }
+
+    private StockImportService service(int chunkSize) {
+        Clock clock = Clock.fixed(Instant.parse("2025-05-01T10:00:00Z"), ZoneOffset.UTC);
+        return new StockImportService(jdbcTemplate, transactionManager, stockLedgerService, propagationService,
+                new ObjectMapper(), chunkSize, clock);
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batch(String sql) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(sql), rows.capture());
+        List<Object[]> all = new ArrayList<>();
+        rows.getAllValues().forEach(all::addAll);
+        return all;
+    }
+
+    @Test
+    void importCsv_reportsEveryRowAndBatchesTheWrites() {
+        String csv = """
+                name,type,stock,id
+                ,INGREDIENT,5.5,2
+                "Harina, 000",ingredient,12.25,
+                ,PRODUCT,20,10
+                Azúcar,INGREDIENT,3,
+                ,PRODUCT,2.5,10
+                ,BEBIDA,1,10
+                """;
+
+        StockImportReport report = service(500).importStock(input(csv), StockImportFormat.CSV);
+
+        assertEquals(6, report.total());
+        assertEquals(3, report.applied());
+        assertEquals(3, report.rejected());
+        List<StockImportRowResult> rows = report.rows();
+        assertEquals(StockImportStatus.APPLIED, rows.get(0).status());
+        assertEquals(0, new BigDecimal("10").compareTo(rows.get(0).previousStock()));
+        assertEquals(1L, rows.get(1).id());
+        assertEquals(StockImportStatus.REJECTED, rows.get(3).status());
+        assertEquals("Ingrediente no encontrado: Azúcar", rows.get(3).error());
+        assertEquals("El stock del producto debe ser un número entero", rows.get(4).error());
+        assertEquals(7, rows.get(5).line());
+
+        assertEquals(2, batch(INGREDIENT_UPDATE).size());
+        assertEquals(1, batch(PRODUCT_UPDATE).size());
+        verify(stockLedgerService).overwrite(StockKey.ingredient(1L), new BigDecimal("12.250"));
+        verify(stockLedgerService).overwrite(StockKey.simpleProduct(10L), BigDecimal.valueOf(20));
+        verify(propagationService).propagate(Set.of(2L, 1L), Set.of(10L));
+    }
+
+    @Test
+    void importNdjson_appliesAndPropagatesEachChunk() {
+        String ndjson = """
+                {"type":"INGREDIENT","id":1,"stock":3.125}
+                {"type":"INGREDIENT","id":1,"stock":4}
+                not json
+                {"type":"PRODUCT","name":"Agua","stock":7}
+                {"type":"INGREDIENT","name":"Tomate"}
+                """;
+
+        StockImportReport report = service(2).importStock(input(ndjson), StockImportFormat.NDJSON);
+
+        assertEquals(3, report.applied());
+        // The repeated row sees the stock written by the previous one
+        assertEquals(0, new BigDecimal("3.125").compareTo(report.rows().get(1).previousStock()));
+        assertEquals("JSON inválido", report.rows().get(2).error());
+        assertEquals("El stock es obligatorio", report.rows().get(4).error());
+
+        List<Object[]> audits = batch("INSERT INTO ingredient_audit_log (ingredient_name, operation, modified_at, "
+                + "amount_delta) VALUES (?, ?, ?, ?)");
+        assertEquals(0, new BigDecimal("1.125").compareTo((BigDecimal) audits.get(0)[3]));
+        assertEquals(0, new BigDecimal("0.875").compareTo((BigDecimal) audits.get(1)[3]));
+
+        // Three chunks, each propagated in its own transaction; the last one applied nothing
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(propagationService).propagate(Set.of(1L), Set.of());
+        verify(propagationService).propagate(Set.of(), Set.of(10L));
+        verifyNoMoreInteractions(propagationService);
+    }
+
+    @Test
+    void importCsv_keepsTheChunksPropagatedBeforeAFailedOne() {
+        doThrow(new IllegalStateException("boom")).when(jdbcTemplate).batchUpdate(eq(PRODUCT_UPDATE), anyList());
+        String csv = """
+                name,type,stock,id
+                ,INGREDIENT,5,2
+                ,PRODUCT,20,10
+                """;
+
+        StockImportReport report = service(1).importStock(input(csv), StockImportFormat.CSV);
+
+        assertEquals(1, report.applied());
+        assertEquals("No se pudo aplicar el lote", report.rows().get(1).error());
+        verify(propagationService).propagate(Set.of(2L), Set.of());
+        verifyNoMoreInteractions(propagationService);
+    }
+
+    @Test
+    void importCsv_rejectsAHeaderWithoutTheRequiredColumns() {
+        StockImportService service = service(500);
+
+        assertThrows(InvalidStockImportException.class,
+                () -> service.importStock(input("id,stock\n1,5\n"), StockImportFormat.CSV));
+        verifyNoInteractions(propagationService);
+    }
+}
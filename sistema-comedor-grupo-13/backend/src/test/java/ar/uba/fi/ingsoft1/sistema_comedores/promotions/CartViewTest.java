@@ -0,0 +1,214 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartViewTest {
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    private static Product product(String name, String price, ProductCategory category) {
+        return new SimpleProduct(name, "", new BigDecimal(price), category, true, 100);
+    }
+
+    @Test
+    void of_groupsUnitsAndPricesByCategory() {
+        Map<Product, Integer> cart = new HashMap<>();
+        cart.put(product("Flan", "120.50", ProductCategory.DESSERT), 2);
+        cart.put(product("Helado", "80.00", ProductCategory.DESSERT), 3);
+        cart.put(product("Agua", "60.00", ProductCategory.DRINK), 1);
+
+        CartView view = CartView.of(cart);
+
+        assertEquals(5, view.units(ProductCategory.DESSERT));
+        assertEquals(1, view.units(ProductCategory.DRINK));
+        assertEquals(0, view.units(ProductCategory.PIZZA));
+        assertTrue(view.contains(ProductCategory.DRINK));
+        assertFalse(view.contains(ProductCategory.PIZZA));
+        assertEquals(48_100, view.subtotalCents(ProductCategory.DESSERT));
+        assertEquals(54_100, view.totalCents());
+        // Three units at 80.00 and one at 120.50
+        assertEquals(36_050, view.cheapestUnitsCents(ProductCategory.DESSERT, 4));
+        assertEquals(48_100, view.cheapestUnitsCents(ProductCategory.DESSERT, 10));
+        assertEquals(0, view.cheapestUnitsCents(ProductCategory.PIZZA, 2));
+    }
+
+    @Test
+    void promotions_matchTheStreamingEvaluationOnRandomCarts() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            Map<Product, Integer> cart = randomCart(random, 1 + random.nextInt(12));
+            CartView view = CartView.of(cart);
+            for (Promotion promotion : randomPromotions(random, 20)) {
+                assertEquals(referenceAppliesTo(promotion, cart), promotion.appliesTo(view), promotion.getName());
+                assertEquals(0, referenceDiscount(promotion, cart).compareTo(promotion.calculateDiscount(view)),
+                        promotion.getName());
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_cartViewComparedWithStreamingEvaluation() {
+        Random random = new Random(42);
+        int carts = 200;
+        List<Map<Product, Integer>> syntheticCarts = new ArrayList<>();
+        for (int i = 0; i < carts; i++) {
+            syntheticCarts.add(randomCart(random, 50));
+        }
+        List<Promotion> promotions = randomPromotions(random, 200);
+
+        // Warm-up so both paths are compiled before timing
+        for (int round = 0; round < 3; round++) {
+            evaluateStreaming(syntheticCarts, promotions);
+            evaluateCartView(syntheticCarts, promotions);
+        }
+
+        long streamingStart = System.nanoTime();
+        BigDecimal streamingTotal = evaluateStreaming(syntheticCarts, promotions);
+        long streamingNanos = System.nanoTime() - streamingStart;
+
+        long viewStart = System.nanoTime();
+        BigDecimal viewTotal = evaluateCartView(syntheticCarts, promotions);
+        long viewNanos = System.nanoTime() - viewStart;
+
+        assertEquals(0, streamingTotal.compareTo(viewTotal));
+        assertTrue(viewNanos < streamingNanos, "cart view " + viewNanos / carts + " ns/cart, "
+                + "streaming " + streamingNanos / carts + " ns/cart");
+    }
+
+    private BigDecimal evaluateStreaming(List<Map<Product, Integer>> carts, List<Promotion> promotions) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map<Product, Integer> cart : carts) {
+            for (Promotion promotion : promotions) {
+                if (referenceAppliesTo(promotion, cart)) {
+                    total = total.add(referenceDiscount(promotion, cart));
+                }
+            }
+        }
+        return total;
+    }
+
+    private BigDecimal evaluateCartView(List<Map<Product, Integer>> carts, List<Promotion> promotions) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map<Product, Integer> cart : carts) {
+            CartView view = CartView.of(cart);
+            for (Promotion promotion : promotions) {
+                if (promotion.appliesTo(view)) {
+                    total = total.add(promotion.calculateDiscount(view));
+                }
+            }
+        }
+        return total;
+    }
+
+    // Evaluation over the product map, as the promotions did before the cart view
+
+    private static boolean referenceAppliesTo(Promotion promotion, Map<Product, Integer> cart) {
+        if (promotion instanceof PercentageDiscount pd) {
+            return cart.keySet().stream().anyMatch(product -> product.getCategory() == pd.getCategory());
+        } else if (promotion instanceof BuyXPayY bxpy) {
+            return unitsOf(cart, bxpy.getCategory()) >= bxpy.getRequiredQuantity();
+        } else if (promotion instanceof BuyXGetY bxgy) {
+            return unitsOf(cart, bxgy.getRequiredCategory()) >= bxgy.getRequiredQuantity();
+        }
+        FixedDiscount fixed = (FixedDiscount) promotion;
+        return total(cart).compareTo(fixed.getMinimumPurchase()) >= 0;
+    }
+
+    private static BigDecimal referenceDiscount(Promotion promotion, Map<Product, Integer> cart) {
+        if (promotion instanceof PercentageDiscount pd) {
+            if (!referenceAppliesTo(pd, cart)) {
+                return BigDecimal.ZERO;
+            }
+            BigDecimal subtotal = cart.entrySet().stream()
+                    .filter(entry -> entry.getKey().getCategory() == pd.getCategory())
+                    .map(entry -> entry.getKey().getPrice().multiply(BigDecimal.valueOf(entry.getValue())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            return subtotal.multiply(BigDecimal.ONE.subtract(pd.getMultiplier()));
+        } else if (promotion instanceof BuyXPayY bxpy) {
+            int free = unitsOf(cart, bxpy.getCategory()) / bxpy.getRequiredQuantity()
+                    * (bxpy.getRequiredQuantity() - bxpy.getChargedQuantity());
+            return cheapest(cart, bxpy.getCategory(), free);
+        } else if (promotion instanceof BuyXGetY bxgy) {
+            int free = unitsOf(cart, bxgy.getRequiredCategory()) / bxgy.getRequiredQuantity() * bxgy.getFreeQuantity();
+            return cheapest(cart, bxgy.getFreeCategory(), free);
+        }
+        FixedDiscount fixed = (FixedDiscount) promotion;
+        return referenceAppliesTo(fixed, cart) ? fixed.getDiscountAmount() : BigDecimal.ZERO;
+    }
+
+    private static int unitsOf(Map<Product, Integer> cart, ProductCategory category) {
+        return cart.entrySet().stream()
+                .filter(entry -> entry.getKey().getCategory() == category)
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    private static BigDecimal total(Map<Product, Integer> cart) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Product, Integer> entry : cart.entrySet()) {
+            total = total.add(entry.getKey().getPrice().multiply(BigDecimal.valueOf(entry.getValue())));
+        }
+        return total;
+    }
+
+    private static BigDecimal cheapest(Map<Product, Integer> cart, ProductCategory category, int units) {
+        List<Map.Entry<Product, Integer>> lines = cart.entrySet().stream()
+                .filter(entry -> entry.getKey().getCategory() == category)
+                .sorted(Comparator.comparing(entry -> entry.getKey().getPrice()))
+                .toList();
+        BigDecimal discount = BigDecimal.ZERO;
+        int remaining = units;
+        for (Map.Entry<Product, Integer> entry : lines) {
+            if (remaining == 0) break;
+            int quantity = Math.min(remaining, entry.getValue());
+            discount = discount.add(entry.getKey().getPrice().multiply(BigDecimal.valueOf(quantity)));
+            remaining -= quantity;
+        }
+        return discount;
+    }
+
+    private static List<Promotion> randomPromotions(Random random, int count) {
+        List<Promotion> promotions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ProductCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String name = "Promo " + i;
+            promotions.add(switch (random.nextInt(4)) {
+                case 0 -> new PercentageDiscount(name, "", true, null, null, Set.of(), Set.of(),
+                        category, 10 + random.nextInt(5) * 10);
+                case 1 -> new BuyXPayY(name, "", true, null, null, Set.of(), Set.of(),
+                        category, 2 + random.nextInt(2), 1 + random.nextInt(2));
+                case 2 -> new BuyXGetY(name, "", true, null, null, Set.of(), Set.of(),
+                        category, CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(3), 1);
+                default -> new FixedDiscount(name, "", true, null, null, Set.of(), Set.of(),
+                        new BigDecimal(500 + random.nextInt(20) * 250), new BigDecimal("100.00"));
+            });
+        }
+        return promotions;
+    }
+
+    private static Map<Product, Integer> randomCart(Random random, int lines) {
+        Map<Product, Integer> cart = new HashMap<>();
+        for (int i = 0; i < lines; i++) {
+            ProductCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String price = (50 + random.nextInt(40) * 25) + "." + (10 + random.nextInt(90));
+            cart.put(product("Producto " + i, price, category), 1 + random.nextInt(4));
+        }
+        return cart;
+    }
+}
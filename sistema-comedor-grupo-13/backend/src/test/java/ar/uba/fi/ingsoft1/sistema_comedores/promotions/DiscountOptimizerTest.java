@@ -0,0 +1,166 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DiscountOptimizer.PromotionCombination;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountOptimizerTest {
+
+    private static final ProductCategory[] CATEGORIES = {
+            ProductCategory.DESSERT, ProductCategory.DRINK, ProductCategory.COFFEE,
+            ProductCategory.PIZZA, ProductCategory.SALAD, ProductCategory.SIDE_DISH
+    };
+
+    private final BuyXGetY dessertWithFreeDrink = new BuyXGetY("Postre con bebida gratis", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.DESSERT, ProductCategory.DRINK, 1, 1);
+    private final BuyXPayY dessertThreeForTwo = new BuyXPayY("3x2 en Postres", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.DESSERT, 3, 2);
+    private final PercentageDiscount halfPriceDrinks = new PercentageDiscount("50% en Bebidas", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.DRINK, 50);
+
+    private static Product product(String name, String price, ProductCategory category) {
+        return new SimpleProduct(name, "", new BigDecimal(price), category, true, 100);
+    }
+
+    private Map<Product, Integer> dessertAndDrinkCart() {
+        Map<Product, Integer> cart = new HashMap<>();
+        cart.put(product("Flan", "100.00", ProductCategory.DESSERT), 3);
+        cart.put(product("Agua", "60.00", ProductCategory.DRINK), 2);
+        return cart;
+    }
+
+    @Test
+    void getBestPromotions_prefersDisjointPromotionsOverTheLargestSingleOne() {
+        Set<Promotion> promotions = Set.of(dessertWithFreeDrink, dessertThreeForTwo, halfPriceDrinks);
+        DiscountOptimizer optimizer = new DiscountOptimizer(promotions, dessertAndDrinkCart());
+
+        // Greedy claims desserts and drinks for the 120 of the free drinks and stops there
+        PromotionCombination greedy = optimizer.getGreedyPromotions();
+        assertEquals(0, new BigDecimal("120").compareTo(greedy.discount()));
+        assertEquals(Set.of(dessertWithFreeDrink), greedy.promotions().keySet());
+
+        PromotionCombination best = optimizer.getBestPromotions();
+        assertEquals(0, new BigDecimal("160").compareTo(best.discount()));
+        assertEquals(Set.of(dessertThreeForTwo, halfPriceDrinks), best.promotions().keySet());
+        assertEquals(0, new BigDecimal("100").compareTo(best.promotions().get(dessertThreeForTwo)));
+        assertEquals(0, new BigDecimal("60").compareTo(best.promotions().get(halfPriceDrinks)));
+    }
+
+    @Test
+    void getBestPromotions_addsOrderLevelPromotionsOnTop() {
+        FixedDiscount fixed = new FixedDiscount("$50 off", "", true, null, null, Set.of(), Set.of(),
+                new BigDecimal("300"), new BigDecimal("50"));
+        Set<Promotion> promotions = Set.of(dessertWithFreeDrink, dessertThreeForTwo, halfPriceDrinks, fixed);
+
+        PromotionCombination best = new DiscountOptimizer(promotions, dessertAndDrinkCart()).getBestPromotions();
+
+        assertEquals(0, new BigDecimal("210").compareTo(best.discount()));
+        assertEquals(Set.of(dessertThreeForTwo, halfPriceDrinks, fixed), best.promotions().keySet());
+    }
+
+    @Test
+    void getBestPromotions_fallsBackToGreedyWhenTheBudgetIsExhausted() {
+        Set<Promotion> promotions = Set.of(dessertWithFreeDrink, dessertThreeForTwo, halfPriceDrinks);
+
+        PromotionCombination best = new DiscountOptimizer(promotions, dessertAndDrinkCart(), Duration.ZERO)
+                .getBestPromotions();
+
+        assertEquals(0, new BigDecimal("120").compareTo(best.discount()));
+        assertEquals(Set.of(dessertWithFreeDrink), best.promotions().keySet());
+    }
+
+    @Test
+    void getBestPromotions_withoutApplicablePromotionsIsEmpty() {
+        PromotionCombination best = new DiscountOptimizer(Set.of(halfPriceDrinks),
+                Map.of(product("Flan", "100.00", ProductCategory.DESSERT), 1)).getBestPromotions();
+
+        assertTrue(best.promotions().isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(best.discount()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_exactSearchComparedWithGreedyOnSyntheticCarts() {
+        Random random = new Random(42);
+        int carts = 2_000;
+        List<Set<Promotion>> catalogs = new ArrayList<>();
+        List<Map<Product, Integer>> syntheticCarts = new ArrayList<>();
+        for (int i = 0; i < carts; i++) {
+            catalogs.add(randomPromotions(random));
+            syntheticCarts.add(randomCart(random));
+        }
+
+        BigDecimal greedyTotal = BigDecimal.ZERO;
+        long greedyStart = System.nanoTime();
+        for (int i = 0; i < carts; i++) {
+            greedyTotal = greedyTotal.add(
+                    new DiscountOptimizer(catalogs.get(i), syntheticCarts.get(i)).getGreedyPromotions().discount());
+        }
+        long greedyNanos = System.nanoTime() - greedyStart;
+
+        BigDecimal exactTotal = BigDecimal.ZERO;
+        int improved = 0;
+        long exactNanos = 0;
+        for (int i = 0; i < carts; i++) {
+            DiscountOptimizer optimizer = new DiscountOptimizer(catalogs.get(i), syntheticCarts.get(i));
+            long start = System.nanoTime();
+            BigDecimal exact = optimizer.getBestPromotions().discount();
+            exactNanos += System.nanoTime() - start;
+
+            BigDecimal greedy = optimizer.getGreedyPromotions().discount();
+            assertTrue(exact.compareTo(greedy) >= 0, "exact search lost against greedy on cart " + i);
+            if (exact.compareTo(greedy) > 0) {
+                improved++;
+            }
+            exactTotal = exactTotal.add(exact);
+        }
+
+        assertTrue(exactTotal.compareTo(greedyTotal) >= 0);
+        assertTrue(improved > 0, "exact search better on " + improved + " carts, greedy "
+                + greedyNanos / carts + " ns/cart, exact " + exactNanos / carts + " ns/cart");
+    }
+
+    private Set<Promotion> randomPromotions(Random random) {
+        Set<Promotion> promotions = new HashSet<>();
+        int count = 3 + random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            ProductCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String name = "Promo " + i;
+            promotions.add(switch (random.nextInt(3)) {
+                case 0 -> new PercentageDiscount(name, "", true, null, null, Set.of(), Set.of(),
+                        category, 10 + random.nextInt(5) * 10);
+                case 1 -> new BuyXPayY(name, "", true, null, null, Set.of(), Set.of(),
+                        category, 2 + random.nextInt(2), 1 + random.nextInt(2));
+                default -> new BuyXGetY(name, "", true, null, null, Set.of(), Set.of(),
+                        category, CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(2), 1);
+            });
+        }
+        return promotions;
+    }
+
+    private Map<Product, Integer> randomCart(Random random) {
+        Map<Product, Integer> cart = new HashMap<>();
+        int lines = 2 + random.nextInt(7);
+        for (int i = 0; i < lines; i++) {
+            ProductCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String price = (50 + random.nextInt(20) * 25) + ".00";
+            cart.put(product("Producto " + i, price, category), 1 + random.nextInt(4));
+        }
+        return cart;
+    }
+}
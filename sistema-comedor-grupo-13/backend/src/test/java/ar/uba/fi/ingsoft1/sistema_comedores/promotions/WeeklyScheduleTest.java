@@ -0,0 +1,144 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyScheduleTest {
+
+    // A Monday
+    private static final LocalDate WEEK_START = LocalDate.of(2025, 6, 2);
+
+    @Test
+    void of_withoutDaysOrHoursIsAlwaysActive() {
+        assertSame(WeeklySchedule.ALWAYS, WeeklySchedule.of(Set.of(), Set.of()));
+        assertTrue(WeeklySchedule.ALWAYS.isActiveAt(0));
+        assertTrue(WeeklySchedule.ALWAYS.isActiveAt(WeeklySchedule.MINUTES_PER_WEEK - 1));
+    }
+
+    @Test
+    void of_coversTheRangeUpToItsEndOnTheSelectedDays() {
+        WeeklySchedule schedule = WeeklySchedule.of(Set.of(DayOfWeek.FRIDAY),
+                Set.of(new TimeRange(LocalTime.of(12, 0), LocalTime.of(14, 30))));
+
+        LocalDate friday = WEEK_START.plusDays(4);
+        assertFalse(schedule.isActiveAt(friday.atTime(11, 59)));
+        assertTrue(schedule.isActiveAt(friday.atTime(12, 0)));
+        assertTrue(schedule.isActiveAt(friday.atTime(14, 29, 59)));
+        assertFalse(schedule.isActiveAt(friday.atTime(14, 30, 30)));
+        assertFalse(schedule.isActiveAt(friday.minusDays(1).atTime(13, 0)));
+    }
+
+    @Test
+    void of_wrapsOvernightRangesWithinTheSameDay() {
+        WeeklySchedule schedule = WeeklySchedule.of(Set.of(DayOfWeek.SUNDAY),
+                Set.of(new TimeRange(LocalTime.of(22, 0), LocalTime.of(2, 0))));
+
+        LocalDate sunday = WEEK_START.plusDays(6);
+        assertTrue(schedule.isActiveAt(sunday.atTime(1, 0)));
+        assertTrue(schedule.isActiveAt(sunday.atTime(23, 59)));
+        assertFalse(schedule.isActiveAt(sunday.atTime(12, 0)));
+        assertFalse(schedule.isActiveAt(WEEK_START.atTime(1, 0)));
+    }
+
+    @Test
+    void isActiveAt_leavesOutTheMinuteARangeEndsOn() {
+        TimeRange range = new TimeRange(LocalTime.of(10, 0), LocalTime.of(14, 0));
+        WeeklySchedule schedule = WeeklySchedule.of(Set.of(), Set.of(range));
+
+        for (LocalTime time : new LocalTime[]{LocalTime.of(9, 59, 59), LocalTime.of(10, 0), LocalTime.of(10, 0, 30),
+                LocalTime.of(13, 59, 59), LocalTime.of(14, 0, 30), LocalTime.of(14, 0, 59)}) {
+            assertEquals(range.contains(time), schedule.isActiveAt(WEEK_START.atTime(time)), "at " + time);
+        }
+    }
+
+    @Test
+    void isActiveAt_followsTheSecondsOfTheRangeEnds() {
+        WeeklySchedule schedule = WeeklySchedule.of(Set.of(),
+                Set.of(new TimeRange(LocalTime.of(10, 0, 30), LocalTime.of(14, 0, 30))));
+
+        assertTrue(schedule.isActiveAt(WEEK_START.atTime(10, 0, 45)));
+        assertTrue(schedule.isActiveAt(WEEK_START.atTime(14, 0, 15)));
+        assertFalse(schedule.isActiveAt(WEEK_START.atTime(14, 1)));
+        assertFalse(schedule.isActiveAt(WEEK_START.atTime(9, 59, 59)));
+    }
+
+    @Test
+    void isActiveAt_matchesTheTimeRangeCheckAtEverySecondOutsideTheBoundaryMinutes() {
+        Random random = new Random(11);
+        for (int sample = 0; sample < 20; sample++) {
+            TimeRange range = new TimeRange(randomTime(random), randomTime(random));
+            WeeklySchedule schedule = WeeklySchedule.of(Set.of(), Set.of(range));
+
+            for (int minute = 0; minute < WeeklySchedule.MINUTES_PER_DAY; minute++) {
+                LocalTime minuteStart = LocalTime.MIN.plusMinutes(minute);
+                boolean active = schedule.isActiveAt(WEEK_START.atTime(minuteStart));
+                boolean boundary = endsWithinMinute(range.getStartTime(), minute)
+                        || endsWithinMinute(range.getEndTime(), minute);
+                boolean anyContained = false;
+                for (int second = 0; second < 60; second++) {
+                    LocalTime time = minuteStart.plusSeconds(second);
+                    if (time.equals(range.getEndTime())) {
+                        // The instant a range ends on the minute is left to the next minute
+                        continue;
+                    }
+                    boolean contained = range.contains(time);
+                    anyContained |= contained;
+                    assertEquals(active, schedule.isActiveAt(WEEK_START.atTime(time)), "range " + range + " at " + time);
+                    if (!boundary) {
+                        assertEquals(contained, active, "range " + range + " at " + time);
+                    }
+                }
+                assertEquals(anyContained, active, "range " + range + " in minute " + minuteStart);
+            }
+        }
+    }
+
+    @Test
+    void isActiveAt_matchesTheTimeRangeCheckForEveryMinuteOfTheWeek() {
+        Random random = new Random(7);
+        for (int sample = 0; sample < 50; sample++) {
+            Set<DayOfWeek> days = new HashSet<>();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (random.nextInt(3) == 0) {
+                    days.add(day);
+                }
+            }
+            Set<TimeRange> hours = new HashSet<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                hours.add(new TimeRange(LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                        LocalTime.of(random.nextInt(24), random.nextInt(60))));
+            }
+
+            WeeklySchedule schedule = WeeklySchedule.of(days, hours);
+            for (int minute = 0; minute < WeeklySchedule.MINUTES_PER_WEEK; minute++) {
+                // Mid-minute, so the instant a range ends on the minute is not what is compared
+                LocalDateTime at = WEEK_START.atStartOfDay().plusMinutes(minute).plusSeconds(30);
+                assertEquals(matchesDaysAndHours(days, hours, at), schedule.isActiveAt(minute),
+                        "days " + days + ", hours " + hours + " at " + at);
+            }
+        }
+    }
+
+    private static boolean matchesDaysAndHours(Set<DayOfWeek> days, Set<TimeRange> hours, LocalDateTime at) {
+        if (!days.isEmpty() && !days.contains(DayOfWeek.valueOf(at.getDayOfWeek().name()))) {
+            return false;
+        }
+        return hours.isEmpty() || hours.stream().anyMatch(range -> range.contains(at.toLocalTime()));
+    }
+
+    private static LocalTime randomTime(Random random) {
+        return LocalTime.of(random.nextInt(24), random.nextInt(60), random.nextInt(2) == 0 ? 0 : random.nextInt(60));
+    }
+
+    private static boolean endsWithinMinute(LocalTime time, int minute) {
+        return time.getHour() * 60 + time.getMinute() == minute && time.getSecond() != 0;
+    }
+}
@@ -0,0 +1,197 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.catalog;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.products.Product;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.simple.SimpleProduct;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.BuyXGetY;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.BuyXPayY;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.DayOfWeek;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.FixedDiscount;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PercentageDiscount;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.Promotion;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.TimeRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PromotionCatalogRegistryTest {
+
+    // Monday 12:00 in Buenos Aires
+    private static final Instant NOON = Instant.parse("2025-06-02T15:00:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final PercentageDiscount dessertDiscount = new PercentageDiscount("20% en Postres", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.DESSERT, 20);
+    private final BuyXPayY drinkThreeForTwo = new BuyXPayY("3x2 en Bebidas", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.DRINK, 3, 2);
+    private final BuyXGetY pizzaWithFreeDrink = new BuyXGetY("Pizza con bebida", "", true, null, null,
+            Set.of(), Set.of(), ProductCategory.PIZZA, ProductCategory.DRINK, 1, 1);
+    private final FixedDiscount fixedDiscount = new FixedDiscount("$500 off", "", true, null, null,
+            Set.of(), Set.of(), new BigDecimal("5000"), new BigDecimal("500"));
+
+    private MutableClock clock;
+    private PromotionCatalogRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(promotionRepository.findByActiveTrue())
+                .thenReturn(List.of(dessertDiscount, drinkThreeForTwo, pizzaWithFreeDrink, fixedDiscount));
+        clock = new MutableClock(NOON);
+        registry = new PromotionCatalogRegistry(promotionRepository, transactionManager, clock);
+    }
+
+    private static Product product(ProductCategory category) {
+        return new SimpleProduct(category.name(), "", BigDecimal.TEN, category, true, 10);
+    }
+
+    @Test
+    void candidatesFor_onlyReturnsPromotionsTriggeredByTheCartCategories() {
+        PromotionCatalog catalog = registry.current();
+
+        assertEquals(Set.of(dessertDiscount, fixedDiscount),
+                catalog.candidatesFor(List.of(product(ProductCategory.DESSERT))));
+        // A drink alone does not trigger the pizza promotion, even if the drink would be free
+        assertEquals(Set.of(drinkThreeForTwo, fixedDiscount),
+                catalog.candidatesFor(List.of(product(ProductCategory.DRINK))));
+        assertEquals(Set.of(drinkThreeForTwo, pizzaWithFreeDrink, fixedDiscount),
+                catalog.candidatesFor(List.of(product(ProductCategory.PIZZA), product(ProductCategory.DRINK))));
+    }
+
+    @Test
+    void current_excludesPromotionsOutsideTheirDateRange() {
+        dessertDiscount.setEndDate(TODAY.minusDays(1));
+        drinkThreeForTwo.setStartDate(TODAY.plusDays(1));
+        pizzaWithFreeDrink.setStartDate(TODAY);
+        pizzaWithFreeDrink.setEndDate(TODAY);
+
+        PromotionCatalog catalog = registry.current();
+
+        assertEquals(2, catalog.size());
+        assertEquals(TODAY, catalog.validOn());
+        assertTrue(catalog.byProductCategory(ProductCategory.DESSERT).isEmpty());
+        assertEquals(List.of(pizzaWithFreeDrink), catalog.byProductCategory(ProductCategory.PIZZA));
+    }
+
+    @Test
+    void current_servesTheSnapshotWithoutQueryingAgain() {
+        PromotionCatalog first = registry.current();
+        PromotionCatalog second = registry.current();
+
+        assertSame(first, second);
+        verify(promotionRepository, times(1)).findByActiveTrue();
+    }
+
+    @Test
+    void rebuildAfterCommit_publishesANewVersion() {
+        PromotionCatalog before = registry.current();
+        when(promotionRepository.findByActiveTrue()).thenReturn(List.of(fixedDiscount));
+
+        registry.rebuildAfterCommit();
+
+        PromotionCatalog after = registry.current();
+        assertTrue(after.version() > before.version());
+        assertEquals(Set.of(fixedDiscount), after.candidatesFor(List.of(product(ProductCategory.DESSERT))));
+    }
+
+    @Test
+    void current_rebuildsWhenTheDateRollsOver() {
+        dessertDiscount.setEndDate(TODAY);
+        assertEquals(1, registry.current().byProductCategory(ProductCategory.DESSERT).size());
+
+        // 00:05 of the next day in Buenos Aires
+        clock.set(Instant.parse("2025-06-03T03:05:00Z"));
+
+        PromotionCatalog catalog = registry.current();
+        assertEquals(TODAY.plusDays(1), catalog.validOn());
+        assertTrue(catalog.byProductCategory(ProductCategory.DESSERT).isEmpty());
+    }
+
+    @Test
+    void active_onlyIncludesPromotionsWithinTheirDaysAndHours() {
+        dessertDiscount.setApplicableDays(Set.of(DayOfWeek.MONDAY));
+        dessertDiscount.setApplicableHours(Set.of(new TimeRange(LocalTime.of(11, 0), LocalTime.of(12, 30))));
+        drinkThreeForTwo.setApplicableDays(Set.of(DayOfWeek.TUESDAY));
+
+        PromotionCatalog lunch = registry.active();
+        assertEquals(List.of(dessertDiscount), lunch.byProductCategory(ProductCategory.DESSERT));
+        assertTrue(lunch.byProductCategory(ProductCategory.DRINK).isEmpty());
+        assertEquals(List.of(fixedDiscount), lunch.orderLevel());
+
+        clock.set(NOON.plus(Duration.ofMinutes(31)));
+        assertTrue(registry.active().byProductCategory(ProductCategory.DESSERT).isEmpty());
+
+        // Tuesday 09:00
+        clock.set(Instant.parse("2025-06-03T12:00:00Z"));
+        assertEquals(List.of(drinkThreeForTwo), registry.active().byProductCategory(ProductCategory.DRINK));
+        verify(promotionRepository, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    void active_keepsThePublishedSnapshotWhileTheActiveSetDoesNotChange() {
+        PromotionCatalog first = registry.active();
+
+        clock.set(NOON.plus(Duration.ofMinutes(1)));
+        registry.tick();
+
+        assertSame(first, registry.active());
+        verify(promotionRepository, times(1)).findByActiveTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ar.uba.fi.ingsoft1.sistema_comedores.promotions.simulation;
+
+import ar.uba.fi.ingsoft1.sistema_comedores.orders.OrderRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategory;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductCategoryRow;
+import ar.uba.fi.ingsoft1.sistema_comedores.products.ProductRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PercentageDiscount;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.PromotionRepository;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.dto.BuyXPayYRequest;
+import ar.uba.fi.ingsoft1.sistema_comedores.promotions.exception.InvalidPromotionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PromotionSimulationServiceTest {
+
+    private static final long DESSERT = 1L;
+    private static final long DRINK = 2L;
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+    // Monday 12:00 in Buenos Aires
+    private static final Instant MONDAY_NOON = Instant.parse("2025-06-02T15:00:00Z");
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PromotionSimulationService simulationService;
+
+    private record Row(long orderNumber, Instant createdAt, long productId, BigDecimal unitPrice, int quantity)
+            implements OrderItemRow {
+        public Long getOrderNumber() { return orderNumber; }
+        public Instant getCreatedAt() { return createdAt; }
+        public Long getProductId() { return productId; }
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public Integer getQuantity() { return quantity; }
+    }
+
+    private record Category(Long getId, ProductCategory getCategory) implements ProductCategoryRow {}
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(productRepository.findAllCategories()).thenReturn(List.of(
+                new Category(DESSERT, ProductCategory.DESSERT), new Category(DRINK, ProductCategory.DRINK)));
+        when(promotionRepository.findByActiveTrue()).thenReturn(List.of(new PercentageDiscount(
+                "10% en Bebidas", "", true, null, null, Set.of(), Set.of(), ProductCategory.DRINK, 10)));
+        simulationService = new PromotionSimulationService(orderRepository, productRepository, promotionRepository,
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulationService.shutdown();
+    }
+
+    private static Row item(long orderNumber, Instant createdAt, long productId, String price, int quantity) {
+        return new Row(orderNumber, createdAt, productId, new BigDecimal(price), quantity);
+    }
+
+    private static PromotionSimulationRequest dessertThreeForTwo(LocalDate from, LocalDate to) {
+        return new PromotionSimulationRequest(new BuyXPayYRequest("3x2 en Postres", "", false, null, null,
+                null, null, ProductCategory.DESSERT, 3, 2), from, to);
+    }
+
+    @Test
+    void simulate_comparesTheDiscountsWithAndWithoutTheDraft() {
+        Instant tuesdayNoon = MONDAY_NOON.plus(Duration.ofDays(1));
+        when(orderRepository.streamItemsPlacedBetween(any(), any())).thenReturn(Stream.of(
+                item(1, MONDAY_NOON, DESSERT, "100", 3),
+                item(2, MONDAY_NOON, DESSERT, "100", 1),
+                item(2, MONDAY_NOON, DRINK, "50", 2),
+                item(3, tuesdayNoon, DESSERT, "100", 6),
+                item(3, tuesdayNoon, DRINK, "50", 1)));
+
+        PromotionSimulationResponse response = simulationService.simulate(dessertThreeForTwo(MONDAY, MONDAY.plusDays(1)));
+
+        assertEquals("3x2 en Postres", response.promotionName());
+        assertEquals(3, response.orders());
+        assertEquals(2, response.affectedOrders());
+        assertEquals(0, new BigDecimal("15").compareTo(response.currentDiscount()));
+        assertEquals(0, new BigDecimal("315").compareTo(response.simulatedDiscount()));
+        assertEquals(0, new BigDecimal("300").compareTo(response.additionalDiscount()));
+
+        assertEquals(2, response.days().size());
+        DailySimulationResponse monday = response.days().get(0);
+        assertEquals(MONDAY, monday.date());
+        assertEquals(2, monday.orders());
+        assertEquals(1, monday.affectedOrders());
+        assertEquals(0, new BigDecimal("100").compareTo(monday.additionalDiscount()));
+        DailySimulationResponse tuesday = response.days().get(1);
+        assertEquals(1, tuesday.orders());
+        assertEquals(0, new BigDecimal("200").compareTo(tuesday.additionalDiscount()));
+    }
+
+    @Test
+    void simulate_queriesTheWholeLocalDaysOfTheRange() {
+        when(orderRepository.streamItemsPlacedBetween(any(), any())).thenReturn(Stream.empty());
+
+        PromotionSimulationResponse response = simulationService.simulate(dessertThreeForTwo(MONDAY, MONDAY));
+
+        verify(orderRepository).streamItemsPlacedBetween(Instant.parse("2025-06-02T03:00:00Z"),
+                Instant.parse("2025-06-03T03:00:00Z"));
+        assertEquals(0, response.orders());
+        assertTrue(response.days().isEmpty());
+    }
+
+    @Test
+    void simulate_rejectsRangesThatEndBeforeTheyStart() {
+        assertThrows(InvalidPromotionException.class,
+                () -> simulationService.simulate(dessertThreeForTwo(MONDAY, MONDAY.minusDays(1))));
+    }
+
+    @Test
+    void simulate_streamsLargeRangesInChunks() {
+        int orders = 120_000;
+        when(orderRepository.streamItemsPlacedBetween(any(), any())).thenAnswer(invocation -> IntStream.range(0, orders)
+                .boxed()
+                .flatMap(i -> {
+                    Instant placedAt = MONDAY_NOON.plus(Duration.ofSeconds(20L * i));
+                    return Stream.of(item(i, placedAt, DESSERT, "100", 3), item(i, placedAt, DRINK, "50", 1));
+                }));
+
+        PromotionSimulationResponse response = simulationService.simulate(dessertThreeForTwo(MONDAY, MONDAY.plusDays(30)));
+
+        assertEquals(orders, response.orders());
+        assertEquals(orders, response.affectedOrders());
+        assertEquals(orders, response.days().stream().mapToLong(DailySimulationResponse::orders).sum());
+        assertEquals(0, new BigDecimal(100L * orders).compareTo(response.additionalDiscount()));
+    }
+}